@@ -1,23 +1,29 @@
 package org.muma.mini.redis;
 
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import org.muma.mini.redis.config.MiniRedisConfig;
 import org.muma.mini.redis.protocol.RespDecoder;
 import org.muma.mini.redis.protocol.RespEncoder;
+import org.muma.mini.redis.server.NettyTransport;
 import org.muma.mini.redis.server.RedisCommandHandler;
 import org.muma.mini.redis.server.RedisServerContext;
+import org.muma.mini.redis.server.RespMessageSizeEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 public class MiniRedisServer {
 
     private static final Logger log = LoggerFactory.getLogger(MiniRedisServer.class);
@@ -33,36 +39,39 @@ public class MiniRedisServer {
         RedisServerContext serverContext = new RedisServerContext(config);
         serverContext.init(); // 加载数据、启动后台线程
 
-        // 2. 启动网络层
-        EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-        EventLoopGroup workerGroup = new NioEventLoopGroup(); // 默认 CPU*2
+        // 2. 启动网络层 (按配置选择 NIO / Epoll / io_uring，不可用时自动降级)
+        NettyTransport transport = NettyTransport.resolve(config.getTransport());
+        ChannelOption<Boolean> reusePort = transport.reusePortOption();
+        int acceptors = reusePort != null ? Math.max(1, config.getReusePortAcceptors()) : 1;
+
+        EventLoopGroup bossGroup = transport.newEventLoopGroup(acceptors);
+        EventLoopGroup workerGroup = transport.newEventLoopGroup(config.getWorkerThreads()); // 0 = 默认 CPU*2
 
         try {
             ServerBootstrap b = new ServerBootstrap();
             b.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(transport.serverChannelClass())
                     .handler(new LoggingHandler(LogLevel.INFO))
                     .childOption(ChannelOption.TCP_NODELAY, true)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) {
-                            ch.pipeline()
-                                    .addLast(new RespDecoder())
-                                    .addLast(new RespEncoder())
-                                    // 这里的 handler 依然是每连接 new 一个，但传入单例组件
-                                    .addLast(new RedisCommandHandler(
-                                            serverContext.getDispatcher(),
-                                            serverContext.getCoreExecutor()
-                                    ));
-                        }
-                    });
-
-            log.info("Starting Mini-Redis server on port {}", port);
-            ChannelFuture future = b.bind(port).sync();
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(config))
+                    .childOption(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RespMessageSizeEstimator.INSTANCE)
+                    .childHandler(childInitializer(serverContext));
+            if (acceptors > 1) {
+                // 多个监听 Channel 绑定同一端口，内核负责把新连接分散到各个 acceptor
+                b.option(reusePort, true);
+            }
+
+            log.info("Starting Mini-Redis server on port {} ({} acceptor(s))", port, acceptors);
+            List<Channel> serverChannels = new ArrayList<>();
+            for (int i = 0; i < acceptors; i++) {
+                serverChannels.add(b.bind(port).sync().channel());
+            }
+
+            bindUnixSocket(transport, bossGroup, workerGroup, serverContext, config.getUnixSocket(), serverChannels);
             log.info("Mini-Redis started successfully.");
 
-            future.channel().closeFuture().sync();
+            serverChannels.get(0).closeFuture().sync();
         } catch (Exception e) {
             log.error("Failed to start server", e);
         } finally {
@@ -72,6 +81,59 @@ public class MiniRedisServer {
         }
     }
 
+    private ChannelInitializer<Channel> childInitializer(RedisServerContext serverContext) {
+        return new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline()
+                        .addLast(new RespDecoder())
+                        .addLast(new RespEncoder())
+                        // 这里的 handler 依然是每连接 new 一个，但传入单例组件
+                        .addLast(new RedisCommandHandler(
+                                serverContext.getDispatcher(),
+                                serverContext.getShardRouter(),
+                                serverContext.getClientRegistry()
+                        ));
+            }
+        };
+    }
+
+    private static WriteBufferWaterMark writeBufferWaterMark(MiniRedisConfig config) {
+        int high = Math.max(1, config.getWriteBufferHighWaterMark());
+        int low = Math.min(Math.max(0, config.getWriteBufferLowWaterMark()), high);
+        return new WriteBufferWaterMark(low, high);
+    }
+
+    /**
+     * 可选的 Unix Domain Socket 监听，供同机部署的客户端绕过 TCP 协议栈
+     */
+    private void bindUnixSocket(NettyTransport transport, EventLoopGroup bossGroup, EventLoopGroup workerGroup,
+                                RedisServerContext serverContext, String path,
+                                List<Channel> serverChannels) throws InterruptedException {
+        if (path == null || path.isEmpty()) return;
+
+        Class<? extends ServerChannel> channelClass = transport.domainSocketChannelClass();
+        if (channelClass == null) {
+            log.warn("Unix socket {} ignored: requires the EPOLL transport (current: {})", path, transport.getType());
+            return;
+        }
+
+        File socketFile = new File(path);
+        if (socketFile.exists() && !socketFile.delete()) {
+            log.warn("Failed to remove stale unix socket file: {}", path);
+        }
+
+        // TCP 专属选项 (TCP_NODELAY, SO_REUSEPORT) 对 UDS 无效，这里单独构建
+        ServerBootstrap b = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(channelClass)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(MiniRedisConfig.getInstance()))
+                .childOption(ChannelOption.MESSAGE_SIZE_ESTIMATOR, RespMessageSizeEstimator.INSTANCE)
+                .childHandler(childInitializer(serverContext));
+        serverChannels.add(b.bind(new DomainSocketAddress(socketFile)).sync().channel());
+        log.info("Listening on unix socket {}", path);
+    }
+
     public static void main(String[] args) throws InterruptedException {
         MiniRedisConfig config = MiniRedisConfig.getInstance();
 
@@ -9,7 +9,7 @@ import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
 import org.muma.mini.redis.protocol.RespDecoder;
 import org.muma.mini.redis.server.RedisContext;
-import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.Databases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,12 +28,12 @@ public class AofLoader {
 
     private final MiniRedisConfig config;
     private final CommandDispatcher dispatcher;
-    private final StorageEngine storage;
+    private final Databases databases;
 
-    public AofLoader(MiniRedisConfig config, CommandDispatcher dispatcher, StorageEngine storage) {
+    public AofLoader(MiniRedisConfig config, CommandDispatcher dispatcher, Databases databases) {
         this.config = config;
         this.dispatcher = dispatcher;
-        this.storage = storage;
+        this.databases = databases;
     }
 
     public void load() {
@@ -90,6 +90,11 @@ public class AofLoader {
         int count = 0;
         long lastLogTime = System.currentTimeMillis();
 
+        // 重放使用一个无连接的共享上下文 (nettyCtx 为 null)
+        // 每个文件从 0 号数据库开始，文件中的 SELECT 切换数据库 (AofManager 保证每个文件开头都有 SELECT)
+        RedisContext replayContext = new RedisContext(null);
+        replayContext.setLoading(true);
+
         RedisMessage msg;
         while ((msg = channel.readInbound()) != null) {
             if (msg instanceof RedisArray command) {
@@ -100,7 +105,7 @@ public class AofLoader {
                 // 3. Command 实现类必须兼容 ctx 为 null 的情况 (我们的设计已满足)。
 
                 try {
-                    dispatcher.dispatch(command, null);
+                    dispatcher.dispatch(command, replayContext);
                     count++;
 
                     // 【进度监控】每 10万 条 或 每 2秒 打印一次进度
@@ -1,13 +1,17 @@
 package org.muma.mini.redis.aof;
 
 import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.protocol.BulkString;
 import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.store.StorageEngine;
 import org.muma.mini.redis.utils.RespCodecUtil;
 import org.muma.mini.redis.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -20,15 +24,21 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * AOF 核心管理器 (Level 2)
  * 负责 Manifest 维护、文件轮转、Rewrite 状态机调度。
+ * <p>
+ * 【数据库编号】每条命令都带着它所属的数据库追加，与上一条不同时先写一条 SELECT (与 Redis 一样)；
+ * 每个新文件的第一条命令之前总会有 SELECT，各文件可以独立重放。
  */
 public class AofManager {
 
     private static final Logger log = LoggerFactory.getLogger(AofManager.class);
 
+    private static final RedisArray MULTI = new RedisArray(new RedisMessage[]{new BulkString("MULTI")});
+    private static final RedisArray EXEC = new RedisArray(new RedisMessage[]{new BulkString("EXEC")});
+
     private final MiniRedisConfig config;
     private final AofDiskWriter diskWriter;
     private final AofManifest manifest;
-    private final StorageEngine storage; // Rewrite 需要访问内存
+    private final Databases databases; // Rewrite 需要访问内存
 
     private long lastRewriteTime = 0;
     // Rewrite 专用单线程池
@@ -39,13 +49,26 @@ public class AofManager {
     // 状态标志位：防止并发 Rewrite
     private final AtomicBoolean isRewriting = new AtomicBoolean(false);
 
+    // EXEC 期间当前线程追加的命令先缓存在这里，事务结束后整体写成 MULTI ... EXEC
+    private final ThreadLocal<List<PendingCommand>> transactionBuffer = new ThreadLocal<>();
+
+    // 当前文件中最近一次 SELECT 的数据库，-1 表示还没有写过 (受 this 保护)
+    private int selectedDb = -1;
+
     // 统计数据：用于判断是否触发 Rewrite
     private long lastRewriteSize = 0;
     private long currentAofSize = 0;
 
+    private record PendingCommand(int db, RedisArray command) {
+    }
+
     public AofManager(MiniRedisConfig config, StorageEngine storage) {
+        this(config, new Databases(storage));
+    }
+
+    public AofManager(MiniRedisConfig config, Databases databases) {
         this.config = config;
-        this.storage = storage; // 需在 Server 启动时注入
+        this.databases = databases; // 需在 Server 启动时注入
         this.diskWriter = new AofDiskWriter(config);
         this.manifest = new AofManifest();
     }
@@ -88,24 +111,100 @@ public class AofManager {
     }
 
     /**
-     * 追加命令 (主线程调用)
+     * 追加 0 号数据库的命令
      */
     public void append(RedisArray command) {
+        append(0, command);
+    }
+
+    /**
+     * 追加命令 (核心线程调用；分片模式下多个分片线程并发调用)
+     *
+     * @param db 命令作用的数据库
+     */
+    public void append(int db, RedisArray command) {
         if (!config.isAppendOnly()) return;
 
+        List<PendingCommand> transaction = transactionBuffer.get();
+        if (transaction != null) {
+            transaction.add(new PendingCommand(db, command));
+            return;
+        }
         try {
-            byte[] bytes = RespCodecUtil.encode(command);
-            diskWriter.write(bytes);
+            write(db, RespCodecUtil.encode(command));
+        } catch (Exception e) {
+            log.error("Failed to append AOF", e);
+        }
+    }
 
-            // 更新统计并检查 Rewrite
-            currentAofSize += bytes.length;
-            checkRewrite();
+    /**
+     * EXEC 开始：之后当前线程追加的命令 (包括阻塞命令手动传播的等价命令) 先缓存
+     */
+    public void beginTransaction() {
+        if (!config.isAppendOnly()) return;
+        transactionBuffer.set(new ArrayList<>());
+    }
 
+    /**
+     * EXEC 结束：把事务内的写命令作为一个 MULTI ... EXEC 块一次性写入；没有写命令则什么也不写。
+     * 重放时整块经由 Dispatcher 重新入队、执行，块不完整 (如宕机截断) 的事务不会被部分重放。
+     */
+    public void endTransaction() {
+        List<PendingCommand> transaction = transactionBuffer.get();
+        if (transaction == null) return;
+        transactionBuffer.remove();
+        if (transaction.isEmpty()) return;
+
+        try {
+            writeTransaction(transaction);
         } catch (Exception e) {
-            log.error("Failed to append AOF", e);
+            log.error("Failed to append AOF transaction", e);
         }
     }
 
+    // 事务内 SELECT 过的话，块内也要切换数据库；块之前先切到第一条命令的数据库
+    private synchronized void writeTransaction(List<PendingCommand> transaction) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int db = transaction.get(0).db();
+        writeSelect(out, db);
+        out.writeBytes(RespCodecUtil.encode(MULTI));
+        for (PendingCommand pending : transaction) {
+            writeSelect(out, pending.db());
+            out.writeBytes(RespCodecUtil.encode(pending.command()));
+        }
+        out.writeBytes(RespCodecUtil.encode(EXEC));
+        write(out.toByteArray());
+    }
+
+    // 分片模式下多个分片线程并发写入，因此加锁 (SELECT 与命令必须连续写入)
+    private synchronized void write(int db, byte[] bytes) {
+        if (db != selectedDb) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 32);
+            writeSelect(out, db);
+            out.writeBytes(bytes);
+            bytes = out.toByteArray();
+        }
+        write(bytes);
+    }
+
+    private synchronized void write(byte[] bytes) {
+        diskWriter.write(bytes);
+
+        // 更新统计并检查 Rewrite
+        currentAofSize += bytes.length;
+        checkRewrite();
+    }
+
+    private void writeSelect(ByteArrayOutputStream out, int db) {
+        if (db == selectedDb) return;
+        out.writeBytes(RespCodecUtil.encode(selectCommand(db)));
+        selectedDb = db;
+    }
+
+    static RedisArray selectCommand(int db) {
+        return new RedisArray(new RedisMessage[]{new BulkString("SELECT"), new BulkString(String.valueOf(db))});
+    }
+
     // --- Rewrite 状态机 ---
 
     private void checkRewrite() {
@@ -189,6 +288,9 @@ public class AofManager {
         // open 方法内部会先 close 旧的
         diskWriter.open(filename);
 
+        // 新文件从头开始，第一条命令之前重新 SELECT
+        selectedDb = -1;
+
         // 2. 更新 Manifest (内存)
         manifest.addIncrAof(filename, newSeq);
 
@@ -228,7 +330,7 @@ public class AofManager {
 
             // 2. 执行快照 (Snapshot & Write)
             // 这一步最耗时，但不会阻塞主线程 (依赖 ConcurrentHashMap 的弱一致性迭代器)
-            AofRewriter rewriter = new AofRewriter(storage);
+            AofRewriter rewriter = new AofRewriter(databases);
             rewriter.rewrite(baseFile);
 
             // 3. 原子切换 (Atomic Switch)
@@ -5,6 +5,7 @@ import org.muma.mini.redis.config.MiniRedisConfig;
 import org.muma.mini.redis.protocol.BulkString;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.store.StorageEngine;
 import org.muma.mini.redis.utils.RespCodecUtil; // 之前写的工具类
 import org.slf4j.Logger;
@@ -14,6 +15,7 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
@@ -44,16 +46,17 @@ import java.util.Map;
 
 /**
  * AOF 重写引擎
- * 负责遍历 StorageEngine，将内存数据转换为 RESP 写命令，写入新的 Base AOF 文件。
+ * 负责遍历各数据库，将内存数据转换为 RESP 写命令，写入新的 Base AOF 文件。
+ * 每个非空数据库的数据之前写一条 SELECT，空数据库不出现在文件中。
  */
 public class AofRewriter {
 
     private static final Logger log = LoggerFactory.getLogger(AofRewriter.class);
 
-    private final StorageEngine storage;
+    private final Databases databases;
 
-    public AofRewriter(StorageEngine storage) {
-        this.storage = storage;
+    public AofRewriter(Databases databases) {
+        this.databases = databases;
     }
 
     /**
@@ -63,34 +66,32 @@ public class AofRewriter {
      */
     public void rewrite(File newBaseFile) throws IOException {
         long start = System.currentTimeMillis();
-        long count = 0;
+        long[] count = {0};
 
         // 使用 BufferedOutputStream 提高写入性能 (减少磁盘 IO 次数)
         try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(newBaseFile))) {
 
-            // 遍历所有 Key
-            // 注意：StorageEngine 必须提供 keys() 方法，且迭代器最好是弱一致性的 (ConcurrentHashMap)
-            for (String key : storage.keys()) {
-                RedisData<?> data = storage.get(key);
-
-                // 1. 过滤已过期或空数据
-                if (data == null || data.isExpired()) continue;
-
-                // 2. 转换为重建命令
-                RedisArray cmd = objectToCommand(key, data);
-                if (cmd != null) {
-                    // 3. 编码为 RESP 字节流
-                    byte[] bytes = RespCodecUtil.encode(cmd);
-                    bos.write(bytes);
-                    count++;
-
-                    // 4. 处理过期时间 (PEXPIREAT)
-                    // 如果 Key 有过期时间，需要追加一条 PEXPIREAT 命令
-                    if (data.getExpireAt() != -1) {
-                        RedisArray expireCmd = buildExpireCmd(key, data.getExpireAt());
-                        bos.write(RespCodecUtil.encode(expireCmd));
-                    }
+            // 遍历所有 Key (forEachEntry 已过滤过期数据，不修改键空间，可在后台线程调用)
+            try {
+                for (int db = 0; db < databases.size(); db++) {
+                    // 遇到该数据库的第一个 key 时才写 SELECT
+                    RedisArray select = AofManager.selectCommand(db);
+                    StorageEngine storage = databases.get(db);
+                    boolean[] selected = {false};
+                    storage.forEachEntry((key, data) -> {
+                        try {
+                            if (!selected[0]) {
+                                bos.write(RespCodecUtil.encode(select));
+                                selected[0] = true;
+                            }
+                            if (writeEntry(bos, storage, key, data)) count[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
                 }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
 
             bos.flush();
@@ -100,7 +101,32 @@ public class AofRewriter {
 
         long duration = System.currentTimeMillis() - start;
         log.info("AOF rewrite finished. Keys: {}, Size: {}, Duration: {} ms",
-                count, newBaseFile.length(), duration);
+                count[0], newBaseFile.length(), duration);
+    }
+
+    private boolean writeEntry(BufferedOutputStream bos, StorageEngine storage, String key, RedisData<?> data)
+            throws IOException {
+        // 1. 转换为重建命令
+        // 堆外的字符串可能在重写期间被覆盖或删除 (已归还 chunk)：重新读取 key 的当前值，key 已经不存在才跳过
+        RedisArray cmd = objectToCommand(key, data);
+        while (cmd == null && data.getType() == RedisDataType.STRING) {
+            data = storage.peekFromBackground(key);
+            if (data == null) return false;
+            cmd = objectToCommand(key, data);
+        }
+        if (cmd == null) return false;
+
+        // 2. 编码为 RESP 字节流
+        byte[] bytes = RespCodecUtil.encode(cmd);
+        bos.write(bytes);
+
+        // 3. 处理过期时间 (PEXPIREAT)
+        // 如果 Key 有过期时间，需要追加一条 PEXPIREAT 命令
+        if (data.getExpireAt() != -1) {
+            RedisArray expireCmd = buildExpireCmd(key, data.getExpireAt());
+            bos.write(RespCodecUtil.encode(expireCmd));
+        }
+        return true;
     }
 
     // --- 核心转换逻辑 ---
@@ -110,7 +136,9 @@ public class AofRewriter {
 
         switch (type) {
             case STRING:
-                return buildStringCmd(key, (byte[]) data.getData());
+                // 堆外的值可能在重写期间被覆盖或删除并归还，此时返回 null
+                byte[] value = data.tryGetBytes();
+                return value == null ? null : buildStringCmd(key, value);
             case LIST:
                 return buildListCmd(key, (RedisList) data.getData());
             case HASH:
@@ -1,6 +1,6 @@
 package org.muma.mini.redis.command;
 
-import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.FastThreadLocal;
 import org.muma.mini.redis.aof.AofManager;
 import org.muma.mini.redis.command.impl.bf.BfAddCommand;
 import org.muma.mini.redis.command.impl.bf.BfExistsCommand;
@@ -10,46 +10,96 @@ import org.muma.mini.redis.command.impl.key.*;
 import org.muma.mini.redis.command.impl.list.*;
 import org.muma.mini.redis.command.impl.replication.PsyncCommand;
 import org.muma.mini.redis.command.impl.replication.ReplConfCommand;
-import org.muma.mini.redis.command.impl.server.SlaveOfCommand;
+import org.muma.mini.redis.command.impl.server.*;
 import org.muma.mini.redis.command.impl.set.*;
 import org.muma.mini.redis.command.impl.string.*;
+import org.muma.mini.redis.command.impl.transaction.*;
 import org.muma.mini.redis.command.impl.zset.*;
+import org.muma.mini.redis.config.MiniRedisConfig;
 import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.DirectBulkString;
 import org.muma.mini.redis.protocol.ErrorMessage;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
 import org.muma.mini.redis.rdb.RdbManager;
 import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.KeyStripeLocks;
 import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.OptimisticReadView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
-
 /**
- *
+ * 命令分发器
+ * <p>
+ * 命令元数据 (arity、flags、key 位置) 登记在 {@link CommandTable} 中，
+ * 分发时直接用请求中的命令名字节查表，一步拿到实现和元数据。
+ * 命令在连接所选的数据库 (SELECT) 上执行，写命令连同数据库编号写入 AOF。
  */
 public class CommandDispatcher {
 
     private static final Logger log = LoggerFactory.getLogger(CommandDispatcher.class);
 
-    private final Map<String, RedisCommand> commandMap = new HashMap<>();
-    private final StorageEngine storage;
+    // 命令耗时超过 1ms 后刷新一次缓存时钟，同一批里后面的命令不会看到过旧的时间
+    private static final long CLOCK_REFRESH_NANOS = 1_000_000;
+
+    private static final ErrorMessage OOM_ERROR =
+            new ErrorMessage("OOM command not allowed when used memory > 'maxmemory'.");
+
+    private final CommandTable commandTable = new CommandTable();
+    private final Databases databases;
     private final AofManager aofManager; // 【新增】
 
 
     private final ReplicationManager replicationManager;
     private final RdbManager rdbManager;
+    private final ClientRegistry clientRegistry;
+    private final TrackingManager trackingManager;
+    private final WatchManager watchManager;
+
+    private final SlowLog slowLog = new SlowLog(MiniRedisConfig.getInstance().getSlowlogLogSlowerThan(),
+            MiniRedisConfig.getInstance().getSlowlogMaxLen());
+
+    // 只读命令是否可在 IO 线程上乐观执行 (需存储引擎已开启分段锁)
+    private boolean ioThreadReads = false;
+
+    // 每个 IO 线程一个只读视图 (每条命令执行前绑定到所选数据库)
+    private final FastThreadLocal<OptimisticReadView> readViews = new FastThreadLocal<>() {
+        @Override
+        protected OptimisticReadView initialValue() {
+            return new OptimisticReadView(databases.get(0));
+        }
+    };
 
+    /**
+     * 只有一个数据库 (SELECT 0 以外都超出范围)
+     */
     public CommandDispatcher(StorageEngine storage, AofManager aofManager,
-                             ReplicationManager replManager, RdbManager rdbManager) {
-        this.storage = storage;
+                             ReplicationManager replManager, RdbManager rdbManager,
+                             ClientRegistry clientRegistry, TrackingManager trackingManager,
+                             WatchManager watchManager) {
+        this(new Databases(storage), aofManager, replManager, rdbManager, clientRegistry, trackingManager,
+                watchManager);
+    }
+
+    public CommandDispatcher(Databases databases, AofManager aofManager,
+                             ReplicationManager replManager, RdbManager rdbManager,
+                             ClientRegistry clientRegistry, TrackingManager trackingManager,
+                             WatchManager watchManager) {
+        this.databases = databases;
         this.aofManager = aofManager;
         this.replicationManager = replManager;
         this.rdbManager = rdbManager;
+        this.clientRegistry = clientRegistry;
+        this.trackingManager = trackingManager;
+        this.watchManager = watchManager;
         initCommandRegistry();
     }
 
@@ -66,199 +116,417 @@ public class CommandDispatcher {
         registerSetCommands();
         registerBloomCommands();
         registerReplicationCommands();
+        registerServerCommands();
+        registerTransactionCommands();
+
+        commandTable.build();
+        log.info("CommandDispatcher initialized. Total commands registered: {}", commandTable.size());
+    }
 
-        log.info("CommandDispatcher initialized. Total commands registered: {}", commandMap.size());
+    /**
+     * 注册命令及其元数据
+     * 写命令的 write 标志由 {@link RedisCommand#isWrite()} 自动补上，保证 AOF 判定与实现一致；
+     * readonly 同理由 {@link RedisCommand#isReadOnly()} 补上
+     *
+     * @param arity  参数个数 (含命令名)，负数表示最少个数
+     * @param sflags 以空格分隔的标志，见 {@link CommandSpec#parseFlags(String)}
+     */
+    private void register(String name, RedisCommand command, int arity, String sflags,
+                          int firstKey, int lastKey, int keyStep) {
+        int flags = CommandSpec.parseFlags(sflags);
+        if (command.isWrite()) {
+            flags |= CommandSpec.FLAG_WRITE;
+        }
+        if (command.isReadOnly()) {
+            flags |= CommandSpec.FLAG_READONLY;
+        }
+        commandTable.register(new CommandSpec(name, command, arity, flags, firstKey, lastKey, keyStep));
     }
 
     private void registerSetCommands() {
 
-        commandMap.put("SADD", new SAddCommand());
-        commandMap.put("SCARD", new SCardCommand());
-        commandMap.put("SISMEMBER", new SIsMemberCommand());
+        register("SADD", new SAddCommand(), -3, "write denyoom fast", 1, 1, 1);
+        register("SCARD", new SCardCommand(), 2, "readonly fast", 1, 1, 1);
+        register("SISMEMBER", new SIsMemberCommand(), 3, "readonly fast", 1, 1, 1);
 
-        commandMap.put("SMEMBERS", new SMembersCommand());
-        commandMap.put("SPOP", new SPopCommand());
-        commandMap.put("SRANDMEMBER", new SRandMemberCommand());
-        commandMap.put("SREM", new SRemCommand());
+        register("SMEMBERS", new SMembersCommand(), 2, "readonly", 1, 1, 1);
+        register("SPOP", new SPopCommand(), -2, "write fast", 1, 1, 1);
+        register("SRANDMEMBER", new SRandMemberCommand(), -2, "readonly", 1, 1, 1);
+        register("SREM", new SRemCommand(), -3, "write fast", 1, 1, 1);
 
-        commandMap.put("SUNION", new SUnionCommand());
-        commandMap.put("SINTER", new SInterCommand());
-        commandMap.put("SDIFF", new SDiffCommand());
+        register("SUNION", new SUnionCommand(), -2, "readonly", 1, -1, 1);
+        register("SINTER", new SInterCommand(), -2, "readonly", 1, -1, 1);
+        register("SDIFF", new SDiffCommand(), -2, "readonly", 1, -1, 1);
 
-        commandMap.put("SMOVE", new SMoveCommand());
-        commandMap.put("SSCAN", new SScanCommand());
-        commandMap.put("SINTERCARD", new SInterCardCommand());
+        register("SMOVE", new SMoveCommand(), 4, "write fast", 1, 2, 1);
+        register("SSCAN", new SScanCommand(), -3, "readonly", 1, 1, 1);
+        // numkeys 决定 key 的个数 (movablekeys)，这里不登记 key 位置
+        register("SINTERCARD", new SInterCardCommand(), -3, "readonly movablekeys", 0, 0, 0);
     }
 
     private void registerListCommands() {
 
-        commandMap.put("LPOP", new LPopCommand());
-        commandMap.put("LPUSH", new LPushCommand());
-        commandMap.put("LPUSHX", new LPushXCommand());
+        register("LPOP", new LPopCommand(), -2, "write fast", 1, 1, 1);
+        register("LPUSH", new LPushCommand(), -3, "write denyoom fast", 1, 1, 1);
+        register("LPUSHX", new LPushXCommand(), -3, "write denyoom fast", 1, 1, 1);
 
-        commandMap.put("LINDEX", new LIndexCommand());
-        commandMap.put("LINSERT", new LInsertCommand());
-        commandMap.put("LLEN", new LLenCommand());
-        commandMap.put("LREM", new LRemCommand());
-        commandMap.put("LSET", new LSetCommand());
-        commandMap.put("LTRIM", new LTrimCommand());
-        commandMap.put("LRANGE", new LRangeCommand());
+        register("LINDEX", new LIndexCommand(), 3, "readonly", 1, 1, 1);
+        register("LINSERT", new LInsertCommand(), 5, "write denyoom", 1, 1, 1);
+        register("LLEN", new LLenCommand(), 2, "readonly fast", 1, 1, 1);
+        register("LREM", new LRemCommand(), 4, "write", 1, 1, 1);
+        register("LSET", new LSetCommand(), 4, "write denyoom", 1, 1, 1);
+        register("LTRIM", new LTrimCommand(), 4, "write", 1, 1, 1);
+        register("LRANGE", new LRangeCommand(), 4, "readonly", 1, 1, 1);
 
-        commandMap.put("RPOP", new RPopCommand());
-        commandMap.put("RPUSH", new RPushCommand());
-        commandMap.put("RPUSHX", new RPushXCommand());
+        register("RPOP", new RPopCommand(), -2, "write fast", 1, 1, 1);
+        register("RPUSH", new RPushCommand(), -3, "write denyoom fast", 1, 1, 1);
+        register("RPUSHX", new RPushXCommand(), -3, "write denyoom fast", 1, 1, 1);
 
-        // blocking
-        commandMap.put("BLPOP", new BLPopCommand());
-        commandMap.put("BRPOP", new BRPopCommand());
-        commandMap.put("BRPOPLPUSH", new BRPopLPushCommand());
+        // blocking (最后一个参数是 timeout)
+        register("BLPOP", new BLPopCommand(), -3, "write blocking", 1, -2, 1);
+        register("BRPOP", new BRPopCommand(), -3, "write blocking", 1, -2, 1);
+        register("BRPOPLPUSH", new BRPopLPushCommand(), 4, "write denyoom blocking", 1, 2, 1);
 
 
     }
 
     private void registerZsetCommands() {
-        commandMap.put("ZADD", new ZAddCommand());
-        commandMap.put("ZRANGE", new ZRangeCommand());
-        commandMap.put("ZSCORE", new ZScoreCommand());
-        commandMap.put("ZCOUNT", new ZCountCommand());
-        commandMap.put("ZRANGEBYSCORE", new ZRangeByScoreCommand());
-        commandMap.put("ZREVRANGE", new ZRevRangeCommand());
-        commandMap.put("ZSCAN", new ZScanCommand());
-        commandMap.put("ZINCRBY", new ZIncrByCommand());
-        commandMap.put("ZREMRANGEBYRANK", new ZRemRangeByRankCommand());
-        commandMap.put("ZREMRANGEBYSCORE", new ZRemRangeByScoreCommand());
-        commandMap.put("ZUNIONSTORE", new ZUnionStoreCommand());
-        commandMap.put("ZINTERSTORE", new ZInterStoreCommand());
+        register("ZADD", new ZAddCommand(), -4, "write denyoom fast", 1, 1, 1);
+        register("ZRANGE", new ZRangeCommand(), -4, "readonly", 1, 1, 1);
+        register("ZSCORE", new ZScoreCommand(), 3, "readonly fast", 1, 1, 1);
+        register("ZCOUNT", new ZCountCommand(), 4, "readonly fast", 1, 1, 1);
+        register("ZRANGEBYSCORE", new ZRangeByScoreCommand(), -4, "readonly", 1, 1, 1);
+        register("ZREVRANGE", new ZRevRangeCommand(), -4, "readonly", 1, 1, 1);
+        register("ZSCAN", new ZScanCommand(), -3, "readonly", 1, 1, 1);
+        register("ZINCRBY", new ZIncrByCommand(), 4, "write denyoom fast", 1, 1, 1);
+        register("ZREMRANGEBYRANK", new ZRemRangeByRankCommand(), 4, "write", 1, 1, 1);
+        register("ZREMRANGEBYSCORE", new ZRemRangeByScoreCommand(), 4, "write", 1, 1, 1);
+        // 源 key 个数由 numkeys 决定，这里只登记目标 key
+        register("ZUNIONSTORE", new ZUnionStoreCommand(), -4, "write denyoom movablekeys", 1, 1, 1);
+        register("ZINTERSTORE", new ZInterStoreCommand(), -4, "write denyoom movablekeys", 1, 1, 1);
 
 
     }
 
     private void registerGenericCommands() {
-        commandMap.put("DEL", new DelCommand());
-        commandMap.put("EXPIRE", new ExpireCommand());
+        register("DEL", new DelCommand(), -2, "write", 1, -1, 1);
+        // 摘除 key 本身就是 O(1)，值由 GC 回收，UNLINK 与 DEL 共用实现
+        register("UNLINK", new DelCommand(), -2, "write fast", 1, -1, 1);
+        register("EXPIRE", new ExpireCommand(), -3, "write fast", 1, 1, 1);
 
         // New
-        commandMap.put("EXISTS", new ExistsCommand());
-        commandMap.put("TTL", new TTLCommand());
-        commandMap.put("PTTL", new PTTLCommand());
+        register("EXISTS", new ExistsCommand(), -2, "readonly fast", 1, -1, 1);
+        register("TTL", new TTLCommand(), 2, "readonly fast", 1, 1, 1);
+        register("PTTL", new PTTLCommand(), 2, "readonly fast", 1, 1, 1);
+        register("SCAN", new ScanCommand(), -2, "readonly all_shards", 0, 0, 0);
+        register("MOVE", new MoveCommand(databases), 3, "write fast", 1, 1, 1);
+        // 无 key 的写命令，分片模式下在协调线程上执行
+        register("SWAPDB", new SwapDbCommand(databases, watchManager, trackingManager), 3, "write fast", 0, 0, 0);
     }
 
     private void registerBloomCommands() {
-        commandMap.put("BF.RESERVE", new BfReserveCommand());
-        commandMap.put("BF.ADD", new BfAddCommand());
-        commandMap.put("BF.EXISTS", new BfExistsCommand());
+        register("BF.RESERVE", new BfReserveCommand(), -4, "write denyoom", 1, 1, 1);
+        register("BF.ADD", new BfAddCommand(), 3, "write denyoom", 1, 1, 1);
+        register("BF.EXISTS", new BfExistsCommand(), 3, "readonly", 1, 1, 1);
     }
 
     // 需要注入 ReplicationManager 和 RdbManager
     // 构造函数可能需要调整
 
     private void registerReplicationCommands() {
-        commandMap.put("SLAVEOF", new SlaveOfCommand(replicationManager));
-        commandMap.put("REPLCONF", new ReplConfCommand());
-        commandMap.put("PSYNC", new PsyncCommand(replicationManager, rdbManager));
+        register("SLAVEOF", new SlaveOfCommand(replicationManager), 3, "admin", 0, 0, 0);
+        register("REPLCONF", new ReplConfCommand(), -1, "admin", 0, 0, 0);
+        register("PSYNC", new PsyncCommand(replicationManager, rdbManager), -3, "admin", 0, 0, 0);
+    }
+
+    private void registerServerCommands() {
+        register("PING", new PingCommand(), -1, "fast", 0, 0, 0);
+        register("ECHO", new EchoCommand(), 2, "fast", 0, 0, 0);
+        register("HELLO", new HelloCommand(), -1, "fast", 0, 0, 0);
+        register("CLIENT", new ClientCommand(clientRegistry, trackingManager), -2, "admin", 0, 0, 0);
+        register("SELECT", new SelectCommand(databases), 2, "fast", 0, 0, 0);
+        register("INFO", new InfoCommand(clientRegistry, commandTable, databases), -1, "", 0, 0, 0);
+        register("CONFIG", new ConfigCommand(commandTable), -2, "admin", 0, 0, 0);
+        register("SLOWLOG", new SlowlogCommand(slowLog), -2, "admin", 0, 0, 0);
+        register("COMMAND", new CommandCommand(commandTable), -1, "", 0, 0, 0);
+        register("FLUSHALL", new FlushCommand(databases, true), -1, "write", 0, 0, 0);
+        register("FLUSHDB", new FlushCommand(databases, false), -1, "write", 0, 0, 0);
+    }
+
+    private void registerTransactionCommands() {
+        register("MULTI", new MultiCommand(), 1, "fast no_multi", 0, 0, 0);
+        register("EXEC", new ExecCommand(this, watchManager, aofManager), 1, "no_multi", 0, 0, 0);
+        register("DISCARD", new DiscardCommand(watchManager), 1, "fast no_multi", 0, 0, 0);
+        register("WATCH", new WatchCommand(watchManager), -2, "fast no_multi", 1, -1, 1);
+        register("UNWATCH", new UnwatchCommand(watchManager), 1, "fast", 0, 0, 0);
     }
 
     private void registerStringCommands() {
-        commandMap.put("SET", new SetCommand());
-        commandMap.put("GETEX", new GetExCommand());
-        commandMap.put("GET", new GetCommand());
-        commandMap.put("INCR", new IncrCommand());
-        commandMap.put("MSET", new MSetCommand());
-        commandMap.put("MGET", new MGetCommand());
-        commandMap.put("SETNX", new SetNxCommand());
-        commandMap.put("DECRBY", new DecrByCommand());
-        commandMap.put("DECR", new DecrCommand());
-        commandMap.put("INCRBY", new IncrByCommand());
-        commandMap.put("GETBIT", new GetBitCommand());
-        commandMap.put("SETBIT", new SetBitCommand());
-        commandMap.put("BITCOUNT", new BitCountCommand());
-        commandMap.put("APPEND", new AppendCommand());
-        commandMap.put("STRLEN", new StrLenCommand());
-
-        commandMap.put("BITOP", new BitOpCommand());
-        commandMap.put("BITPOS", new BitPosCommand());
+        register("SET", new SetCommand(), -3, "write denyoom", 1, 1, 1);
+        register("GETEX", new GetExCommand(), -2, "write fast", 1, 1, 1);
+        register("GET", new GetCommand(), 2, "readonly fast", 1, 1, 1);
+        register("INCR", new IncrCommand(), 2, "write denyoom fast", 1, 1, 1);
+        register("MSET", new MSetCommand(), -3, "write denyoom", 1, -1, 2);
+        register("MGET", new MGetCommand(), -2, "readonly fast", 1, -1, 1);
+        register("SETNX", new SetNxCommand(), 3, "write denyoom fast", 1, 1, 1);
+        register("DECRBY", new DecrByCommand(), 3, "write denyoom fast", 1, 1, 1);
+        register("DECR", new DecrCommand(), 2, "write denyoom fast", 1, 1, 1);
+        register("INCRBY", new IncrByCommand(), 3, "write denyoom fast", 1, 1, 1);
+        register("GETBIT", new GetBitCommand(), 3, "readonly fast", 1, 1, 1);
+        register("SETBIT", new SetBitCommand(), 4, "write denyoom", 1, 1, 1);
+        register("BITCOUNT", new BitCountCommand(), -2, "readonly", 1, 1, 1);
+        register("APPEND", new AppendCommand(), 3, "write denyoom fast", 1, 1, 1);
+        register("STRLEN", new StrLenCommand(), 2, "readonly fast", 1, 1, 1);
+
+        register("BITOP", new BitOpCommand(), -4, "write denyoom", 2, -1, 1);
+        register("BITPOS", new BitPosCommand(), -3, "readonly", 1, 1, 1);
     }
 
     private void registerHashCommands() {
-        commandMap.put("HSET", new HSetCommand());
-        commandMap.put("HGET", new HGetCommand());
-        commandMap.put("HDEL", new HDelCommand());
-        commandMap.put("HGETALL", new HGetAllCommand());
+        register("HSET", new HSetCommand(), -4, "write denyoom fast", 1, 1, 1);
+        register("HGET", new HGetCommand(), 3, "readonly fast", 1, 1, 1);
+        register("HDEL", new HDelCommand(), -3, "write fast", 1, 1, 1);
+        register("HGETALL", new HGetAllCommand(), 2, "readonly", 1, 1, 1);
 
         // New
-        commandMap.put("HLEN", new HLenCommand());
-        commandMap.put("HEXISTS", new HExistsCommand());
-        commandMap.put("HINCRBY", new HIncrByCommand());
-        commandMap.put("HKEYS", new HKeysCommand());
-        commandMap.put("HVALS", new HValsCommand());
-        commandMap.put("HMGET", new HMGetCommand());
+        register("HLEN", new HLenCommand(), 2, "readonly fast", 1, 1, 1);
+        register("HEXISTS", new HExistsCommand(), 3, "readonly fast", 1, 1, 1);
+        register("HINCRBY", new HIncrByCommand(), 4, "write denyoom fast", 1, 1, 1);
+        register("HKEYS", new HKeysCommand(), 2, "readonly", 1, 1, 1);
+        register("HVALS", new HValsCommand(), 2, "readonly", 1, 1, 1);
+        register("HMGET", new HMGetCommand(), -3, "readonly fast", 1, 1, 1);
     }
 
+    public CommandTable getCommandTable() {
+        return commandTable;
+    }
+
+    public WatchManager getWatchManager() {
+        return watchManager;
+    }
+
+    public Databases getDatabases() {
+        return databases;
+    }
 
     /**
-     * 重载方法：用于 AOF 重放
-     * 从 RedisArray 中提取命令名并分发
+     * 开启 IO 线程只读执行 (调用前存储引擎必须已开启乐观读分段锁)
      */
-    public RedisMessage dispatch(RedisArray args, ChannelHandlerContext ctx) {
-        RedisMessage[] elements = args.elements();
-        if (elements == null || elements.length == 0) return null;
+    public void enableIoThreadReads() {
+        this.ioThreadReads = true;
+    }
 
-        if (!(elements[0] instanceof BulkString cmdNameBulk)) {
-            return new ErrorMessage("ERR protocol error: command name must be string");
+    public boolean isIoThreadReads() {
+        return ioThreadReads;
+    }
+
+    /**
+     * 在 IO 线程上直接执行纯读命令 ({@link RedisCommand#isReadOnly()})
+     * <p>
+     * 读取过程中核心线程可能正在修改同一个对象，读到的中间状态可能导致任意运行时异常，
+     * 因此异常与校验失败同样处理：丢弃结果，返回 null 让调用方把命令交给核心线程。
+     * 开启 CLIENT TRACKING 的连接不走这条路径 (读取与登记 key 之间不能插入写)；
+     * MULTI 中的命令需要入队，同样不走。
+     *
+     * @return 回包；null 表示需要交给核心线程执行
+     */
+    public RedisMessage tryExecuteOnIoThread(RedisArray args, RedisContext context) {
+        if (!ioThreadReads || context.isTrackingEnabled() || context.isInMulti()) return null;
+
+        RedisMessage[] elements = args.elements();
+        if (elements == null || elements.length == 0
+                || !(elements[0] instanceof BulkString name) || name.content() == null) {
+            return null;
         }
+        CommandSpec spec = commandTable.lookup(name.content());
+        if (spec == null || !spec.command().isReadOnly() || !spec.checkArity(elements.length)) return null;
 
-        String commandName = cmdNameBulk.asString().toUpperCase(Locale.ROOT);
-        return dispatch(commandName, args, ctx);
+        OptimisticReadView view = readViews.get();
+        view.bind(databases.get(context.getDbIndex()));
+        long startTime = System.nanoTime();
+        KeyStripeLocks.beginOptimisticRead();
+        ServerClock.beginCommand();
+        try {
+            RedisMessage response = spec.command().execute(view, args, context);
+            if (!view.validate()) {
+                // 读到的堆外值作废，回包持有的引用要还回去
+                if (response instanceof DirectBulkString direct) direct.owner().release();
+                return null;
+            }
+            // 回落到核心线程的不计入，由核心线程执行时统计
+            long duration = System.nanoTime() - startTime;
+            spec.stats().record(duration, response instanceof ErrorMessage);
+            if (slowLog.isSlow(duration)) {
+                slowLog.record(args, duration, context);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            return null;
+        } finally {
+            ServerClock.endCommand();
+            KeyStripeLocks.endOptimisticRead();
+            view.reset();
+        }
     }
 
     /**
-     * 核心分发逻辑
+     * 分发入口 (客户端请求与 AOF 重放共用)
+     * 直接用命令名的原始字节查表，热路径上不构造 String
      */
-    public RedisMessage dispatch(String commandName, RedisArray args, ChannelHandlerContext nettyCtx) {
-        // 1. 查找命令
-        String cmdUpper = commandName.toUpperCase(Locale.ROOT);
-        RedisCommand command = commandMap.get(cmdUpper);
+    public RedisMessage dispatch(RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        if (elements == null || elements.length == 0) return null;
 
-        if (command == null) {
+        if (!(elements[0] instanceof BulkString cmdNameBulk) || cmdNameBulk.content() == null) {
+            return new ErrorMessage("ERR protocol error: command name must be string");
+        }
+
+        // 1. 查找命令
+        CommandSpec spec = commandTable.lookup(cmdNameBulk.content());
+        if (spec == null) {
+            String commandName = cmdNameBulk.asString();
             log.warn("Command not found: {}", commandName);
+            abortTransaction(context);
             return new ErrorMessage("ERR unknown command '" + commandName + "'");
         }
 
-        // 2. 执行并监控耗时
-        long startTime = System.nanoTime();
-        try {
-            // 封装 Context
-            RedisContext context = new RedisContext(nettyCtx);
-            RedisMessage response = command.execute(storage, args, context);
-
-            // 记录慢日志 (比如超过 10ms)
-            long duration = (System.nanoTime() - startTime) / 1000_000; // ms
-            if (duration > 10) {
-                log.warn("Slow command detected: {} cost {}ms", commandName, duration);
-            } else if (log.isDebugEnabled()) {
-                log.debug("Command executed: {} cost {}ms", commandName, duration);
-            }
+        // 2. 参数个数校验 (由元数据统一完成)
+        if (!spec.checkArity(elements.length)) {
+            spec.stats().recordRejected();
+            abortTransaction(context);
+            return new ErrorMessage("ERR wrong number of arguments for '" + spec.lowerName() + "' command");
+        }
 
-            // 【核心 AOF 逻辑】
-            // 1. 命令标记为写操作
-            // 2. 执行没有报错 (不是 ErrorMessage)
-            // 3. AOF 开启中 (Manager 内部会判断)
-            // 4. 注意：这里 args 已经是 RedisArray，可以直接存
-            if (command.isWrite() && !(response instanceof ErrorMessage)) {
-                aofManager.append(args);
-            }
+        // 3. 事务中：入队，EXEC 时再执行
+        if (context != null && context.isInMulti() && !spec.hasFlag(CommandSpec.FLAG_NO_MULTI)) {
+            context.queueCommand(args);
+            return SimpleString.QUEUED;
+        }
 
-            return response;
+        return execute(spec, args, context);
+    }
 
+    // 入队阶段出错，EXEC 时整个事务放弃
+    private void abortTransaction(RedisContext context) {
+        if (context != null && context.isInMulti()) {
+            context.abortMulti();
+        }
+    }
+
+    /**
+     * 核心执行逻辑
+     */
+    private RedisMessage execute(CommandSpec spec, RedisArray args, RedisContext context) {
+        if (rejectedByMaxmemory(spec, context)) {
+            spec.stats().recordRejected();
+            return OOM_ERROR;
+        }
+
+        // 命令执行期间可能 SELECT，AOF 按执行前的数据库记录
+        int db = context != null ? context.getDbIndex() : 0;
+        StorageEngine storage = databases.get(db);
+
+        // 执行并监控耗时
+        long startTime = System.nanoTime();
+        RedisMessage response;
+        ServerClock.beginCommand();
+        try {
+            trackingManager.setCurrentClient(context);
+            response = executeInWriteScope(storage, spec, args, context);
         } catch (IllegalArgumentException | IllegalStateException e) {
             // 预期内的业务错误 (如参数错误、类型转换错误)
-            log.warn("Command execution failed (Client Error): {} - {}", commandName, e.getMessage());
-            return new ErrorMessage("ERR " + e.getMessage());
-
+            log.warn("Command execution failed (Client Error): {} - {}", spec.name(), e.getMessage());
+            response = new ErrorMessage("ERR " + e.getMessage());
         } catch (Exception e) {
             // 意料之外的系统错误 (如 NPE, IO Error)
-            log.error("Internal Server Error processing command: {}", commandName, e);
-            return new ErrorMessage("ERR internal server error");
+            log.error("Internal Server Error processing command: {}", spec.name(), e);
+            response = new ErrorMessage("ERR internal server error");
+        } finally {
+            ServerClock.endCommand();
+        }
+        long duration = System.nanoTime() - startTime;
+        if (duration >= CLOCK_REFRESH_NANOS) {
+            ServerClock.update();
+        }
+        boolean failed = response instanceof ErrorMessage;
+        spec.stats().record(duration, failed);
+
+        // 慢命令进 SLOWLOG 环形缓冲，不在核心线程上写日志
+        if (slowLog.isSlow(duration)) {
+            slowLog.record(args, duration, context);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Command executed: {} cost {}us", spec.name(), duration / 1000);
+        }
+        if (failed) {
+            return response;
+        }
+
+        // 【核心 AOF 逻辑】
+        // 1. 命令标记为写操作
+        // 2. 执行没有报错 (不是 ErrorMessage)
+        // 3. AOF 开启中 (Manager 内部会判断)
+        // 4. 注意：这里 args 已经是 RedisArray，可以直接存
+        if (spec.isWrite()) {
+            aofManager.append(db, args);
+        }
+
+        // 【CLIENT TRACKING】记住该连接读过的 key
+        if (context.isTrackingEnabled()) {
+            trackingManager.rememberKeys(context, spec, args);
+        }
+
+        return response;
+    }
+
+    /**
+     * maxmemory：执行任何命令前先按策略淘汰，仍然超出时拒绝可能增加内存的命令 (denyoom)，
+     * 读命令和删除类命令照常执行。AOF 重放不受限制 (与 Redis 加载数据时一样)
+     */
+    private boolean rejectedByMaxmemory(CommandSpec spec, RedisContext context) {
+        if (context != null && context.isLoading()) return false;
+        boolean withinLimit;
+        if (!ioThreadReads) {
+            withinLimit = databases.performEvictions();
+        } else {
+            KeyStripeLocks.beginWrite();
+            try {
+                withinLimit = databases.performEvictions();
+            } finally {
+                KeyStripeLocks.endWrite();
+            }
+        }
+        return !withinLimit && spec.hasFlag(CommandSpec.FLAG_DENYOOM);
+    }
+
+    // 开启 IO 线程只读执行时，核心线程上的每条命令都在写作用域内执行 (读命令也可能顺带整理结构，如 rehash)
+    private RedisMessage executeInWriteScope(StorageEngine storage, CommandSpec spec, RedisArray args,
+                                             RedisContext context) {
+        if (!ioThreadReads) {
+            return executeAndAccount(storage, spec, args, context);
+        }
+        KeyStripeLocks.beginWrite();
+        try {
+            return executeAndAccount(storage, spec, args, context);
+        } finally {
+            KeyStripeLocks.endWrite();
+        }
+    }
+
+    // 写命令执行后重新估算它声明的 key 的内存占用 (集合类型多是原地修改，不一定再经过 put)
+    private RedisMessage executeAndAccount(StorageEngine storage, CommandSpec spec, RedisArray args,
+                                          RedisContext context) {
+        try {
+            return spec.command().execute(storage, args, context);
+        } finally {
+            if (spec.isWrite() && spec.firstKey() > 0) {
+                RedisMessage[] elements = args.elements();
+                int last = spec.lastKey() < 0 ? elements.length + spec.lastKey() : spec.lastKey();
+                for (int i = spec.firstKey(); i <= last && i < elements.length; i += spec.keyStep()) {
+                    if (elements[i] instanceof BulkString key) {
+                        storage.refreshMemoryUsage(key.asString());
+                    }
+                }
+            }
         }
     }
 }
@@ -0,0 +1,92 @@
+package org.muma.mini.redis.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 命令元数据 (对应 Redis 的 redisCommand 结构)
+ *
+ * @param name     大写命令名
+ * @param command  命令实现
+ * @param arity    参数个数 (含命令名)：正数表示必须相等，负数表示至少 -arity 个
+ * @param flags    FLAG_* 位掩码
+ * @param firstKey 第一个 key 的参数下标 (0 表示没有 key)
+ * @param lastKey  最后一个 key 的下标，负数表示从末尾倒数 (-1 为最后一个参数)
+ * @param keyStep  key 之间的步长 (MSET 为 2)
+ * @param stats    执行统计 (INFO commandstats)，每个命令一份
+ */
+public record CommandSpec(String name, RedisCommand command, int arity, int flags,
+                          int firstKey, int lastKey, int keyStep, CommandStats stats) {
+
+    public CommandSpec(String name, RedisCommand command, int arity, int flags,
+                       int firstKey, int lastKey, int keyStep) {
+        this(name, command, arity, flags, firstKey, lastKey, keyStep, new CommandStats());
+    }
+
+    public static final int FLAG_WRITE = 1;
+    public static final int FLAG_READONLY = 1 << 1;
+    public static final int FLAG_DENYOOM = 1 << 2;
+    public static final int FLAG_ADMIN = 1 << 3;
+    public static final int FLAG_FAST = 1 << 4;
+    public static final int FLAG_BLOCKING = 1 << 5;
+    // key 的个数由参数决定 (如 numkeys)，firstKey/lastKey 不能完整描述 key 位置
+    public static final int FLAG_MOVABLEKEYS = 1 << 6;
+    // MULTI 期间不入队，立即执行 (MULTI / EXEC / DISCARD / WATCH 自己处理事务状态)
+    public static final int FLAG_NO_MULTI = 1 << 7;
+    // 没有 key 但要访问全部分片的键空间 (SCAN)，分片模式下交给协调线程
+    public static final int FLAG_ALL_SHARDS = 1 << 8;
+
+    private static final String[] FLAG_NAMES = {"write", "readonly", "denyoom", "admin", "fast", "blocking", "movablekeys",
+            "no_multi", "all_shards"};
+
+    /**
+     * 解析 "write denyoom fast" 形式的标志串 (与 Redis 命令表的 sflags 写法一致)
+     */
+    public static int parseFlags(String sflags) {
+        int flags = 0;
+        if (sflags == null || sflags.isBlank()) return flags;
+        for (String flag : sflags.trim().split("\\s+")) {
+            int bit = indexOfFlag(flag);
+            if (bit < 0) {
+                throw new IllegalArgumentException("Unknown command flag: " + flag);
+            }
+            flags |= 1 << bit;
+        }
+        return flags;
+    }
+
+    private static int indexOfFlag(String flag) {
+        for (int i = 0; i < FLAG_NAMES.length; i++) {
+            if (FLAG_NAMES[i].equalsIgnoreCase(flag)) return i;
+        }
+        return -1;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean isWrite() {
+        return hasFlag(FLAG_WRITE);
+    }
+
+    /**
+     * @param argc 参数个数 (含命令名)
+     */
+    public boolean checkArity(int argc) {
+        return arity > 0 ? argc == arity : argc >= -arity;
+    }
+
+    public List<String> flagNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < FLAG_NAMES.length; i++) {
+            if ((flags & (1 << i)) != 0) names.add(FLAG_NAMES[i]);
+        }
+        return names;
+    }
+
+    public String lowerName() {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
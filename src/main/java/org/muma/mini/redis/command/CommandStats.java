@@ -0,0 +1,63 @@
+package org.muma.mini.redis.command;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个命令的执行统计 (INFO commandstats / latencystats)
+ * <p>
+ * - calls：执行次数 (含执行出错的)
+ * - usec：执行总耗时 (内部按纳秒累加)
+ * - failed：执行了但返回错误
+ * - rejected：未执行就被拒绝 (如参数个数错误)
+ * <p>
+ * 计数器使用 LongAdder：分片线程、IO 线程同时更新同一个热点命令时也不会争用同一个缓存行。
+ */
+public final class CommandStats {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public void record(long durationNanos, boolean failed) {
+        calls.increment();
+        nanos.add(durationNanos);
+        histogram.record(durationNanos);
+        if (failed) {
+            this.failed.increment();
+        }
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getUsec() {
+        return nanos.sum() / 1000;
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public void reset() {
+        calls.reset();
+        nanos.reset();
+        failed.reset();
+        rejected.reset();
+        histogram.reset();
+    }
+}
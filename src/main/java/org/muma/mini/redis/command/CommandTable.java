@@ -0,0 +1,126 @@
+package org.muma.mini.redis.command;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 命令表：直接用请求里的原始字节做大小写无关的查找
+ * <p>
+ * 【为什么不用 HashMap&lt;String, RedisCommand&gt;】
+ * 旧实现每条命令都要 new String + toUpperCase (两次) + String.hashCode + equals，
+ * 这些都是热路径上的分配和拷贝。
+ * <p>
+ * 【设计：完美哈希】
+ * 命令集合在启动时就固定了。{@link #build()} 会寻找一组 (表大小, 种子)，
+ * 使所有命令名经过大小写折叠的哈希后落在互不冲突的槽位上。
+ * 查找时只需: 按字节算一次哈希 -> 取一个槽 -> 大小写无关地比较一次字节。
+ * 全程零分配，也不需要处理冲突链。
+ */
+public class CommandTable {
+
+    // 命令名的最大长度，超长的请求直接判定为未知命令，不计算哈希
+    private int maxNameLength;
+
+    private final Map<String, CommandSpec> specs = new LinkedHashMap<>();
+
+    private CommandSpec[] slots = new CommandSpec[0];
+    private byte[][] slotNames = new byte[0][];
+    private int mask = -1;
+    private int seed;
+
+    public void register(CommandSpec spec) {
+        specs.put(spec.name().toUpperCase(Locale.ROOT), spec);
+    }
+
+    /**
+     * 构建完美哈希表 (注册完所有命令后调用一次)
+     */
+    public void build() {
+        byte[][] names = new byte[specs.size()][];
+        CommandSpec[] values = new CommandSpec[specs.size()];
+        int i = 0;
+        for (Map.Entry<String, CommandSpec> entry : specs.entrySet()) {
+            names[i] = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+            values[i] = entry.getValue();
+            maxNameLength = Math.max(maxNameLength, names[i].length);
+            i++;
+        }
+
+        int size = Integer.highestOneBit(Math.max(1, names.length * 2 - 1)) << 1;
+        while (true) {
+            for (int s = 0; s < 256; s++) {
+                if (tryBuild(names, values, size, s)) return;
+            }
+            size <<= 1;
+        }
+    }
+
+    private boolean tryBuild(byte[][] names, CommandSpec[] values, int size, int candidateSeed) {
+        CommandSpec[] newSlots = new CommandSpec[size];
+        byte[][] newNames = new byte[size][];
+        int newMask = size - 1;
+        for (int i = 0; i < names.length; i++) {
+            int slot = hash(names[i], names[i].length, candidateSeed) & newMask;
+            if (newSlots[slot] != null) return false;
+            newSlots[slot] = values[i];
+            newNames[slot] = names[i];
+        }
+        this.slots = newSlots;
+        this.slotNames = newNames;
+        this.mask = newMask;
+        this.seed = candidateSeed;
+        return true;
+    }
+
+    /**
+     * 按原始字节查找命令 (大小写无关，零分配)
+     *
+     * @return 未注册时返回 null
+     */
+    public CommandSpec lookup(byte[] name) {
+        if (name == null || name.length == 0 || name.length > maxNameLength) return null;
+        int slot = hash(name, name.length, seed) & mask;
+        byte[] candidate = slotNames[slot];
+        return candidate != null && equalsIgnoreCase(candidate, name) ? slots[slot] : null;
+    }
+
+    public CommandSpec lookup(String name) {
+        return lookup(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int size() {
+        return specs.size();
+    }
+
+    public Collection<CommandSpec> all() {
+        return Collections.unmodifiableCollection(specs.values());
+    }
+
+    // FNV-1a，逐字节做 ASCII 大小写折叠 (& 0xDF 把 a-z 映射到 A-Z)
+    private static int hash(byte[] bytes, int length, int seed) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (bytes[i] & 0xDF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * ASCII 大小写无关的字节比较
+     *
+     * @param upper 已经是大写的期望值
+     */
+    public static boolean equalsIgnoreCase(byte[] upper, byte[] input) {
+        if (upper.length != input.length) return false;
+        for (int i = 0; i < upper.length; i++) {
+            byte b = input[i];
+            if (b >= 'a' && b <= 'z') b -= 32;
+            if (b != upper[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package org.muma.mini.redis.command;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数分桶的延迟直方图 (HdrHistogram 的简化版，单位纳秒)
+ * <p>
+ * 【分桶】每个 2 的幂区间 [2^e, 2^(e+1)) 再等分为 16 个子桶，相对误差不超过 1/16 (约 6%)；
+ * 小于 16ns 的值各占一个桶。覆盖到 2^36ns (约 68 秒)，更大的值计入最后一个桶。
+ * 桶下标只需一次 numberOfLeadingZeros 和几次移位，记录就是一次原子自增，无锁无分配。
+ * <p>
+ * 【线程模型】核心线程 (分片模式下为各分片线程) 与 IO 线程 (只读快速路径) 并发记录；
+ * 读取分位数时不加锁，得到的是近似快照，对统计用途足够。
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.getAndIncrement(indexOf(nanos));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 桶内最大值 (与 HdrHistogram 的 highestEquivalentValue 一致，分位数按它报告)
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * 一次遍历计算多个分位数
+     *
+     * @param percentiles 升序排列，如 {50, 99, 99.9}
+     * @return 对应的纳秒值；没有任何记录时全为 0
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] result = new long[percentiles.length];
+        if (total == 0) return result;
+
+        int p = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && p < percentiles.length; i++) {
+            seen += snapshot[i];
+            while (p < percentiles.length && seen >= Math.ceil(total * percentiles[p] / 100.0)) {
+                result[p++] = highestValueOf(i);
+            }
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+}
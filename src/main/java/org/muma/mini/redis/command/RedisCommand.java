@@ -1,8 +1,8 @@
 package org.muma.mini.redis.command;
 
-import io.netty.channel.ChannelHandlerContext;
 import org.muma.mini.redis.common.RedisZSet;
 import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.DoubleMessage;
 import org.muma.mini.redis.protocol.ErrorMessage;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
@@ -28,15 +28,31 @@ public interface RedisCommand {
             result[i++] = new BulkString(entry.member());
             if (withScores) {
                 // 浮点数格式化：去掉整数后面的 .0
-                double s = entry.score();
-                String scoreStr = (s % 1 == 0) ?
-                        String.valueOf((long) s) : String.valueOf(s);
-                result[i++] = new BulkString(scoreStr);
+                result[i++] = new BulkString(DoubleMessage.format(entry.score()));
             }
         }
         return new RedisArray(result);
     }
 
+    /**
+     * 感知协议版本的 ZSet 响应
+     * RESP3 下 WITHSCORES 返回 [[member, score(double)], ...] 的二元组数组 (与 Redis 7 一致)，
+     * RESP2 下保持扁平的 [member, score, member, score...]
+     */
+    default RedisMessage buildZSetResponse(List<RedisZSet.ZSetEntry> list, boolean withScores, RedisContext context) {
+        if (!withScores || context == null || !context.isResp3()) {
+            return buildZSetResponse(list, withScores);
+        }
+        RedisMessage[] result = new RedisMessage[list.size()];
+        int i = 0;
+        for (RedisZSet.ZSetEntry entry : list) {
+            result[i++] = new RedisArray(new RedisMessage[]{
+                    new BulkString(entry.member()), new DoubleMessage(entry.score())
+            });
+        }
+        return new RedisArray(result);
+    }
+
     /**
      * 辅助工具：快速构建参数错误
      * (未来很多命令都会用到)
@@ -58,4 +74,9 @@ public interface RedisCommand {
         return false;
     }
 
+    // 纯读命令 (只通过 storage.get 读取，不修改任何状态)，开启 server.io_thread_reads 后可在 IO 线程上乐观执行
+    default boolean isReadOnly() {
+        return false;
+    }
+
 }
@@ -0,0 +1,127 @@
+package org.muma.mini.redis.command;
+
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.RedisContext;
+
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 慢查询日志 (SLOWLOG，对应 Redis 的 slowlog.c)
+ * <p>
+ * 【替代 log.warn】慢命令不再在核心线程上写日志 (日志框架的锁与 IO 恰好落在最慢的时刻)，
+ * 而是放进固定长度的环形缓冲，由 SLOWLOG GET 按需查看。
+ * <p>
+ * 【开销】未超过阈值的命令只多一次比较 ({@link #isSlow(long)})；
+ * 超过阈值时才复制参数 (截断) 并短暂加锁。单线程模式下锁无竞争，分片模式下只有慢命令之间才会竞争。
+ */
+public class SlowLog {
+
+    // 与 Redis 一致：最多保留 32 个参数，每个参数最多 128 字节
+    static final int MAX_ARGC = 32;
+    static final int MAX_STRING = 128;
+
+    /**
+     * @param durationMicros 执行耗时 (微秒)
+     * @param timestamp      开始执行的时间 (秒)
+     */
+    public record Entry(long id, long timestamp, long durationMicros, RedisMessage[] args,
+                        String clientAddress, String clientName) {
+    }
+
+    private final long thresholdNanos;
+    private final Entry[] ring;
+    private long nextId;
+    // 下一个写入位置
+    private int head;
+    private int size;
+
+    /**
+     * @param slowerThanMicros 阈值 (微秒)，0 记录所有命令，负数关闭
+     * @param maxLen           保留的条数
+     */
+    public SlowLog(long slowerThanMicros, int maxLen) {
+        this.thresholdNanos = slowerThanMicros < 0 ? Long.MAX_VALUE : slowerThanMicros * 1000;
+        this.ring = new Entry[Math.max(1, maxLen)];
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    public void record(RedisArray args, long durationNanos, RedisContext context) {
+        // 锁外完成参数截断等准备工作
+        RedisMessage[] truncated = truncate(args.elements());
+        long timestamp = System.currentTimeMillis() / 1000 - durationNanos / 1_000_000_000;
+        String address = clientAddressOf(context);
+        String name = clientNameOf(context);
+        synchronized (this) {
+            ring[head] = new Entry(nextId++, timestamp, durationNanos / 1000, truncated, address, name);
+            head = (head + 1) % ring.length;
+            if (size < ring.length) size++;
+        }
+    }
+
+    /**
+     * 最新的 count 条，按从新到旧排列；count < 0 表示全部
+     */
+    public synchronized List<Entry> latest(int count) {
+        int n = count < 0 ? size : Math.min(count, size);
+        List<Entry> result = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            result.add(ring[(head - i + ring.length) % ring.length]);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+    }
+
+    private static RedisMessage[] truncate(RedisMessage[] elements) {
+        int argc = Math.min(elements.length, MAX_ARGC);
+        RedisMessage[] args = new RedisMessage[argc];
+        for (int i = 0; i < argc; i++) {
+            // 参数太多时最后一个位置换成说明
+            if (argc < elements.length && i == argc - 1) {
+                args[i] = new BulkString("... (" + (elements.length - argc + 1) + " more arguments)");
+                break;
+            }
+            args[i] = truncate(elements[i]);
+        }
+        return args;
+    }
+
+    private static RedisMessage truncate(RedisMessage arg) {
+        if (!(arg instanceof BulkString bulk) || bulk.content() == null) return arg;
+        byte[] content = bulk.content();
+        if (content.length <= MAX_STRING) return arg;
+        String suffix = "... (" + (content.length - MAX_STRING) + " more bytes)";
+        byte[] truncated = Arrays.copyOf(content, MAX_STRING + suffix.length());
+        System.arraycopy(suffix.getBytes(StandardCharsets.US_ASCII), 0, truncated, MAX_STRING, suffix.length());
+        return new BulkString(truncated);
+    }
+
+    private static String clientAddressOf(RedisContext context) {
+        if (context == null || context.getNettyCtx() == null) return "";
+        SocketAddress address = context.getNettyCtx().channel().remoteAddress();
+        if (address == null) return "";
+        String text = address.toString();
+        return text.startsWith("/") ? text.substring(1) : text;
+    }
+
+    private static String clientNameOf(RedisContext context) {
+        return context == null || context.getClientName() == null ? "" : context.getClientName();
+    }
+}
@@ -38,8 +38,17 @@ public class BfAddCommand implements RedisCommand {
                 if (data.getType() != RedisDataType.STRING) {
                     return new ErrorMessage("WRONGTYPE");
                 }
+                // INT 编码的值按字节读取得到的是副本，原地置位会丢失
+                if (data.isIntEncoded()) return new ErrorMessage("ERR not a valid BloomFilter");
                 bytes = data.getValue(byte[].class);
                 if (bytes.length < 8) return new ErrorMessage("ERR not a valid BloomFilter");
+                // 堆外的值读到的也是副本：搬回堆上再原地置位
+                if (!(data.getData() instanceof byte[])) {
+                    RedisData<byte[]> onHeap = new RedisData<>(RedisDataType.STRING, bytes);
+                    onHeap.setExpireAt(data.getExpireAt());
+                    storage.put(key, onHeap);
+                    data = onHeap;
+                }
                 ByteBuffer buf = ByteBuffer.wrap(bytes);
                 m = buf.getInt();
                 k = buf.getInt();
@@ -65,7 +74,7 @@ public class BfAddCommand implements RedisCommand {
             // 已经是引用修改，但为了 AOF/RDB 钩子，put 一下
             // storage.put(key, data);
 
-            return new RedisInteger(updated ? 1 : 0);
+            return RedisInteger.of(updated ? 1 : 0);
         }
     }
 
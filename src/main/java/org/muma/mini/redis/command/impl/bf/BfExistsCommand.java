@@ -15,7 +15,7 @@ public class BfExistsCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 3) return errorArgs("bf.exists");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         byte[] item = ((BulkString) args.elements()[2]).content();
 
         // 读操作不需要全库锁，但为了防止 bitmap 扩容并发，如果是 ConcurrentHashMap 可以不锁，
@@ -23,7 +23,7 @@ public class BfExistsCommand implements RedisCommand {
         // 简单起见，不加 synchronized 块，直接 get
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.STRING) return new ErrorMessage("WRONGTYPE");
 
         byte[] bytes = data.getValue(byte[].class);
@@ -40,16 +40,21 @@ public class BfExistsCommand implements RedisCommand {
             int bitIdx = pos % 8;
 
             // 越界检查 (虽然理论上不会)
-            if (byteIdx >= bytes.length) return new RedisInteger(0);
+            if (byteIdx >= bytes.length) return RedisInteger.of(0);
 
             int currentByte = bytes[byteIdx];
             int mask = 1 << (7 - bitIdx);
 
             if ((currentByte & mask) == 0) {
-                return new RedisInteger(0); // 只要有一位是 0，肯定不存在
+                return RedisInteger.of(0); // 只要有一位是 0，肯定不存在
             }
         }
 
-        return new RedisInteger(1); // 可能存在
+        return RedisInteger.of(1); // 可能存在
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -42,7 +42,7 @@ public class BfReserveCommand implements RedisCommand {
             buf.putInt(k);
 
             storage.put(key, new RedisData<>(RedisDataType.STRING, data));
-            return new SimpleString("OK");
+            return SimpleString.OK;
         }
     }
 
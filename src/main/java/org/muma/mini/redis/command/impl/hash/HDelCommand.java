@@ -22,7 +22,7 @@ public class HDelCommand implements RedisCommand {
 
         RedisData<?> redisData = storage.get(key);
         if (redisData == null) {
-            return new RedisInteger(0);
+            return RedisInteger.of(0);
         }
         if (redisData.getType() != RedisDataType.HASH) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -44,7 +44,7 @@ public class HDelCommand implements RedisCommand {
             storage.put(key, redisData);
         }
 
-        return new RedisInteger(deletedCount);
+        return RedisInteger.of(deletedCount);
     }
 
     @Override
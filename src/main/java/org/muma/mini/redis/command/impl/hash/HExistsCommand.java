@@ -17,17 +17,22 @@ public class HExistsCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 3) return new ErrorMessage("ERR wrong number of arguments for 'hexists'");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         String field = ((BulkString) args.elements()[2]).asString();
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.HASH)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         RedisHash hash = data.getValue(RedisHash.class);
 
         // get 返回 null 表示不存在 (RedisHash 内部实现约定)
-        return hash.get(field) != null ? new RedisInteger(1) : new RedisInteger(0);
+        return hash.get(field) != null ? RedisInteger.of(1) : RedisInteger.of(0);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -17,11 +17,11 @@ public class HGetAllCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'hgetall' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> redisData = storage.get(key);
 
         if (redisData == null) {
-            return new RedisArray(new RedisMessage[0]); // 返回空数组
+            return new MapMessage(new RedisMessage[0]); // 返回空 Map (RESP2 下为空数组)
         }
         if (redisData.getType() != RedisDataType.HASH) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -34,7 +34,7 @@ public class HGetAllCommand implements RedisCommand {
         // 在生产级实现中，应该让 HashProvider 返回一个 Iterator，以流式方式构建响应。
         Map<String, byte[]> all = hash.toMap();
 
-        // 构造 RESP 数组: [key1, val1, key2, val2, ...]
+        // 构造 Map: [key1, val1, key2, val2, ...] (RESP3 为 %, RESP2 降级为扁平数组)
         RedisMessage[] result = new RedisMessage[all.size() * 2];
         int i = 0;
         for (Map.Entry<String, byte[]> entry : all.entrySet()) {
@@ -42,6 +42,6 @@ public class HGetAllCommand implements RedisCommand {
             result[i++] = new BulkString(entry.getValue());
         }
 
-        return new RedisArray(result);
+        return new MapMessage(result);
     }
 }
@@ -15,13 +15,13 @@ public class HGetCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'hget' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         String field = ((BulkString) args.elements()[2]).asString();
 
         RedisData<?> redisData = storage.get(key);
 
         if (redisData == null) {
-            return new BulkString((byte[]) null);
+            return BulkString.NULL;
         }
 
         if (redisData.getType() != RedisDataType.HASH) {
@@ -33,4 +33,9 @@ public class HGetCommand implements RedisCommand {
 
         return new BulkString(value); // value 为 null 时会自动处理为 Nil
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
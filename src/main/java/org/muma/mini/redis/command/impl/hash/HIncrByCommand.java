@@ -60,7 +60,7 @@ public class HIncrByCommand implements RedisCommand {
 
         storage.put(key, data); // 闭环回写
 
-        return new RedisInteger(newVal);
+        return RedisInteger.of(newVal);
     }
 
     @Override
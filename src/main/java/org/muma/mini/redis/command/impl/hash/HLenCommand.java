@@ -17,14 +17,19 @@ public class HLenCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return new ErrorMessage("ERR wrong number of arguments for 'hlen'");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.HASH)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         RedisHash hash = data.getValue(RedisHash.class);
-        return new RedisInteger(hash.size());
+        return RedisInteger.of(hash.size());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
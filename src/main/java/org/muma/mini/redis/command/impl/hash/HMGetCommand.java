@@ -16,7 +16,7 @@ public class HMGetCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'hmget' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisMessage[] results = new RedisMessage[args.elements().length - 2];
 
         RedisData<?> redisData = storage.get(key);
@@ -39,4 +39,9 @@ public class HMGetCommand implements RedisCommand {
 
         return new RedisArray(results);
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
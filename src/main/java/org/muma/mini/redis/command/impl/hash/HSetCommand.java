@@ -46,7 +46,7 @@ public class HSetCommand implements RedisCommand {
 
         storage.put(key, redisData);
 
-        return new RedisInteger(createdCount);
+        return RedisInteger.of(createdCount);
     }
 
     @Override
@@ -23,7 +23,7 @@ public class DelCommand implements RedisCommand {
             }
         }
 
-        return new RedisInteger(deletedCount);
+        return RedisInteger.of(deletedCount);
     }
 
     @Override
@@ -13,12 +13,17 @@ public class ExistsCommand implements RedisCommand {
         int count = 0;
         // 遍历所有 Key
         for (int i = 1; i < args.elements().length; i++) {
-            String key = ((BulkString) args.elements()[i]).asString();
+            byte[] key = ((BulkString) args.elements()[i]).content();
             // storage.get() 自带惰性删除逻辑，所以如果过期了这里会返回 null
             if (storage.get(key) != null) {
                 count++;
             }
         }
-        return new RedisInteger(count);
+        return RedisInteger.of(count);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -4,6 +4,7 @@ import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
 import org.muma.mini.redis.store.StorageEngine;
 
 import java.util.Locale;
@@ -43,21 +44,21 @@ public class ExpireCommand implements RedisCommand {
         }
         RedisData<?> data = storage.get(key);
         if (data == null) {
-            return new RedisInteger(0);
+            return RedisInteger.of(0);
         }
 
         long currentExpire = data.getExpireAt();
-        long newExpire = System.currentTimeMillis() + (seconds * 1000);
+        long newExpire = ServerClock.now() + (seconds * 1000);
 
         // 检查条件
-        if (nx && currentExpire != -1) return new RedisInteger(0); // 已有过期，NX 失败
-        if (xx && currentExpire == -1) return new RedisInteger(0); // 无过期，XX 失败
-        if (gt && (currentExpire == -1 || newExpire <= currentExpire)) return new RedisInteger(0); // 不大于，GT 失败
-        if (lt && currentExpire != -1 && newExpire >= currentExpire) return new RedisInteger(0); // 不小于，LT 失败
+        if (nx && currentExpire != -1) return RedisInteger.of(0); // 已有过期，NX 失败
+        if (xx && currentExpire == -1) return RedisInteger.of(0); // 无过期，XX 失败
+        if (gt && (currentExpire == -1 || newExpire <= currentExpire)) return RedisInteger.of(0); // 不大于，GT 失败
+        if (lt && currentExpire != -1 && newExpire >= currentExpire) return RedisInteger.of(0); // 不小于，LT 失败
 
         data.setExpireAt(newExpire);
         storage.put(key, data);
 
-        return new RedisInteger(1);
+        return RedisInteger.of(1);
     }
 }
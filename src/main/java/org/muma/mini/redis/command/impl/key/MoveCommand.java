@@ -0,0 +1,58 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * MOVE key db
+ * <p>
+ * 把 key (连同过期时间) 从当前数据库移到目标数据库；key 不存在或目标库已有同名 key 时返回 0。
+ * 先从源库摘除再放入目标库，两边的内存统计各自增量维护。
+ * 分片模式下同一个 key 在各数据库中属于同一分片，整个操作在该分片线程上完成。
+ */
+public class MoveCommand implements RedisCommand {
+
+    private final Databases databases;
+
+    public MoveCommand(Databases databases) {
+        this.databases = databases;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        String key = ((BulkString) elements[1]).asString();
+        long dbIndex;
+        try {
+            dbIndex = Long.parseLong(((BulkString) elements[2]).asString());
+        } catch (NumberFormatException e) {
+            return errorInt();
+        }
+        if (!databases.isValidIndex(dbIndex)) {
+            return new ErrorMessage("ERR DB index is out of range");
+        }
+        StorageEngine target = databases.get((int) dbIndex);
+        if (target == storage) {
+            return new ErrorMessage("ERR source and destination objects are the same");
+        }
+
+        RedisData<?> data = storage.get(key);
+        if (data == null || target.get(key) != null) {
+            return RedisInteger.of(0);
+        }
+        // 堆外的值：目标库接手一个引用，源库删除时释放自己的
+        data.retainValue();
+        storage.remove(key);
+        target.put(key, data);
+        return RedisInteger.of(1);
+    }
+
+    @Override
+    public boolean isWrite() {
+        return true;
+    }
+}
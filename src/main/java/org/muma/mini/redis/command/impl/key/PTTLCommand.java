@@ -4,6 +4,7 @@ import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
 import org.muma.mini.redis.store.StorageEngine;
 
 public class PTTLCommand implements RedisCommand {
@@ -11,23 +12,28 @@ public class PTTLCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return errorArgs("pttl");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> data = storage.get(key);
 
         if (data == null) {
-            return new RedisInteger(-2);
+            return RedisInteger.of(-2);
         }
 
         long expireAt = data.getExpireAt();
         if (expireAt == -1) {
-            return new RedisInteger(-1);
+            return RedisInteger.of(-1);
         }
 
-        long ttlMs = expireAt - System.currentTimeMillis();
+        long ttlMs = expireAt - ServerClock.now();
         if (ttlMs < 0) {
-            return new RedisInteger(-2);
+            return RedisInteger.of(-2);
         }
 
-        return new RedisInteger(ttlMs); // 返回毫秒
+        return RedisInteger.of(ttlMs); // 返回毫秒
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -0,0 +1,70 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.utils.ScanUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SCAN cursor [MATCH pattern] [COUNT count] [TYPE type]
+ * <p>
+ * 【游标】由 {@link StorageEngine#scan} 给出：REDIS_DICT 键空间上是 Redis 的反向二进制游标，
+ * 渐进式 rehash 进行中也不会漏掉遍历期间一直存在的 key，每次调用只访问约 COUNT 个 key。
+ * 默认的 CONCURRENT_HASHMAP 键空间按 key 的哈希值排序取游标，每次调用都要过一遍整张表 (O(N))，
+ * 需要在大键空间上频繁 SCAN 时请配置 backend.keyspace=REDIS_DICT。
+ * 分片模式下 (all_shards) 在协调线程上执行，游标高位记录分区下标。
+ * <p>
+ * 【过滤】MATCH / TYPE 在取出之后过滤，返回的 key 可能少于 COUNT 甚至为空，
+ * 但只要游标不为 0 遍历就没有结束。
+ */
+public class ScanCommand implements RedisCommand {
+
+    private static final Set<String> TYPE_NAMES = Set.of("string", "list", "set", "zset", "hash");
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        long cursor;
+        try {
+            cursor = Long.parseLong(((BulkString) elements[1]).asString());
+        } catch (NumberFormatException e) {
+            return new ErrorMessage("ERR invalid cursor");
+        }
+
+        ScanUtil.ScanParams params;
+        try {
+            params = ScanUtil.parse(elements, 2, true);
+        } catch (IllegalArgumentException e) {
+            return new ErrorMessage(e.getMessage());
+        }
+        if (params.type != null && !TYPE_NAMES.contains(params.type)) {
+            return new ErrorMessage("ERR unknown type name '" + params.type + "'");
+        }
+
+        List<RedisMessage> keys = new ArrayList<>();
+        long next = storage.scan(cursor, params.count, (key, data) -> {
+            if (params.type != null && !params.type.equals(typeName(data.getType()))) return;
+            if (!params.match(key)) return;
+            keys.add(new BulkString(key));
+        });
+
+        return new RedisArray(new RedisMessage[]{
+                new BulkString(String.valueOf(next)),
+                new RedisArray(keys.toArray(new RedisMessage[0]))
+        });
+    }
+
+    // BITMAP 在 Redis 中就是 string
+    private static String typeName(RedisDataType type) {
+        return type == RedisDataType.BITMAP ? "string" : type.name().toLowerCase();
+    }
+}
@@ -0,0 +1,65 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * SWAPDB index1 index2
+ * <p>
+ * 交换两个数据库：连接到 index1 的客户端立即看到原来 index2 的数据，反之亦然。
+ * 只交换引用，与数据量无关 (O(1))，可用于把后台批量加载好的数据集原子地切换上线。
+ * <p>
+ * 两个数据库中被 WATCH 的 key 都视为被修改，客户端缓存 (CLIENT TRACKING) 全部失效。
+ * 分片模式下是无 key 的写命令，在协调线程上执行 (所有分片已暂停)。
+ * 阻塞在列表上的客户端随原来的键空间一起交换 (与 Redis 不同，Redis 按编号保留)。
+ */
+public class SwapDbCommand implements RedisCommand {
+
+    private final Databases databases;
+    private final WatchManager watchManager;
+    private final TrackingManager trackingManager;
+
+    public SwapDbCommand(Databases databases, WatchManager watchManager, TrackingManager trackingManager) {
+        this.databases = databases;
+        this.watchManager = watchManager;
+        this.trackingManager = trackingManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        long first, second;
+        try {
+            first = Long.parseLong(((BulkString) elements[1]).asString());
+        } catch (NumberFormatException e) {
+            return new ErrorMessage("ERR invalid first DB index");
+        }
+        try {
+            second = Long.parseLong(((BulkString) elements[2]).asString());
+        } catch (NumberFormatException e) {
+            return new ErrorMessage("ERR invalid second DB index");
+        }
+        if (!databases.isValidIndex(first) || !databases.isValidIndex(second)) {
+            return new ErrorMessage("ERR DB index is out of range");
+        }
+        if (first == second) {
+            return SimpleString.OK;
+        }
+
+        databases.swap((int) first, (int) second);
+        watchManager.touchDb((int) first);
+        watchManager.touchDb((int) second);
+        trackingManager.invalidateAll();
+        return SimpleString.OK;
+    }
+
+    @Override
+    public boolean isWrite() {
+        return true;
+    }
+}
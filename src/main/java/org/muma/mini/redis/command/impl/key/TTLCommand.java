@@ -4,6 +4,7 @@ import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
 import org.muma.mini.redis.store.StorageEngine;
 
 public class TTLCommand implements RedisCommand {
@@ -11,26 +12,31 @@ public class TTLCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return errorArgs("ttl");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
 
         // 注意：这里 storage.get 可能会触发惰性删除
         RedisData<?> data = storage.get(key);
 
         if (data == null) {
-            return new RedisInteger(-2); // Key 不存在 (或已过期被删)
+            return RedisInteger.of(-2); // Key 不存在 (或已过期被删)
         }
 
         long expireAt = data.getExpireAt();
         if (expireAt == -1) {
-            return new RedisInteger(-1); // 存在但无过期时间
+            return RedisInteger.of(-1); // 存在但无过期时间
         }
 
-        long ttlMs = expireAt - System.currentTimeMillis();
+        long ttlMs = expireAt - ServerClock.now();
         if (ttlMs < 0) {
             // 理论上 storage.get 应该已经删了，但为了保险
-            return new RedisInteger(-2);
+            return RedisInteger.of(-2);
         }
 
-        return new RedisInteger(ttlMs / 1000); // 返回秒
+        return RedisInteger.of(ttlMs / 1000); // 返回秒
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -78,11 +78,15 @@ public class BLPopCommand implements RedisCommand {
             }
         }
 
+        // 事务 (EXEC) 内不阻塞，直接回复 nil
+        if (context != null && context.isInExec()) return new RedisArray(null);
+
         // 2. 没数据，进入阻塞模式 (Blocking Mode)
         // 注册到 BlockingManager，等待 LPUSH 唤醒
         // targetKey = null (BLPOP 不需要推入其他列表)
         storage.getBlockingManager().addWait(
                 context.getNettyCtx(),
+                storage.getDbIndex(),
                 keys,
                 timeout,
                 new ListBlockingHandler(true, null) // isLeft=true, targetKey=null
@@ -78,8 +78,12 @@ public class BRPopCommand implements RedisCommand {
         }
 
 
+        // 事务 (EXEC) 内不阻塞，直接回复 nil
+        if (context != null && context.isInExec()) return new RedisArray(null);
+
         storage.getBlockingManager().addWait(
                 context.getNettyCtx(),
+                storage.getDbIndex(),
                 keys,
                 timeout,
                 new ListBlockingHandler(false, null) // isLeft=true, targetKey=null
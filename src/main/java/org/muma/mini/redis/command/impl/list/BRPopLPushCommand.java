@@ -97,9 +97,13 @@ public class BRPopLPushCommand implements RedisCommand {
                 }
             }
 
+            // 事务 (EXEC) 内不阻塞，直接回复 nil
+            if (context != null && context.isInExec()) return BulkString.NULL;
+
             // --- 2. 阻塞 (Blocking Mode) ---
             storage.getBlockingManager().addWait(
                     context.getNettyCtx(),
+                    storage.getDbIndex(),
                     Collections.singletonList(source),
                     timeout,
                     new ListBlockingHandler(false, destination) // isLeft=false (RPOP), targetKey=dest
@@ -19,7 +19,7 @@ public class LIndexCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 3) return errorArgs("lindex");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         long index;
         try {
             assert ((BulkString) args.elements()[2]).asString() != null;
@@ -29,7 +29,7 @@ public class LIndexCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new BulkString((byte[]) null);
+        if (data == null) return BulkString.NULL;
         if (data.getType() != RedisDataType.LIST) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
         }
@@ -39,4 +39,9 @@ public class LIndexCommand implements RedisCommand {
 
         return new BulkString(val); // index 越界返回 nil
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
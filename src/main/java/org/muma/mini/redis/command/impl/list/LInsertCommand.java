@@ -43,7 +43,7 @@ public class LInsertCommand implements RedisCommand {
         RedisData<?> data = storage.get(key);
 
         // Key 不存在，返回 0 (Redis 规范)
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
 
         // 类型错误
         if (data.getType() != RedisDataType.LIST) {
@@ -70,7 +70,7 @@ public class LInsertCommand implements RedisCommand {
             storage.getBlockingManager().onPush(key, storage);
         }
 
-        return new RedisInteger(ret);
+        return RedisInteger.of(ret);
     }
 
     @Override
@@ -18,15 +18,20 @@ public class LLenCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return errorArgs("llen");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.LIST) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
         }
 
         RedisList list = data.getValue(RedisList.class);
-        return new RedisInteger(list.size());
+        return RedisInteger.of(list.size());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
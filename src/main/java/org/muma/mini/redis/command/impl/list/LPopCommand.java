@@ -42,7 +42,7 @@ public class LPopCommand implements RedisCommand {
         // Key 不存在
         if (data == null) {
             // 如果指定了 count，返回空数组；否则返回 nil
-            return hasCount ? new RedisArray(new RedisMessage[0]) : new BulkString((byte[]) null);
+            return hasCount ? new RedisArray(new RedisMessage[0]) : BulkString.NULL;
         }
 
         if (data.getType() != RedisDataType.LIST) {
@@ -74,7 +74,7 @@ public class LPopCommand implements RedisCommand {
             if (list.size() == 0) storage.remove(key);
             else storage.put(key, data);
 
-            return val == null ? new BulkString((byte[]) null) : new BulkString(val);
+            return val == null ? BulkString.NULL : new BulkString(val);
         }
     }
 
@@ -46,7 +46,7 @@ public class LPushCommand implements RedisCommand {
 
         // ★★★ 这一行必须有！★★★
         storage.getBlockingManager().onPush(key, storage);
-        return new RedisInteger(list.size());
+        return RedisInteger.of(list.size());
     }
 
     @Override
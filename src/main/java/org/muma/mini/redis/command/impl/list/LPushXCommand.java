@@ -25,7 +25,7 @@ public class LPushXCommand implements RedisCommand {
         RedisData<?> data = storage.get(key);
 
         // 核心差异：如果 Key 不存在，什么都不做，直接返回 0
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
 
         if (data.getType() != RedisDataType.LIST) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -44,7 +44,7 @@ public class LPushXCommand implements RedisCommand {
         // 因为 LPUSHX 只有 key 存在才推，如果 key 不存在 data==null 我们前面直接返回 0 了
         // 所以能走到这里，说明肯定推入了数据。
         storage.getBlockingManager().onPush(key, storage);
-        return new RedisInteger(list.size());
+        return RedisInteger.of(list.size());
     }
 
     @Override
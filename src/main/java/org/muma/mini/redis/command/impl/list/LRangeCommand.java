@@ -22,7 +22,7 @@ public class LRangeCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 4) return errorArgs("lrange");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         long start, stop;
         try {
             assert ((BulkString) args.elements()[2]).asString() != null;
@@ -38,7 +38,7 @@ public class LRemCommand implements RedisCommand {
         RedisData<?> data = storage.get(key);
 
         // Key 不存在，视为空列表，删除 0 个
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
 
         // 类型检查
         if (data.getType() != RedisDataType.LIST) {
@@ -58,7 +58,7 @@ public class LRemCommand implements RedisCommand {
             storage.put(key, data);
         }
 
-        return new RedisInteger(removedCount);
+        return RedisInteger.of(removedCount);
     }
 
     @Override
@@ -45,7 +45,7 @@ public class LSetCommand implements RedisCommand {
         // 显式回写
         storage.put(key, data);
 
-        return new SimpleString("OK");
+        return SimpleString.OK;
     }
 
     @Override
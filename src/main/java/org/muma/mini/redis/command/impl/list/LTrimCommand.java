@@ -31,7 +31,7 @@ public class LTrimCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new SimpleString("OK"); // Key 不存在视为成功
+        if (data == null) return SimpleString.OK; // Key 不存在视为成功
         if (data.getType() != RedisDataType.LIST)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
@@ -41,7 +41,7 @@ public class LTrimCommand implements RedisCommand {
         if (list.size() == 0) storage.remove(key);
         else storage.put(key, data);
 
-        return new SimpleString("OK");
+        return SimpleString.OK;
     }
 
     @Override
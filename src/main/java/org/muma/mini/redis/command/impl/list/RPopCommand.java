@@ -39,7 +39,7 @@ public class RPopCommand implements RedisCommand {
         RedisData<?> data = storage.get(key);
 
         if (data == null) {
-            return hasCount ? new RedisArray(new RedisMessage[0]) : new BulkString((byte[]) null);
+            return hasCount ? new RedisArray(new RedisMessage[0]) : BulkString.NULL;
         }
         if (data.getType() != RedisDataType.LIST) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -65,7 +65,7 @@ public class RPopCommand implements RedisCommand {
             if (list.size() == 0) storage.remove(key);
             else storage.put(key, data);
 
-            return val == null ? new BulkString((byte[]) null) : new BulkString(val);
+            return val == null ? BulkString.NULL : new BulkString(val);
         }
     }
 
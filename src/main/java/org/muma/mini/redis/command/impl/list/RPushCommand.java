@@ -40,7 +40,7 @@ public class RPushCommand implements RedisCommand {
         }
 
         storage.put(key, data);
-        return new RedisInteger(list.size());
+        return RedisInteger.of(list.size());
     }
 
     @Override
@@ -23,7 +23,7 @@ public class RPushXCommand implements RedisCommand {
 
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
 
         if (data.getType() != RedisDataType.LIST) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -41,7 +41,7 @@ public class RPushXCommand implements RedisCommand {
         // 【新增】触发唤醒
         storage.getBlockingManager().onPush(key, storage);
 
-        return new RedisInteger(list.size());
+        return RedisInteger.of(list.size());
     }
 
     @Override
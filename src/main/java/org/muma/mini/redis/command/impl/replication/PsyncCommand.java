@@ -2,6 +2,7 @@ package org.muma.mini.redis.command.impl.replication;
 
 import io.netty.channel.ChannelHandlerContext;
 import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.config.MiniRedisConfig.ClientType;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.replication.ReplicationManager;
 import org.muma.mini.redis.rdb.RdbManager; // 需要注入这个
@@ -29,6 +30,8 @@ public class PsyncCommand implements RedisCommand {
         long myOffset = replManager.getMetadata().getReplOffset();
 
         ChannelHandlerContext slaveCtx = context.getNettyCtx();
+        // 之后适用 replica 类别的输出缓冲区限制
+        context.setClientType(ClientType.REPLICA);
 
         // 1. 注册 Slave 到 Pending 列表 (开始缓存新命令)
         replManager.addSlave(slaveCtx);
@@ -14,6 +14,6 @@ public class ReplConfCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         // 简单实现：无论 Slave 发什么配置，Master 都说 OK
         // 未来可以在这里记录 Slave 的 listening-port 或处理 ACK 偏移量
-        return new SimpleString("OK");
+        return SimpleString.OK;
     }
 }
@@ -0,0 +1,135 @@
+package org.muma.mini.redis.command.impl.server;
+
+import io.netty.channel.Channel;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.OutputBufferLimiter;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CLIENT LIST | ID | GETNAME | SETNAME name
+ * CLIENT TRACKING ON|OFF [REDIRECT id] [PREFIX prefix ...] [BCAST] [NOLOOP]
+ * <p>
+ * CLIENT LIST 每行一个连接，其中 omem 为该连接尚未写入 socket 的输出缓冲字节数，
+ * 用于定位拖慢 / 撑爆服务端的客户端。
+ */
+public class ClientCommand implements RedisCommand {
+
+    private final ClientRegistry clientRegistry;
+    private final TrackingManager trackingManager;
+
+    public ClientCommand(ClientRegistry clientRegistry, TrackingManager trackingManager) {
+        this.clientRegistry = clientRegistry;
+        this.trackingManager = trackingManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        if (elements.length < 2) return errorArgs("client");
+
+        String sub = ((BulkString) elements[1]).asString().toUpperCase(Locale.ROOT);
+        return switch (sub) {
+            case "LIST" -> elements.length == 2 ? clientList() : errorArgs("client|list");
+            case "ID" -> RedisInteger.of(context.getClientId());
+            case "GETNAME" -> context.getClientName() == null
+                    ? BulkString.NULL : new BulkString(context.getClientName());
+            case "SETNAME" -> {
+                if (elements.length != 3) yield errorArgs("client|setname");
+                String name = ((BulkString) elements[2]).asString();
+                if (name.indexOf(' ') >= 0) {
+                    yield new ErrorMessage("ERR Client names cannot contain spaces, newlines or special characters.");
+                }
+                context.setClientName(name.isEmpty() ? null : name);
+                yield SimpleString.OK;
+            }
+            case "TRACKING" -> tracking(elements, context);
+            default -> new ErrorMessage("ERR unknown subcommand '" + sub + "'. Try CLIENT HELP.");
+        };
+    }
+
+    private RedisMessage tracking(RedisMessage[] elements, RedisContext context) {
+        if (elements.length < 3) return errorArgs("client|tracking");
+
+        String onOff = ((BulkString) elements[2]).asString();
+        if ("OFF".equalsIgnoreCase(onOff)) {
+            trackingManager.disableTracking(context);
+            return SimpleString.OK;
+        }
+        if (!"ON".equalsIgnoreCase(onOff)) {
+            return new ErrorMessage("ERR syntax error");
+        }
+
+        long redirect = 0;
+        boolean bcast = false;
+        boolean noLoop = false;
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 3; i < elements.length; i++) {
+            String option = ((BulkString) elements[i]).asString().toUpperCase(Locale.ROOT);
+            boolean hasMore = i + 1 < elements.length;
+            switch (option) {
+                case "BCAST" -> bcast = true;
+                case "NOLOOP" -> noLoop = true;
+                case "PREFIX" -> {
+                    if (!hasMore) return new ErrorMessage("ERR syntax error");
+                    prefixes.add(((BulkString) elements[++i]).asString());
+                }
+                case "REDIRECT" -> {
+                    if (!hasMore) return new ErrorMessage("ERR syntax error");
+                    try {
+                        redirect = Long.parseLong(((BulkString) elements[++i]).asString());
+                    } catch (NumberFormatException e) {
+                        return errorInt();
+                    }
+                    if (redirect != context.getClientId() && clientRegistry.get(redirect) == null) {
+                        return new ErrorMessage("ERR The client ID you want redirect to does not exist");
+                    }
+                    if (redirect == context.getClientId()) redirect = 0;
+                }
+                default -> {
+                    return new ErrorMessage("ERR syntax error");
+                }
+            }
+        }
+
+        if (!bcast && !prefixes.isEmpty()) {
+            return new ErrorMessage("ERR PREFIX option requires BCAST mode to be enabled");
+        }
+        // 没有 Pub/Sub，RESP2 连接只能通过 REDIRECT 把通知转给另一个连接
+        if (redirect == 0 && !context.isResp3()) {
+            return new ErrorMessage("ERR Client tracking requires RESP3 (HELLO 3) or the REDIRECT option");
+        }
+
+        trackingManager.enableTracking(context, redirect, bcast, noLoop, prefixes);
+        return SimpleString.OK;
+    }
+
+    private RedisMessage clientList() {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        for (RedisContext client : clientRegistry.all()) {
+            Channel channel = client.getNettyCtx().channel();
+            sb.append("id=").append(client.getClientId())
+                    .append(" addr=").append(String.valueOf(channel.remoteAddress()).replaceFirst("^/", ""))
+                    .append(" name=").append(client.getClientName() == null ? "" : client.getClientName())
+                    .append(" age=").append((now - client.getCreatedAt()) / 1000)
+                    .append(" flags=").append(switch (client.getClientType()) {
+                        case REPLICA -> "S";
+                        case PUBSUB -> "P";
+                        default -> "N";
+                    })
+                    .append(" omem=").append(OutputBufferLimiter.outputMemory(channel))
+                    .append(" resp=").append(client.getProtocolVersion())
+                    .append(" tracking=").append(client.isTrackingEnabled() ? (client.isTrackingBcast() ? "bcast" : "on") : "off")
+                    .append('\n');
+        }
+        return new BulkString(sb.toString());
+    }
+}
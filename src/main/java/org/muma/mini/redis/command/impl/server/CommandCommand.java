@@ -0,0 +1,73 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.CommandTable;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * COMMAND [COUNT | INFO name [name ...]]
+ * <p>
+ * 直接输出命令表中的元数据：[name, arity, [flags...], firstKey, lastKey, step]
+ */
+public class CommandCommand implements RedisCommand {
+
+    private final CommandTable commandTable;
+
+    public CommandCommand(CommandTable commandTable) {
+        this.commandTable = commandTable;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        if (elements.length == 1) {
+            RedisMessage[] result = new RedisMessage[commandTable.size()];
+            int i = 0;
+            for (CommandSpec spec : commandTable.all()) {
+                result[i++] = describe(spec);
+            }
+            return new RedisArray(result);
+        }
+
+        String sub = ((BulkString) elements[1]).asString().toUpperCase(Locale.ROOT);
+        switch (sub) {
+            case "COUNT":
+                return RedisInteger.of(commandTable.size());
+            case "INFO": {
+                RedisMessage[] result = new RedisMessage[elements.length - 2];
+                for (int i = 2; i < elements.length; i++) {
+                    CommandSpec spec = commandTable.lookup(((BulkString) elements[i]).content());
+                    result[i - 2] = spec == null ? new RedisArray(null) : describe(spec);
+                }
+                return new RedisArray(result);
+            }
+            case "DOCS":
+                // redis-cli 启动时会调用，暂不提供文档
+                return new MapMessage(new RedisMessage[0]);
+            default:
+                return new ErrorMessage("ERR unknown subcommand '" + sub + "'. Try COMMAND HELP.");
+        }
+    }
+
+    private RedisMessage describe(CommandSpec spec) {
+        List<String> flagNames = spec.flagNames();
+        RedisMessage[] flags = new RedisMessage[flagNames.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = new SimpleString(flagNames.get(i));
+        }
+        return new RedisArray(new RedisMessage[]{
+                new BulkString(spec.lowerName()),
+                RedisInteger.of(spec.arity()),
+                new SetMessage(flags),
+                RedisInteger.of(spec.firstKey()),
+                RedisInteger.of(spec.lastKey()),
+                RedisInteger.of(spec.keyStep())
+        });
+    }
+}
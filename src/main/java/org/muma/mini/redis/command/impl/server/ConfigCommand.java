@@ -0,0 +1,40 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.CommandTable;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.Locale;
+
+/**
+ * CONFIG RESETSTAT
+ * <p>
+ * 配置仍由 redis.properties / 启动参数决定，目前只支持重置统计 (INFO commandstats / latencystats)
+ */
+public class ConfigCommand implements RedisCommand {
+
+    private final CommandTable commandTable;
+
+    public ConfigCommand(CommandTable commandTable) {
+        this.commandTable = commandTable;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        String sub = ((BulkString) elements[1]).asString().toUpperCase(Locale.ROOT);
+        switch (sub) {
+            case "RESETSTAT":
+                if (elements.length != 2) return errorArgs("config|resetstat");
+                for (CommandSpec spec : commandTable.all()) {
+                    spec.stats().reset();
+                }
+                return SimpleString.OK;
+            default:
+                return new ErrorMessage("ERR unknown subcommand '" + sub + "'. Try CONFIG HELP.");
+        }
+    }
+}
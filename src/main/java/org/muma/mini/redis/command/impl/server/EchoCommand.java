@@ -0,0 +1,17 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * ECHO message
+ */
+public class EchoCommand implements RedisCommand {
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        return args.elements()[1];
+    }
+}
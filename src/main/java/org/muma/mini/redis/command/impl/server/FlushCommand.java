@@ -0,0 +1,73 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.Locale;
+
+/**
+ * FLUSHALL / FLUSHDB [ASYNC | SYNC]
+ * <p>
+ * FLUSHDB 清空当前数据库，FLUSHALL 清空所有数据库 (已经为空的跳过，不重复发送失效通知)。
+ * - SYNC：在当前线程逐个清除 (耗时与 key 数量成正比)
+ * - ASYNC：整体换上新的空表，O(1) 返回；旧表交给 GC，其中的堆外值由后台线程逐个释放
+ * 不带参数时由 lazyfree-lazy-user-flush 决定。
+ */
+public class FlushCommand implements RedisCommand {
+
+    private final Databases databases;
+    private final boolean allDatabases;
+
+    public FlushCommand(Databases databases, boolean allDatabases) {
+        this.databases = databases;
+        this.allDatabases = allDatabases;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        boolean async = MiniRedisConfig.getInstance().isLazyfreeLazyUserFlush();
+        if (elements.length > 2) {
+            return new ErrorMessage("ERR syntax error");
+        }
+        if (elements.length == 2) {
+            String option = ((BulkString) elements[1]).asString().toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "ASYNC" -> async = true;
+                case "SYNC" -> async = false;
+                default -> {
+                    return new ErrorMessage("ERR syntax error");
+                }
+            }
+        }
+
+        if (!allDatabases) {
+            flush(storage, async);
+            return SimpleString.OK;
+        }
+        for (int i = 0; i < databases.size(); i++) {
+            StorageEngine db = databases.get(i);
+            if (db == storage || db.size() > 0) {
+                flush(db, async);
+            }
+        }
+        return SimpleString.OK;
+    }
+
+    private static void flush(StorageEngine storage, boolean async) {
+        if (async) {
+            storage.flushAsync();
+        } else {
+            storage.flush();
+        }
+    }
+
+    @Override
+    public boolean isWrite() {
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * HELLO [protover [AUTH username password] [SETNAME clientname]]
+ * <p>
+ * 切换当前连接的 RESP 协议版本 (2 或 3)，并返回服务端信息 Map。
+ * 协议版本记录在连接级的 {@link RedisContext} 上，批次在执行到 HELLO 时记下切换点，
+ * 写出时 RespEncoder 按回包产生时的版本编码。
+ * <p>
+ * 注意：本回包本身就按新协议编码 (与 Redis 行为一致)，同一 Pipeline 中它之前的回包仍按旧协议编码。
+ */
+public class HelloCommand implements RedisCommand {
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        int protocolVersion = context.getProtocolVersion();
+        String clientName = null;
+
+        if (elements.length > 1) {
+            String protoStr = ((BulkString) elements[1]).asString();
+            try {
+                protocolVersion = Integer.parseInt(protoStr);
+            } catch (NumberFormatException e) {
+                return new ErrorMessage("ERR Protocol version is not an integer or out of range");
+            }
+            if (protocolVersion != 2 && protocolVersion != 3) {
+                return new ErrorMessage("NOPROTO unsupported protocol version");
+            }
+
+            for (int i = 2; i < elements.length; i++) {
+                String option = ((BulkString) elements[i]).asString();
+                boolean hasMore = i + 1 < elements.length;
+                if ("AUTH".equalsIgnoreCase(option) && i + 2 < elements.length) {
+                    // 暂无 ACL，接受任意凭证
+                    i += 2;
+                } else if ("SETNAME".equalsIgnoreCase(option) && hasMore) {
+                    clientName = ((BulkString) elements[++i]).asString();
+                } else {
+                    return new ErrorMessage("ERR Syntax error in HELLO option '" + option + "'");
+                }
+            }
+        }
+
+        context.setProtocolVersion(protocolVersion);
+        if (clientName != null) {
+            context.setClientName(clientName);
+        }
+
+        return new MapMessage(new RedisMessage[]{
+                new BulkString("server"), new BulkString("redis"),
+                new BulkString("version"), new BulkString("6.0.0"),
+                new BulkString("proto"), RedisInteger.of(protocolVersion),
+                new BulkString("id"), RedisInteger.of(context.getClientId()),
+                new BulkString("mode"), new BulkString("standalone"),
+                new BulkString("role"), new BulkString("master"),
+                new BulkString("modules"), new RedisArray(new RedisMessage[0])
+        });
+    }
+}
@@ -0,0 +1,212 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.CommandStats;
+import org.muma.mini.redis.command.CommandTable;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.offheap.OffHeapArena;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * INFO [section]
+ * <p>
+ * 目前大部分字段仍是静态值，供 redis-cli / GUI 客户端探测使用
+ * <p>
+ * commandstats / latencystats 与 Redis 一样不在默认输出中，需要显式指定或使用 all / everything
+ */
+public class InfoCommand implements RedisCommand {
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final ClientRegistry clientRegistry;
+    private final CommandTable commandTable;
+    private final Databases databases;
+
+    public InfoCommand(ClientRegistry clientRegistry, CommandTable commandTable, Databases databases) {
+        this.clientRegistry = clientRegistry;
+        this.commandTable = commandTable;
+        this.databases = databases;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        String section = args.elements().length > 1
+                ? ((BulkString) args.elements()[1]).asString().toLowerCase(Locale.ROOT) : "default";
+        return switch (section) {
+            case "commandstats" -> new BulkString(commandStats());
+            case "latencystats" -> new BulkString(latencyStats());
+            case "keyspace" -> new BulkString(keyspace());
+            case "all", "everything" -> new BulkString(defaultInfo() + "\n" + commandStats() + "\n" + latencyStats());
+            default -> new BulkString(defaultInfo());
+        };
+    }
+
+    private String defaultInfo() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime() / 1000;
+        long pid = ProcessHandle.current().pid();
+        MiniRedisConfig config = MiniRedisConfig.getInstance();
+        long usedMemory = databases.getUsedMemory();
+        long usedMemoryPeak = databases.getUsedMemoryPeak();
+
+        OffHeapArena offHeap = OffHeapArena.getInstance();
+        String info = """
+                # Server
+                redis_version:6.0.0
+                redis_git_sha1:00000000
+                redis_git_dirty:0
+                redis_build_id:0
+                redis_mode:standalone
+                os:%s
+                arch_bits:64
+                multiplexing_api:netty
+                process_id:%d
+                tcp_port:6379
+                uptime_in_seconds:%d
+                uptime_in_days:%d
+                executable:mini-redis-java
+                
+                # Clients
+                connected_clients:%d
+                client_recent_max_output_buffer:%d
+                
+                # Memory
+                used_memory:%d
+                used_memory_human:%s
+                used_memory_peak:%d
+                used_memory_peak_human:%s
+                maxmemory:%d
+                maxmemory_human:%s
+                maxmemory_policy:%s
+                offheap_used_memory:%d
+                offheap_reserved_memory:%d
+                offheap_values:%d
+                
+                # Persistence
+                loading:0
+                
+                # Stats
+                total_connections_received:%d
+                total_commands_processed:%d
+                expired_keys:%d
+                evicted_keys:%d
+                
+                # Replication
+                role:master
+                connected_slaves:0
+                
+                # CPU
+                used_cpu_sys:0.0
+                used_cpu_user:0.0
+                """.formatted(
+                System.getProperty("os.name"),  // %s
+                pid,                            // %d
+                uptime,                         // %d
+                uptime / (3600 * 24),           // %d
+                clientRegistry.size(),          // %d (connected_clients)
+                clientRegistry.maxOutputMemory(), // %d (client_recent_max_output_buffer)
+                usedMemory,                     // %d (used_memory，按 key 估算的数据集大小)
+                bytesToHuman(usedMemory),       // %s
+                usedMemoryPeak,                 // %d
+                bytesToHuman(usedMemoryPeak),   // %s
+                config.getMaxmemory(),          // %d
+                bytesToHuman(config.getMaxmemory()), // %s
+                config.getMaxmemoryPolicy().configName(), // %s
+                offHeap.getUsedBytes(),         // %d (offheap_used_memory，存活的值占用的 chunk)
+                offHeap.getReservedBytes(),     // %d (offheap_reserved_memory，已申请的 slab)
+                offHeap.getLiveValues(),        // %d (offheap_values)
+                clientRegistry.getTotalConnectionsReceived(), // %d (total_connections_received)
+                totalCommandsProcessed(),       // %d (total_commands_processed)
+                databases.getExpiredKeys(),     // %d (expired_keys)
+                databases.getEvictedKeys()      // %d (evicted_keys)
+        );
+
+        return info + "\n" + keyspace();
+    }
+
+    /**
+     * 只列出非空的数据库：db0:keys=3,expires=1,avg_ttl=0 (avg_ttl 未统计)
+     */
+    private String keyspace() {
+        StringBuilder sb = new StringBuilder("# Keyspace\n");
+        for (int i = 0; i < databases.size(); i++) {
+            StorageEngine db = databases.get(i);
+            long keys = db.size();
+            if (keys == 0) continue;
+            sb.append("db").append(i)
+                    .append(":keys=").append(keys)
+                    .append(",expires=").append(db.expiresSize())
+                    .append(",avg_ttl=0\n");
+        }
+        return sb.toString();
+    }
+
+    // 与 Redis 的 bytesToHuman 一致：1.50K / 12.00M / 2.00G
+    private static String bytesToHuman(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        if (bytes < 1024L * 1024) return String.format(Locale.ROOT, "%.2fK", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format(Locale.ROOT, "%.2fM", bytes / (1024.0 * 1024));
+        return String.format(Locale.ROOT, "%.2fG", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private long totalCommandsProcessed() {
+        long total = 0;
+        for (CommandSpec spec : commandTable.all()) {
+            total += spec.stats().getCalls();
+        }
+        return total;
+    }
+
+    /**
+     * cmdstat_get:calls=2,usec=15,usec_per_call=7.50,rejected_calls=0,failed_calls=0
+     */
+    private String commandStats() {
+        StringBuilder sb = new StringBuilder("# Commandstats\n");
+        for (CommandSpec spec : commandTable.all()) {
+            CommandStats stats = spec.stats();
+            long calls = stats.getCalls();
+            if (calls == 0 && stats.getRejected() == 0) continue;
+            long usec = stats.getUsec();
+            sb.append("cmdstat_").append(spec.lowerName())
+                    .append(":calls=").append(calls)
+                    .append(",usec=").append(usec)
+                    .append(",usec_per_call=").append(String.format(Locale.ROOT, "%.2f", calls == 0 ? 0.0 : (double) usec / calls))
+                    .append(",rejected_calls=").append(stats.getRejected())
+                    .append(",failed_calls=").append(stats.getFailed())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * latency_percentiles_usec_get:p50=1.003,p99=1.003,p99.9=1.003
+     */
+    private String latencyStats() {
+        StringBuilder sb = new StringBuilder("# Latencystats\n");
+        for (CommandSpec spec : commandTable.all()) {
+            if (spec.stats().getCalls() == 0) continue;
+            long[] nanos = spec.stats().getHistogram().percentiles(PERCENTILES);
+            sb.append("latency_percentiles_usec_").append(spec.lowerName()).append(':');
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append('p').append(formatPercentile(PERCENTILES[i])).append('=')
+                        .append(String.format(Locale.ROOT, "%.3f", nanos[i] / 1000.0));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String formatPercentile(double p) {
+        return p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+}
@@ -0,0 +1,19 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * PING [message]
+ */
+public class PingCommand implements RedisCommand {
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        if (args.elements().length > 2) return errorArgs("ping");
+        return args.elements().length == 2 ? args.elements()[1] : SimpleString.PONG;
+    }
+}
@@ -0,0 +1,40 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * SELECT index
+ * <p>
+ * 只修改连接状态，之后的命令由 Dispatcher 交给所选数据库执行；MULTI 中同样入队，EXEC 时生效
+ */
+public class SelectCommand implements RedisCommand {
+
+    private final Databases databases;
+
+    public SelectCommand(Databases databases) {
+        this.databases = databases;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        long index;
+        try {
+            index = Long.parseLong(((BulkString) args.elements()[1]).asString());
+        } catch (NumberFormatException e) {
+            return new ErrorMessage("ERR invalid DB index");
+        }
+        if (!databases.isValidIndex(index)) {
+            return new ErrorMessage("ERR DB index is out of range");
+        }
+        context.setDbIndex((int) index);
+        return SimpleString.OK;
+    }
+}
@@ -38,6 +38,6 @@ public class SlaveOfCommand implements RedisCommand {
         // 调用 Manager 启动异步流程
         replicationManager.slaveOf(host, port);
 
-        return new SimpleString("OK");
+        return SimpleString.OK;
     }
 }
@@ -0,0 +1,72 @@
+package org.muma.mini.redis.command.impl.server;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.command.SlowLog;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SLOWLOG GET [count] | LEN | RESET
+ * <p>
+ * GET 的每条记录：[id, 时间戳 (秒), 耗时 (微秒), [参数...], 客户端地址, 客户端名称]
+ */
+public class SlowlogCommand implements RedisCommand {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    private final SlowLog slowLog;
+
+    public SlowlogCommand(SlowLog slowLog) {
+        this.slowLog = slowLog;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        RedisMessage[] elements = args.elements();
+        String sub = ((BulkString) elements[1]).asString().toUpperCase(Locale.ROOT);
+        switch (sub) {
+            case "GET": {
+                if (elements.length > 3) return errorArgs("slowlog|get");
+                int count = DEFAULT_COUNT;
+                if (elements.length == 3) {
+                    try {
+                        count = Integer.parseInt(((BulkString) elements[2]).asString());
+                    } catch (NumberFormatException e) {
+                        return errorInt();
+                    }
+                    if (count < -1) {
+                        return new ErrorMessage("ERR count should be greater than or equal to -1");
+                    }
+                }
+                List<SlowLog.Entry> entries = slowLog.latest(count);
+                RedisMessage[] result = new RedisMessage[entries.size()];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = describe(entries.get(i));
+                }
+                return new RedisArray(result);
+            }
+            case "LEN":
+                return RedisInteger.of(slowLog.size());
+            case "RESET":
+                slowLog.reset();
+                return SimpleString.OK;
+            default:
+                return new ErrorMessage("ERR unknown subcommand '" + sub + "'. Try SLOWLOG HELP.");
+        }
+    }
+
+    private static RedisMessage describe(SlowLog.Entry entry) {
+        return new RedisArray(new RedisMessage[]{
+                RedisInteger.of(entry.id()),
+                RedisInteger.of(entry.timestamp()),
+                RedisInteger.of(entry.durationMicros()),
+                new RedisArray(entry.args()),
+                new BulkString(entry.clientAddress()),
+                new BulkString(entry.clientName())
+        });
+    }
+}
@@ -37,7 +37,7 @@ public class SAddCommand implements RedisCommand {
 
         storage.put(key, data);
 
-        return new RedisInteger(addedCount);
+        return RedisInteger.of(addedCount);
     }
 
     @Override
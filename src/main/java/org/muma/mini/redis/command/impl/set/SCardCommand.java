@@ -17,13 +17,18 @@ public class SCardCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return errorArgs("scard");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.SET) return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         RedisSet set = data.getValue(RedisSet.class);
-        return new RedisInteger(set.size());
+        return RedisInteger.of(set.size());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -76,13 +76,13 @@ public class SInterCardCommand implements RedisCommand {
                 RedisData<?> d = storage.get(k);
                 if (d == null) {
                     // 如果有一个集合不存在，交集必为 0
-                    return new RedisInteger(0);
+                    return RedisInteger.of(0);
                 } else if (d.getType() != RedisDataType.SET) {
                     return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
                 } else {
                     RedisSet set = d.getValue(RedisSet.class);
                     // 如果有一个空集合，交集必为 0
-                    if (set.size() == 0) return new RedisInteger(0);
+                    if (set.size() == 0) return RedisInteger.of(0);
                     sets.add(set);
                 }
             }
@@ -121,6 +121,6 @@ public class SInterCardCommand implements RedisCommand {
             }
         }
 
-        return new RedisInteger(intersectCount);
+        return RedisInteger.of(intersectCount);
     }
 }
@@ -17,14 +17,19 @@ public class SIsMemberCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 3) return errorArgs("sismember");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         byte[] member = ((BulkString) args.elements()[2]).content();
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.SET) return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         RedisSet set = data.getValue(RedisSet.class);
-        return set.contains(member) ? new RedisInteger(1) : new RedisInteger(0);
+        return set.contains(member) ? RedisInteger.of(1) : RedisInteger.of(0);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -27,7 +27,7 @@ public class SMembersCommand implements RedisCommand {
         String key = ((BulkString) args.elements()[1]).asString();
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisArray(new RedisMessage[0]);
+        if (data == null) return new SetMessage(new RedisMessage[0]);
         if (data.getType() != RedisDataType.SET) return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         RedisSet set = data.getValue(RedisSet.class);
@@ -42,6 +42,6 @@ public class SMembersCommand implements RedisCommand {
         for (int i = 0; i < members.size(); i++) {
             result[i] = new BulkString(members.get(i));
         }
-        return new RedisArray(result);
+        return new SetMessage(result);
     }
 }
@@ -25,12 +25,12 @@ public class SMoveCommand implements RedisCommand {
         // 简单起见，全库锁
         synchronized (storage) {
             RedisData<?> srcData = storage.get(source);
-            if (srcData == null) return new RedisInteger(0);
+            if (srcData == null) return RedisInteger.of(0);
             if (srcData.getType() != RedisDataType.SET) return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
             RedisSet srcSet = srcData.getValue(RedisSet.class);
             if (!srcSet.contains(member)) {
-                return new RedisInteger(0); // Member 不存在
+                return RedisInteger.of(0); // Member 不存在
             }
 
             // 获取/创建目标集合
@@ -59,7 +59,7 @@ public class SMoveCommand implements RedisCommand {
                 storage.put(destination, destData);
             }
 
-            return new RedisInteger(1);
+            return RedisInteger.of(1);
         }
     }
 
@@ -28,7 +28,7 @@ public class SPopCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new BulkString((byte[]) null); // 如果 count>1 应该返回空数组？Redis 3.2+ 是这样的
+        if (data == null) return BulkString.NULL; // 如果 count>1 应该返回空数组？Redis 3.2+ 是这样的
         if (data.getType() != RedisDataType.SET)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
@@ -42,7 +42,7 @@ public class SPopCommand implements RedisCommand {
             byte[] val = set.pop();
             if (set.size() == 0) storage.remove(key);
             else storage.put(key, data);
-            return val == null ? new BulkString((byte[]) null) : new BulkString(val);
+            return val == null ? BulkString.NULL : new BulkString(val);
         } else {
             int actualCount = Math.min(count, set.size());
             RedisMessage[] result = new RedisMessage[actualCount];
@@ -18,7 +18,7 @@ public class SRandMemberCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length < 2) return errorArgs("srandmember");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         int count = 1;
         if (args.elements().length > 2) {
             try {
@@ -31,7 +31,7 @@ public class SRandMemberCommand implements RedisCommand {
 
         RedisData<?> data = storage.get(key);
         if (data == null) {
-            return args.elements().length > 2 ? new RedisArray(new RedisMessage[0]) : new BulkString((byte[]) null);
+            return args.elements().length > 2 ? new RedisArray(new RedisMessage[0]) : BulkString.NULL;
         }
         if (data.getType() != RedisDataType.SET)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -49,7 +49,7 @@ public class SRandMemberCommand implements RedisCommand {
             }
             return new RedisArray(result);
         } else {
-            return members.isEmpty() ? new BulkString((byte[]) null) : new BulkString(members.get(0));
+            return members.isEmpty() ? BulkString.NULL : new BulkString(members.get(0));
         }
     }
 }
@@ -22,7 +22,7 @@ public class SRemCommand implements RedisCommand {
         int removedCount = 0;
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.SET)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
@@ -39,7 +39,7 @@ public class SRemCommand implements RedisCommand {
             // 显式回写
             storage.put(key, data);
         }
-        return new RedisInteger(removedCount);
+        return RedisInteger.of(removedCount);
     }
 
     @Override
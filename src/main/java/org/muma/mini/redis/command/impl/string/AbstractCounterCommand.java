@@ -0,0 +1,61 @@
+package org.muma.mini.redis.command.impl.string;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisInteger;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * INCR / DECR / INCRBY / DECRBY 的通用模板
+ * <p>
+ * 结果以 INT 编码保存：已经是 INT 编码的值原地更新，不再解析、格式化字节，也不新建 RedisData；
+ * 原始字节的值解析一次后转成 INT 编码。原地更新同一个对象，TTL 自然保留。
+ */
+public abstract class AbstractCounterCommand implements RedisCommand {
+
+    protected RedisMessage incrBy(StorageEngine storage, String key, long increment) {
+        RedisData<?> data = storage.get(key);
+        long current = 0;
+
+        if (data != null) {
+            if (data.getType() != RedisDataType.STRING) {
+                return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            if (data.isIntEncoded()) {
+                current = (Long) data.getData();
+            } else {
+                try {
+                    current = Long.parseLong(new String(data.getValue(byte[].class), StandardCharsets.UTF_8));
+                } catch (NumberFormatException e) {
+                    return errorInt(); // 字符串不是整数
+                }
+            }
+        }
+
+        long val;
+        try {
+            val = Math.addExact(current, increment);
+        } catch (ArithmeticException e) {
+            return new ErrorMessage("ERR increment or decrement would overflow");
+        }
+
+        if (data == null) {
+            storage.put(key, RedisData.ofLong(val));
+        } else {
+            data.setLongValue(val);
+            // put 同一个对象：重新计入内存、通知 WATCH / Tracking
+            storage.put(key, data);
+        }
+        return RedisInteger.of(val);
+    }
+
+    @Override
+    public boolean isWrite() {
+        return true;
+    }
+}
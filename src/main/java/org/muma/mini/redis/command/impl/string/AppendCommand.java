@@ -28,7 +28,7 @@ public class AppendCommand implements RedisCommand {
         if (data == null) {
             RedisData<byte[]> newData = new RedisData<>(RedisDataType.STRING, value);
             storage.put(key, newData);
-            return new RedisInteger(value.length);
+            return RedisInteger.of(value.length);
         }
 
         // 2. 类型检查
@@ -46,7 +46,7 @@ public class AppendCommand implements RedisCommand {
         updatedData.setExpireAt(data.getExpireAt()); // 保持 TTL
         storage.put(key, updatedData);
 
-        return new RedisInteger(newBytes.length);
+        return RedisInteger.of(newBytes.length);
     }
 
     @Override
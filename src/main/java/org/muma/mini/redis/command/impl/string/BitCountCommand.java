@@ -19,7 +19,7 @@ public class BitCountCommand implements RedisCommand {
             return new ErrorMessage("ERR syntax error");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         long start = 0;
         long end = -1;
         boolean hasRange = false;
@@ -37,7 +37,7 @@ public class BitCountCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.STRING)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
@@ -51,7 +51,7 @@ public class BitCountCommand implements RedisCommand {
             if (start < 0) start = 0;
             if (end >= bytes.length) end = bytes.length - 1;
 
-            if (start > end) return new RedisInteger(0);
+            if (start > end) return RedisInteger.of(0);
         } else {
             end = bytes.length - 1;
         }
@@ -62,6 +62,6 @@ public class BitCountCommand implements RedisCommand {
             count += Integer.bitCount(bytes[i] & 0xFF);
         }
 
-        return new RedisInteger(count);
+        return RedisInteger.of(count);
     }
 }
@@ -110,7 +110,7 @@ public class BitOpCommand implements RedisCommand {
                 storage.put(destKey, new RedisData<>(RedisDataType.STRING, res));
             }
 
-            return new RedisInteger(res.length);
+            return RedisInteger.of(res.length);
         }
     }
 
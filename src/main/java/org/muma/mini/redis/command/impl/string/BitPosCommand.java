@@ -17,7 +17,7 @@ public class BitPosCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length < 3) return errorArgs("bitpos");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         int targetBit;
         try {
             targetBit = Integer.parseInt(((BulkString) args.elements()[2]).asString());
@@ -32,7 +32,7 @@ public class BitPosCommand implements RedisCommand {
 
         RedisData<?> data = storage.get(key);
         if (data == null) {
-            return new RedisInteger(targetBit == 0 ? 0 : -1);
+            return RedisInteger.of(targetBit == 0 ? 0 : -1);
         }
         if (data.getType() != RedisDataType.STRING) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
@@ -65,6 +65,6 @@ public class BitPosCommand implements RedisCommand {
             pos = (long) bytes.length * 8;
         }
 
-        return new RedisInteger(pos);
+        return RedisInteger.of(pos);
     }
 }
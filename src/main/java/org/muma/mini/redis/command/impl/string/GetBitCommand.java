@@ -16,7 +16,7 @@ public class GetBitCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 3) return errorArgs("getbit");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         long offset;
         try {
             offset = Long.parseLong(((BulkString) args.elements()[2]).asString());
@@ -26,7 +26,7 @@ public class GetBitCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0); // 不存在视全为 0
+        if (data == null) return RedisInteger.of(0); // 不存在视全为 0
         if (data.getType() != RedisDataType.STRING) return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
         byte[] bytes = data.getValue(byte[].class);
@@ -34,12 +34,17 @@ public class GetBitCommand implements RedisCommand {
 
         // 越界视全为 0
         if (byteIndex >= bytes.length) {
-            return new RedisInteger(0);
+            return RedisInteger.of(0);
         }
 
         int bitOffset = (int) (offset % 8);
         int bit = (bytes[byteIndex] >> (7 - bitOffset)) & 1;
 
-        return new RedisInteger(bit);
+        return RedisInteger.of(bit);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
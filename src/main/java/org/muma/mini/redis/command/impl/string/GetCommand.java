@@ -5,11 +5,13 @@ import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.DirectBulkString;
 import org.muma.mini.redis.protocol.ErrorMessage;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
 import org.muma.mini.redis.server.RedisContext;
 import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.offheap.OffHeapValue;
 
 public class GetCommand implements RedisCommand {
     @Override
@@ -18,17 +20,33 @@ public class GetCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'get' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         RedisData<?> data = storage.get(key);
 
         if (data == null) {
-            return new BulkString((byte[]) null); // Nil
+            return BulkString.NULL; // Nil
         }
 
         if (data.getType() != RedisDataType.STRING) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
         }
 
-        return new BulkString((byte[]) data.getData());
+        return reply(data);
+    }
+
+    /**
+     * 字符串值的回包：堆外的值由回包持有一个引用，编码时直接从堆外拷贝到出站缓冲区
+     */
+    static RedisMessage reply(RedisData<?> data) {
+        if (data.getData() instanceof OffHeapValue offHeap && offHeap.tryRetain()) {
+            return new DirectBulkString(offHeap.content(), offHeap);
+        }
+        // IO 线程上读到刚被释放的值时抛出异常，回退到核心线程执行
+        return new BulkString(data.getValue(byte[].class));
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
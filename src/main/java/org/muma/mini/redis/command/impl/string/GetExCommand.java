@@ -5,6 +5,7 @@ import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
 import org.muma.mini.redis.store.StorageEngine;
 
 import java.util.Locale;
@@ -67,7 +68,7 @@ public class GetExCommand implements RedisCommand {
                     }
                     i++;
 
-                    long now = System.currentTimeMillis();
+                    long now = ServerClock.now();
                     switch (opt) {
                         case "EX" -> newExpireAt = now + val * 1000;
                         case "PX" -> newExpireAt = now + val;
@@ -93,7 +94,7 @@ public class GetExCommand implements RedisCommand {
 
         // Key 不存在 -> nil
         if (data == null) {
-            return new BulkString((byte[]) null);
+            return BulkString.NULL;
         }
 
         // 类型检查
@@ -104,9 +105,9 @@ public class GetExCommand implements RedisCommand {
         // 修改 TTL (如果需要)
         if (newExpireAt != -2) {
             // 如果计算出的 expireAt 已经过期了 (针对 EXAT 传过去时间的情况)
-            if (newExpireAt > 0 && newExpireAt <= System.currentTimeMillis()) {
+            if (newExpireAt > 0 && newExpireAt <= ServerClock.now()) {
                 storage.remove(key); // 立即删除
-                return new BulkString((byte[]) null); // GETEX 如果导致 key 删除，应该返回什么？
+                return BulkString.NULL; // GETEX 如果导致 key 删除，应该返回什么？
                 // Redis 规范：GETEX 总是返回旧值，即使它导致了 Key 过期。
                 // 所以这里我们不能直接删了返回 nil，而应该先拿值，再删。
             } else {
@@ -120,6 +121,6 @@ public class GetExCommand implements RedisCommand {
 
         // 修正后的逻辑：即使刚刚过期了，也应该返回旧值
         // 但如果上面的逻辑执行了 remove，data 对象还在内存里，可以返回
-        return new BulkString((byte[]) data.getData());
+        return GetCommand.reply(data);
     }
 }
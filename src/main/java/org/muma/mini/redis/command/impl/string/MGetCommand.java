@@ -19,14 +19,14 @@ public class MGetCommand implements RedisCommand {
         RedisMessage[] results = new RedisMessage[elements.length - 1];
 
         for (int i = 1; i < elements.length; i++) {
-            String key = ((BulkString) elements[i]).asString();
+            byte[] key = ((BulkString) elements[i]).content();
 
             // 1. 使用通配符接收，避免 Raw Type 警告
             RedisData<?> data = storage.get(key);
 
             if (data == null || data.getType() != RedisDataType.STRING) {
                 // Key 不存在或类型不对，Redis MGET 统一返回 nil
-                results[i - 1] = new BulkString((byte[]) null);
+                results[i - 1] = BulkString.NULL;
             } else {
                 // 2. 【修正核心】使用 getValue 安全获取泛型数据
                 byte[] bytes = data.getValue(byte[].class);
@@ -36,4 +36,9 @@ public class MGetCommand implements RedisCommand {
 
         return new RedisArray(results);
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -2,7 +2,6 @@ package org.muma.mini.redis.command.impl.string;
 
 import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
-import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
 import org.muma.mini.redis.store.StorageEngine;
@@ -25,14 +24,14 @@ public class MSetCommand implements RedisCommand {
                 String key = ((BulkString) elements[1 + i * 2]).asString();
                 byte[] value = ((BulkString) elements[2 + i * 2]).content();
 
-                // 【修正核心】使用泛型构造，明确数据类型为 byte[]
-                RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, value);
+                // 整数值使用 INT 编码
+                RedisData<?> data = RedisData.ofString(value);
 
                 storage.put(key, data);
             }
         }
 
-        return new SimpleString("OK");
+        return SimpleString.OK;
     }
 
     @Override
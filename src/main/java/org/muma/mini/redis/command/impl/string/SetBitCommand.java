@@ -72,7 +72,7 @@ public class SetBitCommand implements RedisCommand {
         if (data != null) newData.setExpireAt(data.getExpireAt());
         storage.put(key, newData);
 
-        return new RedisInteger(oldBit);
+        return RedisInteger.of(oldBit);
     }
 
     @Override
@@ -2,9 +2,9 @@ package org.muma.mini.redis.command.impl.string;
 
 import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
-import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.ServerClock;
 import org.muma.mini.redis.store.StorageEngine;
 
 import java.util.Locale;
@@ -12,8 +12,6 @@ import java.util.Objects;
 
 public class SetCommand implements RedisCommand {
 
-    private static final String OK = "OK";
-
     @Override
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         // 基本格式: SET key value [NX|XX] [EX seconds | PX milliseconds]
@@ -48,7 +46,7 @@ public class SetCommand implements RedisCommand {
                     try {
                         long seconds = Long.parseLong(Objects.requireNonNull(((BulkString) elements[++i]).asString()));
                         if (seconds <= 0) return new ErrorMessage("ERR invalid expire time in set");
-                        expireAt = System.currentTimeMillis() + (seconds * 1000);
+                        expireAt = ServerClock.now() + (seconds * 1000);
                     } catch (NumberFormatException e) {
                         return new ErrorMessage("ERR value is not an integer or out of range");
                     }
@@ -59,7 +57,7 @@ public class SetCommand implements RedisCommand {
                     try {
                         long millis = Long.parseLong(Objects.requireNonNull(((BulkString) elements[++i]).asString()));
                         if (millis <= 0) return new ErrorMessage("ERR invalid expire time in set");
-                        expireAt = System.currentTimeMillis() + millis;
+                        expireAt = ServerClock.now() + millis;
                     } catch (NumberFormatException e) {
                         return new ErrorMessage("ERR value is not an integer or out of range");
                     }
@@ -79,21 +77,21 @@ public class SetCommand implements RedisCommand {
         RedisData<?> existing = storage.get(key);
 
         if (nx && existing != null) {
-            return new BulkString((byte[]) null); // Key 存在，NX 条件不满足，返回 Nil
+            return BulkString.NULL; // Key 存在，NX 条件不满足，返回 Nil
         }
         if (xx && existing == null) {
-            return new BulkString((byte[]) null); // Key 不存在，XX 条件不满足，返回 Nil
+            return BulkString.NULL; // Key 不存在，XX 条件不满足，返回 Nil
         }
 
         // --- 3. 写入阶段 ---
-        RedisData<byte[]> newData = new RedisData<>(RedisDataType.STRING, value);
+        RedisData<?> newData = RedisData.ofString(value);
         if (expireAt != -1) {
             newData.setExpireAt(expireAt);
         }
 
         storage.put(key, newData);
 
-        return new SimpleString(OK);
+        return SimpleString.OK;
     }
 
     @Override
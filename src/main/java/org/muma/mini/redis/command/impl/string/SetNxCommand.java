@@ -2,7 +2,6 @@ package org.muma.mini.redis.command.impl.string;
 
 import org.muma.mini.redis.command.RedisCommand;
 import org.muma.mini.redis.common.RedisData;
-import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.protocol.*;
 import org.muma.mini.redis.server.RedisContext;
 import org.muma.mini.redis.store.StorageEngine;
@@ -21,14 +20,14 @@ public class SetNxCommand implements RedisCommand {
         // 必须原子操作
         // 检查是否存在 (storage.get 返回 RedisData<?>)
         if (storage.get(key) != null) {
-            return new RedisInteger(0); // 失败，Key 已存在
+            return RedisInteger.of(0); // 失败，Key 已存在
         }
 
-        // 【修正核心】使用泛型构造 RedisData<byte[]>
-        RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, value);
+        // 整数值使用 INT 编码
+        RedisData<?> data = RedisData.ofString(value);
 
         storage.put(key, data);
-        return new RedisInteger(1); // 成功
+        return RedisInteger.of(1); // 成功
     }
 
     @Override
@@ -17,19 +17,23 @@ public class StrLenCommand implements RedisCommand {
     public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
         if (args.elements().length != 2) return errorArgs("strlen");
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
 
         RedisData<?> data = storage.get(key);
 
         if (data == null) {
-            return new RedisInteger(0); // Key 不存在视为长度 0
+            return RedisInteger.of(0); // Key 不存在视为长度 0
         }
 
         if (data.getType() != RedisDataType.STRING) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
         }
 
-        byte[] bytes = data.getValue(byte[].class);
-        return new RedisInteger(bytes.length);
+        return RedisInteger.of(data.stringLength());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -0,0 +1,34 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * DISCARD
+ * <p>
+ * 丢弃已入队的命令并退出事务，同时取消所有 WATCH
+ */
+public class DiscardCommand implements RedisCommand {
+
+    private final WatchManager watchManager;
+
+    public DiscardCommand(WatchManager watchManager) {
+        this.watchManager = watchManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        if (!context.isInMulti()) {
+            return new ErrorMessage("ERR DISCARD without MULTI");
+        }
+        context.endMulti();
+        watchManager.unwatchAll(context);
+        return SimpleString.OK;
+    }
+}
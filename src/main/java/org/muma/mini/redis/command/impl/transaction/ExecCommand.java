@@ -0,0 +1,72 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.List;
+
+/**
+ * EXEC
+ * <p>
+ * 【原子性】已入队的命令在同一个核心线程任务中依次执行 (EXEC 本身就是一条命令)，中间不会插入其他连接的命令。
+ * 分片模式下 ShardRouter 按入队命令的 key 决定 EXEC 的执行位置，跨分片时交给协调线程。
+ * <p>
+ * 【回复】
+ * - 入队时出过错：EXECABORT，整个事务丢弃
+ * - WATCH 的 key 被修改过：nil，整个事务丢弃
+ * - 否则返回每条命令的回复；单条命令执行出错不影响其他命令 (与 Redis 一致，不回滚)
+ * <p>
+ * 【AOF】事务内的写命令作为一个 MULTI ... EXEC 块写入
+ */
+public class ExecCommand implements RedisCommand {
+
+    private final CommandDispatcher dispatcher;
+    private final WatchManager watchManager;
+    private final AofManager aofManager;
+
+    public ExecCommand(CommandDispatcher dispatcher, WatchManager watchManager, AofManager aofManager) {
+        this.dispatcher = dispatcher;
+        this.watchManager = watchManager;
+        this.aofManager = aofManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        if (!context.isInMulti()) {
+            return new ErrorMessage("ERR EXEC without MULTI");
+        }
+        boolean aborted = context.isMultiAborted();
+        List<RedisArray> commands = context.endMulti();
+        boolean dirty = watchManager.isDirty(context);
+        watchManager.unwatchAll(context);
+
+        if (aborted) {
+            return new ErrorMessage("EXECABORT Transaction discarded because of previous errors.");
+        }
+        if (dirty) {
+            return new RedisArray(null);
+        }
+
+        RedisMessage[] replies = new RedisMessage[commands.size()];
+        context.setInExec(true);
+        aofManager.beginTransaction();
+        try {
+            for (int i = 0; i < replies.length; i++) {
+                RedisMessage reply = dispatcher.dispatch(commands.get(i), context);
+                // 事务内的阻塞命令不阻塞，没有数据时回复 nil
+                replies[i] = reply != null ? reply : new RedisArray(null);
+            }
+        } finally {
+            aofManager.endTransaction();
+            context.setInExec(false);
+        }
+        return new RedisArray(replies);
+    }
+}
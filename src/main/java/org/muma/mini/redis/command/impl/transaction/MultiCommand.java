@@ -0,0 +1,26 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * MULTI
+ * <p>
+ * 开启事务：之后的命令只校验、入队 (回复 QUEUED)，直到 EXEC 时一次性执行。
+ * 入队逻辑在 CommandDispatcher#dispatch 中。
+ */
+public class MultiCommand implements RedisCommand {
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        if (context.isInMulti()) {
+            return new ErrorMessage("ERR MULTI calls can not be nested");
+        }
+        context.beginMulti();
+        return SimpleString.OK;
+    }
+}
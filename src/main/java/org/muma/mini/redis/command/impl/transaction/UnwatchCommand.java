@@ -0,0 +1,27 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * UNWATCH
+ */
+public class UnwatchCommand implements RedisCommand {
+
+    private final WatchManager watchManager;
+
+    public UnwatchCommand(WatchManager watchManager) {
+        this.watchManager = watchManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        watchManager.unwatchAll(context);
+        return SimpleString.OK;
+    }
+}
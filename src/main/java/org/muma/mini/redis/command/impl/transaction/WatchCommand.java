@@ -0,0 +1,37 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+/**
+ * WATCH key [key ...]
+ * <p>
+ * 记下 key 的当前版本号；EXEC 时任何一个 key 被修改过，事务就不执行 (回复 nil)
+ */
+public class WatchCommand implements RedisCommand {
+
+    private final WatchManager watchManager;
+
+    public WatchCommand(WatchManager watchManager) {
+        this.watchManager = watchManager;
+    }
+
+    @Override
+    public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+        if (context.isInMulti()) {
+            return new ErrorMessage("ERR WATCH inside MULTI is not allowed");
+        }
+        RedisMessage[] elements = args.elements();
+        for (int i = 1; i < elements.length; i++) {
+            watchManager.watch(context, ((BulkString) elements[i]).asString());
+        }
+        return SimpleString.OK;
+    }
+}
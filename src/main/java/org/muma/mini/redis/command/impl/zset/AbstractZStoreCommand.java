@@ -117,7 +117,7 @@ public abstract class AbstractZStoreCommand implements RedisCommand {
             resultSize = destSet.size();
         }
 
-        return new RedisInteger(resultSize);
+        return RedisInteger.of(resultSize);
     }
 
     protected abstract String getCommandName();
@@ -77,7 +77,7 @@ public class ZAddCommand implements RedisCommand {
         // 如果 data 是新创建的，需要 put；如果是旧的，put 也是为了语义闭环
         storage.put(key, data);
 
-        return new RedisInteger(addedCount);
+        return RedisInteger.of(addedCount);
     }
 
     @Override
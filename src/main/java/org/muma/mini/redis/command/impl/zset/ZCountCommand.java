@@ -25,7 +25,7 @@ public class ZCountCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'zcount' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         String minStr = ((BulkString) args.elements()[2]).asString();
         String maxStr = ((BulkString) args.elements()[3]).asString();
 
@@ -37,7 +37,7 @@ public class ZCountCommand implements RedisCommand {
         }
 
         RedisData<?> data = storage.get(key);
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.ZSET) {
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
         }
@@ -47,7 +47,7 @@ public class ZCountCommand implements RedisCommand {
         // 核心调用：O(logN)
         long count = zset.count(range);
 
-        return new RedisInteger(count);
+        return RedisInteger.of(count);
     }
 
 }
@@ -5,6 +5,7 @@ import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.common.RedisDataType;
 import org.muma.mini.redis.common.RedisZSet;
 import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.DoubleMessage;
 import org.muma.mini.redis.protocol.ErrorMessage;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
@@ -60,10 +61,8 @@ public class ZIncrByCommand implements RedisCommand {
         // 3. 回写
         storage.put(key, data);
 
-        // 4. 返回新分数 (BulkString)
-        String scoreStr = (newScore % 1 == 0) ?
-                String.valueOf((long) newScore) : String.valueOf(newScore);
-        return new BulkString(scoreStr);
+        // 4. 返回新分数 (RESP3 为 Double，RESP2 由编码器降级为 BulkString)
+        return new DoubleMessage(newScore);
     }
 
     @Override
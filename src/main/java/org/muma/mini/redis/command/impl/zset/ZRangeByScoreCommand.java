@@ -84,7 +84,7 @@ public class ZRangeByScoreCommand implements RedisCommand {
         }
 
         // 5. 构建响应 (复用 buildResponse 逻辑，减少代码重复)
-        return buildZSetResponse(result, withScores);
+        return buildZSetResponse(result, withScores, context);
     }
 
 
@@ -68,19 +68,6 @@ public class ZRangeCommand implements RedisCommand {
         List<RedisZSet.ZSetEntry> range = zset.range(start, stop);
 
         // 构建返回
-        int size = range.size() * (withScores ? 2 : 1);
-        RedisMessage[] result = new RedisMessage[size];
-
-        int i = 0;
-        for (RedisZSet.ZSetEntry entry : range) {
-            result[i++] = new BulkString(entry.member());
-            if (withScores) {
-                String scoreStr = (entry.score() % 1 == 0) ?
-                        String.valueOf((long) entry.score()) : String.valueOf(entry.score());
-                result[i++] = new BulkString(scoreStr);
-            }
-        }
-
-        return new RedisArray(result);
+        return buildZSetResponse(range, withScores, context);
     }
 }
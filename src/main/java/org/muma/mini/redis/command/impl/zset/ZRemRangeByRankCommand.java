@@ -29,7 +29,7 @@ public class ZRemRangeByRankCommand implements RedisCommand {
 
         RedisData<?> data = storage.get(key);
 
-        if (data == null) return new RedisInteger(0);
+        if (data == null) return RedisInteger.of(0);
         if (data.getType() != RedisDataType.ZSET)
             return new ErrorMessage("WRONGTYPE Operation against a key holding the wrong kind of value");
 
@@ -39,7 +39,7 @@ public class ZRemRangeByRankCommand implements RedisCommand {
         if (zset.size() == 0) storage.remove(key);
         else storage.put(key, data);
 
-        return new RedisInteger(removed);
+        return RedisInteger.of(removed);
     }
 
     @Override
@@ -65,7 +65,7 @@ public class ZRevRangeCommand implements RedisCommand {
         List<RedisZSet.ZSetEntry> result = zset.revRange(start, stop);
 
         // 4. 构建响应
-        return buildZSetResponse(result, withScores);
+        return buildZSetResponse(result, withScores, context);
     }
 
 }
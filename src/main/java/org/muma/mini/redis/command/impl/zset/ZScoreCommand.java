@@ -27,13 +27,13 @@ public class ZScoreCommand implements RedisCommand {
             return new ErrorMessage("ERR wrong number of arguments for 'zscore' command");
         }
 
-        String key = ((BulkString) args.elements()[1]).asString();
+        byte[] key = ((BulkString) args.elements()[1]).content();
         String member = ((BulkString) args.elements()[2]).asString();
 
         RedisData<?> data = storage.get(key);
 
         // Key 不存在返回 nil
-        if (data == null) return new BulkString((byte[]) null);
+        if (data == null) return BulkString.NULL;
 
         // 类型错误
         if (data.getType() != RedisDataType.ZSET) {
@@ -44,13 +44,15 @@ public class ZScoreCommand implements RedisCommand {
         Double score = zset.getScore(member);
 
         if (score == null) {
-            return new BulkString((byte[]) null); // Member 不存在
+            return BulkString.NULL; // Member 不存在
         }
 
-        // 格式化输出：如果是整数，去掉 .0
-        String scoreStr = (score % 1 == 0) ?
-                String.valueOf(score.longValue()) : String.valueOf(score);
+        // RESP3 为 Double，RESP2 由编码器降级为 BulkString (整数去掉 .0)
+        return new DoubleMessage(score);
+    }
 
-        return new BulkString(scoreStr);
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -18,8 +18,8 @@ public class BloomFilter {
     public static int[] getHashPositions(byte[] data, int m, int k) {
         int[] positions = new int[k];
 
-        // Hash 1: Murmur3
-        int h1 = MurmurHash3.hash32(data);
+        // Hash 1: Murmur3 (沿用旧的 tail 处理，保证持久化的位图与之前的版本一致)
+        int h1 = MurmurHash3.hash32Legacy(data);
         // Hash 2: 简单的乘法 Hash (模拟)
         int h2 = simpleHash(data);
 
@@ -1,38 +1,167 @@
 package org.muma.mini.redis.common;
 
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.store.offheap.OffHeapArena;
+import org.muma.mini.redis.store.offheap.OffHeapValue;
 
-import java.io.Serializable;
-
-@Data
+/**
+ * 键空间中的一个值 (对应 Redis 的 robj)
+ * <p>
+ * 【对象布局】每个 key 都有一个 RedisData，字段越少越省内存：
+ * 类型与 LRU/LFU 共用一个 int (高 8 位类型序号，低 24 位与 robj.lru 相同)，used_memory 的记账用 int，
+ * 字符串值直接引用 byte[] (或 INT 编码的 Long、堆外大值的 OffHeapValue)，没有额外的包装对象。
+ * 开启压缩指针时为 12 字节对象头 + 8 (expireAt) + 4 (data) + 4 (meta) + 4 (memory) = 32 字节。
+ * expireAt 仍然放在这里：惰性过期与 IO 线程的乐观读只看值本身，不需要访问只属于核心线程的过期索引。
+ */
+@Getter
+@Setter
 @NoArgsConstructor
-public class RedisData<T> implements Serializable {
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RedisData<T> {
 
-    // 数据类型
-    private RedisDataType type;
+    private static final RedisDataType[] TYPES = RedisDataType.values();
+    private static final int TYPE_SHIFT = 24;
+    private static final int LRU_MASK = (1 << TYPE_SHIFT) - 1;
 
     // 过期时间 (-1 表示不过期)
+    @EqualsAndHashCode.Include
     private long expireAt = -1;
 
-    // 泛型数据载体 (String是byte[], Hash是RedisHash对象, List是LinkedList等)
+    // 泛型数据载体 (String是byte[]、INT 编码的 Long 或堆外的 OffHeapValue, Hash是RedisHash对象, List是LinkedList等)
+    @EqualsAndHashCode.Include
     private T data;
 
+    // 高 8 位：类型序号 (RedisDataType.ordinal)；
+    // 低 24 位：对应 Redis 的 robj.lru，LRU 策略下为最近访问的秒级时钟；
+    // LFU 策略下高 16 位为最近一次衰减的分钟数，低 8 位为对数访问计数器。由存储引擎在访问时更新
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int meta;
+
+    // 上次计入 used_memory 的估算字节数 (由存储引擎维护)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int memory;
+
     public RedisData(RedisDataType type, T data) {
-        this.type = type;
+        this.meta = type.ordinal() << TYPE_SHIFT;
         this.data = data;
     }
 
+    // 数据类型
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    public RedisDataType getType() {
+        return TYPES[meta >>> TYPE_SHIFT];
+    }
+
+    public void setType(RedisDataType type) {
+        this.meta = type.ordinal() << TYPE_SHIFT | meta & LRU_MASK;
+    }
+
+    public int getLru() {
+        return meta & LRU_MASK;
+    }
+
+    public void setLru(int lru) {
+        this.meta = meta & ~LRU_MASK | lru & LRU_MASK;
+    }
+
+    public long getMemory() {
+        return memory;
+    }
+
+    // 估算值已由 MemoryEstimator 限制在 int 范围内
+    public void setMemory(long memory) {
+        this.memory = (int) Math.min(memory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 字符串值：能表示为 long 的用 INT 编码 (0 ~ 9999 共享同一个 Long)，
+     * 超过 offheap-value-threshold 的放到堆外，否则保留原始字节
+     */
+    public static RedisData<?> ofString(byte[] value) {
+        Long integer = SharedIntegers.tryEncode(value);
+        if (integer != null) {
+            return new RedisData<>(RedisDataType.STRING, integer);
+        }
+        if (OffHeapArena.shouldStore(value.length)) {
+            return new RedisData<>(RedisDataType.STRING, OffHeapArena.getInstance().allocate(value));
+        }
+        return new RedisData<>(RedisDataType.STRING, value);
+    }
+
+    public static RedisData<Long> ofLong(long value) {
+        return new RedisData<>(RedisDataType.STRING, SharedIntegers.valueOf(value));
+    }
+
+    public boolean isIntEncoded() {
+        return data instanceof Long;
+    }
+
+    /**
+     * INCR / DECR：原地替换为新的整数值 (调用方随后 put 同一个对象以计入修改)
+     */
+    @SuppressWarnings("unchecked")
+    public void setLongValue(long value) {
+        this.data = (T) SharedIntegers.valueOf(value);
+    }
+
+    /**
+     * 字符串的字节数 (堆外的值不必拷贝出来)
+     */
+    public int stringLength() {
+        if (data instanceof OffHeapValue offHeap) return offHeap.length();
+        return getValue(byte[].class).length;
+    }
+
+    /**
+     * 后台线程 (BGSAVE / AOF 重写) 读取字符串值：堆外的值可能刚被核心线程删除并归还，此时返回 null
+     */
+    public byte[] tryGetBytes() {
+        if (data instanceof OffHeapValue offHeap) return offHeap.copyToHeap();
+        return getValue(byte[].class);
+    }
+
+    // 堆外的值由键空间持有一个引用：离开键空间 (覆盖、删除、过期、淘汰) 时释放；
+    // 在两个键空间之间移动 (MOVE) 时先加一个引用，再从源库删除
+    public void retainValue() {
+        if (data instanceof OffHeapValue offHeap) offHeap.retain();
+    }
+
+    public void releaseValue() {
+        if (data instanceof OffHeapValue offHeap) offHeap.release();
+    }
+
     public boolean isExpired() {
-        return expireAt != -1 && System.currentTimeMillis() > expireAt;
+        return expireAt != -1 && ServerClock.now() > expireAt;
     }
 
     // 这是一个非常实用的辅助方法，避免外部强制转换时报 Unchecked warning
     // 同时也方便做类型检查
+    // INT 编码的字符串按 byte[] 读取时格式化出一份新的字节 (调用方可以随意修改)
     public <V> V getValue(Class<V> clazz) {
         if (clazz.isInstance(data)) {
             return clazz.cast(data);
         }
+        if (clazz == byte[].class && data instanceof Long integer) {
+            return clazz.cast(SharedIntegers.toBytes(integer));
+        }
+        // 堆外的值同样拷贝一份 (核心线程上键空间持有引用，不会读到已释放的值)
+        if (clazz == byte[].class && data instanceof OffHeapValue offHeap) {
+            byte[] bytes = offHeap.copyToHeap();
+            if (bytes == null) throw new IllegalStateException("Off-heap value already released");
+            return clazz.cast(bytes);
+        }
         throw new IllegalStateException("Data type mismatch. Expected " + clazz.getSimpleName() + " but found " + data.getClass().getSimpleName());
     }
 }
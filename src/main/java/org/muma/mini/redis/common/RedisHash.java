@@ -13,6 +13,9 @@ public class RedisHash {
 
     private HashProvider provider;
 
+    // field + value 的字节数之和 (内存估算用，每次修改时增量维护)
+    private long payloadBytes;
+
     public RedisHash() {
         // 默认使用 ZipList
         this.provider = new ZipListProvider();
@@ -31,7 +34,9 @@ public class RedisHash {
             convertToHashTable();
         }
 
+        byte[] old = provider.get(field);
         int res = provider.put(field, value);
+        payloadBytes += old == null ? field.length() + value.length : value.length - old.length;
 
         // 2. 检查元素数量导致的升级
         if (provider instanceof ZipListProvider && provider.size() > ZIPLIST_MAX_ENTRIES) {
@@ -45,6 +50,9 @@ public class RedisHash {
     }
 
     public int remove(String field) {
+        byte[] old = provider.get(field);
+        if (old == null) return 0;
+        payloadBytes -= field.length() + old.length;
         return provider.remove(field);
     }
 
@@ -52,6 +60,10 @@ public class RedisHash {
         return provider.size();
     }
 
+    public long payloadBytes() {
+        return payloadBytes;
+    }
+
     // 私有方法：升级编码
     private void convertToHashTable() {
         // System.out.println("Converting ZipList to HashTable...");
@@ -0,0 +1,60 @@
+package org.muma.mini.redis.common;
+
+import org.muma.mini.redis.util.MurmurHash3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 键空间中的 key (REDIS_DICT 键空间使用)
+ * <p>
+ * 只保存原始字节和预先算好的 MurmurHash3：比 String 少一层编码信息，
+ * rehash 迁移时不必重新计算哈希，比较时先比哈希再比字节。
+ */
+public final class RedisKey {
+
+    private final byte[] bytes;
+    private final int hash;
+
+    public RedisKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = MurmurHash3.hash32(bytes);
+    }
+
+    public static RedisKey of(String key) {
+        return new RedisKey(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 请求中的原始字节：纯 ASCII 直接使用，否则按 UTF-8 解码再编码，
+     * 保证与 {@link #of(String)} 得到的 key 一致 (非法的 UTF-8 序列会被替换)
+     */
+    public static RedisKey of(byte[] key) {
+        for (byte b : key) {
+            if (b < 0) {
+                return of(new String(key, StandardCharsets.UTF_8));
+            }
+        }
+        return new RedisKey(key);
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof RedisKey other && hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
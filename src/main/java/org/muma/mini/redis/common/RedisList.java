@@ -19,6 +19,9 @@ public class RedisList implements Serializable {
     // 核心存储引擎
     private final ListProvider provider;
 
+    // 元素字节数之和 (内存估算用，每次修改时增量维护)
+    private long payloadBytes;
+
     public RedisList() {
         // Redis 3.2+ 默认使用 QuickList 作为 List 的唯一实现
         // 之前提到的 LinkedListProvider 已经被淘汰，所以这里直接硬编码 QuickList
@@ -31,6 +34,7 @@ public class RedisList implements Serializable {
      */
     public void lpush(byte[] element) {
         provider.lpush(element);
+        payloadBytes += element.length;
     }
 
     /**
@@ -39,6 +43,7 @@ public class RedisList implements Serializable {
      */
     public void rpush(byte[] element) {
         provider.rpush(element);
+        payloadBytes += element.length;
     }
 
     /**
@@ -46,7 +51,9 @@ public class RedisList implements Serializable {
      * O(1)
      */
     public byte[] lpop() {
-        return provider.lpop();
+        byte[] element = provider.lpop();
+        if (element != null) payloadBytes -= element.length;
+        return element;
     }
 
     /**
@@ -54,7 +61,9 @@ public class RedisList implements Serializable {
      * O(1)
      */
     public byte[] rpop() {
-        return provider.rpop();
+        byte[] element = provider.rpop();
+        if (element != null) payloadBytes -= element.length;
+        return element;
     }
 
     /**
@@ -86,19 +95,37 @@ public class RedisList implements Serializable {
      * O(N)
      */
     public void set(long index, byte[] element) {
+        byte[] old = provider.index(index);
         provider.set(index, element);
+        if (old != null) payloadBytes += element.length - old.length;
     }
 
     public int insert(boolean before, byte[] pivot, byte[] value) {
-        return provider.insert(before, pivot, value);
+        int res = provider.insert(before, pivot, value);
+        if (res > 0) payloadBytes += value.length;
+        return res;
     }
 
     public int remove(long count, byte[] element) {
-        return provider.remove(count, element);
+        int removed = provider.remove(count, element);
+        payloadBytes -= (long) removed * element.length;
+        return removed;
     }
 
+    /**
+     * LTRIM 通常只保留一小段 (固定长度的最新 N 条)，修剪后按剩下的元素重新统计字节数
+     */
     public void trim(long start, long stop) {
         provider.trim(start, stop);
+        long bytes = 0;
+        for (byte[] element : provider.range(0, -1)) {
+            bytes += element.length;
+        }
+        payloadBytes = bytes;
+    }
+
+    public long payloadBytes() {
+        return payloadBytes;
     }
 
 }
@@ -14,6 +14,9 @@ public class RedisSet implements Serializable {
 
     private SetProvider provider;
 
+    // 成员字节数之和 (内存估算用，每次修改时增量维护)
+    private long payloadBytes;
+
     public RedisSet() {
         // 默认尝试 IntSet
         this.provider = new IntSetProvider();
@@ -26,6 +29,7 @@ public class RedisSet implements Serializable {
         }
 
         int res = provider.add(member);
+        if (res > 0) payloadBytes += member.length;
 
         // 2. 检查是否需要升级 (数量过多)
         if (isIntSet() && provider.size() > INTSET_MAX_ENTRIES) {
@@ -35,7 +39,9 @@ public class RedisSet implements Serializable {
     }
 
     public int remove(byte[] member) {
-        return provider.remove(member);
+        int res = provider.remove(member);
+        if (res > 0) payloadBytes -= member.length;
+        return res;
     }
 
     public boolean contains(byte[] member) {
@@ -51,13 +57,19 @@ public class RedisSet implements Serializable {
     }
 
     public byte[] pop() {
-        return provider.pop();
+        byte[] member = provider.pop();
+        if (member != null) payloadBytes -= member.length;
+        return member;
     }
 
     public List<byte[]> randomMembers(int count) {
         return provider.randomMembers(count);
     }
 
+    public long payloadBytes() {
+        return payloadBytes;
+    }
+
     // --- 内部逻辑 ---
 
     private boolean isIntSet() {
@@ -26,6 +26,9 @@ public class RedisZSet implements Serializable {
     // 核心存储引擎接口
     private ZSetProvider provider;
 
+    // 成员字节数 + 每个分数 8 字节之和 (内存估算用，每次修改时增量维护)
+    private long payloadBytes;
+
     public RedisZSet() {
         // 默认初始化为轻量级 ZipList
         this.provider = new ZipListZSetProvider();
@@ -41,6 +44,7 @@ public class RedisZSet implements Serializable {
         }
 
         int res = provider.add(score, member);
+        if (res > 0) payloadBytes += entryBytes(member);
 
         // 2. 检查是否需要因数量过多而升级
         if (isZipList() && provider.size() > MAX_ZIPLIST_ENTRIES) {
@@ -53,7 +57,9 @@ public class RedisZSet implements Serializable {
      * 删除元素
      */
     public int remove(String member) {
-        return provider.remove(member);
+        int res = provider.remove(member);
+        if (res > 0) payloadBytes -= entryBytes(member);
+        return res;
     }
 
     // --- 【本次补全的核心方法】 ---
@@ -151,13 +157,29 @@ public class RedisZSet implements Serializable {
     }
 
     public int removeRange(long start, long stop) {
+        subtractPayload(provider.range(start, stop));
         return provider.removeRange(start, stop);
     }
 
     public int removeRangeByScore(RangeSpec range) {
+        subtractPayload(provider.rangeByScore(range, 0, Integer.MAX_VALUE));
         return provider.removeRangeByScore(range);
     }
 
+    public long payloadBytes() {
+        return payloadBytes;
+    }
+
+    private void subtractPayload(List<ZSetEntry> removed) {
+        for (ZSetEntry entry : removed) {
+            payloadBytes -= entryBytes(entry.member());
+        }
+    }
+
+    private static long entryBytes(String member) {
+        return member.length() + Double.BYTES;
+    }
+
     /**
      * 简单的合并操作 (用于构建临时结果)
      *
@@ -175,6 +197,7 @@ public class RedisZSet implements Serializable {
             // 新元素，直接添加 (如果是 InterStore，逻辑在外部控制，这里只管合并)
             // 注意：如果是 InterStore，只有当所有集合都有时才添加，这里主要服务于 UnionStore
             provider.add(score, member);
+            payloadBytes += entryBytes(member);
         } else {
             // 已存在，执行聚合逻辑
             double newScore;
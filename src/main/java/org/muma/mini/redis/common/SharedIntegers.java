@@ -0,0 +1,79 @@
+package org.muma.mini.redis.common;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串值的 INT 编码 (对应 Redis 的 OBJ_ENCODING_INT 与 shared.integers)
+ * <p>
+ * 能无损表示为 long 的字符串直接存 Long，INCR / DECR 原地更新，只有按字符串读取时才格式化成字节。
+ * 【共享整数】0 ~ 9999 预先创建好不可变的 Long，所有取值相同的 key 共用同一个对象，
+ * 大量小计数器 (限流、计次) 不再各自持有一个 Long。
+ * LRU / LFU 信息记录在 RedisData 上而不是值对象上，所以任何淘汰策略下都可以共享。
+ */
+public final class SharedIntegers {
+
+    public static final int SHARED_INTEGERS = 10000;
+
+    // long 的最长十进制表示："-9223372036854775808"
+    private static final int MAX_LONG_CHARS = 20;
+
+    private static final Long[] SHARED = new Long[SHARED_INTEGERS];
+
+    static {
+        for (int i = 0; i < SHARED_INTEGERS; i++) {
+            SHARED[i] = (long) i;
+        }
+    }
+
+    private SharedIntegers() {
+    }
+
+    public static Long valueOf(long value) {
+        if (value >= 0 && value < SHARED_INTEGERS) {
+            return SHARED[(int) value];
+        }
+        return value;
+    }
+
+    public static boolean isShared(Long value) {
+        long v = value;
+        return v >= 0 && v < SHARED_INTEGERS && SHARED[(int) v] == value;
+    }
+
+    /**
+     * 按 Redis string2ll 的规则解析：只接受规范形式 (无前导 0、无 '+'、不是 "-0")，
+     * 保证 INT 编码后再格式化回来与原始字节完全一致。不能编码时返回 null
+     */
+    public static Long tryEncode(byte[] bytes) {
+        int len = bytes.length;
+        if (len == 0 || len > MAX_LONG_CHARS) return null;
+        if (len == 1 && bytes[0] == '0') return SHARED[0];
+
+        int i = 0;
+        boolean negative = bytes[0] == '-';
+        if (negative) {
+            if (len == 1) return null;
+            i = 1;
+        }
+        // 首位必须是 1-9
+        if (bytes[i] < '1' || bytes[i] > '9') return null;
+
+        // 按负数累加，才能表示 Long.MIN_VALUE
+        long value = 0;
+        for (; i < len; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) return null;
+            if (value < (Long.MIN_VALUE + digit) / 10) return null;
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) return null;
+            value = -value;
+        }
+        return valueOf(value);
+    }
+
+    public static byte[] toBytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
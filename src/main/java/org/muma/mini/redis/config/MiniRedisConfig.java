@@ -26,9 +26,69 @@ public class MiniRedisConfig {
     private int port = 6379;
     private int workerThreads = 0; // 0 = Netty default
     private int maxClients = 10000;
+    // 键空间分片数：1 = 单核心线程 (默认)；N > 1 时按 key 哈希拆成 N 个分片，各自一个执行线程
+    private int shards = 1;
+    // 核心线程命令队列 (MPSC 环形缓冲) 的槽位数，向上取整为 2 的幂
+    private int coreQueueSize = 65536;
+    // 核心线程空闲时的等待策略：BUSY_SPIN 延迟最低但独占 CPU；YIELD 折中；PARK 空闲时不占 CPU
+    private CoreWaitStrategy coreWaitStrategy = CoreWaitStrategy.PARK;
+    // 只读命令直接在 IO 线程上执行 (分段 StampedLock 乐观读，校验失败回落到核心线程)
+    private boolean ioThreadReads = false;
+    // 乐观读锁的分段数 (每个存储分区各一组)，向上取整为 2 的幂
+    private int ioReadLockStripes = 1024;
+    // 逻辑数据库个数 (SELECT 0 .. databases-1)，每个数据库有独立的键空间与过期索引
+    private int databases = 16;
+
+    // --- Network Transport ---
+    private TransportType transport = TransportType.NIO;
+    // SO_REUSEPORT 监听 Channel 数量 (仅 epoll / io_uring 生效)
+    private int reusePortAcceptors = 1;
+    // Unix Domain Socket 路径，空表示不开启 (仅 epoll 生效)
+    private String unixSocket = "";
+
+    // --- Client Output Buffer ---
+    // Netty 写缓冲水位线：超过高水位时 Channel 变为不可写，暂停读取该客户端的新命令
+    private int writeBufferLowWaterMark = 32 * 1024;
+    private int writeBufferHighWaterMark = 64 * 1024;
+    // 对应 Redis 的 client-output-buffer-limit <class> <hard> <soft> <soft-seconds>，0 表示不限制
+    private OutputBufferLimit normalOutputBufferLimit = new OutputBufferLimit(0, 0, 0);
+    private OutputBufferLimit replicaOutputBufferLimit = new OutputBufferLimit(256L * 1024 * 1024, 64L * 1024 * 1024, 60);
+    private OutputBufferLimit pubsubOutputBufferLimit = new OutputBufferLimit(32L * 1024 * 1024, 8L * 1024 * 1024, 60);
+
+    // --- Slow Log ---
+    // 执行时间超过该值 (微秒) 的命令记入 SLOWLOG；0 记录所有命令，负数关闭
+    private long slowlogLogSlowerThan = 10000;
+    // SLOWLOG 环形缓冲的条数
+    private int slowlogMaxLen = 128;
+
+    // --- Lazy Free ---
+    // 不带 ASYNC / SYNC 参数的 FLUSHALL / FLUSHDB 是否异步清空
+    private boolean lazyfreeLazyUserFlush = false;
+
+    // --- Active Expire ---
+    // 主动过期的力度 1-10：越大每轮取样越多、容忍的过期比例越低、单轮 CPU 时间预算越大
+    private int activeExpireEffort = 1;
+
+    // --- Memory ---
+    // 数据集内存上限 (字节，按 key 估算)，0 表示不限制；分片模式下每个分片各占 1/N
+    private long maxmemory = 0;
+    // 超过上限时的淘汰策略
+    private MaxmemoryPolicy maxmemoryPolicy = MaxmemoryPolicy.NOEVICTION;
+    // 每次淘汰取样的 key 数：越大越接近真正的 LRU / LFU，CPU 开销也越大
+    private int maxmemorySamples = 5;
+    // LFU 计数器的对数因子：越大计数器增长越慢，能区分的访问频率范围越大
+    private int lfuLogFactor = 10;
+    // LFU 计数器每隔多少分钟没有访问减 1 (0 表示不衰减)
+    private int lfuDecayTime = 1;
+    // 不小于该字节数的 STRING 值存放到堆外的 slab 中 (减小 GC 压力)，0 表示关闭
+    private long offheapValueThreshold = 0;
 
     // --- Backend Strategy ---
     private DictBackend setDictBackend = DictBackend.REDIS_DICT;
+    // 主键空间的实现 (REDIS_DICT 不支持 IO 线程读)
+    private KeyspaceBackend keyspaceBackend = KeyspaceBackend.CONCURRENT_HASHMAP;
+    // 主动过期使用的过期索引
+    private ExpireIndexBackend expireIndexBackend = ExpireIndexBackend.SAMPLING;
 
     // --- Persistence (AOF) ---
     private boolean appendOnly = false;
@@ -70,10 +130,70 @@ public class MiniRedisConfig {
         ALWAYS, EVERYSEC, NO
     }
 
+    public enum TransportType {
+        NIO, EPOLL, IO_URING
+    }
+
+    public enum CoreWaitStrategy {
+        BUSY_SPIN, YIELD, PARK
+    }
+
     public enum DictBackend {
         JDK_HASHMAP, REDIS_DICT
     }
 
+    public enum KeyspaceBackend {
+        CONCURRENT_HASHMAP, REDIS_DICT
+    }
+
+    public enum ExpireIndexBackend {
+        SAMPLING, TIMING_WHEEL
+    }
+
+    /**
+     * maxmemory-policy：配置中写作 allkeys-lru 这样的小写连字符形式
+     * volatile-* 只淘汰设置了过期时间的 key
+     */
+    public enum MaxmemoryPolicy {
+        NOEVICTION, ALLKEYS_LRU, ALLKEYS_LFU, ALLKEYS_RANDOM,
+        VOLATILE_LRU, VOLATILE_LFU, VOLATILE_TTL, VOLATILE_RANDOM;
+
+        public static MaxmemoryPolicy fromConfigName(String name) {
+            return valueOf(name.trim().replace('-', '_').toUpperCase());
+        }
+
+        public String configName() {
+            return name().replace('_', '-').toLowerCase();
+        }
+
+        public boolean isVolatile() {
+            return name().startsWith("VOLATILE");
+        }
+
+        public boolean isLfu() {
+            return this == ALLKEYS_LFU || this == VOLATILE_LFU;
+        }
+    }
+
+    public enum ClientType {
+        NORMAL, REPLICA, PUBSUB
+    }
+
+    /**
+     * 输出缓冲区限制
+     * 超过 hard 立即断开；持续超过 soft 达到 softSeconds 秒后断开
+     */
+    public record OutputBufferLimit(long hardLimitBytes, long softLimitBytes, int softLimitSeconds) {
+    }
+
+    public OutputBufferLimit getOutputBufferLimit(ClientType type) {
+        return switch (type) {
+            case REPLICA -> replicaOutputBufferLimit;
+            case PUBSUB -> pubsubOutputBufferLimit;
+            default -> normalOutputBufferLimit;
+        };
+    }
+
     // --- Singleton Access ---
     private MiniRedisConfig() {
     }
@@ -95,6 +215,10 @@ public class MiniRedisConfig {
                 this.port = Integer.parseInt(args[++i]);
             } else if ("--backend".equals(arg) && i + 1 < args.length) {
                 this.setDictBackend = DictBackend.valueOf(args[++i].toUpperCase());
+            } else if ("--transport".equals(arg) && i + 1 < args.length) {
+                this.transport = TransportType.valueOf(args[++i].toUpperCase());
+            } else if ("--shards".equals(arg) && i + 1 < args.length) {
+                this.shards = Math.max(1, Integer.parseInt(args[++i]));
             }
         }
         log.info("Config loaded from args: port={}, backend={}", port, setDictBackend);
@@ -107,6 +231,54 @@ public class MiniRedisConfig {
         this.port = getInt(props, "server.port", this.port);
         this.workerThreads = getInt(props, "server.worker_threads", this.workerThreads);
         this.maxClients = getInt(props, "server.max_clients", this.maxClients);
+        this.shards = Math.max(1, getInt(props, "server.shards", this.shards));
+        this.coreQueueSize = getInt(props, "server.core_queue_size", this.coreQueueSize);
+        String waitStrategy = getString(props, "server.core_wait_strategy", this.coreWaitStrategy.name());
+        try {
+            this.coreWaitStrategy = CoreWaitStrategy.valueOf(waitStrategy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid server.core_wait_strategy value '{}', using default PARK.", waitStrategy);
+        }
+        this.ioThreadReads = "yes".equalsIgnoreCase(getString(props, "server.io_thread_reads", "no"));
+        this.ioReadLockStripes = getInt(props, "server.io_read_lock_stripes", this.ioReadLockStripes);
+        this.databases = Math.max(1, getInt(props, "databases", this.databases));
+
+        String transportType = getString(props, "server.transport", this.transport.name());
+        try {
+            this.transport = TransportType.valueOf(transportType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid server.transport value '{}', using default NIO.", transportType);
+        }
+        this.reusePortAcceptors = getInt(props, "server.reuseport_acceptors", this.reusePortAcceptors);
+        this.unixSocket = getString(props, "server.unixsocket", this.unixSocket);
+
+        this.writeBufferLowWaterMark = (int) parseSize(getString(props, "server.write_buffer_low_water_mark",
+                String.valueOf(this.writeBufferLowWaterMark)));
+        this.writeBufferHighWaterMark = (int) parseSize(getString(props, "server.write_buffer_high_water_mark",
+                String.valueOf(this.writeBufferHighWaterMark)));
+        this.normalOutputBufferLimit = getOutputBufferLimit(props, "client-output-buffer-limit-normal", this.normalOutputBufferLimit);
+        this.replicaOutputBufferLimit = getOutputBufferLimit(props, "client-output-buffer-limit-replica", this.replicaOutputBufferLimit);
+        this.pubsubOutputBufferLimit = getOutputBufferLimit(props, "client-output-buffer-limit-pubsub", this.pubsubOutputBufferLimit);
+
+        this.slowlogLogSlowerThan = Long.parseLong(getString(props, "slowlog-log-slower-than",
+                String.valueOf(this.slowlogLogSlowerThan)));
+        this.slowlogMaxLen = getInt(props, "slowlog-max-len", this.slowlogMaxLen);
+
+        this.lazyfreeLazyUserFlush = "yes".equalsIgnoreCase(getString(props, "lazyfree-lazy-user-flush", "no"));
+        this.activeExpireEffort = Math.max(1, Math.min(10, getInt(props, "active-expire-effort", this.activeExpireEffort)));
+
+        this.maxmemory = parseSize(getString(props, "maxmemory", String.valueOf(this.maxmemory)));
+        String policy = getString(props, "maxmemory-policy", this.maxmemoryPolicy.configName());
+        try {
+            this.maxmemoryPolicy = MaxmemoryPolicy.fromConfigName(policy);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid maxmemory-policy value '{}', using default noeviction.", policy);
+        }
+        this.maxmemorySamples = Math.max(1, getInt(props, "maxmemory-samples", this.maxmemorySamples));
+        this.lfuLogFactor = Math.max(0, getInt(props, "lfu-log-factor", this.lfuLogFactor));
+        this.lfuDecayTime = Math.max(0, getInt(props, "lfu-decay-time", this.lfuDecayTime));
+        this.offheapValueThreshold = parseSize(getString(props, "offheap-value-threshold",
+                String.valueOf(this.offheapValueThreshold)));
 
         // 2. Backend
         String dictType = getString(props, "backend.set_dict", "REDIS_DICT");
@@ -115,6 +287,22 @@ public class MiniRedisConfig {
         } catch (IllegalArgumentException e) {
             log.warn("Invalid backend.set_dict value '{}', using default REDIS_DICT.", dictType);
         }
+        String keyspaceType = getString(props, "backend.keyspace", "CONCURRENT_HASHMAP");
+        try {
+            this.keyspaceBackend = KeyspaceBackend.valueOf(keyspaceType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid backend.keyspace value '{}', using default CONCURRENT_HASHMAP.", keyspaceType);
+        }
+        String expireIndexType = getString(props, "backend.expire_index", "SAMPLING");
+        try {
+            this.expireIndexBackend = ExpireIndexBackend.valueOf(expireIndexType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid backend.expire_index value '{}', using default SAMPLING.", expireIndexType);
+        }
+        if (this.ioThreadReads && this.keyspaceBackend == KeyspaceBackend.REDIS_DICT) {
+            log.warn("server.io_thread_reads requires backend.keyspace=CONCURRENT_HASHMAP, disabled.");
+            this.ioThreadReads = false;
+        }
 
         // 3. Env Vars Override
         applyEnvOverrides();
@@ -241,6 +429,23 @@ public class MiniRedisConfig {
         return Long.parseLong(s.trim()) * multiplier;
     }
 
+    // 解析 "<hard> <soft> <soft-seconds>"，例如 "256mb 64mb 60"
+    private OutputBufferLimit getOutputBufferLimit(Properties props, String key, OutputBufferLimit defaultValue) {
+        String val = props.getProperty(key);
+        if (val == null || val.isBlank()) return defaultValue;
+        String[] parts = val.trim().split("\\s+");
+        if (parts.length != 3) {
+            log.warn("Invalid {} value '{}', expected '<hard> <soft> <soft-seconds>'.", key, val);
+            return defaultValue;
+        }
+        try {
+            return new OutputBufferLimit(parseSize(parts[0]), parseSize(parts[1]), Integer.parseInt(parts[2]));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid {} value '{}', using default.", key, val);
+            return defaultValue;
+        }
+    }
+
     private int getInt(Properties props, String key, int defaultValue) {
         String val = props.getProperty(key);
         return val != null ? Integer.parseInt(val) : defaultValue;
@@ -252,6 +457,6 @@ public class MiniRedisConfig {
 
     @Override
     public String toString() {
-        return "Config{port=" + port + ", aof=" + appendOnly + ", fsync=" + appendFsync + "}";
+        return "Config{port=" + port + ", transport=" + transport + ", shards=" + shards + ", aof=" + appendOnly + ", fsync=" + appendFsync + "}";
     }
 }
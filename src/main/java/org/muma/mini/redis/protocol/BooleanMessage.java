@@ -0,0 +1,12 @@
+package org.muma.mini.redis.protocol;
+
+// 10. RESP3 Boolean (#t / #f) - RESP2 下降级为 :1 / :0
+public record BooleanMessage(boolean value) implements RedisMessage {
+
+    public static final BooleanMessage TRUE = new BooleanMessage(true);
+    public static final BooleanMessage FALSE = new BooleanMessage(false);
+
+    public static BooleanMessage of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+}
@@ -4,6 +4,10 @@ import java.nio.charset.StandardCharsets;
 
 // 4. 批量字符串 ($) - 支持 null (表示 $-1)
 public record BulkString(byte[] content) implements RedisMessage {
+
+    // 共享的 Nil 回包 ($-1)
+    public static final BulkString NULL = new BulkString((byte[]) null);
+
     public BulkString(String s) {
         this(s == null ? null : s.getBytes(StandardCharsets.UTF_8));
     }
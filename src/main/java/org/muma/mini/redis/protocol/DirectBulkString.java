@@ -0,0 +1,18 @@
+package org.muma.mini.redis.protocol;
+
+import io.netty.util.ReferenceCounted;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 内容在堆外的批量字符串 (GET 堆外的大值)
+ * <p>
+ * 编码时从直接内存拷贝到出站的直接缓冲区，不经过堆上的 byte[]；
+ * 回包持有 owner 的 1 个引用，写出后由 {@link RespEncoder} 释放。
+ */
+public record DirectBulkString(ByteBuffer content, ReferenceCounted owner) implements RedisMessage {
+
+    public int length() {
+        return content.remaining();
+    }
+}
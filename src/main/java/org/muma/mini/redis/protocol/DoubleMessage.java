@@ -0,0 +1,15 @@
+package org.muma.mini.redis.protocol;
+
+// 11. RESP3 Double (,) - RESP2 下降级为 BulkString
+public record DoubleMessage(double value) implements RedisMessage {
+
+    /**
+     * 分数格式化：整数去掉 .0，无穷大使用 Redis 的 inf / -inf 写法
+     */
+    public static String format(double value) {
+        if (Double.isInfinite(value)) return value > 0 ? "inf" : "-inf";
+        if (Double.isNaN(value)) return "nan";
+        // 超出 long 精确范围的整数交给 Double.toString，避免强转溢出
+        return (value % 1 == 0 && Math.abs(value) < 1e15) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,5 @@
+package org.muma.mini.redis.protocol;
+
+// 6. RESP3 Map (%) - elements 按 [k1, v1, k2, v2, ...] 平铺存放，RESP2 下直接降级为数组
+public record MapMessage(RedisMessage[] elements) implements RedisMessage {
+}
@@ -0,0 +1,7 @@
+package org.muma.mini.redis.protocol;
+
+// 9. RESP3 Null (_) - RESP2 下降级为 $-1
+public record NullMessage() implements RedisMessage {
+
+    public static final NullMessage INSTANCE = new NullMessage();
+}
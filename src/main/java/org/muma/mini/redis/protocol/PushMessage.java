@@ -0,0 +1,5 @@
+package org.muma.mini.redis.protocol;
+
+// 8. RESP3 Push (>) - 服务端主动推送 (如 invalidate)，RESP2 下降级为数组
+public record PushMessage(RedisMessage[] elements) implements RedisMessage {
+}
@@ -2,4 +2,28 @@ package org.muma.mini.redis.protocol;
 
 // 3. 整数 (:)
 public record RedisInteger(long value) implements RedisMessage {
+
+    // 共享整数对象的范围 [-2, 1024)，覆盖 TTL 的 -1/-2 以及常见的计数结果
+    private static final int CACHE_LOW = -2;
+    private static final int CACHE_HIGH = 1024;
+    private static final RedisInteger[] CACHE = new RedisInteger[CACHE_HIGH - CACHE_LOW];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new RedisInteger(i + CACHE_LOW);
+        }
+    }
+
+    public static final RedisInteger ZERO = of(0);
+    public static final RedisInteger ONE = of(1);
+
+    /**
+     * 获取整数回包，小整数复用共享对象，避免每次回包都 new
+     */
+    public static RedisInteger of(long value) {
+        if (value >= CACHE_LOW && value < CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new RedisInteger(value);
+    }
 }
@@ -4,7 +4,8 @@ import java.nio.charset.StandardCharsets;
 
 // 密封接口，限制实现类
 public sealed interface RedisMessage permits
-        SimpleString, ErrorMessage, RedisInteger, BulkString, RedisArray {
+        SimpleString, ErrorMessage, RedisInteger, BulkString, DirectBulkString, RedisArray,
+        MapMessage, SetMessage, PushMessage, NullMessage, BooleanMessage, DoubleMessage {
 
     // 辅助方法：将字符串转为字节数组
     default byte[] toBytes(String content) {
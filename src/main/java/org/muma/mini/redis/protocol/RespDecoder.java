@@ -2,15 +2,29 @@ package org.muma.mini.redis.protocol;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.ByteProcessor;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 /**
- * RESP 协议解码器
- * 状态机逻辑由 ReplayingDecoder 自动处理
+ * RESP 协议解码器 (有状态、零回放版)
+ * <p>
+ * 【为什么不用 ReplayingDecoder】
+ * ReplayingDecoder 在数据不足时抛 Signal 并回滚 readerIndex，
+ * 一个被 TCP 拆成多段的大 MSET 会被从头解析 N 次，并且每一行都要经过 StringBuilder。
+ * <p>
+ * 【设计】
+ * 1. 已解析完的数组元素保存在 {@link Frame} 栈里，下次数据到达时从断点继续，不会重复解析。
+ * 2. BulkString 的长度头一旦读到就消费掉并记在 pendingBulkLength，只等待 payload 补齐。
+ * 3. 长度/整数直接从字节解析，不构造中间 String。
+ * 4. payload 直接从 ByteBuf 拷贝到大小精确的 byte[]，全程只拷贝一次。
  */
-public class RespDecoder extends ReplayingDecoder<Void> {
+public class RespDecoder extends ByteToMessageDecoder {
 
     // RESP 协议常量
     private static final byte PLUS_BYTE = '+';
@@ -23,103 +37,210 @@ public class RespDecoder extends ReplayingDecoder<Void> {
     private static final byte CR = '\r';
     private static final byte LF = '\n';
 
+    // 与 Redis 保持一致的防御上限 (proto-max-bulk-len 512MB、multibulk 最多 1024*1024 个元素)
+    private static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+    private static final int MAX_ARRAY_LENGTH = 1024 * 1024;
+    // 元素数组的初始容量：长度头由客户端声明，不能按它一次性分配，随元素到达再扩容
+    private static final int INITIAL_FRAME_CAPACITY = 1024;
+
+    // 行太长还找不到 CRLF，视为协议错误 (对应 Redis 的 PROTO_INLINE_MAX_SIZE)
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    // 长度头尚未读到时返回的哨兵值
+    private static final long INCOMPLETE = Long.MIN_VALUE;
+
+    private static final BulkString NULL_BULK = new BulkString((byte[]) null);
+    private static final RedisArray NULL_ARRAY = new RedisArray(null);
+    private static final RedisArray EMPTY_ARRAY = new RedisArray(new RedisMessage[0]);
+
+    /**
+     * 一个正在填充中的数组
+     */
+    private static final class Frame {
+        final int length;
+        RedisMessage[] elements;
+        int filled;
+
+        Frame(int length) {
+            this.length = length;
+            this.elements = new RedisMessage[Math.min(length, INITIAL_FRAME_CAPACITY)];
+        }
+
+        // 追加一个元素，返回数组是否已经填满
+        boolean add(RedisMessage msg) {
+            if (filled == elements.length) {
+                elements = Arrays.copyOf(elements, (int) Math.min((long) elements.length * 2, length));
+            }
+            elements[filled++] = msg;
+            return filled == length;
+        }
+    }
+
+    // 嵌套数组的解析栈 (命令请求只有一层，Master 回包可能多层)
+    private final Deque<Frame> frames = new ArrayDeque<>(2);
+
+    // 已读到 $len\r\n 但 payload 尚未到齐时记录的长度，-1 表示没有
+    private int pendingBulkLength = -1;
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
-        // 1. 读取类型标识字节
-        byte typeByte = in.readByte();
-
-        // 2. 根据类型分发处理
-        switch (typeByte) {
-            case PLUS_BYTE -> out.add(new SimpleString(readLine(in)));
-            case MINUS_BYTE -> out.add(new ErrorMessage(readLine(in)));
-            case COLON_BYTE -> out.add(new RedisInteger(readLong(in)));
-            case DOLLAR_BYTE -> out.add(decodeBulkString(in));
-            case ASTERISK_BYTE -> out.add(decodeArray(in));
-            default -> throw new IllegalStateException("Unknown RESP type byte: " + (char) typeByte);
+        while (in.isReadable()) {
+            RedisMessage msg;
+
+            if (pendingBulkLength >= 0) {
+                msg = readBulkPayload(in);
+            } else {
+                byte type = in.getByte(in.readerIndex());
+                if (type == ASTERISK_BYTE) {
+                    long count = readLengthLine(in);
+                    if (count == INCOMPLETE) return;
+                    if (count == -1) {
+                        msg = NULL_ARRAY;
+                    } else if (count == 0) {
+                        msg = EMPTY_ARRAY;
+                    } else {
+                        if (count < 0 || count > MAX_ARRAY_LENGTH) {
+                            throw new IllegalStateException("Protocol error: invalid multibulk length");
+                        }
+                        frames.push(new Frame((int) count));
+                        continue;
+                    }
+                } else if (type == DOLLAR_BYTE) {
+                    long length = readLengthLine(in);
+                    if (length == INCOMPLETE) return;
+                    if (length == -1) {
+                        msg = NULL_BULK;
+                    } else {
+                        if (length < 0 || length > MAX_BULK_LENGTH) {
+                            throw new IllegalStateException("Protocol error: invalid bulk length");
+                        }
+                        pendingBulkLength = (int) length;
+                        msg = readBulkPayload(in);
+                    }
+                } else {
+                    msg = decodeSimple(in, type);
+                }
+            }
+
+            if (msg == null) return; // 数据不足，等待下一次 channelRead
+            emit(msg, out);
         }
     }
 
-    // 解析 BulkString: $<length>\r\n<data>\r\n
-    private BulkString decodeBulkString(ByteBuf in) {
-        int length = (int) readLong(in);
-        if (length == -1) {
-            return new BulkString((byte[]) null); // Null Bulk String
+    /**
+     * 将一个完整的消息挂到当前数组上；数组填满则逐层向上归并，直到顶层输出
+     */
+    private void emit(RedisMessage msg, List<Object> out) {
+        while (true) {
+            Frame frame = frames.peek();
+            if (frame == null) {
+                out.add(msg);
+                return;
+            }
+            if (!frame.add(msg)) return;
+
+            frames.pop();
+            msg = new RedisArray(frame.elements);
         }
+    }
+
+    // 解析 BulkString 的 payload: <data>\r\n
+    private BulkString readBulkPayload(ByteBuf in) {
+        int length = pendingBulkLength;
+        if (in.readableBytes() < length + 2) return null;
 
         byte[] content = new byte[length];
         in.readBytes(content);
 
         // 读取末尾的 CRLF
-        readGenericCRLF(in);
-
+        if (in.readByte() != CR || in.readByte() != LF) {
+            throw new IllegalStateException("Protocol error: expected CRLF after bulk");
+        }
+        pendingBulkLength = -1;
         return new BulkString(content);
     }
 
-    // 解析 Array: *<count>\r\n<element1>...<elementN>
-    private RedisArray decodeArray(ByteBuf in) {
-        int count = (int) readLong(in);
-        if (count == -1) {
-            return new RedisArray(null); // Null Array
-        }
-
-        RedisMessage[] elements = new RedisMessage[count];
-        for (int i = 0; i < count; i++) {
-            // 递归调用 decode (注意：这里需要手动触发一次子解析)
-            // 在 ReplayingDecoder 中，我们可以直接递归调用 decode 逻辑，
-            // 但更好的方式是利用 Netty 的 decode 循环，或者简单的递归方法。
-            // 简单起见，我们将 parse 逻辑抽取出来，或者利用 checkpoint。
-            // 为了演示清晰，我们这里手动模拟递归读取一个完整对象。
-            elements[i] = readNextObject(in);
-        }
-        return new RedisArray(elements);
+    // 解析 +, -, : 三种单行类型
+    private RedisMessage decodeSimple(ByteBuf in, byte type) {
+        int lf = findLineEnd(in);
+        if (lf < 0) return null;
+
+        int start = in.readerIndex() + 1;
+        int end = lf - 1; // CR 所在位置
+        RedisMessage msg = switch (type) {
+            case PLUS_BYTE -> new SimpleString(in.toString(start, end - start, StandardCharsets.UTF_8));
+            case MINUS_BYTE -> new ErrorMessage(in.toString(start, end - start, StandardCharsets.UTF_8));
+            case COLON_BYTE -> new RedisInteger(parseLong(in, start, end));
+            default -> throw new IllegalStateException("Unknown RESP type byte: " + (char) type);
+        };
+        in.readerIndex(lf + 1);
+        return msg;
     }
 
-    // 辅助：递归读取下一个完整的 RedisMessage
-    // 注意：在 ReplayingDecoder 中，如果数据不够，这里会抛出 Signal 异常并回滚索引
-    private RedisMessage readNextObject(ByteBuf in) {
-        byte type = in.readByte();
-        return switch (type) {
-            case PLUS_BYTE -> new SimpleString(readLine(in));
-            case MINUS_BYTE -> new ErrorMessage(readLine(in));
-            case COLON_BYTE -> new RedisInteger(readLong(in));
-            case DOLLAR_BYTE -> decodeBulkString(in);
-            case ASTERISK_BYTE -> decodeArray(in);
-            default -> throw new IllegalStateException("Unknown type: " + (char) type);
-        };
+    /**
+     * 读取 *len\r\n 或 $len\r\n 的长度头
+     *
+     * @return 长度；数据不足时返回 {@link #INCOMPLETE} 且不移动 readerIndex
+     */
+    private long readLengthLine(ByteBuf in) {
+        int lf = findLineEnd(in);
+        if (lf < 0) return INCOMPLETE;
+
+        long value = parseLong(in, in.readerIndex() + 1, lf - 1);
+        in.readerIndex(lf + 1);
+        return value;
     }
 
-    // 辅助：读取一行字符串（即读取到 \r\n 为止）
-    private String readLine(ByteBuf in) {
-        StringBuilder sb = new StringBuilder();
-        while (true) {
-            byte b = in.readByte();
-            if (b == CR) {
-                byte next = in.readByte();
-                if (next == LF) {
-                    break;
-                } else {
-                    sb.append((char) b);
-                    sb.append((char) next);
-                }
-            } else {
-                sb.append((char) b);
+    /**
+     * 查找当前行的 LF 位置，并校验前一个字节是 CR
+     *
+     * @return LF 的绝对索引，找不到返回 -1
+     */
+    private int findLineEnd(ByteBuf in) {
+        int lf = in.forEachByte(in.readerIndex(), in.readableBytes(), ByteProcessor.FIND_LF);
+        if (lf < 0) {
+            if (in.readableBytes() > MAX_LINE_LENGTH) {
+                throw new IllegalStateException("Protocol error: too big line");
             }
+            return -1;
         }
-        return sb.toString();
+        if (lf == in.readerIndex() || in.getByte(lf - 1) != CR) {
+            throw new IllegalStateException("Protocol error: expected CRLF");
+        }
+        return lf;
     }
 
-    // 辅助：读取并解析长整型
-    private long readLong(ByteBuf in) {
-        String s = readLine(in);
-        return Long.parseLong(s);
-    }
+    // 直接在字节上解析十进制整数 [start, end)，避免 Long.parseLong(String)
+    private long parseLong(ByteBuf in, int start, int end) {
+        if (start >= end) {
+            throw new IllegalStateException("Protocol error: empty number");
+        }
+        boolean negative = false;
+        int i = start;
+        if (in.getByte(i) == '-') {
+            negative = true;
+            i++;
+            if (i == end) throw new IllegalStateException("Protocol error: invalid number");
+        }
 
-    // 辅助：跳过 CRLF
-    private void readGenericCRLF(ByteBuf in) {
-        byte b1 = in.readByte();
-        byte b2 = in.readByte();
-        if (b1 != CR || b2 != LF) {
-            throw new IllegalStateException("Expected CRLF");
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = in.getByte(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalStateException("Protocol error: invalid number");
+            }
+            // 溢出检测
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new IllegalStateException("Protocol error: number overflow");
+            }
+            value = value * 10 + digit;
         }
+        return negative ? -value : value;
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) {
+        frames.clear();
+        pendingBulkLength = -1;
     }
 }
@@ -1,77 +1,258 @@
 package org.muma.mini.redis.protocol;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import org.muma.mini.redis.server.RedisContext;
 
 import java.nio.charset.StandardCharsets;
 
+/**
+ * RESP 协议编码器
+ * <p>
+ * 【设计】
+ * 1. 完整递归：数组元素可以是任意 RedisMessage (嵌套数组、整数、错误...)。
+ * 2. 预先计算回包大小，一次性向 PooledByteBufAllocator 申请直接内存，避免写入过程中扩容。
+ * 3. 高频回包 (+OK, +PONG, $-1, :0, :1) 使用预编码字节；0~9999 的数字 (整数值、长度头) 查表输出，
+ *    其余数字直接按位写入 ByteBuf，全程不构造 String。
+ * 4. RESP3：协议版本取自连接上的 {@link RedisContext} (编码时的版本，按回包顺序跟随 HELLO 切换)。
+ *    Map/Set/Push/Double/Null/Boolean 在 RESP2 连接上自动降级为 Array/BulkString/$-1/Integer。
+ * 5. {@link DirectBulkString} 从堆外直接拷贝到出站缓冲区，写完即释放它持有的引用。
+ */
 public class RespEncoder extends MessageToByteEncoder<RedisMessage> {
 
-    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final short CRLF_SHORT = ('\r' << 8) | '\n';
+
+    // 预编码的共享回包
+    private static final byte[] OK_BYTES = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PONG_BYTES = "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUEUED_BYTES = "+QUEUED\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_BULK_BYTES = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_ARRAY_BYTES = "*-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZERO_BYTES = ":0\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ONE_BYTES = ":1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESP3_NULL_BYTES = "_\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESP3_TRUE_BYTES = "#t\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESP3_FALSE_BYTES = "#f\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LONG_MIN_BYTES = String.valueOf(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    // 小数字查表 (对应 Redis 的 OBJ_SHARED_INTEGERS)
+    private static final int SHARED_NUMBERS = 10000;
+    private static final byte[][] NUMBER_BYTES = new byte[SHARED_NUMBERS][];
+
+    static {
+        for (int i = 0; i < SHARED_NUMBERS; i++) {
+            NUMBER_BYTES[i] = String.valueOf(i).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, RedisMessage msg, boolean preferDirect) {
+        // ioBuffer: 池化直接内存，写 socket 时无需再拷贝一次
+        return ctx.alloc().ioBuffer(sizeOf(msg, isResp3(ctx)));
+    }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, RedisMessage msg, ByteBuf out) {
-        if (msg instanceof SimpleString s) {
-            out.writeByte('+');
-            out.writeBytes(s.content().getBytes(StandardCharsets.UTF_8));
-            out.writeBytes(CRLF);
-        } else if (msg instanceof ErrorMessage e) {
-            out.writeByte('-');
-            out.writeBytes(e.content().getBytes(StandardCharsets.UTF_8));
-            out.writeBytes(CRLF);
+        write(out, msg, isResp3(ctx));
+    }
+
+    private boolean isResp3(ChannelHandlerContext ctx) {
+        RedisContext context = ctx.channel().attr(RedisContext.ATTR_KEY).get();
+        return context != null && context.isEncodingResp3();
+    }
+
+    public static void write(ByteBuf out, RedisMessage msg) {
+        write(out, msg, false);
+    }
+
+    public static int sizeOf(RedisMessage msg) {
+        return sizeOf(msg, false);
+    }
+
+    /**
+     * 递归写入任意 RedisMessage
+     */
+    public static void write(ByteBuf out, RedisMessage msg, boolean resp3) {
+        if (msg instanceof BulkString b) {
+            byte[] content = b.content();
+            if (content == null) {
+                out.writeBytes(resp3 ? RESP3_NULL_BYTES : NULL_BULK_BYTES);
+            } else {
+                writeHeader(out, '$', content.length);
+                out.writeBytes(content);
+                out.writeShort(CRLF_SHORT);
+            }
+        } else if (msg instanceof DirectBulkString d) {
+            try {
+                writeHeader(out, '$', d.length());
+                out.writeBytes(d.content().duplicate());
+                out.writeShort(CRLF_SHORT);
+            } finally {
+                d.owner().release();
+            }
         } else if (msg instanceof RedisInteger i) {
-            out.writeByte(':');
-            out.writeBytes(String.valueOf(i.value()).getBytes(StandardCharsets.UTF_8));
-            out.writeBytes(CRLF);
-        } else if (msg instanceof BulkString b) {
-            out.writeByte('$');
-            if (b.content() == null) {
-                out.writeBytes("-1".getBytes(StandardCharsets.UTF_8));
-                out.writeBytes(CRLF);
+            long value = i.value();
+            if (value == 0) {
+                out.writeBytes(ZERO_BYTES);
+            } else if (value == 1) {
+                out.writeBytes(ONE_BYTES);
+            } else {
+                writeHeader(out, ':', value);
+            }
+        } else if (msg instanceof SimpleString s) {
+            if (s == SimpleString.OK) {
+                out.writeBytes(OK_BYTES);
+            } else if (s == SimpleString.PONG) {
+                out.writeBytes(PONG_BYTES);
+            } else if (s == SimpleString.QUEUED) {
+                out.writeBytes(QUEUED_BYTES);
             } else {
-                out.writeBytes(String.valueOf(b.content().length).getBytes(StandardCharsets.UTF_8));
-                out.writeBytes(CRLF);
-                out.writeBytes(b.content());
-                out.writeBytes(CRLF);
+                out.writeByte('+');
+                ByteBufUtil.writeUtf8(out, s.content());
+                out.writeShort(CRLF_SHORT);
             }
+        } else if (msg instanceof ErrorMessage e) {
+            out.writeByte('-');
+            ByteBufUtil.writeUtf8(out, e.content());
+            out.writeShort(CRLF_SHORT);
         } else if (msg instanceof RedisArray a) {
-            out.writeByte('*');
             if (a.elements() == null) {
-                out.writeBytes("-1".getBytes(StandardCharsets.UTF_8));
-                out.writeBytes(CRLF);
+                out.writeBytes(resp3 ? RESP3_NULL_BYTES : NULL_ARRAY_BYTES);
+            } else {
+                writeAggregate(out, '*', a.elements(), a.elements().length, resp3);
+            }
+        } else if (msg instanceof MapMessage m) {
+            RedisMessage[] elements = m.elements();
+            if (resp3) {
+                writeAggregate(out, '%', elements, elements.length / 2, true);
             } else {
-                out.writeBytes(String.valueOf(a.elements().length).getBytes(StandardCharsets.UTF_8));
-                out.writeBytes(CRLF);
-                for (RedisMessage element : a.elements()) {
-                    // 递归编码数组元素。注意：MessageToByteEncoder 不会自动递归，需手动处理
-                    // 这里为了简单，我们调用一个新的 encode 方法，或者重构逻辑。
-                    // 实际项目中可以抽象 write 方法。这里我们简单复用逻辑：
-                    // 由于 encode 是 protected，我们在内部抽象一个 write 方法
-                    write(out, element);
-                }
+                writeAggregate(out, '*', elements, elements.length, false);
             }
+        } else if (msg instanceof SetMessage set) {
+            writeAggregate(out, resp3 ? '~' : '*', set.elements(), set.elements().length, resp3);
+        } else if (msg instanceof PushMessage p) {
+            writeAggregate(out, resp3 ? '>' : '*', p.elements(), p.elements().length, resp3);
+        } else if (msg instanceof DoubleMessage d) {
+            byte[] formatted = DoubleMessage.format(d.value()).getBytes(StandardCharsets.US_ASCII);
+            if (resp3) {
+                out.writeByte(',');
+            } else {
+                writeHeader(out, '$', formatted.length);
+            }
+            out.writeBytes(formatted);
+            out.writeShort(CRLF_SHORT);
+        } else if (msg instanceof BooleanMessage bool) {
+            if (resp3) {
+                out.writeBytes(bool.value() ? RESP3_TRUE_BYTES : RESP3_FALSE_BYTES);
+            } else {
+                out.writeBytes(bool.value() ? ONE_BYTES : ZERO_BYTES);
+            }
+        } else if (msg instanceof NullMessage) {
+            out.writeBytes(resp3 ? RESP3_NULL_BYTES : NULL_BULK_BYTES);
         }
     }
 
-    // 递归写入辅助方法
-    private void write(ByteBuf out, RedisMessage msg) {
-        // 这里需要把 encode 里的逻辑提取出来，为了代码简洁，
-        // 实际开发中建议把 encode 逻辑放到 RedisMessage 接口中，例如 msg.encode(out)
-        // 这里为了演示结构，简略重复部分逻辑:
+    /**
+     * 计算编码后的精确字节数 (用于一次性申请缓冲区)
+     */
+    public static int sizeOf(RedisMessage msg, boolean resp3) {
         if (msg instanceof BulkString b) {
-            out.writeByte('$');
-            // ... 重复 BulkString 逻辑 ...
-            if (b.content() == null) {
-                out.writeBytes("-1".getBytes(StandardCharsets.UTF_8));
-            } else {
-                out.writeBytes(String.valueOf(b.content().length).getBytes(StandardCharsets.UTF_8));
-                out.writeBytes(CRLF);
-                out.writeBytes(b.content());
-            }
-            out.writeBytes(CRLF);
+            byte[] content = b.content();
+            if (content == null) return resp3 ? RESP3_NULL_BYTES.length : NULL_BULK_BYTES.length;
+            return 1 + digitCount(content.length) + 2 + content.length + 2;
+        } else if (msg instanceof DirectBulkString d) {
+            return 1 + digitCount(d.length()) + 2 + d.length() + 2;
+        } else if (msg instanceof RedisInteger i) {
+            return 1 + digitCount(i.value()) + 2;
+        } else if (msg instanceof SimpleString s) {
+            return 1 + ByteBufUtil.utf8Bytes(s.content()) + 2;
+        } else if (msg instanceof ErrorMessage e) {
+            return 1 + ByteBufUtil.utf8Bytes(e.content()) + 2;
+        } else if (msg instanceof RedisArray a) {
+            if (a.elements() == null) return resp3 ? RESP3_NULL_BYTES.length : NULL_ARRAY_BYTES.length;
+            return aggregateSize(a.elements(), a.elements().length, resp3);
+        } else if (msg instanceof MapMessage m) {
+            int count = resp3 ? m.elements().length / 2 : m.elements().length;
+            return aggregateSize(m.elements(), count, resp3);
+        } else if (msg instanceof SetMessage set) {
+            return aggregateSize(set.elements(), set.elements().length, resp3);
+        } else if (msg instanceof PushMessage p) {
+            return aggregateSize(p.elements(), p.elements().length, resp3);
+        } else if (msg instanceof DoubleMessage d) {
+            int len = DoubleMessage.format(d.value()).length();
+            return resp3 ? 1 + len + 2 : 1 + digitCount(len) + 2 + len + 2;
+        } else if (msg instanceof BooleanMessage) {
+            return resp3 ? RESP3_TRUE_BYTES.length : ONE_BYTES.length;
+        } else if (msg instanceof NullMessage) {
+            return resp3 ? RESP3_NULL_BYTES.length : NULL_BULK_BYTES.length;
+        }
+        return 0;
+    }
+
+    // 写入聚合类型: <prefix><count>\r\n + 各元素
+    private static void writeAggregate(ByteBuf out, char prefix, RedisMessage[] elements, int count, boolean resp3) {
+        writeHeader(out, prefix, count);
+        for (RedisMessage element : elements) {
+            write(out, element, resp3);
+        }
+    }
+
+    private static int aggregateSize(RedisMessage[] elements, int count, boolean resp3) {
+        long size = 1 + digitCount(count) + 2;
+        for (RedisMessage element : elements) {
+            size += sizeOf(element, resp3);
+        }
+        // 超大回包交给 ByteBuf 自行扩容
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    // 写入 <prefix><number>\r\n
+    private static void writeHeader(ByteBuf out, char prefix, long value) {
+        out.writeByte(prefix);
+        writeDecimal(out, value);
+        out.writeShort(CRLF_SHORT);
+    }
+
+    // 十进制写入，小数字查表，其余逐位写入，不产生临时对象
+    private static void writeDecimal(ByteBuf out, long value) {
+        if (value >= 0 && value < SHARED_NUMBERS) {
+            out.writeBytes(NUMBER_BYTES[(int) value]);
+            return;
+        }
+        if (value == Long.MIN_VALUE) {
+            out.writeBytes(LONG_MIN_BYTES);
+            return;
+        }
+        if (value < 0) {
+            out.writeByte('-');
+            value = -value;
+        }
+        int len = digitCount(value);
+        out.ensureWritable(len);
+        int end = out.writerIndex() + len;
+        int idx = end;
+        do {
+            out.setByte(--idx, '0' + (int) (value % 10));
+            value /= 10;
+        } while (value > 0);
+        out.writerIndex(end);
+    }
+
+    // 十进制位数 (含负号)
+    private static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) return LONG_MIN_BYTES.length;
+        int sign = 0;
+        if (value < 0) {
+            sign = 1;
+            value = -value;
+        }
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
         }
-        // *注意*：为了代码完整性，建议将 encode 逻辑移动到 RedisMessage 接口中实现多态调用
-        // 或者将上面的 if-else 逻辑抽取为静态方法 void writeTo(ByteBuf, RedisMessage)
+        return digits + sign;
     }
 }
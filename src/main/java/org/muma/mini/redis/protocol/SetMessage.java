@@ -0,0 +1,5 @@
+package org.muma.mini.redis.protocol;
+
+// 7. RESP3 Set (~) - RESP2 下降级为数组
+public record SetMessage(RedisMessage[] elements) implements RedisMessage {
+}
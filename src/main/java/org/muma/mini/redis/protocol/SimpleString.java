@@ -2,4 +2,9 @@ package org.muma.mini.redis.protocol;
 
 // 1. 简单字符串 (+)
 public record SimpleString(String content) implements RedisMessage {
+
+    // 共享的高频回包，RespEncoder 会直接写出预编码字节
+    public static final SimpleString OK = new SimpleString("OK");
+    public static final SimpleString PONG = new SimpleString("PONG");
+    public static final SimpleString QUEUED = new SimpleString("QUEUED");
 }
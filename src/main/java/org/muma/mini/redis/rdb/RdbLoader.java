@@ -2,6 +2,7 @@ package org.muma.mini.redis.rdb;
 
 import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.store.StorageEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,10 +16,10 @@ import java.util.Arrays;
 public class RdbLoader {
 
     private static final Logger log = LoggerFactory.getLogger(RdbLoader.class);
-    private final StorageEngine storage;
+    private final Databases databases;
 
-    public RdbLoader(StorageEngine storage) {
-        this.storage = storage;
+    public RdbLoader(Databases databases) {
+        this.databases = databases;
     }
 
     public void load(File file) throws IOException {
@@ -43,6 +44,7 @@ public class RdbLoader {
 
             // 3. Loop Opcodes
             long expireAt = -1; // 当前 Key 的过期时间
+            StorageEngine storage = databases.get(0); // 没有 SELECTDB 时写入 0 号数据库
 
             while (true) {
                 int type = decoder.readByte();
@@ -50,7 +52,12 @@ public class RdbLoader {
                 if (type == RdbConstants.OP_EOF) {
                     break;
                 } else if (type == RdbConstants.OP_SELECTDB) {
-                    decoder.readLength(); // DB ID, ignore
+                    long dbId = decoder.readLength();
+                    if (!databases.isValidIndex(dbId)) {
+                        throw new IOException("RDB DB index " + dbId + " is out of range (databases "
+                                + databases.size() + ")");
+                    }
+                    storage = databases.get((int) dbId);
                     continue;
                 } else if (type == RdbConstants.OP_EXPIRETIME_MS) {
                     expireAt = decoder.readLong(); // 读 8 字节时间戳
@@ -91,7 +98,7 @@ public class RdbLoader {
 
     private RedisData<?> readValue(RdbDecoder decoder, int type) throws IOException {
         return switch (type) {
-            case RdbType.STRING -> new RedisData<>(RedisDataType.STRING, decoder.readString());
+            case RdbType.STRING -> RedisData.ofString(decoder.readString());
             case RdbType.LIST -> new RedisData<>(RedisDataType.LIST, decoder.readList());
             case RdbType.SET -> new RedisData<>(RedisDataType.SET, decoder.readSet());
             case RdbType.HASH -> new RedisData<>(RedisDataType.HASH, decoder.readHash());
@@ -1,7 +1,8 @@
 package org.muma.mini.redis.rdb;
 
 import org.muma.mini.redis.config.MiniRedisConfig;
-import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,14 +17,14 @@ public class RdbManager {
     private static final Logger log = LoggerFactory.getLogger(RdbManager.class);
 
     private final MiniRedisConfig config;
-    private final StorageEngine storage;
+    private final Databases databases;
     private final RdbSaver saver;
     private final ScheduledExecutorService cronExecutor;
 
-    public RdbManager(MiniRedisConfig config, StorageEngine storage) {
+    public RdbManager(MiniRedisConfig config, Databases databases) {
         this.config = config;
-        this.storage = storage;
-        this.saver = new RdbSaver(storage);
+        this.databases = databases;
+        this.saver = new RdbSaver(databases);
 
         // ServerCron: 每 100ms 检查一次 (和 Redis 默认 serverCron 频率一致)
         this.cronExecutor = Executors.newSingleThreadScheduledExecutor(
@@ -39,9 +40,9 @@ public class RdbManager {
 
     private void serverCron() {
         // 检查是否满足任意一个 save 条件
-        long dirty = storage.getDirty();
-        long lastSave = storage.getLastSaveTime();
-        long now = System.currentTimeMillis();
+        long dirty = databases.getDirty();
+        long lastSave = databases.getLastSaveTime();
+        long now = ServerClock.update();
 
         for (MiniRedisConfig.SaveParam param : config.getSaveParams()) {
             if (dirty >= param.changes &&
@@ -57,7 +58,7 @@ public class RdbManager {
     public void triggerBgsave() {
         File file = new File(config.getAppendDir(), config.getRdbFilename()); // 这里假设 RDB 和 AOF 存一起
         // Callback: 保存成功后重置 dirty
-        saver.bgsave(file, storage::resetDirty);
+        saver.bgsave(file, databases::resetDirty);
     }
 
     public void triggerSave() {
@@ -65,7 +66,7 @@ public class RdbManager {
         File file = new File(config.getAppendDir(), config.getRdbFilename());
         try {
             saver.save(file);
-            storage.resetDirty();
+            databases.resetDirty();
         } catch (Exception e) {
             log.error("Save failed", e);
         }
@@ -76,7 +77,7 @@ public class RdbManager {
         File file = new File(config.getAppendDir(), config.getRdbFilename());
         saver.bgsave(file, () -> {
             // 原有的 resetDirty 逻辑
-            storage.resetDirty();
+            databases.resetDirty();
             // 新增的回调
             if (callback != null) callback.accept(file);
         });
@@ -1,6 +1,7 @@
 package org.muma.mini.redis.rdb;
 
 import org.muma.mini.redis.common.*;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.store.StorageEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +10,7 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -18,12 +20,12 @@ public class RdbSaver {
 
     private static final Logger log = LoggerFactory.getLogger(RdbSaver.class);
 
-    private final StorageEngine storage;
+    private final Databases databases;
     private final ExecutorService bgsaveExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "RDB-Bgsave-Worker"));
     private final AtomicBoolean isBgsaving = new AtomicBoolean(false);
 
-    public RdbSaver(StorageEngine storage) {
-        this.storage = storage;
+    public RdbSaver(Databases databases) {
+        this.databases = databases;
     }
 
     /**
@@ -41,37 +43,34 @@ public class RdbSaver {
             encoder.writeBytes(RdbConstants.MAGIC);
             encoder.writeBytes(RdbConstants.VERSION.getBytes(StandardCharsets.UTF_8));
 
-            // 2. Select DB 0
-            encoder.writeByte(RdbConstants.OP_SELECTDB);
-            encoder.writeLength(0); // DB ID
-
-            // 3. 遍历 Key-Value
-            for (String key : storage.keys()) {
-                RedisData<?> data = storage.get(key);
-                if (data == null || data.isExpired()) continue;
-
-                // 3.1 写入过期时间 (如果有)
-                long expireAt = data.getExpireAt();
-                if (expireAt != -1) {
-                    encoder.writeByte(RdbConstants.OP_EXPIRETIME_MS);
-                    encoder.writeLong(expireAt);
+            // 2. 逐个数据库：Select DB + Key-Value (空数据库不写)
+            // 后台线程不能修改键空间，用 forEachEntry 只读遍历
+            try {
+                for (int db = 0; db < databases.size(); db++) {
+                    int dbId = db;
+                    StorageEngine storage = databases.get(db);
+                    boolean[] selected = {false};
+                    storage.forEachEntry((key, data) -> {
+                        try {
+                            if (!selected[0]) {
+                                encoder.writeByte(RdbConstants.OP_SELECTDB);
+                                encoder.writeLength(dbId); // DB ID
+                                selected[0] = true;
+                            }
+                            writeEntry(encoder, storage, key, data);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
                 }
-
-                // 3.2 写入类型
-                int type = getRdbType(data.getType());
-                encoder.writeByte(type);
-
-                // 3.3 写入 Key
-                encoder.writeString(key);
-
-                // 3.4 写入 Value
-                writeValue(encoder, data);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
 
-            // 4. EOF
+            // 3. EOF
             encoder.writeByte(RdbConstants.OP_EOF);
 
-            // 5. Checksum (暂略，写 8 个 0 或者计算 CRC64)
+            // 4. Checksum (暂略，写 8 个 0 或者计算 CRC64)
             // encoder.writeLong(0);
 
             bos.flush();
@@ -88,6 +87,39 @@ public class RdbSaver {
         log.info("DB saved on disk. Size: {}, Duration: {} ms", file.length(), duration);
     }
 
+    private void writeEntry(RdbEncoder encoder, StorageEngine storage, String key, RedisData<?> data) throws IOException {
+        // 堆外的字符串先读出来：快照期间值被覆盖或删除 (已归还 chunk) 时重新读取 key 的当前值，
+        // key 已经不存在才跳过，不写半个条目
+        byte[] string = null;
+        while (data != null && data.getType() == RedisDataType.STRING) {
+            string = data.tryGetBytes();
+            if (string != null) break;
+            data = storage.peekFromBackground(key);
+        }
+        if (data == null) return;
+
+        // 3.1 写入过期时间 (如果有)
+        long expireAt = data.getExpireAt();
+        if (expireAt != -1) {
+            encoder.writeByte(RdbConstants.OP_EXPIRETIME_MS);
+            encoder.writeLong(expireAt);
+        }
+
+        // 3.2 写入类型
+        int type = getRdbType(data.getType());
+        encoder.writeByte(type);
+
+        // 3.3 写入 Key
+        encoder.writeString(key);
+
+        // 3.4 写入 Value
+        if (string != null) {
+            encoder.writeString(string);
+        } else {
+            writeValue(encoder, data);
+        }
+    }
+
     /**
      * 后台保存 (BGSAVE)
      */
@@ -123,7 +155,6 @@ public class RdbSaver {
 
     private void writeValue(RdbEncoder encoder, RedisData<?> data) throws IOException {
         switch (data.getType()) {
-            case STRING -> encoder.writeString((byte[]) data.getData());
             case LIST -> encoder.writeList((RedisList) data.getData());
             case SET -> encoder.writeSet((RedisSet) data.getData());
             case HASH -> encoder.writeHash((RedisHash) data.getData());
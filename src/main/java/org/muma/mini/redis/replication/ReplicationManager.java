@@ -15,8 +15,9 @@ import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
 import org.muma.mini.redis.protocol.RespDecoder;
 import org.muma.mini.redis.protocol.RespEncoder;
+import org.muma.mini.redis.server.OutputBufferLimiter;
 import org.muma.mini.redis.server.RedisCoreExecutor;
-import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.Databases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,7 +38,7 @@ public class ReplicationManager {
     private static final Logger log = LoggerFactory.getLogger(ReplicationManager.class);
 
     private final MiniRedisConfig config;
-    private final StorageEngine storage;
+    private final Databases databases;
     private final RedisCoreExecutor coreExecutor;
 
     // --- Getters ---
@@ -58,9 +59,12 @@ public class ReplicationManager {
     // Value: 缓冲区 (在该 Slave 等待 RDB 期间产生的新命令)
     private final Map<ChannelHandlerContext, List<RedisArray>> pendingSlaves = new ConcurrentHashMap<>();
 
-    public ReplicationManager(MiniRedisConfig config, StorageEngine storage, RedisCoreExecutor coreExecutor) {
+    // 复制流中最近一次 SELECT 的数据库 (对应 Redis 的 server.slaveseldb)，-1 表示下一条命令前必须 SELECT
+    private int replicationSelectedDb = -1;
+
+    public ReplicationManager(MiniRedisConfig config, Databases databases, RedisCoreExecutor coreExecutor) {
         this.config = config;
-        this.storage = storage;
+        this.databases = databases;
         this.coreExecutor = coreExecutor;
         this.metadata = new ReplicationMetadata();
     }
@@ -78,20 +82,39 @@ public class ReplicationManager {
         // 使用 synchronized List 或者 Vector 保证线程安全，或者在 core 线程操作
         // 这里 value 是 ArrayList，但在 put 时是原子的
         pendingSlaves.put(ctx, Collections.synchronizedList(new ArrayList<>()));
+        // 新 Slave 不知道当前选中的数据库，强制下一条命令前重新 SELECT
+        synchronized (this) {
+            replicationSelectedDb = -1;
+        }
         log.info("New slave added to pending list: {}", ctx.channel().remoteAddress());
     }
 
     /**
      * 命令传播 (Propagate)
-     * 当主线程执行完写命令后调用
+     * 当主线程执行完写命令后调用；与上一条命令的数据库不同时先传播一条 SELECT
+     *
+     * @param db 命令作用的数据库
      */
-    public void propagate(RedisArray command) {
+    public synchronized void propagate(int db, RedisArray command) {
+        if (db != replicationSelectedDb) {
+            send(new RedisArray(new RedisMessage[]{new BulkString("SELECT"), new BulkString(String.valueOf(db))}));
+            replicationSelectedDb = db;
+        }
+        send(command);
+    }
+
+    private void send(RedisArray command) {
         // 1. 发送给 Online Slaves
         for (ChannelHandlerContext slave : onlineSlaves) {
-            if (slave.channel().isActive()) {
-                slave.writeAndFlush(command);
-            } else {
+            if (!slave.channel().isActive()) {
                 onlineSlaves.remove(slave); // 懒惰清理
+            } else if (OutputBufferLimiter.isLimitReached(slave.channel())) {
+                // 落后太多的 Slave 直接断开 (client-output-buffer-limit replica)，
+                // 避免一个慢 Slave 把 Master 的内存撑爆
+                onlineSlaves.remove(slave);
+                slave.close();
+            } else {
+                slave.writeAndFlush(command, slave.voidPromise());
             }
         }
 
@@ -0,0 +1,56 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import org.muma.mini.redis.protocol.RedisMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 一个命令批次的回包 (按产生顺序)
+ * <p>
+ * 【协议切换】回包在整批执行完之后才交给 IO 线程编码，此时连接上的协议版本已经是批次末尾的版本。
+ * 批次中途的 HELLO 在这里记下切换点，写出时按顺序更新编码器使用的版本：
+ * HELLO 之前的回包仍按旧协议编码，HELLO 自身及之后的按新协议编码。
+ */
+final class BatchReplies extends ArrayList<RedisMessage> {
+
+    private static final int[] NO_SWITCHES = new int[0];
+
+    // 成对存放：从第 switches[2i] 条回包开始使用协议版本 switches[2i + 1]
+    private int[] switches = NO_SWITCHES;
+    private int switchCount;
+
+    BatchReplies(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * 下一条加入的回包起使用新的协议版本 (核心线程调用)
+     */
+    void switchProtocol(int protocolVersion) {
+        if (switchCount * 2 == switches.length) {
+            switches = Arrays.copyOf(switches, Math.max(2, switches.length * 2));
+        }
+        switches[switchCount * 2] = size();
+        switches[switchCount * 2 + 1] = protocolVersion;
+        switchCount++;
+    }
+
+    /**
+     * 按顺序写出全部回包，编码前切换到回包产生时的协议版本 (IO 线程调用，不 flush)
+     */
+    void writeTo(ChannelHandlerContext ctx, RedisContext context) {
+        int next = 0;
+        for (int i = 0; i < size(); i++) {
+            while (next < switchCount && switches[next * 2] == i) {
+                context.setEncodingProtocolVersion(switches[next * 2 + 1]);
+                next++;
+            }
+            ctx.write(get(i), ctx.voidPromise());
+        }
+        if (next < switchCount) {
+            context.setEncodingProtocolVersion(switches[switchCount * 2 - 1]);
+        }
+    }
+}
@@ -20,6 +20,10 @@ public class BlockingContext {
     @Getter
     private final ChannelHandlerContext ctx;
 
+    // 阻塞时所在的数据库编号
+    @Getter
+    private final int db;
+
     @Getter
     private final List<String> keys;
 
@@ -36,12 +40,14 @@ public class BlockingContext {
     /**
      * 构造函数
      * @param ctx Netty 上下文
+     * @param db 数据库编号
      * @param keys 监听的 Key 列表
      * @param expireAt 超时时间戳
      * @param handler 具体的唤醒/超时处理逻辑
      */
-    public BlockingContext(ChannelHandlerContext ctx, List<String> keys, long expireAt, BlockingHandler handler) {
+    public BlockingContext(ChannelHandlerContext ctx, int db, List<String> keys, long expireAt, BlockingHandler handler) {
         this.ctx = ctx;
+        this.db = db;
         this.keys = keys;
         this.expireAt = expireAt;
         this.handler = handler;
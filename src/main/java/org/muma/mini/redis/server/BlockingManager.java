@@ -23,17 +23,27 @@ import java.util.concurrent.TimeUnit;
 /**
  * 全局阻塞请求管理器
  * 负责管理 BLPOP, BRPOP, BRPOPLPUSH 的挂起与唤醒
+ * <p>
+ * 整个服务器共用一个 (所有逻辑数据库、所有分片)，等待按 (数据库编号, key) 登记。
  */
 public class BlockingManager {
 
     private static final Logger log = LoggerFactory.getLogger(BlockingManager.class);
 
-    // Key -> List<BlockingContext> (等待该 Key 的所有客户端)
+    // (db, key) -> List<BlockingContext> (等待该 Key 的所有客户端)
     // 使用 COWList 保证遍历时的线程安全，适合读多写少的场景
-    private final Map<String, List<BlockingContext>> waitingClients = new ConcurrentHashMap<>();
+    private final Map<BlockKey, List<BlockingContext>> waitingClients = new ConcurrentHashMap<>();
 
     // 定时清理超时连接
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Redis-Blocking-Timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 等待登记的 key：不同数据库中的同名 key 互不干扰
+    private record BlockKey(int db, String key) {
+    }
 
     public BlockingManager() {
         // 每 100ms 扫描一次超时
@@ -45,14 +55,14 @@ public class BlockingManager {
      *
      * @param handler 具体的业务处理策略 (ListBlockingHandler, StreamBlockingHandler...)
      */
-    public void addWait(ChannelHandlerContext ctx, List<String> keys, long timeoutSec, BlockingHandler handler) {
-        long expireAt = (timeoutSec == 0) ? Long.MAX_VALUE : System.currentTimeMillis() + (timeoutSec * 1000);
+    public void addWait(ChannelHandlerContext ctx, int db, List<String> keys, long timeoutSec, BlockingHandler handler) {
+        long expireAt = (timeoutSec == 0) ? Long.MAX_VALUE : ServerClock.now() + (timeoutSec * 1000);
 
         // 使用新的构造函数
-        BlockingContext context = new BlockingContext(ctx, keys, expireAt, handler);
+        BlockingContext context = new BlockingContext(ctx, db, keys, expireAt, handler);
 
         for (String key : keys) {
-            waitingClients.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(context);
+            waitingClients.computeIfAbsent(new BlockKey(db, key), k -> new CopyOnWriteArrayList<>()).add(context);
         }
 
         log.debug("Client blocked on keys: {}", keys);
@@ -69,7 +79,7 @@ public class BlockingManager {
      * 5. 级联唤醒 (如果推入了新列表)。
      */
     public void onPush(String key, StorageEngine storage) {
-        List<BlockingContext> clients = waitingClients.get(key);
+        List<BlockingContext> clients = waitingClients.get(new BlockKey(storage.getDbIndex(), key));
         if (clients == null || clients.isEmpty()) return;
 
         Iterator<BlockingContext> it = clients.iterator();
@@ -111,18 +121,19 @@ public class BlockingManager {
      */
     private void removeClient(BlockingContext client) {
         for (String k : client.getKeys()) {
-            List<BlockingContext> list = waitingClients.get(k);
+            BlockKey blockKey = new BlockKey(client.getDb(), k);
+            List<BlockingContext> list = waitingClients.get(blockKey);
             if (list != null) {
                 list.remove(client);
                 if (list.isEmpty()) {
-                    waitingClients.remove(k);
+                    waitingClients.remove(blockKey);
                 }
             }
         }
     }
 
     private void checkTimeouts() {
-        long now = System.currentTimeMillis();
+        long now = ServerClock.update();
 
         // 遍历所有 Key 的等待队列
         waitingClients.values().forEach(list -> {
@@ -131,7 +142,7 @@ public class BlockingManager {
                 if (now > ctx.getExpireAt()) {
                     // 发送超时响应 (nil)
                     if (ctx.getCtx().channel().isActive()) {
-                        ctx.getCtx().writeAndFlush(new BulkString((byte[]) null));
+                        ctx.getCtx().writeAndFlush(BulkString.NULL);
                     }
                     // 还需要把这个 client 从其他 key 的监听列表里也删掉
                     // 但 removeIf 只能删当前 list 的。
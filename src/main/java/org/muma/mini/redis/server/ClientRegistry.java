@@ -0,0 +1,77 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 在线客户端登记表 (CLIENT LIST / INFO clients 的数据来源)
+ * IO 线程在连接建立/断开时增删，核心线程只读遍历。
+ */
+public class ClientRegistry {
+
+    private final Map<Long, RedisContext> clients = new ConcurrentHashMap<>();
+    private final AtomicLong totalConnectionsReceived = new AtomicLong();
+
+    public void register(RedisContext context) {
+        clients.put(context.getClientId(), context);
+        totalConnectionsReceived.incrementAndGet();
+    }
+
+    public void unregister(RedisContext context) {
+        clients.remove(context.getClientId());
+    }
+
+    public RedisContext get(long clientId) {
+        return clients.get(clientId);
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public long getTotalConnectionsReceived() {
+        return totalConnectionsReceived.get();
+    }
+
+    public Collection<RedisContext> all() {
+        return clients.values();
+    }
+
+    /**
+     * clientsCron：检查积压了输出的连接是否超过输出缓冲区限制
+     * <p>
+     * 平时只在 flush 之后检查，不再产生新回包的客户端停在 soft 限制之上时没有人再检查，
+     * 要靠这里定期检查让 softSeconds 计时到期后断开 (也顺带清除已经回落的计时)。检查提交到连接所在的 IO 线程执行。
+     */
+    public void checkOutputBufferLimits() {
+        for (RedisContext context : clients.values()) {
+            ChannelHandlerContext ctx = context.getNettyCtx();
+            if (ctx == null) continue;
+            Channel channel = ctx.channel();
+            if (OutputBufferLimiter.outputMemory(channel) == 0 && context.getSoftLimitReachedAt() == 0) continue;
+            channel.eventLoop().execute(() -> {
+                if (channel.isActive() && OutputBufferLimiter.isLimitReached(channel)) {
+                    channel.close();
+                }
+            });
+        }
+    }
+
+    /**
+     * 所有客户端中最大的输出缓冲区占用 (INFO client_recent_max_output_buffer)
+     */
+    public long maxOutputMemory() {
+        long max = 0;
+        for (RedisContext context : clients.values()) {
+            if (context.getNettyCtx() != null) {
+                max = Math.max(max, OutputBufferLimiter.outputMemory(context.getNettyCtx().channel()));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,138 @@
+package org.muma.mini.redis.server;
+
+import org.muma.mini.redis.protocol.RedisMessage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 核心线程的命令队列：有界、多生产者单消费者 (MPSC) 环形缓冲
+ * <p>
+ * 【设计】(Vyukov bounded queue)
+ * 1. 槽位在构造时全部预分配，提交命令批次只是往槽位里填字段，不再为每次提交创建 Runnable。
+ * 2. 每个槽位配一个序号：序号 == pos 表示空闲可写，== pos + 1 表示已发布可读。
+ *    生产者 CAS 推进 tail 抢占位置，写完字段后发布序号；消费者只有一个，head 无需同步。
+ * 3. 消费者执行完后把序号推进一整圈 (pos + capacity)，槽位即可被下一轮复用。
+ */
+final class CommandRingBuffer {
+
+    /**
+     * 预分配的槽位：要么是一段命令批次，要么是普通任务
+     */
+    static final class Slot {
+        private Runnable task;
+        private BatchTask batchTask;
+        private List<RedisMessage> batch;
+        private BatchReplies responses;
+        private int start;
+        private int shard;
+
+        void set(Runnable task) {
+            this.task = task;
+        }
+
+        void set(BatchTask batchTask, List<RedisMessage> batch, int start, BatchReplies responses, int shard) {
+            this.batchTask = batchTask;
+            this.batch = batch;
+            this.start = start;
+            this.responses = responses;
+            this.shard = shard;
+        }
+
+        void run() {
+            if (task != null) {
+                RedisCoreExecutor.runTask(task);
+            } else {
+                batchTask.executeBatch(batch, start, responses, shard);
+            }
+        }
+
+        // 释放引用，避免已执行的批次被槽位长期持有
+        void clear() {
+            task = null;
+            batchTask = null;
+            batch = null;
+            responses = null;
+        }
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // 仅消费者线程访问
+
+    CommandRingBuffer(int requestedCapacity) {
+        int capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 生产者：抢占一个空闲位置
+     *
+     * @return 位置，-1 表示队列已满
+     */
+    long tryClaim() {
+        while (true) {
+            long pos = tail.get();
+            long dif = sequences.get((int) pos & mask) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) return pos;
+            } else if (dif < 0) {
+                return -1;
+            }
+            // dif > 0：该位置已被其他生产者抢走，重读 tail
+        }
+    }
+
+    Slot slot(long pos) {
+        return slots[(int) pos & mask];
+    }
+
+    /**
+     * 生产者：字段写完后发布 (volatile 写，消费者随后的 volatile 读可见全部字段)
+     */
+    void publish(long pos) {
+        sequences.set((int) pos & mask, pos + 1);
+    }
+
+    /**
+     * 消费者：取出下一个已发布的槽位，没有则返回 null
+     */
+    Slot poll() {
+        int index = (int) head & mask;
+        return sequences.get(index) == head + 1 ? slots[index] : null;
+    }
+
+    /**
+     * 消费者：槽位执行完毕，归还给生产者
+     */
+    void release(Slot slot) {
+        slot.clear();
+        sequences.lazySet((int) head & mask, head + slots.length);
+        head++;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * 在核心线程上执行的一段命令批次 (由 {@link RedisCommandHandler} 实现)
+     */
+    interface BatchTask {
+        void executeBatch(List<RedisMessage> batch, int start, BatchReplies responses, int shard);
+    }
+}
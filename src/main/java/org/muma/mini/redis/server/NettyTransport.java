@@ -0,0 +1,135 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.muma.mini.redis.config.MiniRedisConfig.TransportType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 网络传输层选择器
+ * <p>
+ * 根据配置选择 NIO / Epoll / io_uring，原生传输不可用时自动降级：
+ * io_uring -> epoll -> nio。
+ * <p>
+ * io_uring 依赖 netty-incubator-transport-native-io_uring，它不在 netty-all 里，
+ * 所以这里通过反射加载：classpath 上有就用，没有就降级，不强制引入依赖。
+ */
+public final class NettyTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyTransport.class);
+
+    private static final String IO_URING_PACKAGE = "io.netty.incubator.channel.uring.";
+
+    private final TransportType type;
+
+    private NettyTransport(TransportType type) {
+        this.type = type;
+    }
+
+    /**
+     * 解析实际可用的传输方式 (带自动降级)
+     */
+    public static NettyTransport resolve(TransportType requested) {
+        TransportType effective = requested;
+
+        if (effective == TransportType.IO_URING && !isIoUringAvailable()) {
+            log.warn("io_uring transport is not available, falling back to epoll.");
+            effective = TransportType.EPOLL;
+        }
+        if (effective == TransportType.EPOLL && !Epoll.isAvailable()) {
+            log.warn("Epoll transport is not available ({}), falling back to nio.",
+                    Epoll.unavailabilityCause().getMessage());
+            effective = TransportType.NIO;
+        }
+
+        log.info("Network transport: requested={}, effective={}", requested, effective);
+        return new NettyTransport(effective);
+    }
+
+    public TransportType getType() {
+        return type;
+    }
+
+    /**
+     * @param threads 线程数，0 表示使用 Netty 默认值 (CPU * 2)
+     */
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return switch (type) {
+            case EPOLL -> new EpollEventLoopGroup(threads);
+            case IO_URING -> newIoUringInstance("IOUringEventLoopGroup", threads);
+            default -> new NioEventLoopGroup(threads);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public Class<? extends ServerChannel> serverChannelClass() {
+        return switch (type) {
+            case EPOLL -> EpollServerSocketChannel.class;
+            case IO_URING -> (Class<? extends ServerChannel>) loadIoUringClass("IOUringServerSocketChannel");
+            default -> NioServerSocketChannel.class;
+        };
+    }
+
+    /**
+     * SO_REUSEPORT 选项 (NIO 不支持，返回 null)
+     * 开启后多个监听 Channel 可以绑定同一端口，由内核在它们之间做连接负载均衡。
+     */
+    @SuppressWarnings("unchecked")
+    public ChannelOption<Boolean> reusePortOption() {
+        return switch (type) {
+            case EPOLL -> EpollChannelOption.SO_REUSEPORT;
+            case IO_URING -> (ChannelOption<Boolean>) readIoUringStatic("IOUringChannelOption", "SO_REUSEPORT");
+            default -> null;
+        };
+    }
+
+    /**
+     * Unix Domain Socket 监听 Channel (仅 epoll 支持，其他返回 null)
+     */
+    public Class<? extends ServerChannel> domainSocketChannelClass() {
+        return type == TransportType.EPOLL ? EpollServerDomainSocketChannel.class : null;
+    }
+
+    // --- io_uring 反射辅助 ---
+
+    private static boolean isIoUringAvailable() {
+        try {
+            return (Boolean) loadIoUringClass("IOUring").getMethod("isAvailable").invoke(null);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static Class<?> loadIoUringClass(String simpleName) {
+        try {
+            return Class.forName(IO_URING_PACKAGE + simpleName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("io_uring transport class not found: " + simpleName, e);
+        }
+    }
+
+    private static EventLoopGroup newIoUringInstance(String simpleName, int threads) {
+        try {
+            return (EventLoopGroup) loadIoUringClass(simpleName).getConstructor(int.class).newInstance(threads);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + simpleName, e);
+        }
+    }
+
+    private static Object readIoUringStatic(String simpleName, String field) {
+        try {
+            return loadIoUringClass(simpleName).getField(field).get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to read " + simpleName + "." + field, e);
+        }
+    }
+}
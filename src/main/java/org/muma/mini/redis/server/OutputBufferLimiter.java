@@ -0,0 +1,75 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.OutputBufferLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 客户端输出缓冲区限制 (对应 Redis 的 checkClientOutputBufferLimits)
+ * <p>
+ * 【omem 的来源】
+ * 直接取 Netty ChannelOutboundBuffer 中尚未写入 socket 的字节数。
+ * 跨线程提交的 write 任务也会计入 (见 {@link RespMessageSizeEstimator})，
+ * 所以核心线程向 Slave 传播命令时看到的也是真实积压量。
+ * <p>
+ * 【判定规则】
+ * 1. 超过 hard 限制：立即断开。
+ * 2. 超过 soft 限制：记录首次超限时间，连续超限 softSeconds 秒后断开；回落到 soft 以下则重新计时。
+ * <p>
+ * 【检查时机】flush 之后、Slave 传播命令时，以及 {@link ClientRegistry#checkOutputBufferLimits()} 每秒一次。
+ */
+public final class OutputBufferLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(OutputBufferLimiter.class);
+
+    private OutputBufferLimiter() {
+    }
+
+    /**
+     * 当前连接的输出缓冲区占用 (字节)
+     */
+    public static long outputMemory(Channel channel) {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+    }
+
+    /**
+     * 检查连接是否超过输出缓冲区限制
+     *
+     * @return true 表示应当断开该连接
+     */
+    public static boolean isLimitReached(Channel channel) {
+        RedisContext context = channel.attr(RedisContext.ATTR_KEY).get();
+        if (context == null) return false;
+
+        OutputBufferLimit limit = MiniRedisConfig.getInstance().getOutputBufferLimit(context.getClientType());
+        long omem = outputMemory(channel);
+
+        if (limit.hardLimitBytes() > 0 && omem >= limit.hardLimitBytes()) {
+            logClose(channel, context, omem, "hard");
+            return true;
+        }
+
+        if (limit.softLimitBytes() > 0 && omem >= limit.softLimitBytes()) {
+            long now = System.currentTimeMillis();
+            long reachedAt = context.getSoftLimitReachedAt();
+            if (reachedAt == 0) {
+                context.setSoftLimitReachedAt(now);
+            } else if (now - reachedAt >= limit.softLimitSeconds() * 1000L) {
+                logClose(channel, context, omem, "soft");
+                return true;
+            }
+        } else {
+            context.setSoftLimitReachedAt(0);
+        }
+        return false;
+    }
+
+    private static void logClose(Channel channel, RedisContext context, long omem, String which) {
+        log.warn("Client id={} addr={} type={} closed for overcoming of output buffer {} limit (omem={})",
+                context.getClientId(), channel.remoteAddress(), context.getClientType(), which, omem);
+    }
+}
@@ -1,178 +1,287 @@
 package org.muma.mini.redis.server;
 
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.command.CommandTable;
 import org.muma.mini.redis.protocol.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.management.ManagementFactory;
-import java.util.Arrays;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 public class RedisCommandHandler extends SimpleChannelInboundHandler<RedisMessage> {
 
     private static final Logger log = LoggerFactory.getLogger(RedisCommandHandler.class);
 
-    // 记录连接的客户端数量（简单计数）
-    // 注意：这个静态变量在多线程环境下可能不准，建议用 AtomicInteger
-    private static int connectedClients = 0;
-
     // 【修改点 1】持有单例 Dispatcher
     private final CommandDispatcher dispatcher;
-    private final RedisCoreExecutor coreExecutor; // 【新增】
+    private final ShardRouter shardRouter; // 单线程模式下只有一个分片
+    private final ClientRegistry clientRegistry;
+
+    private static final byte[] QUIT_BYTES = "QUIT".getBytes(StandardCharsets.US_ASCII);
+
+    // 单次 read 事件中最多攒多少条命令再提交 (防止超长 Pipeline 攒出巨型批次)
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    // 当前 read 事件中已解码、尚未提交的命令 (仅 IO 线程访问)
+    private List<RedisMessage> pendingCommands = new ArrayList<>();
+
+    // 已提交、回包尚未写出的批次数 (仅 IO 线程访问)
+    // 分片模式下同一连接同时只允许一个批次在执行，保证跨分片时回包顺序
+    private int batchesInFlight = 0;
+
+    // IO 线程直接执行的只读命令已写入、尚未 flush
+    private boolean needsFlush = false;
+    // 本次 read 事件中是否已刷新过缓存时钟
+    private boolean clockUpdated = false;
+
+    // 连接级上下文 (协议版本、客户端 ID 等)，整个连接生命周期复用
+    private RedisContext redisContext;
+    private ChannelHandlerContext channelContext;
+
+    // 投递到核心线程的批次任务，每个连接只创建一次
+    private final CommandRingBuffer.BatchTask batchTask = this::executeBatch;
 
     // 【修改点 2】构造函数接收单例 Dispatcher
-    public RedisCommandHandler(CommandDispatcher dispatcher, RedisCoreExecutor coreExecutor) {
+    public RedisCommandHandler(CommandDispatcher dispatcher, ShardRouter shardRouter,
+                               ClientRegistry clientRegistry) {
         this.dispatcher = dispatcher;
-        this.coreExecutor = coreExecutor;
+        this.shardRouter = shardRouter;
+        this.clientRegistry = clientRegistry;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        channelContext = ctx;
+        redisContext = new RedisContext(ctx);
+        ctx.channel().attr(RedisContext.ATTR_KEY).set(redisContext);
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        connectedClients++;
-        log.info("Client connected: {}, total clients: {}", ctx.channel().remoteAddress(), connectedClients);
+        clientRegistry.register(redisContext);
+        log.info("Client connected: {}, total clients: {}", ctx.channel().remoteAddress(), clientRegistry.size());
         super.channelActive(ctx);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        connectedClients--;
-        log.info("Client disconnected: {}, total clients: {}", ctx.channel().remoteAddress(), connectedClients);
+        clientRegistry.unregister(redisContext);
+        if (batchesInFlight == 0) {
+            releaseWatchedKeys();
+        }
+        log.info("Client disconnected: {}, total clients: {}", ctx.channel().remoteAddress(), clientRegistry.size());
         super.channelInactive(ctx);
     }
 
+    /**
+     * 断开时释放 WATCH (必须等本连接的批次全部执行完，WATCH 列表只在执行本连接命令的线程上访问)
+     */
+    private void releaseWatchedKeys() {
+        if (redisContext.getWatchedKeys().isEmpty()) return;
+        shardRouter.submit(shardRouter.homeShard(redisContext),
+                () -> dispatcher.getWatchManager().unwatchAll(redisContext));
+    }
+
+    /**
+     * 【背压】输出缓冲超过高水位时停止读取该客户端的新命令，回落到低水位以下再恢复。
+     * 不读回包却持续发命令的客户端因此只能积压有限的回包，而不是把堆撑爆。
+     */
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        boolean writable = ctx.channel().isWritable();
+        ctx.channel().config().setAutoRead(writable);
+        if (!writable && OutputBufferLimiter.isLimitReached(ctx.channel())) {
+            ctx.close();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RedisMessage msg) {
-        if (msg instanceof RedisArray array) {
-            handleCommand(ctx, array);
-        } else {
-            log.warn("Received non-array message: {}", msg);
-            ctx.writeAndFlush(new ErrorMessage("ERR protocol error: expected array"));
+        // 【Pipeline 批处理】同一次 read 事件解码出的命令先攒起来，
+        // 到 channelReadComplete 时整体提交给 CoreExecutor，只跨线程一次、只 flush 一次
+        if (tryReadOnIoThread(ctx, msg)) return;
+        pendingCommands.add(msg);
+        if (pendingCommands.size() >= MAX_BATCH_SIZE) {
+            submitBatch(ctx);
         }
     }
 
-    private void handleCommand(ChannelHandlerContext ctx, RedisArray array) {
-        RedisMessage[] elements = array.elements();
-        if (elements == null || elements.length == 0) return;
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        clockUpdated = false;
+        submitBatch(ctx);
+        if (needsFlush) {
+            needsFlush = false;
+            ctx.flush();
+            if (OutputBufferLimiter.isLimitReached(ctx.channel())) {
+                ctx.close();
+            }
+        }
+        super.channelReadComplete(ctx);
+    }
 
-        if (!(elements[0] instanceof BulkString cmdNameBulk)) {
-            ctx.writeAndFlush(new ErrorMessage("ERR protocol error: command name must be string"));
-            return;
+    /**
+     * 只读命令直接在 IO 线程上执行 (server.io_thread_reads)
+     * <p>
+     * 前面没有尚未回包的命令时才能这样做，否则回包会越过它们；乐观读校验失败则照常进入批次。
+     */
+    private boolean tryReadOnIoThread(ChannelHandlerContext ctx, RedisMessage msg) {
+        if (!dispatcher.isIoThreadReads() || batchesInFlight > 0 || !pendingCommands.isEmpty()
+                || !(msg instanceof RedisArray array)) {
+            return false;
+        }
+        if (!clockUpdated) {
+            // 核心线程空闲时不会刷新缓存时钟，IO 线程自己每个 read 事件刷新一次
+            ServerClock.update();
+            clockUpdated = true;
         }
+        RedisMessage response = dispatcher.tryExecuteOnIoThread(array, redisContext);
+        if (response == null) return false;
+        ctx.write(response, ctx.voidPromise());
+        needsFlush = true;
+        return true;
+    }
 
-        String commandName = cmdNameBulk.asString().toUpperCase(Locale.ROOT);
-
-        // 记录日志
-//        if (log.isDebugEnabled() || !commandName.equals("INFO")) {
-//            String argsLog = Arrays.stream(elements).skip(1).map(this::convertToString).collect(Collectors.joining(", "));
-//            log.info("Execute Command: {} args=[{}]", commandName, argsLog);
-//        }
-
-        // 【核心修改】所有逻辑提交到 CoreExecutor 单线程执行
-        coreExecutor.submit(() -> {
-            try {
-                RedisMessage response = switch (commandName) {
-                    case "PING" -> new SimpleString("PONG");
-                    case "ECHO" -> handleEcho(elements);
-                    case "QUIT" -> {
-                        ctx.close();
-                        yield null;
-                    }
-                    case "COMMAND" -> new SimpleString("OK");
-                    case "SCAN" -> handleScanMock(elements);
-                    case "INFO" -> handleInfo(elements);
-                    default -> dispatcher.dispatch(commandName, array, ctx);
-                };
+    /**
+     * 将当前积攒的命令作为一个任务提交到核心线程 (IO 线程调用)
+     */
+    private void submitBatch(ChannelHandlerContext ctx) {
+        if (pendingCommands.isEmpty()) return;
 
-                if (response != null) {
-                    ctx.writeAndFlush(response);
-                }
-            } catch (Exception e) {
-                log.error("Error processing command {}", commandName, e);
-                ctx.writeAndFlush(new ErrorMessage("ERR internal error"));
+        // 分片模式下上一批可能还在其他分片上执行，等它的回包交还 IO 线程后再提交，避免两批回包交错
+        if (shardRouter.isSharded() && batchesInFlight > 0) {
+            if (pendingCommands.size() >= MAX_BATCH_SIZE) {
+                ctx.channel().config().setAutoRead(false);
             }
-        });
+            return;
+        }
+        batchesInFlight++;
+
+        List<RedisMessage> batch = pendingCommands;
+        pendingCommands = new ArrayList<>();
+        BatchReplies responses = new BatchReplies(batch.size());
+        int shard = routeOf(batch.get(0), shardRouter.homeShard(redisContext));
+        shardRouter.submitBatch(shard, batchTask, batch, 0, responses);
     }
 
-    // --- Mock 处理逻辑 ---
-
-    private RedisMessage handleInfo(RedisMessage[] elements) {
-        long uptime = ManagementFactory.getRuntimeMXBean().getUptime() / 1000;
-        long pid = ProcessHandle.current().pid();
-
-        String info = """
-                # Server
-                redis_version:6.0.0
-                redis_git_sha1:00000000
-                redis_git_dirty:0
-                redis_build_id:0
-                redis_mode:standalone
-                os:%s
-                arch_bits:64
-                multiplexing_api:netty
-                process_id:%d
-                tcp_port:6379
-                uptime_in_seconds:%d
-                uptime_in_days:%d
-                executable:mini-redis-java
-                
-                # Clients
-                connected_clients:%d
-                
-                # Memory
-                used_memory_human:1.00M
-                used_memory_peak_human:1.00M
-                
-                # Persistence
-                loading:0
-                
-                # Stats
-                total_connections_received:%d
-                total_commands_processed:0
-                
-                # Replication
-                role:master
-                connected_slaves:0
-                
-                # CPU
-                used_cpu_sys:0.0
-                used_cpu_user:0.0
-                """.formatted(
-                System.getProperty("os.name"),  // %s
-                pid,                            // %d
-                uptime,                         // %d
-                uptime / (3600 * 24),           // %d
-                connectedClients,               // %d (connected_clients)
-                connectedClients                // %d (total_connections_received) 【补上这个】
-        );
-
-        return new BulkString(info);
+    private int routeOf(RedisMessage msg, int current) {
+        return msg instanceof RedisArray array ? shardRouter.route(array, current, redisContext) : current;
     }
 
+    /**
+     * 在核心线程中按顺序执行一批命令，回包统一交还给 IO 线程写出
+     * <p>
+     * 分片模式下批次按命令所属分片切成若干段，依次接力执行：
+     * 遇到不属于当前分片的命令时，把剩余部分转交给目标分片，回包继续追加到同一个 responses 中。
+     *
+     * @param start 本段从第几条命令开始
+     * @param shard 当前所在的分片 (或 ShardRouter.COORDINATOR)
+     */
+    private void executeBatch(List<RedisMessage> batch, int start, BatchReplies responses, int shard) {
+        ChannelHandlerContext ctx = channelContext;
+        // 回包按产生顺序收集；执行期间发给本连接的 Push (如 tracking 失效通知) 也插入其中，
+        // 保证它不会越过前面尚未写出的回包
+        boolean close = false;
+        int handOff = -1;
+        int nextShard = shard;
+        int protocolVersion = redisContext.getProtocolVersion();
+
+        redisContext.beginBatch(responses);
+        try {
+            for (int i = start; i < batch.size(); i++) {
+                RedisMessage msg = batch.get(i);
+                if (i > start && (nextShard = routeOf(msg, shard)) != shard) {
+                    handOff = i;
+                    break;
+                }
+                RedisMessage response;
+                if (msg instanceof RedisArray array) {
+                    if (isQuit(array)) {
+                        responses.add(SimpleString.OK);
+                        close = true;
+                        break; // QUIT 之后的命令不再执行
+                    }
+                    response = handleCommand(ctx, array);
+                } else {
+                    log.warn("Received non-array message: {}", msg);
+                    response = new ErrorMessage("ERR protocol error: expected array");
+                }
+                // HELLO 切换了协议：从它的回包开始按新协议编码
+                if (redisContext.getProtocolVersion() != protocolVersion) {
+                    protocolVersion = redisContext.getProtocolVersion();
+                    responses.switchProtocol(protocolVersion);
+                }
+                // null 表示无需回包 (如 BLPOP 进入阻塞)
+                if (response != null) {
+                    responses.add(response);
+                }
+            }
+        } finally {
+            redisContext.endBatch();
+        }
+
+        // 剩余命令属于其他分片：接力执行 (必须在 endBatch 之后，避免两个线程同时持有批次)
+        if (handOff >= 0) {
+            shardRouter.submitBatch(nextShard, batchTask, batch, handOff, responses);
+            return;
+        }
 
-    private RedisMessage handleScanMock(RedisMessage[] elements) {
-        // 返回游标 0 和一些假 Key
-        return new RedisArray(new RedisMessage[]{
-                new BulkString("0"),
-                new RedisArray(new RedisMessage[]{
-                        new BulkString("mini:version"),
-                        new BulkString("author:root_agent")
-                })
+        boolean closeAfterFlush = close;
+        // 一次 EventLoop 任务完成全部 write + 一次 flush (一次 syscall)
+        ctx.channel().eventLoop().execute(() -> {
+            if (--batchesInFlight == 0 && !ctx.channel().isActive()) {
+                releaseWatchedKeys();
+            }
+            responses.writeTo(ctx, redisContext);
+            if (closeAfterFlush) {
+                ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+                return;
+            }
+            ctx.flush();
+            // flush 后仍未写出的部分才是真正积压的输出缓冲
+            if (OutputBufferLimiter.isLimitReached(ctx.channel())) {
+                ctx.close();
+                return;
+            }
+            if (shardRouter.isSharded() && !pendingCommands.isEmpty()) {
+                // 提交执行期间积攒的下一批命令
+                ctx.channel().config().setAutoRead(ctx.channel().isWritable());
+                submitBatch(ctx);
+            }
         });
     }
 
-    private RedisMessage handleEcho(RedisMessage[] elements) {
-        if (elements.length != 2) return new ErrorMessage("ERR wrong number of arguments for 'echo' command");
-        return elements[1];
+    private boolean isQuit(RedisArray array) {
+        RedisMessage[] elements = array.elements();
+        return elements != null && elements.length > 0
+                && elements[0] instanceof BulkString b && b.content() != null
+                && CommandTable.equalsIgnoreCase(QUIT_BYTES, b.content());
     }
 
-    private String convertToString(RedisMessage msg) {
-        if (msg instanceof BulkString b) return b.asString();
-        if (msg instanceof SimpleString s) return s.content();
-        if (msg instanceof RedisInteger i) return String.valueOf(i.value());
-        return "<?>";
+    /**
+     * 执行单条命令 (核心线程调用)
+     */
+    private RedisMessage handleCommand(ChannelHandlerContext ctx, RedisArray array) {
+        RedisMessage[] elements = array.elements();
+        if (elements == null || elements.length == 0) return null;
+
+        if (!(elements[0] instanceof BulkString cmdNameBulk)) {
+            return new ErrorMessage("ERR protocol error: command name must be string");
+        }
+
+        try {
+            // 命令名按原始字节查表 (PING/INFO 等内置命令也在命令表中)
+            return dispatcher.dispatch(array, redisContext);
+        } catch (Exception e) {
+            log.error("Error processing command {}", cmdNameBulk.asString(), e);
+            return new ErrorMessage("ERR internal error");
+        }
     }
 }
@@ -1,24 +1,251 @@
 package org.muma.mini.redis.server;
 
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.config.MiniRedisConfig.ClientType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 命令执行上下文
  * 封装了与当前连接相关的所有环境信息
+ * <p>
+ * 【生命周期】每个连接一个实例 (RedisCommandHandler 在 handlerAdded 时创建)，
+ * 同时挂在 Channel 属性上，供编码器读取协议版本。
  */
 public class RedisContext {
 
+    public static final AttributeKey<RedisContext> ATTR_KEY = AttributeKey.valueOf("redisContext");
+
+    private static final AtomicLong CLIENT_ID_GENERATOR = new AtomicLong();
+
     private final ChannelHandlerContext nettyCtx;
+    private final long clientId;
+    private final long createdAt = System.currentTimeMillis();
+
+    // RESP 协议版本 (HELLO 切换)。核心线程执行命令时读写
+    private volatile int protocolVersion = 2;
+    // 编码器使用的协议版本 (仅 IO 线程访问)。批次回包执行完才编码，按写出顺序跟随批次中的 HELLO 切换 (见 BatchReplies)
+    private int encodingProtocolVersion = 2;
+    private String clientName;
+    // 客户端类别，决定适用的输出缓冲区限制 (PSYNC 后变为 REPLICA)
+    private volatile ClientType clientType = ClientType.NORMAL;
+    // CLIENT TRACKING 状态 (见 TrackingManager)
+    private volatile boolean trackingEnabled;
+    private boolean trackingBcast;
+    private boolean trackingNoLoop;
+    private long trackingRedirect;
+    private List<String> trackingPrefixes = List.of();
+    // 核心线程执行本连接的命令批次期间，回包先收集在这里 (仅 batchThread 访问)
+    private List<RedisMessage> batchReplies;
+    private Thread batchThread;
+    // 首次超过软限制的时间，0 表示当前未超过 (仅由 OutputBufferLimiter 读写)。
+    // IO 线程、clientsCron 与向 Slave 传播命令的核心线程都会检查
+    private volatile long softLimitReachedAt;
+    // 事务状态 (MULTI 到 EXEC / DISCARD 之间)。核心线程写，IO 线程判断能否走只读快速路径时读
+    private volatile boolean inMulti;
+    // 入队期间出现过错误 (未知命令、参数个数错误)，EXEC 时整体放弃
+    private boolean multiAborted;
+    private List<RedisArray> queuedCommands;
+    // 正在 EXEC (事务内的阻塞命令不阻塞)
+    private boolean inExec;
+    // AOF 重放使用的上下文 (不受 maxmemory 限制)
+    private boolean loading;
+    // WATCH 的 key -> 当时的版本号 (见 WatchManager)
+    private final Map<WatchManager.DbKey, Long> watchedKeys = new LinkedHashMap<>();
+    // SELECT 选中的数据库。分片模式下同一连接的命令可能在不同分片线程上执行，IO 线程只读路径也会读取
+    private volatile int dbIndex;
     // 未来可扩展:
-    // private int dbIndex;
     // private User currentUser;
-    // private boolean inTransaction;
 
     public RedisContext(ChannelHandlerContext nettyCtx) {
         this.nettyCtx = nettyCtx;
+        this.clientId = CLIENT_ID_GENERATOR.incrementAndGet();
     }
 
     public ChannelHandlerContext getNettyCtx() {
         return nettyCtx;
     }
+
+    public long getClientId() {
+        return clientId;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public void setEncodingProtocolVersion(int encodingProtocolVersion) {
+        this.encodingProtocolVersion = encodingProtocolVersion;
+    }
+
+    /**
+     * 当前写出的回包是否按 RESP3 编码 (RespEncoder 调用)
+     */
+    public boolean isEncodingResp3() {
+        return encodingProtocolVersion == 3;
+    }
+
+    /**
+     * 开始在当前线程 (核心线程) 执行一批命令
+     */
+    public void beginBatch(List<RedisMessage> replies) {
+        this.batchReplies = replies;
+        this.batchThread = Thread.currentThread();
+    }
+
+    public void endBatch() {
+        this.batchReplies = null;
+        this.batchThread = null;
+    }
+
+    /**
+     * 如果本连接的批次正在当前线程上执行，把消息追加到批次回包中 (保持回包顺序)
+     *
+     * @return false 表示不在批次中，调用方应直接写出
+     */
+    public boolean appendToBatch(RedisMessage message) {
+        if (batchThread != Thread.currentThread()) return false;
+        batchReplies.add(message);
+        return true;
+    }
+
+    // =========================================================
+    // 事务 (MULTI / EXEC)
+    // =========================================================
+
+    public void beginMulti() {
+        this.queuedCommands = new ArrayList<>();
+        this.multiAborted = false;
+        this.inMulti = true;
+    }
+
+    public void queueCommand(RedisArray command) {
+        queuedCommands.add(command);
+    }
+
+    public void abortMulti() {
+        this.multiAborted = true;
+    }
+
+    /**
+     * 结束事务状态，返回已入队的命令
+     */
+    public List<RedisArray> endMulti() {
+        List<RedisArray> commands = queuedCommands;
+        this.queuedCommands = null;
+        this.multiAborted = false;
+        this.inMulti = false;
+        return commands;
+    }
+
+    public boolean isInMulti() {
+        return inMulti;
+    }
+
+    public boolean isMultiAborted() {
+        return multiAborted;
+    }
+
+    public List<RedisArray> getQueuedCommands() {
+        return queuedCommands;
+    }
+
+    public boolean isInExec() {
+        return inExec;
+    }
+
+    public void setInExec(boolean inExec) {
+        this.inExec = inExec;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+    }
+
+    public Map<WatchManager.DbKey, Long> getWatchedKeys() {
+        return watchedKeys;
+    }
+
+    public int getDbIndex() {
+        return dbIndex;
+    }
+
+    public void setDbIndex(int dbIndex) {
+        this.dbIndex = dbIndex;
+    }
+
+    public boolean isResp3() {
+        return protocolVersion == 3;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public ClientType getClientType() {
+        return clientType;
+    }
+
+    public void setClientType(ClientType clientType) {
+        this.clientType = clientType;
+    }
+
+    long getSoftLimitReachedAt() {
+        return softLimitReachedAt;
+    }
+
+    void setSoftLimitReachedAt(long softLimitReachedAt) {
+        this.softLimitReachedAt = softLimitReachedAt;
+    }
+
+    void setTracking(boolean enabled, boolean bcast, boolean noLoop, long redirect, List<String> prefixes) {
+        this.trackingBcast = bcast;
+        this.trackingNoLoop = noLoop;
+        this.trackingRedirect = redirect;
+        this.trackingPrefixes = List.copyOf(prefixes);
+        this.trackingEnabled = enabled;
+    }
+
+    public boolean isTrackingEnabled() {
+        return trackingEnabled;
+    }
+
+    public boolean isTrackingBcast() {
+        return trackingBcast;
+    }
+
+    public boolean isTrackingNoLoop() {
+        return trackingNoLoop;
+    }
+
+    public long getTrackingRedirect() {
+        return trackingRedirect;
+    }
+
+    public List<String> getTrackingPrefixes() {
+        return trackingPrefixes;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public void setClientName(String clientName) {
+        this.clientName = clientName;
+    }
 }
@@ -1,19 +1,234 @@
 package org.muma.mini.redis.server;
 
-import io.netty.util.concurrent.DefaultEventExecutor;
-import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.CoreWaitStrategy;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.KeyStripeLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 核心业务线程 (Single Thread Logic)
  * 所有的 Command.execute 都在这里排队执行。
  * 实现了无锁化。
+ * <p>
+ * 【命令队列】
+ * IO 线程通过 {@link CommandRingBuffer} (预分配槽位的 MPSC 环形缓冲) 投递命令批次，
+ * 核心线程成批取出执行，提交路径上不分配对象。
+ * <p>
+ * 【等待策略】队列为空时：
+ * - BUSY_SPIN：一直自旋，唤醒延迟最低，独占一个 CPU 核
+ * - YIELD：自旋一段时间后 Thread.yield()
+ * - PARK：自旋、让出之后 park，生产者发布时发现消费者在睡眠才 unpark
+ * <p>
+ * 【时钟】每取出一批任务刷新一次 {@link ServerClock}，批内命令共用缓存时间。
+ * <p>
+ * 【队列满】
+ * IO 线程等待槽位释放 (相当于对客户端的反压)；
+ * 核心线程之间互相投递 (分片接力、协调屏障) 时不能等待，否则可能互相卡死，改走无界的溢出队列。
+ * <p>
+ * 分片模式下每个分片各持有一个 RedisCoreExecutor，见 {@link ShardRouter}。
  */
 public class RedisCoreExecutor {
 
-    // 使用 Netty 的 DefaultEventExecutor，它是一个高效的单线程事件循环
-    private final EventExecutor singleThread = new DefaultEventExecutor();
+    private static final Logger log = LoggerFactory.getLogger(RedisCoreExecutor.class);
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    // 一轮最多从环形缓冲取多少个槽位，之后检查一次溢出队列
+    private static final int MAX_DRAIN = 256;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+
+    private final CommandRingBuffer ring;
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+    private final CoreWaitStrategy waitStrategy;
+    private final CoreThread thread;
+
+    // PARK 策略下消费者即将/已经 park (生产者据此决定是否 unpark)
+    private volatile boolean sleeping = false;
+
+    public RedisCoreExecutor() {
+        this(MiniRedisConfig.getInstance().getCoreQueueSize(), MiniRedisConfig.getInstance().getCoreWaitStrategy());
+    }
+
+    public RedisCoreExecutor(int queueSize, CoreWaitStrategy waitStrategy) {
+        this.ring = new CommandRingBuffer(queueSize);
+        this.waitStrategy = waitStrategy;
+        this.thread = new CoreThread(this::runLoop, "Redis-Core-" + THREAD_INDEX.getAndIncrement());
+        this.thread.start();
+    }
 
     public void submit(Runnable task) {
-        singleThread.submit(task);
+        long pos = claim(task);
+        if (pos < 0) return;
+        ring.slot(pos).set(task);
+        publish(pos);
+    }
+
+    /**
+     * 投递一段命令批次 (热路径：只填写预分配槽位，不创建 Runnable)
+     */
+    void submitBatch(CommandRingBuffer.BatchTask task, List<RedisMessage> batch, int start,
+                     BatchReplies responses, int shard) {
+        long pos = claim(null);
+        if (pos < 0) {
+            overflow.offer(() -> task.executeBatch(batch, start, responses, shard));
+            wakeUp();
+            return;
+        }
+        ring.slot(pos).set(task, batch, start, responses, shard);
+        publish(pos);
+    }
+
+    /**
+     * 当前线程是否就是该执行器的线程
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 抢占槽位
+     *
+     * @return 位置；-1 表示应改走溢出队列 (task 不为 null 时已经放入)
+     */
+    private long claim(Runnable task) {
+        // 溢出队列非空时，核心线程继续往溢出队列放，保证同一生产者的任务不乱序
+        boolean coreProducer = Thread.currentThread() instanceof CoreThread;
+        if (coreProducer && !overflow.isEmpty()) {
+            return toOverflow(task);
+        }
+        long pos;
+        int tries = 0;
+        while ((pos = ring.tryClaim()) < 0) {
+            if (coreProducer) {
+                return toOverflow(task);
+            }
+            // IO 线程：等待核心线程释放槽位
+            if (++tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1000);
+            }
+        }
+        return pos;
+    }
+
+    private long toOverflow(Runnable task) {
+        if (task != null) {
+            overflow.offer(task);
+            wakeUp();
+        }
+        return -1;
+    }
+
+    private void publish(long pos) {
+        ring.publish(pos);
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // =========================================================
+    // 消费者
+    // =========================================================
+
+    private void runLoop() {
+        int idle = 0;
+        while (true) {
+            if (drain() > 0) {
+                idle = 0;
+            } else {
+                idle = idle(idle);
+            }
+        }
+    }
+
+    private int drain() {
+        int count = 0;
+        CommandRingBuffer.Slot slot;
+        while (count < MAX_DRAIN && (slot = ring.poll()) != null) {
+            // 每批只读一次系统时钟 (空转时不读)
+            if (count == 0) ServerClock.update();
+            try {
+                slot.run();
+            } catch (Throwable e) {
+                log.error("Uncaught error in core thread task", e);
+            } finally {
+                ring.release(slot);
+            }
+            count++;
+        }
+        Runnable task;
+        while ((task = overflow.poll()) != null) {
+            if (count == 0) ServerClock.update();
+            try {
+                runTask(task);
+            } catch (Throwable e) {
+                log.error("Uncaught error in core thread task", e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 普通任务 (阻塞唤醒、分片接力等) 也可能修改数据，与命令一样在写作用域内执行；
+     * 命令批次由 Dispatcher 按条开启写作用域，不在这里包裹，避免整批持有分段锁
+     */
+    static void runTask(Runnable task) {
+        KeyStripeLocks.beginWrite();
+        try {
+            task.run();
+        } finally {
+            KeyStripeLocks.endWrite();
+        }
+    }
+
+    private int idle(int idle) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELD -> {
+                if (idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            default -> {
+                if (idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    // 先声明要睡眠再复查队列，与生产者的 "发布后检查 sleeping" 构成 Dekker 式握手，不会丢失唤醒
+                    sleeping = true;
+                    if (ring.isEmpty() && overflow.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+        return idle + 1;
+    }
+
+    private static final class CoreThread extends FastThreadLocalThread {
+        CoreThread(Runnable target, String name) {
+            super(target, name);
+            setDaemon(true);
+        }
     }
 }
@@ -6,48 +6,109 @@ import org.muma.mini.redis.command.CommandDispatcher;
 import org.muma.mini.redis.config.MiniRedisConfig;
 import org.muma.mini.redis.rdb.RdbManager;
 import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.store.Databases;
 import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.ActiveExpireCron;
 import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+import org.muma.mini.redis.store.impl.ShardedStorageEngine;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class RedisServerContext {
 
     private final MiniRedisConfig config;
-    private final StorageEngine storage;
+    private final Databases databases;
     private final AofManager aofManager;
     private final RdbManager rdbManager;
     private final ReplicationManager replicationManager; // 【新增】
     private final CommandDispatcher dispatcher;
     private final RedisCoreExecutor coreExecutor;
+    private final ShardRouter shardRouter;
+    private final ClientRegistry clientRegistry = new ClientRegistry();
+    private final TrackingManager trackingManager = new TrackingManager(clientRegistry);
+    private final WatchManager watchManager = new WatchManager();
+    // 阻塞命令的等待登记，所有数据库、所有分片共用
+    private final BlockingManager blockingManager = new BlockingManager();
+    // 主动过期：一个节拍线程，每个执行线程一个周期任务
+    private final ActiveExpireCron activeExpireCron;
+    // clientsCron：定期检查客户端输出缓冲区的软限制
+    private final ScheduledExecutorService clientsCron = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Redis-ClientsCron");
+        t.setDaemon(true);
+        return t;
+    });
 
     public RedisServerContext(MiniRedisConfig config) {
         this.config = config;
 
         // 1. Core Executor (ReplicationManager 需要它来异步连接 Master)
+        // 分片模式下 0 号分片复用它，其余分片各自新建
         this.coreExecutor = new RedisCoreExecutor();
+        RedisCoreExecutor[] shardExecutors = new RedisCoreExecutor[config.getShards()];
+        shardExecutors[0] = coreExecutor;
+        for (int i = 1; i < shardExecutors.length; i++) {
+            shardExecutors[i] = new RedisCoreExecutor();
+        }
 
-        // 2. Storage
-        MemoryStorageEngine memStorage = new MemoryStorageEngine();
-        this.storage = memStorage;
+        // 2. Storage：每个逻辑数据库一个引擎，分片模式下共用同一组分片线程
+        StorageEngine[] engines = new StorageEngine[config.getDatabases()];
+        for (int i = 0; i < engines.length; i++) {
+            if (shardExecutors.length > 1) {
+                engines[i] = new ShardedStorageEngine(shardExecutors, blockingManager);
+            } else {
+                MemoryStorageEngine memStorage = new MemoryStorageEngine(blockingManager);
+                memStorage.setOwner(coreExecutor);
+                engines[i] = memStorage;
+            }
+        }
+        this.databases = new Databases(engines);
+        this.activeExpireCron = new ActiveExpireCron(databases, shardExecutors);
 
         // 3. Managers
-        this.aofManager = new AofManager(config, storage);
-        this.rdbManager = new RdbManager(config, storage);
-        this.replicationManager = new ReplicationManager(config, storage, coreExecutor); // 【新增】
+        this.aofManager = new AofManager(config, databases);
+        this.rdbManager = new RdbManager(config, databases);
+        this.replicationManager = new ReplicationManager(config, databases, coreExecutor); // 【新增】
 
         // 注入 Storage 依赖
-        memStorage.setAofManager(aofManager);
+        for (StorageEngine engine : engines) {
+            if (engine instanceof ShardedStorageEngine shardedStorage) {
+                shardedStorage.setAofManager(aofManager);
+                shardedStorage.setTrackingManager(trackingManager);
+                shardedStorage.setWatchManager(watchManager);
+                if (config.isIoThreadReads()) {
+                    shardedStorage.enableOptimisticReads(config.getIoReadLockStripes());
+                }
+            } else {
+                MemoryStorageEngine memStorage = (MemoryStorageEngine) engine;
+                memStorage.setAofManager(aofManager);
+                memStorage.setTrackingManager(trackingManager);
+                memStorage.setWatchManager(watchManager);
+                if (config.isIoThreadReads()) {
+                    memStorage.enableOptimisticReads(config.getIoReadLockStripes());
+                }
+            }
+        }
         // 如果 Storage 需要感知 Replication (比如写入时 Propagate)，也需要注入
         // memStorage.setReplicationManager(replicationManager);
 
         // 4. Dispatcher (全家桶注入)
-        this.dispatcher = new CommandDispatcher(storage, aofManager, replicationManager, rdbManager);
+        this.dispatcher = new CommandDispatcher(databases, aofManager, replicationManager, rdbManager,
+                clientRegistry, trackingManager, watchManager);
+        if (config.isIoThreadReads()) {
+            dispatcher.enableIoThreadReads();
+        }
+
+        // 5. 命令路由 (依赖命令表中的 key 位置)
+        this.shardRouter = new ShardRouter(shardExecutors, dispatcher.getCommandTable());
     }
 
     public void init() {
         // Step 1: 数据恢复 (优先 AOF，兜底 RDB)
         if (config.isAppendOnly()) {
             // AOF 开启：只加载 AOF
-            AofLoader loader = new AofLoader(config, dispatcher, storage);
+            AofLoader loader = new AofLoader(config, dispatcher, databases);
             loader.load();
             aofManager.init();
         } else {
@@ -55,15 +116,17 @@ public class RedisServerContext {
             java.io.File rdbFile = new java.io.File(config.getAppendDir(), config.getRdbFilename());
             if (rdbFile.exists()) {
                 try {
-                    new org.muma.mini.redis.rdb.RdbLoader(storage).load(rdbFile);
+                    new org.muma.mini.redis.rdb.RdbLoader(databases).load(rdbFile);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
             }
         }
 
-        // Step 2: 启动 RDB 定时任务
+        // Step 2: 启动主动过期与 RDB 定时任务
+        activeExpireCron.start();
         rdbManager.init();
+        clientsCron.scheduleAtFixedRate(clientRegistry::checkOutputBufferLimits, 1, 1, TimeUnit.SECONDS);
 
         // Step 3: Shutdown Hook
         Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
@@ -72,6 +135,8 @@ public class RedisServerContext {
 
     public void shutdown() {
         aofManager.shutdown();
+        clientsCron.shutdownNow();
+        activeExpireCron.shutdown();
         // replicationManager.shutdown();
         // coreExecutor.shutdown();
     }
@@ -83,4 +148,12 @@ public class RedisServerContext {
     public RedisCoreExecutor getCoreExecutor() {
         return coreExecutor;
     }
+
+    public ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+
+    public ClientRegistry getClientRegistry() {
+        return clientRegistry;
+    }
 }
@@ -0,0 +1,31 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.DefaultMessageSizeEstimator;
+import io.netty.channel.MessageSizeEstimator;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.RespEncoder;
+
+/**
+ * 按 RESP 编码后的字节数估算未编码消息的大小
+ * <p>
+ * 非 EventLoop 线程 (如核心线程向 Slave 传播) 调用 write 时，Netty 会把写操作包装成任务排队，
+ * 并用这个估算值累加到 pendingOutboundBytes。默认估算器对未知对象只算 8 字节，
+ * 积压的 RedisMessage 因此既不会触发高水位，也逃过了输出缓冲区限制。
+ */
+public final class RespMessageSizeEstimator implements MessageSizeEstimator {
+
+    public static final RespMessageSizeEstimator INSTANCE = new RespMessageSizeEstimator();
+
+    private static final Handle DEFAULT_HANDLE = DefaultMessageSizeEstimator.DEFAULT.newHandle();
+
+    private static final Handle HANDLE = msg ->
+            msg instanceof RedisMessage redisMessage ? RespEncoder.sizeOf(redisMessage) : DEFAULT_HANDLE.size(msg);
+
+    private RespMessageSizeEstimator() {
+    }
+
+    @Override
+    public Handle newHandle() {
+        return HANDLE;
+    }
+}
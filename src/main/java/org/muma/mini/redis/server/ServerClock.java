@@ -0,0 +1,71 @@
+package org.muma.mini.redis.server;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * 服务器缓存时钟 (对应 Redis 的 server.mstime 与 commandTimeSnapshot)
+ * <p>
+ * 【缓存时间】过期判断、TTL 计算、阻塞超时等都读 {@link #now()}，不再每次调用 System.currentTimeMillis()。
+ * 缓存值在以下时机刷新 ({@link #update()})：
+ * - 核心线程每取出一批任务时 (RedisCoreExecutor)
+ * - IO 线程每个 read 事件第一次在本线程执行只读命令时
+ * - 命令耗时超过 1ms 之后 (避免一个慢命令让同批后续命令看到过旧的时间)
+ * - 后台定时任务 (主动过期、阻塞超时、RDB cron) 每次 tick
+ * <p>
+ * 【命令内冻结】命令执行期间 (含 EXEC 中的全部命令) 看到的时间固定为开始执行时的缓存值，
+ * 例如 SET k v PX 100 在同一条命令内先算出的过期时间不会与后续的过期判断矛盾。
+ * 冻结值按线程保存，分片模式下其他分片刷新全局缓存不影响正在执行的命令。
+ */
+public final class ServerClock {
+
+    private static final class Snapshot {
+        private long millis;
+        // 嵌套深度：EXEC 内部再次 dispatch 时沿用外层的时间
+        private int depth;
+    }
+
+    private static final FastThreadLocal<Snapshot> SNAPSHOT = new FastThreadLocal<>() {
+        @Override
+        protected Snapshot initialValue() {
+            return new Snapshot();
+        }
+    };
+
+    private static volatile long cachedMillis = System.currentTimeMillis();
+
+    private ServerClock() {
+    }
+
+    /**
+     * 当前时间 (毫秒)：命令执行中返回冻结值，否则返回最近一次刷新的缓存值
+     */
+    public static long now() {
+        Snapshot snapshot = SNAPSHOT.get();
+        return snapshot.depth > 0 ? snapshot.millis : cachedMillis;
+    }
+
+    /**
+     * 读一次系统时钟刷新缓存值
+     *
+     * @return 刷新后的时间
+     */
+    public static long update() {
+        long now = System.currentTimeMillis();
+        cachedMillis = now;
+        return now;
+    }
+
+    /**
+     * 命令开始执行：冻结当前线程看到的时间 (必须与 {@link #endCommand()} 成对调用)
+     */
+    public static void beginCommand() {
+        Snapshot snapshot = SNAPSHOT.get();
+        if (snapshot.depth++ == 0) {
+            snapshot.millis = cachedMillis;
+        }
+    }
+
+    public static void endCommand() {
+        SNAPSHOT.get().depth--;
+    }
+}
@@ -0,0 +1,203 @@
+package org.muma.mini.redis.server;
+
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.CommandTable;
+import org.muma.mini.redis.command.impl.transaction.ExecCommand;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.impl.ShardedStorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 分片路由 (多核心键空间执行)
+ * <p>
+ * 【路由规则】依据 {@link CommandSpec} 中登记的 key 位置：
+ * 1. 所有 key 落在同一分片：交给该分片线程执行，与单线程模式一样无锁。
+ * 2. 无 key 命令 (PING、INFO...)：留在当前线程执行，不产生额外的线程切换。
+ * 3. key 跨分片，或 key 个数由参数决定 (movablekeys，如 ZUNIONSTORE / SINTERCARD)：交给协调线程。
+ * <p>
+ * 【跨分片原子性】
+ * 协调线程先向每个分片投递一个屏障任务，等全部分片都停在屏障上之后才执行命令，执行完再统一放行。
+ * 执行期间没有任何分片线程在运行，命令看到的是一致的全量视图，效果与单线程模式相同。
+ * 协调线程只有一个，屏障不会交叉，因此不会死锁。
+ * 代价是跨分片命令会短暂停住所有分片，高频的多 key 操作应使用 {tag} 让 key 落在同一分片。
+ * <p>
+ * 【事务】EXEC 按已入队命令的 key 路由：全部落在同一分片时在该分片执行，否则交给协调线程，
+ * 整个事务在一个任务中执行完毕。
+ * <p>
+ * 【例外】被阻塞的 BRPOPLPUSH 唤醒时，源列表的弹出在源分片完成，向目标列表的推入转交给目标分片，
+ * 两步之间该元素短暂不可见，但不会丢失或重复 (见 StorageEngine#executeOnOwner)。
+ */
+public class ShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    // 交给协调线程执行
+    public static final int COORDINATOR = -1;
+    // 命令不含 key
+    private static final int NO_KEYS = -2;
+
+    private final RedisCoreExecutor[] shards;
+    private final RedisCoreExecutor coordinator;
+    private final CommandTable commandTable;
+
+    /**
+     * @param shards 各分片的执行线程；只有一个时即单线程模式，不做任何路由
+     */
+    public ShardRouter(RedisCoreExecutor[] shards, CommandTable commandTable) {
+        this.shards = shards;
+        this.commandTable = commandTable;
+        this.coordinator = shards.length > 1 ? new RedisCoreExecutor() : null;
+        if (shards.length > 1) {
+            log.info("Sharded keyspace enabled: {} shards.", shards.length);
+        }
+    }
+
+    public boolean isSharded() {
+        return shards.length > 1;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 计算命令应在哪个线程执行 (IO 线程与分片线程都会调用，只读命令表)
+     *
+     * @param current 当前所在的分片 (或 COORDINATOR)，无 key 命令留在这里
+     * @param context 命令所属连接 (EXEC 需要查看已入队的命令)
+     * @return 分片下标或 {@link #COORDINATOR}
+     */
+    public int route(RedisArray command, int current, RedisContext context) {
+        if (shards.length == 1) return 0;
+
+        CommandSpec spec = specOf(command);
+        if (spec == null) return current;
+
+        if (context != null && context.isInMulti() && spec.command() instanceof ExecCommand) {
+            return routeTransaction(context.getQueuedCommands(), current);
+        }
+        int target = keysShard(spec, command);
+        return target == NO_KEYS ? current : target;
+    }
+
+    public int route(RedisArray command, int current) {
+        return route(command, current, null);
+    }
+
+    // 事务内所有带 key 的命令必须落在同一分片，否则整个事务交给协调线程
+    private int routeTransaction(List<RedisArray> queued, int current) {
+        int target = NO_KEYS;
+        for (RedisArray command : queued) {
+            CommandSpec spec = specOf(command);
+            if (spec == null) continue;
+            int shard = keysShard(spec, command);
+            if (shard == NO_KEYS) continue;
+            if (shard == COORDINATOR || (target != NO_KEYS && shard != target)) return COORDINATOR;
+            target = shard;
+        }
+        return target == NO_KEYS ? current : target;
+    }
+
+    // 未知命令、参数个数错误等由 Dispatcher 回错误，在哪执行都一样，返回 null
+    private CommandSpec specOf(RedisArray command) {
+        RedisMessage[] elements = command.elements();
+        if (elements == null || elements.length == 0
+                || !(elements[0] instanceof BulkString name) || name.content() == null) {
+            return null;
+        }
+        CommandSpec spec = commandTable.lookup(name.content());
+        return spec == null || !spec.checkArity(elements.length) ? null : spec;
+    }
+
+    /**
+     * @return key 所在分片；{@link #NO_KEYS} 表示没有 key；{@link #COORDINATOR} 表示跨分片
+     */
+    private int keysShard(CommandSpec spec, RedisArray command) {
+        if (spec.hasFlag(CommandSpec.FLAG_MOVABLEKEYS | CommandSpec.FLAG_ALL_SHARDS)) return COORDINATOR;
+        // 无 key 的写命令 (FLUSHALL 等) 作用于所有分片
+        if (spec.firstKey() <= 0) return spec.isWrite() ? COORDINATOR : NO_KEYS;
+
+        RedisMessage[] elements = command.elements();
+        int last = spec.lastKey() < 0 ? elements.length + spec.lastKey() : spec.lastKey();
+        int step = Math.max(1, spec.keyStep());
+        int target = NO_KEYS;
+        for (int i = spec.firstKey(); i <= last && i < elements.length; i += step) {
+            if (!(elements[i] instanceof BulkString key) || key.content() == null) continue;
+            int shard = ShardedStorageEngine.shardOf(key.content(), shards.length);
+            if (target == NO_KEYS) {
+                target = shard;
+            } else if (shard != target) {
+                return COORDINATOR;
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 连接的默认分片 (批次第一条命令无 key 时使用)，把无 key 命令分散到各分片
+     */
+    public int homeShard(RedisContext context) {
+        return (int) (context.getClientId() % shards.length);
+    }
+
+    /**
+     * 把任务提交到目标线程；COORDINATOR 的任务在全部分片暂停期间执行
+     */
+    public void submit(int target, Runnable task) {
+        if (target == COORDINATOR) {
+            coordinator.submit(() -> runExclusive(task));
+        } else {
+            shards[target].submit(task);
+        }
+    }
+
+    /**
+     * 提交一段命令批次 (热路径：分片线程直接使用预分配槽位)
+     */
+    void submitBatch(int target, CommandRingBuffer.BatchTask task, List<RedisMessage> batch, int start,
+                     BatchReplies responses) {
+        if (target == COORDINATOR) {
+            coordinator.submit(() -> runExclusive(() -> task.executeBatch(batch, start, responses, COORDINATOR)));
+        } else {
+            shards[target].submitBatch(task, batch, start, responses, target);
+        }
+    }
+
+    private void runExclusive(Runnable task) {
+        CountDownLatch parked = new CountDownLatch(shards.length);
+        CountDownLatch resume = new CountDownLatch(1);
+        for (RedisCoreExecutor shard : shards) {
+            shard.submit(() -> {
+                parked.countDown();
+                awaitUninterruptibly(resume);
+            });
+        }
+        awaitUninterruptibly(parked);
+        try {
+            task.run();
+        } finally {
+            resume.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
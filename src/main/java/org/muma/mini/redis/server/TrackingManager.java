@@ -0,0 +1,223 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.PushMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端缓存失效通知 (CLIENT TRACKING，对应 Redis 的 tracking.c)
+ * <p>
+ * 【两种模式】
+ * 1. 默认模式：记住每个连接读过哪些 key (trackingTable: key -> clientIds)。
+ *    key 被修改时通知这些连接，并把 key 从表中移除 (客户端再次读取时重新登记)。
+ * 2. BCAST 模式：不记录读操作，任何匹配前缀的 key 被修改都会通知 (prefixTable: prefix -> clientIds)。
+ * <p>
+ * 【通知格式】
+ * - 直连 (RESP3)：>2 invalidate [key...]
+ * - REDIRECT 到其他连接：>3 message __redis__:invalidate [key...] (RESP2 连接自动降级为数组)
+ * - FLUSH 时 key 列表为 null，表示整个缓存失效
+ * <p>
+ * 【线程模型】
+ * 读登记在核心线程 (分片模式下为各分片线程)；失效可能来自核心线程 (写命令) 或后台过期线程，因此使用并发容器。
+ * 通知通过 ctx.writeAndFlush 投递到目标连接的 EventLoop，与该连接已排队的回包保持先后顺序；
+ * 若目标连接的命令批次正在核心线程上执行，则直接插入该批次的回包序列。
+ * 已断开的连接采用惰性清理：投递时发现不在 ClientRegistry 中就丢弃。
+ */
+public class TrackingManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackingManager.class);
+
+    private static final BulkString INVALIDATE = new BulkString("invalidate");
+    private static final BulkString MESSAGE = new BulkString("message");
+    private static final BulkString INVALIDATE_CHANNEL = new BulkString("__redis__:invalidate");
+
+    // 默认模式下单表最多记录多少个 key，超出后随机淘汰并提前发送失效通知 (tracking-table-max-keys)
+    private static final int TRACKING_TABLE_MAX_KEYS = 1_000_000;
+
+    private final ClientRegistry clientRegistry;
+
+    // key -> 读过该 key 的客户端 ID
+    private final Map<String, Set<Long>> trackingTable = new ConcurrentHashMap<>();
+
+    // BCAST 前缀 -> 订阅该前缀的客户端 ID ("" 表示所有 key)
+    private final Map<String, Set<Long>> prefixTable = new ConcurrentHashMap<>();
+
+    // 当前线程正在执行命令的客户端，用于 NOLOOP (分片模式下每个分片线程各自一份)
+    private final ThreadLocal<RedisContext> currentClient = new ThreadLocal<>();
+
+    public TrackingManager(ClientRegistry clientRegistry) {
+        this.clientRegistry = clientRegistry;
+    }
+
+    // =========================================================
+    // 开关
+    // =========================================================
+
+    public void enableTracking(RedisContext context, long redirectId, boolean bcast, boolean noLoop,
+                               List<String> prefixes) {
+        // 重复 ON 时先清掉旧的前缀订阅
+        disableTracking(context);
+
+        context.setTracking(true, bcast, noLoop, redirectId, prefixes);
+        if (bcast) {
+            if (prefixes.isEmpty()) {
+                prefixTable.computeIfAbsent("", p -> ConcurrentHashMap.newKeySet()).add(context.getClientId());
+            }
+            for (String prefix : prefixes) {
+                prefixTable.computeIfAbsent(prefix, p -> ConcurrentHashMap.newKeySet()).add(context.getClientId());
+            }
+        }
+    }
+
+    public void disableTracking(RedisContext context) {
+        if (!context.isTrackingEnabled()) return;
+        if (context.isTrackingBcast()) {
+            List<String> prefixes = context.getTrackingPrefixes();
+            if (prefixes.isEmpty()) {
+                removeFromPrefix("", context.getClientId());
+            }
+            for (String prefix : prefixes) {
+                removeFromPrefix(prefix, context.getClientId());
+            }
+        }
+        // 默认模式的 trackingTable 不做反向索引，遗留的 ID 在下次失效时惰性丢弃 (与 Redis 一致)
+        context.setTracking(false, false, false, 0, List.of());
+    }
+
+    private void removeFromPrefix(String prefix, long clientId) {
+        prefixTable.computeIfPresent(prefix, (p, ids) -> {
+            ids.remove(clientId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // =========================================================
+    // 读登记 (核心线程，命令执行成功后调用)
+    // =========================================================
+
+    /**
+     * 根据命令元数据中的 key 位置，登记当前连接读取过的 key
+     */
+    public void rememberKeys(RedisContext context, CommandSpec spec, RedisArray args) {
+        if (!context.isTrackingEnabled() || context.isTrackingBcast()) return;
+        if (!spec.hasFlag(CommandSpec.FLAG_READONLY) || spec.firstKey() <= 0) return;
+
+        RedisMessage[] elements = args.elements();
+        int last = spec.lastKey() < 0 ? elements.length + spec.lastKey() : spec.lastKey();
+        for (int i = spec.firstKey(); i <= last && i < elements.length; i += spec.keyStep()) {
+            if (elements[i] instanceof BulkString key) {
+                trackingTable.computeIfAbsent(key.asString(), k -> ConcurrentHashMap.newKeySet())
+                        .add(context.getClientId());
+            }
+        }
+
+        if (trackingTable.size() > TRACKING_TABLE_MAX_KEYS) {
+            evictTrackedKey();
+        }
+    }
+
+    private void evictTrackedKey() {
+        Iterator<String> it = trackingTable.keySet().iterator();
+        if (it.hasNext()) {
+            invalidateKey(it.next());
+        }
+    }
+
+    public void setCurrentClient(RedisContext context) {
+        currentClient.set(context);
+    }
+
+    // =========================================================
+    // 失效 (StorageEngine.put / remove / flush 调用)
+    // =========================================================
+
+    public void invalidateKey(String key) {
+        // 快速路径：没有任何连接开启 tracking
+        if (trackingTable.isEmpty() && prefixTable.isEmpty()) return;
+
+        Set<Long> readers = trackingTable.remove(key);
+        if (readers != null) {
+            for (Long clientId : readers) {
+                sendInvalidation(clientId, key);
+            }
+        }
+
+        if (!prefixTable.isEmpty()) {
+            for (Map.Entry<String, Set<Long>> entry : prefixTable.entrySet()) {
+                if (key.startsWith(entry.getKey())) {
+                    // 已断开的连接顺便从前缀订阅中移除
+                    entry.getValue().removeIf(clientId -> !sendInvalidation(clientId, key));
+                }
+            }
+        }
+    }
+
+    /**
+     * FLUSHALL / FLUSHDB / SWAPDB：通知所有开启 tracking 的连接清空本地缓存
+     */
+    public void invalidateAll() {
+        trackingTable.clear();
+        for (RedisContext client : clientRegistry.all()) {
+            if (client.isTrackingEnabled()) {
+                send(client, null);
+            }
+        }
+    }
+
+    /**
+     * @return false 表示该连接已断开或已关闭 tracking
+     */
+    private boolean sendInvalidation(long clientId, String key) {
+        RedisContext client = clientRegistry.get(clientId);
+        if (client == null || !client.isTrackingEnabled()) return false;
+        if (client.isTrackingNoLoop() && client == currentClient.get()) return true;
+        send(client, key);
+        return true;
+    }
+
+    private void send(RedisContext client, String key) {
+        RedisArray keys = key == null ? new RedisArray(null) : new RedisArray(new RedisMessage[]{new BulkString(key)});
+
+        RedisContext target = client;
+        PushMessage message;
+        if (client.getTrackingRedirect() != 0) {
+            target = clientRegistry.get(client.getTrackingRedirect());
+            if (target == null) {
+                log.debug("Tracking redirect target {} of client {} is gone", client.getTrackingRedirect(), client.getClientId());
+                return;
+            }
+            message = new PushMessage(new RedisMessage[]{MESSAGE, INVALIDATE_CHANNEL, keys});
+        } else {
+            message = new PushMessage(new RedisMessage[]{INVALIDATE, keys});
+        }
+
+        // 目标连接的批次正在本线程执行：插入到它的回包序列中，避免越过之前读命令的回包
+        if (target.appendToBatch(message)) return;
+
+        ChannelHandlerContext ctx = target.getNettyCtx();
+        if (ctx != null && ctx.channel().isActive()) {
+            ctx.writeAndFlush(message, ctx.voidPromise());
+        }
+    }
+
+    // --- 统计 ---
+
+    public int getTrackedKeys() {
+        return trackingTable.size();
+    }
+
+    public int getTrackedPrefixes() {
+        return prefixTable.size();
+    }
+}
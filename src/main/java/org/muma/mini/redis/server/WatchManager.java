@@ -0,0 +1,100 @@
+package org.muma.mini.redis.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WATCH 的 key 版本号 (乐观锁，对应 Redis multi.c 中的 watched_keys)
+ * <p>
+ * 【版本号】只为正在被 WATCH 的 key 维护：(数据库编号, key) -> (版本号, 引用数)。
+ * key 被修改 (StorageEngine.put / remove / 过期 / FLUSH / SWAPDB) 时版本号 +1；
+ * WATCH 记下当时的版本号，EXEC 时逐个比对，有任何一个变化就放弃执行整个事务。
+ * 最后一个 WATCH 该 key 的连接 UNWATCH (或 EXEC / DISCARD / 断开) 后条目随之删除，
+ * 没有连接 WATCH 时写路径只多一次 isEmpty 判断。
+ * <p>
+ * 【线程模型】版本号由核心线程 (分片模式下为各分片线程) 与后台过期线程修改，使用并发容器；
+ * 连接自己的 WATCH 列表 (RedisContext#getWatchedKeys) 只在执行该连接命令的线程上访问。
+ */
+public class WatchManager {
+
+    /**
+     * 被 WATCH 的 key：同名 key 在不同数据库中互不影响
+     */
+    public record DbKey(int db, String key) {
+    }
+
+    private static final class WatchedKey {
+        private final AtomicLong version = new AtomicLong();
+        // 引用数只在 compute 内修改
+        private int watchers;
+    }
+
+    private final Map<DbKey, WatchedKey> watchedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * WATCH key：记录当前版本号 (同一连接重复 WATCH 同一个 key 不重复计数)
+     */
+    public void watch(RedisContext context, String key) {
+        DbKey dbKey = new DbKey(context.getDbIndex(), key);
+        Map<DbKey, Long> watched = context.getWatchedKeys();
+        if (watched.containsKey(dbKey)) return;
+        WatchedKey entry = watchedKeys.compute(dbKey, (k, e) -> {
+            if (e == null) e = new WatchedKey();
+            e.watchers++;
+            return e;
+        });
+        watched.put(dbKey, entry.version.get());
+    }
+
+    /**
+     * UNWATCH / EXEC / DISCARD / 断开连接：释放该连接 WATCH 的全部 key
+     */
+    public void unwatchAll(RedisContext context) {
+        Map<DbKey, Long> watched = context.getWatchedKeys();
+        if (watched.isEmpty()) return;
+        for (DbKey key : watched.keySet()) {
+            watchedKeys.computeIfPresent(key, (k, e) -> --e.watchers == 0 ? null : e);
+        }
+        watched.clear();
+    }
+
+    /**
+     * WATCH 之后是否有任何一个 key 被修改过
+     */
+    public boolean isDirty(RedisContext context) {
+        for (Map.Entry<DbKey, Long> watched : context.getWatchedKeys().entrySet()) {
+            WatchedKey entry = watchedKeys.get(watched.getKey());
+            if (entry == null || entry.version.get() != watched.getValue()) return true;
+        }
+        return false;
+    }
+
+    // =========================================================
+    // 修改通知 (StorageEngine 调用)
+    // =========================================================
+
+    public void touch(int db, String key) {
+        if (watchedKeys.isEmpty()) return;
+        WatchedKey entry = watchedKeys.get(new DbKey(db, key));
+        if (entry != null) {
+            entry.version.incrementAndGet();
+        }
+    }
+
+    /**
+     * FLUSHDB / FLUSHALL / SWAPDB：该数据库中所有被 WATCH 的 key 都视为被修改
+     */
+    public void touchDb(int db) {
+        if (watchedKeys.isEmpty()) return;
+        for (Map.Entry<DbKey, WatchedKey> entry : watchedKeys.entrySet()) {
+            if (entry.getKey().db() == db) {
+                entry.getValue().version.incrementAndGet();
+            }
+        }
+    }
+
+    public int getWatchedKeys() {
+        return watchedKeys.size();
+    }
+}
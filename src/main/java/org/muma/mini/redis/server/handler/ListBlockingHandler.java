@@ -41,8 +41,9 @@ public class ListBlockingHandler implements BlockingHandler {
         storage.appendAof(new RedisArray(new RedisMessage[]{ new BulkString(popCmd), new BulkString(key) }));
 
         // 4. BRPOPLPUSH 逻辑
+        // 分片模式下目标 key 可能属于另一个分片：推入操作转交给目标分片线程执行 (先弹出、后转交，元素不丢不重)
         if (targetKey != null) {
-            handleTargetPush(targetKey, value, storage);
+            storage.executeOnOwner(targetKey, () -> handleTargetPush(targetKey, value, storage));
         }
 
         // 5. 回包
@@ -58,7 +59,7 @@ public class ListBlockingHandler implements BlockingHandler {
     @Override
     public void onTimeout(BlockingContext context) {
         if (context.getCtx().channel().isActive()) {
-            context.getCtx().writeAndFlush(new BulkString((byte[]) null));
+            context.getCtx().writeAndFlush(BulkString.NULL);
         }
     }
 
@@ -0,0 +1,154 @@
+package org.muma.mini.redis.store;
+
+import org.muma.mini.redis.config.MiniRedisConfig;
+
+/**
+ * 逻辑数据库集合 (对应 Redis 的 server.db[])
+ * <p>
+ * 每个数据库是一个独立的 StorageEngine (键空间 + 过期索引)，连接通过 SELECT 选择 (RedisContext#getDbIndex)，
+ * Dispatcher 按编号取出对应的引擎交给命令执行，命令实现本身不感知数据库。
+ * <p>
+ * 【SWAPDB】只交换数组中的两个引用并更新各自的编号，O(1)，不搬动任何数据。
+ * 数组整体替换后以 volatile 发布，IO 线程只读路径总能拿到某个一致的映射。
+ * 分片模式下 SWAPDB 在协调线程上执行 (所有分片已暂停)。
+ */
+public class Databases {
+
+    private volatile StorageEngine[] dbs;
+
+    public Databases(StorageEngine... dbs) {
+        if (dbs.length == 0) {
+            throw new IllegalArgumentException("at least one database is required");
+        }
+        this.dbs = dbs.clone();
+        for (int i = 0; i < dbs.length; i++) {
+            dbs[i].setDbIndex(i);
+        }
+    }
+
+    public StorageEngine get(int index) {
+        return dbs[index];
+    }
+
+    public int size() {
+        return dbs.length;
+    }
+
+    public boolean isValidIndex(long index) {
+        return index >= 0 && index < dbs.length;
+    }
+
+    /**
+     * SWAPDB：此后连接到 a 的客户端看到原来 b 的数据，反之亦然
+     */
+    public void swap(int a, int b) {
+        if (a == b) return;
+        StorageEngine[] swapped = dbs.clone();
+        StorageEngine first = swapped[a];
+        swapped[a] = swapped[b];
+        swapped[b] = first;
+        swapped[a].setDbIndex(a);
+        swapped[b].setDbIndex(b);
+        this.dbs = swapped;
+    }
+
+    // =========================================================
+    // maxmemory 是全局上限
+    // =========================================================
+
+    /**
+     * 超出 maxmemory 的部分按各数据库的占用比例分摊，各自淘汰到自己的份额
+     *
+     * @return false 表示仍然超出 (noeviction，或已经没有可淘汰的 key)
+     */
+    public boolean performEvictions() {
+        StorageEngine[] dbs = this.dbs;
+        long maxmemory = MiniRedisConfig.getInstance().getMaxmemory();
+        if (dbs.length == 1) return dbs[0].performEvictions(maxmemory);
+        if (maxmemory <= 0) return true;
+
+        long total = getUsedMemory();
+        if (total <= maxmemory) return true;
+        boolean withinLimit = true;
+        for (StorageEngine db : dbs) {
+            long used = db.getUsedMemory();
+            if (used == 0) continue;
+            // 份额至少 1 字节 (0 表示不限制)
+            long share = Math.max(1, (long) ((double) used / total * maxmemory));
+            withinLimit &= db.performEvictions(share);
+        }
+        return withinLimit;
+    }
+
+    // =========================================================
+    // 统计 (INFO / RDB 定时保存)
+    // =========================================================
+
+    public long getUsedMemory() {
+        long used = 0;
+        for (StorageEngine db : dbs) {
+            used += db.getUsedMemory();
+        }
+        return used;
+    }
+
+    /**
+     * 各数据库峰值之和 (峰值不一定出现在同一时刻，是实际峰值的上界)
+     */
+    public long getUsedMemoryPeak() {
+        long peak = 0;
+        for (StorageEngine db : dbs) {
+            peak += db.getUsedMemoryPeak();
+        }
+        return peak;
+    }
+
+    /**
+     * 带 TTL 的 key 总数 (近似值)
+     */
+    public long expiresSize() {
+        long expires = 0;
+        for (StorageEngine db : dbs) {
+            expires += db.expiresSize();
+        }
+        return expires;
+    }
+
+    public long getExpiredKeys() {
+        long expired = 0;
+        for (StorageEngine db : dbs) {
+            expired += db.getExpiredKeys();
+        }
+        return expired;
+    }
+
+    public long getEvictedKeys() {
+        long evicted = 0;
+        for (StorageEngine db : dbs) {
+            evicted += db.getEvictedKeys();
+        }
+        return evicted;
+    }
+
+    public long getDirty() {
+        long dirty = 0;
+        for (StorageEngine db : dbs) {
+            dirty += db.getDirty();
+        }
+        return dirty;
+    }
+
+    public long getLastSaveTime() {
+        long lastSave = 0;
+        for (StorageEngine db : dbs) {
+            lastSave = Math.max(lastSave, db.getLastSaveTime());
+        }
+        return lastSave;
+    }
+
+    public void resetDirty() {
+        for (StorageEngine db : dbs) {
+            db.resetDirty();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.muma.mini.redis.store;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 按 key 分段的 StampedLock (IO 线程乐观读用)
+ * <p>
+ * 【写】核心线程执行命令期间处于写作用域 (beginWrite / endWrite)：
+ * 命令通过存储引擎访问到的每个 key，其所在分段都会被加写锁，直到命令结束统一释放。
+ * 命令只能修改经由存储引擎拿到的对象，所以"原地修改" (如 LPUSH 直接改 RedisList) 也被覆盖。
+ * 每个存储分区只有一个写线程，写锁之间不会竞争。
+ * <p>
+ * 【读】IO 线程先取分段的乐观 stamp，读完后校验：
+ * 期间没有写锁进出则结果一致，否则丢弃结果回落到核心线程重新执行。
+ * 乐观读期间不得修改任何结构 (如 RedisDict 的渐进式 rehash)，见 {@link #isOptimisticRead()}。
+ */
+public final class KeyStripeLocks {
+
+    private static final FastThreadLocal<ThreadState> STATE = new FastThreadLocal<>() {
+        @Override
+        protected ThreadState initialValue() {
+            return new ThreadState();
+        }
+    };
+
+    private final StampedLock[] stripes;
+    private final int mask;
+
+    public KeyStripeLocks(int requestedStripes) {
+        int size = requestedStripes <= 1 ? 1 : Integer.highestOneBit(requestedStripes - 1) << 1;
+        this.stripes = new StampedLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    private StampedLock stripeOf(String key) {
+        int h = key.hashCode(); // String 缓存了 hashCode
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    // =========================================================
+    // 核心线程：写
+    // =========================================================
+
+    public static void beginWrite() {
+        STATE.get().writeDepth++;
+    }
+
+    public static void endWrite() {
+        ThreadState state = STATE.get();
+        if (--state.writeDepth == 0) {
+            state.releaseAll();
+        }
+    }
+
+    /**
+     * 写作用域内访问 key 时调用：给所在分段加写锁 (同一分段只加一次)
+     */
+    public void lockForWrite(String key) {
+        ThreadState state = STATE.get();
+        if (state.writeDepth > 0) {
+            state.acquire(stripeOf(key));
+        }
+    }
+
+    // =========================================================
+    // IO 线程：乐观读
+    // =========================================================
+
+    /**
+     * @return 0 表示该分段正被写，应直接回落
+     */
+    public long tryOptimisticRead(String key) {
+        return stripeOf(key).tryOptimisticRead();
+    }
+
+    public boolean validate(String key, long stamp) {
+        return stripeOf(key).validate(stamp);
+    }
+
+    public static void beginOptimisticRead() {
+        STATE.get().optimisticRead = true;
+    }
+
+    public static void endOptimisticRead() {
+        STATE.get().optimisticRead = false;
+    }
+
+    /**
+     * 当前线程是否处于乐观读中 (此时数据结构只能读，不能顺带做任何整理)
+     */
+    public static boolean isOptimisticRead() {
+        return STATE.get().optimisticRead;
+    }
+
+    private static final class ThreadState {
+        private int writeDepth;
+        private boolean optimisticRead;
+        private StampedLock[] held = new StampedLock[8];
+        private long[] stamps = new long[8];
+        private int size;
+
+        void acquire(StampedLock lock) {
+            for (int i = 0; i < size; i++) {
+                if (held[i] == lock) return; // StampedLock 不可重入
+            }
+            if (size == held.length) {
+                held = Arrays.copyOf(held, size * 2);
+                stamps = Arrays.copyOf(stamps, size * 2);
+            }
+            stamps[size] = lock.writeLock();
+            held[size++] = lock;
+        }
+
+        void releaseAll() {
+            for (int i = 0; i < size; i++) {
+                held[i].unlockWrite(stamps[i]);
+                held[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.muma.mini.redis.store;
 
 import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.config.MiniRedisConfig;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
 
 public interface StorageEngine {
 
@@ -10,6 +15,13 @@ public interface StorageEngine {
     // 【修改点 1】 返回通配符类型，表示 "某种 RedisData"
     RedisData<?> get(String key);
 
+    /**
+     * 按请求中的原始字节读取 (只读命令使用，REDIS_DICT 键空间查找时不必先构造 String)
+     */
+    default RedisData<?> get(byte[] key) {
+        return get(new String(key, StandardCharsets.UTF_8));
+    }
+
     // 【修改点 2】 接收通配符类型，允许存入任何类型的 RedisData
     void put(String key, RedisData<?> data);
 
@@ -18,6 +30,13 @@ public interface StorageEngine {
     // 清空数据
     void flush();
 
+    /**
+     * 异步清空 (FLUSHALL ASYNC)：把整个键空间从引擎上摘下，不在当前线程逐个清除
+     */
+    default void flushAsync() {
+        flush();
+    }
+
     // 原子性支持 (供 INCR 等命令使用)
     // 简单实现：提供一个对象锁，或者具体的原子操作方法
     Object getLock(String key);
@@ -27,6 +46,40 @@ public interface StorageEngine {
     // 用于内部组件 (如 BlockingManager) 手动传播 AOF
     void appendAof(RedisArray command);
 
+    /**
+     * 在 key 所属的执行线程上运行任务
+     * 单线程模式下直接执行；分片模式下若当前线程不是该 key 的分片线程，则转交过去异步执行
+     * (如 BRPOPLPUSH 被唤醒后向另一分片的目标列表推入元素)
+     */
+    default void executeOnOwner(String key, Runnable task) {
+        task.run();
+    }
+
+    // --- IO 线程乐观读 (见 KeyStripeLocks)，未开启时 tryOptimisticRead 返回 0，调用方直接回落 ---
+
+    default long tryOptimisticRead(String key) {
+        return 0;
+    }
+
+    default boolean validateRead(String key, long stamp) {
+        return false;
+    }
+
+    /**
+     * 只读查询：已过期的 key 视为不存在，但不做惰性删除 (非核心线程不能修改键空间)
+     */
+    default RedisData<?> peek(String key) {
+        return get(key);
+    }
+
+    /**
+     * 后台线程 (BGSAVE / AOF 重写) 重新读取 key 的当前值，语义同 peek；
+     * 只能在所属线程上访问的键空间 (REDIS_DICT) 回到所属线程上读取
+     */
+    default RedisData<?> peekFromBackground(String key) {
+        return peek(key);
+    }
+
 
     /**
      * 获取所有 Key 的迭代器 (用于 AOF Rewrite)
@@ -34,6 +87,118 @@ public interface StorageEngine {
      */
     Iterable<String> keys();
 
+    /**
+     * 遍历全部未过期的 key-value (BGSAVE / AOF 重写，在后台线程调用)
+     * 不是时间点快照，但遍历期间一直存在的 key 一定会被访问到
+     */
+    default void forEachEntry(BiConsumer<String, RedisData<?>> consumer) {
+        for (String key : keys()) {
+            RedisData<?> data = peek(key);
+            if (data != null) {
+                consumer.accept(key, data);
+            }
+        }
+    }
+
+
+    /**
+     * SCAN 的一步：从 cursor 开始访问大约 count 个未过期的 key (必须在键空间所属线程上调用)
+     * <p>
+     * 遍历期间一直存在的 key 至少返回一次，可能重复；不支持游标的实现一次返回全部 key
+     *
+     * @return 下一个游标，0 表示遍历结束
+     */
+    default long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        forEachEntry(visitor);
+        return 0;
+    }
+
+    /**
+     * 主动过期的一个周期 (由主动过期的定时任务在 executor 上调用，只处理属于 executor 的分区；只做惰性删除的实现不需要)
+     *
+     * @param deadline 截止时间 (System.nanoTime())，同一周期内所有数据库共用
+     * @return 时间预算是否已经用完
+     */
+    default boolean activeExpireCycle(RedisCoreExecutor executor, long deadline) {
+        return false;
+    }
+
+    /**
+     * 过期删除的 key 总数 (INFO expired_keys)
+     */
+    default long getExpiredKeys() {
+        return 0;
+    }
+
+    // --- 逻辑数据库 (SELECT / SWAPDB) ---
+
+    /**
+     * 本键空间当前对应的数据库编号 (写 AOF、WATCH 通知时携带)，SWAPDB 后随之改变
+     */
+    default int getDbIndex() {
+        return 0;
+    }
+
+    default void setDbIndex(int dbIndex) {
+    }
+
+    /**
+     * key 总数 (INFO keyspace)，包括已过期但还没有删除的
+     */
+    default long size() {
+        return 0;
+    }
+
+    /**
+     * 带过期时间的 key 数 (INFO keyspace expires)
+     */
+    default long expiresSize() {
+        return 0;
+    }
+
+    // --- 内存上限 (maxmemory) ---
+
+    /**
+     * 按 maxmemory-policy 淘汰 key，直到 used_memory 不超过 maxmemory (在键空间所属线程上调用)
+     *
+     * @return false 表示仍然超出 (noeviction，或已经没有可淘汰的 key)
+     */
+    default boolean performEvictions() {
+        return performEvictions(MiniRedisConfig.getInstance().getMaxmemory());
+    }
+
+    /**
+     * 淘汰到指定上限 (多个数据库按占用比例分摊 maxmemory，见 Databases#performEvictions)
+     *
+     * @param limit 上限字节数，0 表示不限制
+     */
+    default boolean performEvictions(long limit) {
+        return true;
+    }
+
+    /**
+     * 写命令执行后重新估算 key 的内存占用 (集合类型多是原地修改，不一定再经过 put)
+     */
+    default void refreshMemoryUsage(String key) {
+    }
+
+    /**
+     * 数据集的估算内存 (INFO used_memory)
+     */
+    default long getUsedMemory() {
+        return 0;
+    }
+
+    default long getUsedMemoryPeak() {
+        return 0;
+    }
+
+    /**
+     * 因 maxmemory 被淘汰的 key 总数 (INFO evicted_keys)
+     */
+    default long getEvictedKeys() {
+        return 0;
+    }
 
     long getDirty();
 
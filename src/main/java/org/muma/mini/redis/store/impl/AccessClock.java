@@ -0,0 +1,70 @@
+package org.muma.mini.redis.store.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RedisData#lru 的编码 (对应 Redis evict.c 中的 LRU 时钟与 LFU 计数器)
+ * <p>
+ * 【LRU】24 位秒级时钟，约 194 天回绕一次；空闲时间按回绕计算。
+ * <p>
+ * 【LFU】高 16 位为分钟级时间 (约 45 天回绕)，低 8 位为对数计数器：
+ * 计数器越大越难再增加 (概率 1 / ((counter - 5) * lfu-log-factor + 1))，
+ * 每隔 lfu-decay-time 分钟没有访问就减 1，长期不访问的热点会逐渐变冷。
+ * 新 key 从 5 开始，避免刚写入就因为计数为 0 被淘汰。
+ */
+final class AccessClock {
+
+    private static final int LRU_CLOCK_MAX = (1 << 24) - 1;
+    private static final long LRU_CLOCK_RESOLUTION_MS = 1000;
+
+    private static final int LFU_INIT_VAL = 5;
+    private static final int LFU_COUNTER_MAX = 255;
+    private static final int LFU_TIME_MAX = (1 << 16) - 1;
+
+    private AccessClock() {
+    }
+
+    static int lruClock(long nowMillis) {
+        return (int) (nowMillis / LRU_CLOCK_RESOLUTION_MS & LRU_CLOCK_MAX);
+    }
+
+    static long idleMillis(int lru, long nowMillis) {
+        int clock = lruClock(nowMillis);
+        long ticks = clock >= lru ? clock - lru : (LRU_CLOCK_MAX - lru) + clock;
+        return ticks * LRU_CLOCK_RESOLUTION_MS;
+    }
+
+    static int lfuInit(long nowMillis) {
+        return minutes(nowMillis) << 8 | LFU_INIT_VAL;
+    }
+
+    /**
+     * 一次访问：先按空闲时间衰减，再按对数概率加 1
+     */
+    static int lfuTouch(int lru, long nowMillis, int logFactor, int decayTime) {
+        int counter = lfuCounter(lru, nowMillis, decayTime);
+        if (counter < LFU_COUNTER_MAX) {
+            double baseval = Math.max(0, counter - LFU_INIT_VAL);
+            double p = 1.0 / (baseval * logFactor + 1);
+            if (ThreadLocalRandom.current().nextDouble() < p) counter++;
+        }
+        return minutes(nowMillis) << 8 | counter;
+    }
+
+    /**
+     * 衰减后的计数器 (只读，不回写)
+     */
+    static int lfuCounter(int lru, long nowMillis, int decayTime) {
+        int counter = lru & LFU_COUNTER_MAX;
+        if (decayTime <= 0) return counter;
+        int now = minutes(nowMillis);
+        int last = lru >>> 8 & LFU_TIME_MAX;
+        int elapsed = now >= last ? now - last : LFU_TIME_MAX - last + now;
+        int periods = elapsed / decayTime;
+        return periods > counter ? 0 : counter - periods;
+    }
+
+    private static int minutes(long nowMillis) {
+        return (int) (nowMillis / 60_000 & LFU_TIME_MAX);
+    }
+}
@@ -0,0 +1,97 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.ExpireIndexBackend;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 主动过期的定时任务 (对应 Redis serverCron 中 databasesCron 调用的 activeExpireCycle)
+ * <p>
+ * 整个服务器只有一个节拍线程，每个周期给每个执行线程提交一次任务 (没有任何带 TTL 的 key 时不提交)。
+ * 执行线程上按数据库编号轮流处理属于自己的分区，一次最多 {@link #CRON_DBS_PER_CALL} 个数据库，
+ * 所有数据库共用一个周期的 CPU 时间预算 (周期的 25%，随 effort 增加)：用完就停下，下个周期从停下的数据库继续。
+ * 数据库再多，主动过期占用执行线程的时间也不会超过这个比例。
+ */
+public final class ActiveExpireCron {
+
+    // 主动过期的 CPU 时间占周期的比例 (%)，effort 每增加 1 多 2%
+    private static final int ACTIVE_EXPIRE_TIME_PERC = 25;
+    // 每次调用最多处理的数据库数 (对应 Redis 的 CRON_DBS_PER_CALL)
+    private static final int CRON_DBS_PER_CALL = 16;
+
+    private final Databases databases;
+    private final RedisCoreExecutor[] executors;
+    private final long periodMillis;
+
+    // 各执行线程下一次从哪个数据库开始 (只在对应的执行线程上访问)
+    private final int[] nextDb;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Redis-Active-Expire");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param executors 所有执行线程 (单线程模式下只有核心线程，分片模式下每个分片一个)
+     */
+    public ActiveExpireCron(Databases databases, RedisCoreExecutor[] executors) {
+        this.databases = databases;
+        this.executors = executors;
+        this.nextDb = new int[executors.length];
+        this.periodMillis = periodMillis(MiniRedisConfig.getInstance().getExpireIndexBackend());
+    }
+
+    /**
+     * 数据加载完成后启动 (加载期间主线程独占键空间，不能同时在执行线程上删除)
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        // 各数据库的 expiresSize 是近似值，读到 0 时最多晚一个周期开始清理
+        if (databases.expiresSize() == 0) return;
+        for (int i = 0; i < executors.length; i++) {
+            int shard = i;
+            executors[i].submit(() -> run(shard));
+        }
+    }
+
+    /**
+     * 在第 shard 个执行线程上运行一个周期
+     */
+    void run(int shard) {
+        RedisCoreExecutor executor = executors[shard];
+        long deadline = System.nanoTime() + timeLimitNanos(periodMillis);
+        int dbs = databases.size();
+        for (int i = 0; i < Math.min(dbs, CRON_DBS_PER_CALL); i++) {
+            int db = nextDb[shard] % dbs;
+            nextDb[shard] = (db + 1) % dbs;
+            StorageEngine storage = databases.get(db);
+            if (storage.activeExpireCycle(executor, deadline)) break;
+        }
+    }
+
+    static long periodMillis(ExpireIndexBackend backend) {
+        return backend == ExpireIndexBackend.TIMING_WHEEL ? TimingWheelExpireIndex.PERIOD_MS : SampledExpireIndex.PERIOD_MS;
+    }
+
+    /**
+     * 一个周期的时间预算 (纳秒)
+     */
+    static long timeLimitNanos(long periodMillis) {
+        int effort = MiniRedisConfig.getInstance().getActiveExpireEffort() - 1;
+        return TimeUnit.MILLISECONDS.toNanos(periodMillis) * (ACTIVE_EXPIRE_TIME_PERC + 2L * effort) / 100;
+    }
+}
@@ -0,0 +1,135 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.common.RedisData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于 ConcurrentHashMap 的键空间 (默认)
+ */
+final class ConcurrentKeyspace implements Keyspace {
+
+    // 取样时相邻两个样本之间最多随机跳过的 key 数
+    private static final int SAMPLE_MAX_SKIP = 8;
+
+    private final Map<String, RedisData<?>> map = new ConcurrentHashMap<>();
+
+    // 取样用的常驻迭代器 (只在所属线程上使用)
+    private Iterator<Map.Entry<String, RedisData<?>>> sampler;
+
+    @Override
+    public RedisData<?> get(String key) {
+        return map.get(key);
+    }
+
+    @Override
+    public RedisData<?> get(byte[] key) {
+        return map.get(new String(key, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public RedisData<?> put(String key, RedisData<?> data) {
+        return map.put(key, data);
+    }
+
+    @Override
+    public RedisData<?> remove(String key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void releaseValues() {
+        for (RedisData<?> data : map.values()) {
+            data.releaseValue();
+        }
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return map.keySet();
+    }
+
+    /**
+     * ConcurrentHashMap 不暴露桶，游标改用 key 的哈希值：按哈希值从小到大返回，
+     * 游标为下一个哈希值的起点 (扩容不改变 key 的哈希值，不会漏掉遍历期间一直存在的 key)。
+     * 同一哈希值的 key 总是一起返回。
+     * <p>
+     * 代价是每一步都要过一遍整张表挑出哈希值最小的 count 个 key (O(N))，大键空间请使用 REDIS_DICT。
+     */
+    @Override
+    public long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        TreeMap<Long, List<Map.Entry<String, RedisData<?>>>> candidates = new TreeMap<>();
+        int candidateCount = 0;
+        boolean truncated = false;
+        for (Map.Entry<String, RedisData<?>> entry : map.entrySet()) {
+            long position = Integer.toUnsignedLong(entry.getKey().hashCode());
+            if (position < cursor) continue;
+            if (candidateCount >= count && position > candidates.lastKey()) {
+                truncated = true;
+                continue;
+            }
+            candidates.computeIfAbsent(position, p -> new ArrayList<>(1)).add(entry);
+            candidateCount++;
+            // 超出 count 时丢掉哈希值最大的一组
+            while (candidates.size() > 1 && candidateCount - candidates.lastEntry().getValue().size() >= count) {
+                candidateCount -= candidates.pollLastEntry().getValue().size();
+                truncated = true;
+            }
+        }
+        for (List<Map.Entry<String, RedisData<?>>> group : candidates.values()) {
+            for (Map.Entry<String, RedisData<?>> entry : group) {
+                visitor.accept(entry.getKey(), entry.getValue());
+            }
+        }
+        return truncated ? candidates.lastKey() + 1 : 0;
+    }
+
+    /**
+     * ConcurrentHashMap 不能随机定位桶：沿一个常驻的弱一致迭代器往下取，样本之间随机跳过几个 key，
+     * 走到末尾再从头开始。样本不是均匀随机的，但连续多轮取样会依次覆盖整个键空间。
+     */
+    @Override
+    public int sample(int count, BiConsumer<String, RedisData<?>> visitor) {
+        if (map.isEmpty() || count <= 0) return 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sampled = 0;
+        int restarts = 0;
+        while (sampled < count) {
+            Map.Entry<String, RedisData<?>> entry = null;
+            for (int skip = random.nextInt(SAMPLE_MAX_SKIP); skip >= 0; skip--) {
+                if (sampler == null || !sampler.hasNext()) {
+                    // 表很小时一次取样会绕好几圈，绕两圈就够了
+                    sampler = map.entrySet().iterator();
+                    if (!sampler.hasNext() || ++restarts > 2) return sampled;
+                }
+                entry = sampler.next();
+            }
+            visitor.accept(entry.getKey(), entry.getValue());
+            sampled++;
+        }
+        return sampled;
+    }
+}
@@ -0,0 +1,93 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisKey;
+import org.muma.mini.redis.store.structure.impl.dict.RedisDict;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于 RedisDict 的键空间：key 存为 {@link RedisKey} (原始字节 + 缓存的哈希)
+ * <p>
+ * 扩容通过渐进式 rehash 分摊到每次读写，键空间增长到上亿个 key 也不会出现一次性搬迁整张表的停顿。
+ * RedisDict 不是线程安全的，只能在所属分区的执行线程上访问。
+ */
+final class DictKeyspace implements Keyspace {
+
+    private final RedisDict<RedisKey, RedisData<?>> dict = new RedisDict<>();
+
+    @Override
+    public RedisData<?> get(String key) {
+        return dict.get(RedisKey.of(key));
+    }
+
+    @Override
+    public RedisData<?> get(byte[] key) {
+        return dict.get(RedisKey.of(key));
+    }
+
+    @Override
+    public RedisData<?> put(String key, RedisData<?> data) {
+        return dict.put(RedisKey.of(key), data);
+    }
+
+    @Override
+    public RedisData<?> remove(String key) {
+        return dict.remove(RedisKey.of(key));
+    }
+
+    @Override
+    public int size() {
+        return dict.size();
+    }
+
+    @Override
+    public void releaseValues() {
+        // values() 只读取两张表，不推进 rehash
+        for (RedisData<?> data : dict.values()) {
+            data.releaseValue();
+        }
+    }
+
+    @Override
+    public void clear() {
+        dict.clear();
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return false;
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        List<String> keys = new ArrayList<>(dict.size());
+        for (RedisKey key : dict.keys()) {
+            keys.add(key.toString());
+        }
+        return keys;
+    }
+
+    @Override
+    public long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        // 按桶遍历，访问的 key 数达到 count 为止 (一个桶内的 key 总是一起返回)；
+        // 与 Redis 一样最多访问 count * 10 个桶，表很稀疏时单步耗时也有上限
+        int[] visited = {0};
+        long maxIterations = count * 10L;
+        BiConsumer<RedisKey, RedisData<?>> adapter = (key, data) -> {
+            visitor.accept(key.toString(), data);
+            visited[0]++;
+        };
+        do {
+            cursor = dict.scan(cursor, adapter);
+        } while (cursor != 0 && visited[0] < count && --maxIterations > 0);
+        return cursor;
+    }
+
+    @Override
+    public int sample(int count, BiConsumer<String, RedisData<?>> visitor) {
+        return dict.sample(count, (key, data) -> visitor.accept(key.toString(), data));
+    }
+}
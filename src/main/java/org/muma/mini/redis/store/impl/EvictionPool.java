@@ -0,0 +1,70 @@
+package org.muma.mini.redis.store.impl;
+
+import java.util.Arrays;
+
+/**
+ * 淘汰候选池 (对应 Redis 的 EvictionPoolLRU)
+ * <p>
+ * 每次淘汰只取样几个 key，但取样结果中 "最该淘汰" 的候选会留在池中跨轮比较：
+ * 按分数 (空闲时间、255 - LFU 计数、距离过期的远近取反) 升序排列，满了以后分数更低的新候选直接丢弃。
+ * 池中的 key 可能已经被删除或改写，取出后由调用方确认。
+ */
+final class EvictionPool {
+
+    static final int SIZE = 16;
+
+    private final long[] scores = new long[SIZE];
+    private final String[] keys = new String[SIZE];
+    private int count;
+
+    void offer(String key, long score) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i].equals(key)) {
+                if (scores[i] == score) return;
+                removeAt(i);
+                break;
+            }
+        }
+        int pos = 0;
+        while (pos < count && scores[pos] < score) pos++;
+        if (count == SIZE) {
+            // 比池中所有候选都更不该淘汰
+            if (pos == 0) return;
+            // 挤掉分数最低的一个
+            System.arraycopy(scores, 1, scores, 0, pos - 1);
+            System.arraycopy(keys, 1, keys, 0, pos - 1);
+            pos--;
+        } else {
+            System.arraycopy(scores, pos, scores, pos + 1, count - pos);
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            count++;
+        }
+        scores[pos] = score;
+        keys[pos] = key;
+    }
+
+    /**
+     * 取出分数最高的候选，池为空时返回 null
+     */
+    String pollBest() {
+        if (count == 0) return null;
+        String key = keys[--count];
+        keys[count] = null;
+        return key;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0, count, null);
+        count = 0;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(scores, i + 1, scores, i, count - i - 1);
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        keys[--count] = null;
+    }
+}
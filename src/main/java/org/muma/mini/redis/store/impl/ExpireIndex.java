@@ -0,0 +1,49 @@
+package org.muma.mini.redis.store.impl;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 过期时间索引 (对应 Redis 的 db->expires)：只登记带 TTL 的 key，供主动过期使用
+ * <p>
+ * - {@link SampledExpireIndex}：RedisDict + 随机取样 (Redis 的做法，默认)
+ * - {@link TimingWheelExpireIndex}：分层时间轮，key 在到期时刻附近被精确回收
+ * <p>
+ * 与 REDIS_DICT 键空间一样只在所属线程上访问。
+ */
+interface ExpireIndex {
+
+    /**
+     * 登记或更新 key 的过期时间
+     */
+    void put(String key, long expireAt);
+
+    void remove(String key);
+
+    int size();
+
+    void clear();
+
+    /**
+     * 主动过期的周期 (毫秒)
+     */
+    long periodMillis();
+
+    /**
+     * 一个周期的主动过期
+     *
+     * @param now      当前时间 (毫秒)
+     * @param effort   active-expire-effort - 1 (0-9)
+     * @param deadline 截止时间 (System.nanoTime())，超过后把剩下的留给下一个周期
+     * @param expirer  删除到期的 key；调用前索引已经移除该 key。
+     *                 key 已不存在或实际尚未过期时返回 false
+     */
+    void activeExpire(long now, int effort, long deadline, Predicate<String> expirer);
+
+    /**
+     * 随机取样带 TTL 的 key (volatile-* 淘汰策略用)
+     *
+     * @return 实际访问的 key 数
+     */
+    int sample(int count, Consumer<String> visitor);
+}
@@ -0,0 +1,59 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.common.RedisData;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 一个存储分区的主键空间 (key -> RedisData)
+ * <p>
+ * - {@link ConcurrentKeyspace}：ConcurrentHashMap，允许 IO 线程、后台线程直接读取
+ * - {@link DictKeyspace}：渐进式 rehash 的 RedisDict，只能在所属线程上访问
+ */
+interface Keyspace {
+
+    RedisData<?> get(String key);
+
+    /**
+     * 按请求中的原始字节查找 (UTF-8 编码，与 String 形式的 key 等价)
+     */
+    RedisData<?> get(byte[] key);
+
+    RedisData<?> put(String key, RedisData<?> data);
+
+    RedisData<?> remove(String key);
+
+    int size();
+
+    /**
+     * 释放全部值持有的堆外 chunk (不修改表结构)；表从引擎上摘下、不再被修改后可以在任意线程调用
+     */
+    void releaseValues();
+
+    void clear();
+
+    /**
+     * 其他线程能否直接读取 (否则必须回到所属线程上访问)
+     */
+    boolean isConcurrent();
+
+    /**
+     * 全部 key 的弱一致视图 (仅 isConcurrent 时可以在其他线程上使用)
+     */
+    Iterable<String> keys();
+
+    /**
+     * 游标遍历的一步 (SCAN 语义：遍历期间一直存在的 key 至少返回一次，可能重复)
+     *
+     * @param count 本步大约访问的 key 数
+     * @return 下一个游标，0 表示遍历结束
+     */
+    long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor);
+
+    /**
+     * 随机取样 (淘汰用，只在所属线程上调用)，key 可能重复
+     *
+     * @return 实际访问的 key 数 (键空间为空时为 0)
+     */
+    int sample(int count, BiConsumer<String, RedisData<?>> visitor);
+}
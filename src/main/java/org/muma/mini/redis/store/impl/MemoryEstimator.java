@@ -0,0 +1,70 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisHash;
+import org.muma.mini.redis.common.RedisList;
+import org.muma.mini.redis.common.RedisSet;
+import org.muma.mini.redis.common.RedisZSet;
+import org.muma.mini.redis.common.SharedIntegers;
+import org.muma.mini.redis.store.offheap.OffHeapValue;
+
+/**
+ * 估算一个 key 占用的堆内存 (used_memory 与 maxmemory 的依据)
+ * <p>
+ * JVM 中拿不到 zmalloc 那样精确的分配字节数，这里按 "固定开销 + 每个元素的开销 + 元素字节数" 估算：
+ * 固定开销取 64 位 JVM 开启压缩指针时对象头、引用、字典节点的典型大小，元素字节数由集合类型增量维护，
+ * 因此估算本身是 O(1) 的，可以在每次写命令之后调用。
+ */
+final class MemoryEstimator {
+
+    // 键空间中的一个条目：字典节点 + key 对象 (String / RedisKey) + RedisData (32 字节)
+    private static final long ENTRY_OVERHEAD = 88;
+    private static final long ARRAY_HEADER = 16;
+    // INT 编码的 Long 对象 (共享整数不计)
+    private static final long BOXED_LONG = 16;
+    // 堆外值的句柄 (OffHeapValue + ByteBuffer 切片 + Cleaner 登记)，chunk 本身按实际尺寸计入
+    private static final long OFF_HEAP_HANDLE = 160;
+    // 集合对象本身 (封装类 + 底层结构的表头)
+    private static final long COLLECTION_OVERHEAD = 64;
+
+    // 每个元素的额外开销 (节点对象、引用、元素的数组头)
+    private static final long HASH_ENTRY = 64;
+    private static final long LIST_ENTRY = 24;
+    private static final long SET_ENTRY = 48;
+    private static final long ZSET_ENTRY = 80;
+
+    private MemoryEstimator() {
+    }
+
+    /**
+     * 单个 key 的估算值不超过 Integer.MAX_VALUE (RedisData 用 int 记账)
+     */
+    static long sizeOf(String key, RedisData<?> data) {
+        return Math.min(ENTRY_OVERHEAD + ARRAY_HEADER + key.length() + valueSize(data.getData()), Integer.MAX_VALUE);
+    }
+
+    private static long valueSize(Object value) {
+        if (value instanceof byte[] bytes) {
+            return ARRAY_HEADER + bytes.length;
+        }
+        if (value instanceof Long integer) {
+            return SharedIntegers.isShared(integer) ? 0 : BOXED_LONG;
+        }
+        if (value instanceof OffHeapValue offHeap) {
+            return OFF_HEAP_HANDLE + offHeap.capacity();
+        }
+        if (value instanceof RedisHash hash) {
+            return COLLECTION_OVERHEAD + hash.size() * HASH_ENTRY + hash.payloadBytes();
+        }
+        if (value instanceof RedisList list) {
+            return COLLECTION_OVERHEAD + list.size() * LIST_ENTRY + list.payloadBytes();
+        }
+        if (value instanceof RedisSet set) {
+            return COLLECTION_OVERHEAD + set.size() * SET_ENTRY + set.payloadBytes();
+        }
+        if (value instanceof RedisZSet zset) {
+            return COLLECTION_OVERHEAD + zset.size() * ZSET_ENTRY + zset.payloadBytes();
+        }
+        return COLLECTION_OVERHEAD;
+    }
+}
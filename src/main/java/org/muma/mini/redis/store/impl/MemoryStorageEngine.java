@@ -3,97 +3,287 @@ package org.muma.mini.redis.store.impl;
 import lombok.Setter;
 import org.muma.mini.redis.aof.AofManager;
 import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.ExpireIndexBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.MaxmemoryPolicy;
+import org.muma.mini.redis.protocol.BulkString;
 import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
 import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.KeyStripeLocks;
 import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.offheap.OffHeapArena;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class MemoryStorageEngine implements StorageEngine {
 
     private static final Logger log = LoggerFactory.getLogger(MemoryStorageEngine.class);
 
-    // 核心数据存储
-    private final Map<String, RedisData<?>> memoryDb = new ConcurrentHashMap<>();
+    // 后台线程遍历 REDIS_DICT 键空间时，每次回到所属线程取多少个 key
+    private static final int SCAN_BATCH = 1000;
 
-    // 过期时间管理 (TTL)
-    private final Map<String, Long> ttlMap = new ConcurrentHashMap<>();
+    // 主动过期 / 淘汰删除的 key 合并成 DEL 写入 AOF，每条 DEL 最多带多少个 key
+    private static final int DELETE_PROPAGATE_BATCH = 128;
+    // 一次选不出淘汰对象 (取样到的 key 都已失效) 时最多重新取样几次
+    private static final int EVICTION_MAX_ATTEMPTS = 16;
+    private static final BulkString DEL = new BulkString("DEL");
+
+    // 核心数据存储 (FLUSHALL ASYNC 时整体替换，IO 线程与后台线程读取，volatile)
+    private volatile Keyspace memoryDb;
+    private final KeyspaceBackend keyspaceBackend;
+    private final ExpireIndexBackend expireIndexBackend;
+
+    // 过期时间索引 (对应 Redis 的 db->expires)，只在所属线程上访问
+    private ExpireIndex expires;
 
     // AOF 管理器引用
     @Setter
     private AofManager aofManager;
 
-    // 阻塞管理器
-    private final org.muma.mini.redis.server.BlockingManager blockingManager = new org.muma.mini.redis.server.BlockingManager();
+    // 当前对应的数据库编号 (SWAPDB 时在所有分片暂停期间修改)，写 AOF、WATCH 通知时携带
+    private volatile int dbIndex;
+
+    // 客户端缓存失效通知 (CLIENT TRACKING)
+    @Setter
+    private TrackingManager trackingManager;
+
+    // WATCH 的 key 版本号 (MULTI / EXEC)
+    @Setter
+    private WatchManager watchManager;
+
+    // 阻塞管理器 (分片模式下所有分区共享同一个)
+    private final BlockingManager blockingManager;
+
+    // IO 线程乐观读的分段锁 (server.io_thread_reads 开启时才创建)
+    private KeyStripeLocks keyLocks;
+
+    // 该分区所属的执行线程：REDIS_DICT 键空间只能在这个线程上访问，
+    // 主动过期与后台遍历 (BGSAVE / AOF 重写) 都转交给它；未设置时视为调用线程
+    @Setter
+    private RedisCoreExecutor owner;
 
     // RDB 统计
     private final AtomicLong dirty = new AtomicLong(0);
+    // 过期删除的 key 数 (主动 + 惰性，INFO expired_keys)
+    private final AtomicLong expiredKeys = new AtomicLong(0);
     private volatile long lastSaveTime = System.currentTimeMillis();
 
-    // 定期清理线程池
-    private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "Redis-Active-Cleanup");
+    // 数据集的估算内存 (字节)：每个 key 的估算值记在 RedisData#memory 上，写入、删除时增量维护
+    private final AtomicLong usedMemory = new AtomicLong(0);
+    private volatile long usedMemoryPeak;
+    // 因 maxmemory 淘汰的 key 数 (INFO evicted_keys)
+    private final AtomicLong evictedKeys = new AtomicLong(0);
+    // 淘汰候选池，只在所属线程上访问
+    private final EvictionPool evictionPool = new EvictionPool();
+
+    // 异步清空时释放旧表中的堆外值 (对应 Redis 的 lazyfree 后台线程)，所有引擎共享
+    private static final ExecutorService LAZY_FREE = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Redis-Lazy-Free");
         t.setDaemon(true);
         return t;
     });
 
     public MemoryStorageEngine() {
-        // 启动定期清理任务
-        cleanupExecutor.scheduleAtFixedRate(this::activeExpireCycle, 1, 100, TimeUnit.MILLISECONDS);
+        this(new BlockingManager());
+    }
+
+    public MemoryStorageEngine(BlockingManager blockingManager) {
+        this(blockingManager, MiniRedisConfig.getInstance().getKeyspaceBackend());
+    }
+
+    public MemoryStorageEngine(BlockingManager blockingManager, KeyspaceBackend keyspaceBackend) {
+        this(blockingManager, keyspaceBackend, MiniRedisConfig.getInstance().getExpireIndexBackend());
+    }
+
+    public MemoryStorageEngine(BlockingManager blockingManager, KeyspaceBackend keyspaceBackend,
+                               ExpireIndexBackend expireIndexBackend) {
+        this.blockingManager = blockingManager;
+        this.keyspaceBackend = keyspaceBackend;
+        this.expireIndexBackend = expireIndexBackend;
+        this.memoryDb = newKeyspace();
+        this.expires = newExpireIndex();
+    }
+
+    private Keyspace newKeyspace() {
+        return keyspaceBackend == KeyspaceBackend.REDIS_DICT ? new DictKeyspace() : new ConcurrentKeyspace();
+    }
+
+    private ExpireIndex newExpireIndex() {
+        return expireIndexBackend == ExpireIndexBackend.TIMING_WHEEL
+                ? new TimingWheelExpireIndex(ServerClock.update()) : new SampledExpireIndex();
+    }
+
+    /**
+     * 开启 IO 线程乐观读：之后写作用域内的每次访问都会锁住 key 所在分段
+     * (REDIS_DICT 键空间不能被其他线程读取，不支持)
+     */
+    public void enableOptimisticReads(int stripes) {
+        if (!memoryDb.isConcurrent()) {
+            log.warn("IO thread reads are not supported by the {} keyspace, ignored", keyspaceBackend);
+            return;
+        }
+        this.keyLocks = new KeyStripeLocks(stripes);
     }
 
     @Override
     public RedisData<?> get(String key) {
+        lockForWrite(key);
         RedisData<?> data = memoryDb.get(key);
         if (data == null) return null;
 
         if (data.isExpired()) {
             remove(key);
+            expiredKeys.incrementAndGet();
             return null;
         }
+        touch(data);
+        return data;
+    }
+
+    /**
+     * 命中且未过期时直接按字节返回；过期的 key 走 String 路径惰性删除 (过期索引、WATCH、Tracking 都按 String 记录)。
+     * 开启了 IO 线程乐观读时分段锁按 String 计算，同样走 String 路径。
+     */
+    @Override
+    public RedisData<?> get(byte[] key) {
+        if (keyLocks != null) {
+            return get(new String(key, StandardCharsets.UTF_8));
+        }
+        RedisData<?> data = memoryDb.get(key);
+        if (data == null) return null;
+
+        if (data.isExpired()) {
+            return get(new String(key, StandardCharsets.UTF_8));
+        }
+        touch(data);
         return data;
     }
 
     @Override
     public void put(String key, RedisData<?> data) {
-        memoryDb.put(key, data);
+        lockForWrite(key);
+        RedisData<?> previous = memoryDb.put(key, data);
+        if (previous != data) {
+            // 新的值对象：旧值的内存扣掉，新值从头计入，访问信息从初始值开始
+            if (previous != null) {
+                addUsedMemory(-previous.getMemory());
+                previous.releaseValue();
+            }
+            data.setMemory(0);
+            initAccess(data);
+        }
+        account(key, data);
 
         // 更新 TTL 索引
         if (data.getExpireAt() != -1) {
-            ttlMap.put(key, data.getExpireAt());
+            expires.put(key, data.getExpireAt());
         } else {
-            ttlMap.remove(key);
+            expires.remove(key);
         }
 
         // 增加 dirty 计数 (用于 RDB 触发)
         dirty.incrementAndGet();
+        signalModifiedKey(key);
     }
 
     @Override
     public boolean remove(String key) {
-        ttlMap.remove(key);
-        boolean removed = memoryDb.remove(key) != null;
+        lockForWrite(key);
+        expires.remove(key);
+        RedisData<?> data = memoryDb.remove(key);
+        boolean removed = data != null;
         if (removed) {
+            addUsedMemory(-data.getMemory());
+            data.releaseValue();
             dirty.incrementAndGet();
+            signalModifiedKey(key);
         }
         return removed;
     }
 
     @Override
     public void flush() {
+        clear();
+        signalFlushed();
+    }
+
+    @Override
+    public void flushAsync() {
+        detach();
+        signalFlushed();
+    }
+
+    // 清空数据但不发送失效通知 (分片存储清空全部分区后统一通知一次)
+    void clear() {
+        // 堆外的大值逐个归还 chunk
+        if (OffHeapArena.getInstance().getLiveValues() > 0) {
+            memoryDb.releaseValues();
+        }
         memoryDb.clear();
-        ttlMap.clear();
+        expires.clear();
+        evictionPool.clear();
+        usedMemory.set(0);
         dirty.incrementAndGet(); // Flush 算一次巨大的修改
     }
 
+    /**
+     * 换上新的空表，旧表整体交给 GC (O(1))
+     * <p>
+     * JVM 中回收不可达对象不需要业务线程参与，大对象也不必拆开逐个释放；
+     * 同步清空真正耗时的是逐个桶地 clear。
+     * <p>
+     * 旧表中的堆外值不能等 GC：句柄可能早已晋升到老年代，Cleaner 迟迟不运行，
+     * 新写入却会不断申请新的 slab，直到堆外内存耗尽。所以由后台线程遍历旧表逐个释放，
+     * 释放完之前这部分内存仍计入 used_memory。正在遍历旧表的 BGSAVE 读到已释放的值时会重新读取 key，
+     * 此时 key 已被清空，按不存在处理。
+     */
+    void detach() {
+        Keyspace detached = memoryDb;
+        memoryDb = newKeyspace();
+        expires = newExpireIndex();
+        evictionPool.clear();
+        dirty.incrementAndGet();
+
+        long detachedMemory = usedMemory.get();
+        if (OffHeapArena.getInstance().getLiveValues() == 0) {
+            addUsedMemory(-detachedMemory);
+            return;
+        }
+        LAZY_FREE.execute(() -> {
+            try {
+                detached.releaseValues();
+            } finally {
+                addUsedMemory(-detachedMemory);
+            }
+        });
+    }
+
+    void signalFlushed() {
+        if (trackingManager != null) {
+            trackingManager.invalidateAll();
+        }
+        if (watchManager != null) {
+            watchManager.touchDb(dbIndex);
+        }
+    }
+
     @Override
     public Object getLock(String key) {
         // 单线程架构下不再需要锁，保留此方法兼容接口
@@ -104,13 +294,94 @@ public class MemoryStorageEngine implements StorageEngine {
     @Override
     public void appendAof(RedisArray command) {
         if (aofManager != null) {
-            aofManager.append(command);
+            aofManager.append(dbIndex, command);
         }
     }
 
+    @Override
+    public long tryOptimisticRead(String key) {
+        return keyLocks == null ? 0 : keyLocks.tryOptimisticRead(key);
+    }
+
+    @Override
+    public boolean validateRead(String key, long stamp) {
+        return keyLocks != null && keyLocks.validate(key, stamp);
+    }
+
+    @Override
+    public RedisData<?> peek(String key) {
+        RedisData<?> data = memoryDb.get(key);
+        return data == null || data.isExpired() ? null : data;
+    }
+
+    @Override
+    public RedisData<?> peekFromBackground(String key) {
+        return memoryDb.isConcurrent() ? peek(key) : onOwner(() -> peek(key));
+    }
+
     @Override
     public Iterable<String> keys() {
-        return memoryDb.keySet();
+        Keyspace keyspace = memoryDb;
+        if (keyspace.isConcurrent()) {
+            return keyspace.keys();
+        }
+        List<String> keys = new ArrayList<>(keyspace.size());
+        forEachEntry((key, data) -> keys.add(key));
+        return keys;
+    }
+
+    /**
+     * REDIS_DICT 键空间：每次回到所属线程用游标取一批 (不会长时间占用所属线程)，在调用线程上消费。
+     * 遍历期间发生扩容时个别 key 可能返回两次
+     */
+    @Override
+    public void forEachEntry(BiConsumer<String, RedisData<?>> consumer) {
+        Keyspace keyspace = memoryDb;
+        if (keyspace.isConcurrent()) {
+            StorageEngine.super.forEachEntry(consumer);
+            return;
+        }
+        List<Map.Entry<String, RedisData<?>>> batch = new ArrayList<>(SCAN_BATCH);
+        long cursor = 0;
+        do {
+            long current = cursor;
+            cursor = onOwner(() -> keyspace.scan(current, SCAN_BATCH, (key, data) -> {
+                if (!data.isExpired()) batch.add(Map.entry(key, data));
+            }));
+            for (Map.Entry<String, RedisData<?>> entry : batch) {
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+            batch.clear();
+        } while (cursor != 0);
+    }
+
+    /**
+     * 直接在当前线程遍历键空间 (SCAN 命令在所属线程上执行)，已过期的 key 跳过但不在遍历中删除
+     */
+    @Override
+    public long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        return memoryDb.scan(cursor, count, (key, data) -> {
+            if (!data.isExpired()) visitor.accept(key, data);
+        });
+    }
+
+    /**
+     * 在所属线程上执行并等待结果 (调用方不能是其他分片的执行线程，否则可能互相等待)
+     */
+    private <T> T onOwner(Supplier<T> task) {
+        RedisCoreExecutor executor = owner;
+        if (executor == null || executor.inEventLoop()) {
+            return task.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.submit(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.join();
     }
 
     @Override
@@ -125,6 +396,48 @@ public class MemoryStorageEngine implements StorageEngine {
         return dirty.get();
     }
 
+    @Override
+    public long getExpiredKeys() {
+        return expiredKeys.get();
+    }
+
+    // 其他线程 (INFO) 读到的是近似值
+    @Override
+    public long size() {
+        return memoryDb.size();
+    }
+
+    // 带 TTL 的 key 数 (包括已过期但尚未删除的)，其他线程读到的是近似值
+    @Override
+    public long expiresSize() {
+        return expires.size();
+    }
+
+    @Override
+    public int getDbIndex() {
+        return dbIndex;
+    }
+
+    @Override
+    public void setDbIndex(int dbIndex) {
+        this.dbIndex = dbIndex;
+    }
+
+    @Override
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    @Override
+    public long getUsedMemoryPeak() {
+        return usedMemoryPeak;
+    }
+
+    @Override
+    public long getEvictedKeys() {
+        return evictedKeys.get();
+    }
+
     @Override
     public long getLastSaveTime() {
         return lastSaveTime;
@@ -138,30 +451,213 @@ public class MemoryStorageEngine implements StorageEngine {
 
     // --- 内部逻辑 ---
 
-    private void activeExpireCycle() {
-        if (ttlMap.isEmpty()) return;
+    private void lockForWrite(String key) {
+        if (keyLocks != null) {
+            keyLocks.lockForWrite(key);
+        }
+    }
+
+    // 对应 Redis 的 signalModifiedKey：通知客户端缓存失效
+    private void signalModifiedKey(String key) {
+        if (trackingManager != null) {
+            trackingManager.invalidateKey(key);
+        }
+        if (watchManager != null) {
+            watchManager.touch(dbIndex, key);
+        }
+    }
+
+    @Override
+    public boolean activeExpireCycle(RedisCoreExecutor executor, long deadline) {
+        return owner == executor && activeExpireCycle(deadline);
+    }
+
+    /**
+     * 主动过期 (在所属线程上执行)：由过期索引决定回收哪些 key，到截止时间为止，剩下的留给下一个周期。
+     * 本周期删除的 key 合并成批量 DEL 写入 AOF，重放时不必依赖各自的过期时间。
+     *
+     * @return 时间预算是否已经用完
+     */
+    boolean activeExpireCycle(long deadline) {
+        ExpireIndex index = expires;
+        if (index.size() == 0) return false;
+
+        int effort = MiniRedisConfig.getInstance().getActiveExpireEffort() - 1;
+        long now = ServerClock.update();
+        List<String> expired = new ArrayList<>();
+        index.activeExpire(now, effort, deadline, key -> {
+            if (!expireKey(key)) return false;
+            expired.add(key);
+            return true;
+        });
+        propagateDeletes(expired);
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * 只对这个数据库运行一个完整预算的周期
+     */
+    void activeExpireCycle() {
+        activeExpireCycle(System.nanoTime() + ActiveExpireCron.timeLimitNanos(expires.periodMillis()));
+    }
+
+    // 调用前过期索引已经移除该 key
+    private boolean expireKey(String key) {
+        lockForWrite(key);
+        RedisData<?> data = memoryDb.get(key);
+        if (data == null || !data.isExpired()) return false;
+        memoryDb.remove(key);
+        addUsedMemory(-data.getMemory());
+        data.releaseValue();
+        dirty.incrementAndGet(); // 过期删除也算修改
+        expiredKeys.incrementAndGet();
+        signalModifiedKey(key);
+        return true;
+    }
+
+    // 本轮主动过期 / 淘汰删除的 key 合并成批量 DEL 写入 AOF
+    private void propagateDeletes(List<String> keys) {
+        if (aofManager == null) return;
+        for (int from = 0; from < keys.size(); from += DELETE_PROPAGATE_BATCH) {
+            int to = Math.min(keys.size(), from + DELETE_PROPAGATE_BATCH);
+            RedisMessage[] del = new RedisMessage[to - from + 1];
+            del[0] = DEL;
+            for (int i = from; i < to; i++) {
+                del[i - from + 1] = new BulkString(keys.get(i));
+            }
+            aofManager.append(dbIndex, new RedisArray(del));
+        }
+    }
 
-        // 每次随机抽查 20 个
-        int sampleSize = 20;
-        int expiredCount = 0;
-        long now = System.currentTimeMillis();
+    // --- 内存统计与淘汰 ---
 
-        Iterator<Map.Entry<String, Long>> iterator = ttlMap.entrySet().iterator();
-        int loop = 0;
+    @Override
+    public void refreshMemoryUsage(String key) {
+        RedisData<?> data = memoryDb.get(key);
+        if (data != null) account(key, data);
+    }
+
+    private void account(String key, RedisData<?> data) {
+        long size = MemoryEstimator.sizeOf(key, data);
+        long delta = size - data.getMemory();
+        if (delta != 0) {
+            data.setMemory(size);
+            addUsedMemory(delta);
+        }
+    }
+
+    private void addUsedMemory(long delta) {
+        long used = usedMemory.addAndGet(delta);
+        if (used > usedMemoryPeak) usedMemoryPeak = used;
+    }
+
+    private void initAccess(RedisData<?> data) {
+        long now = ServerClock.now();
+        data.setLru(MiniRedisConfig.getInstance().getMaxmemoryPolicy().isLfu()
+                ? AccessClock.lfuInit(now) : AccessClock.lruClock(now));
+    }
 
-        while (iterator.hasNext() && loop < sampleSize) {
-            Map.Entry<String, Long> entry = iterator.next();
-            if (now > entry.getValue()) {
-                memoryDb.remove(entry.getKey());
-                iterator.remove();
-                expiredCount++;
-                dirty.incrementAndGet(); // 过期删除也算修改
+    /**
+     * 对应 Redis lookupKey 中的 updateLFU / LRU_CLOCK (后台遍历不更新)
+     * <p>
+     * IO 线程乐观读也会调用：与所属线程的写入可能互相覆盖，只会丢掉一次访问记录 (与 Redis 的多线程读一样不加锁)；
+     * 类型与时钟共用的 int 中类型创建后不再改变，不会被写坏。
+     */
+    static void touch(RedisData<?> data) {
+        MiniRedisConfig config = MiniRedisConfig.getInstance();
+        long now = ServerClock.now();
+        if (config.getMaxmemoryPolicy().isLfu()) {
+            data.setLru(AccessClock.lfuTouch(data.getLru(), now, config.getLfuLogFactor(), config.getLfuDecayTime()));
+        } else {
+            data.setLru(AccessClock.lruClock(now));
+        }
+    }
+
+    @Override
+    public boolean performEvictions(long limit) {
+        return limit <= 0 || evictUntil(limit);
+    }
+
+    /**
+     * 按 maxmemory-policy 淘汰，直到估算内存不超过 limit (在所属线程上调用)
+     * <p>
+     * 与 Redis 一样是近似算法：每次取样 maxmemory-samples 个 key 放进候选池，淘汰池中分数最高的一个，
+     * 候选池跨轮保留，取样数很小也能接近真正的 LRU / LFU。本轮淘汰的 key 合并成 DEL 写入 AOF。
+     *
+     * @return false 表示仍然超出 (noeviction，或者已经没有可淘汰的 key)
+     */
+    boolean evictUntil(long limit) {
+        if (usedMemory.get() <= limit) return true;
+        MiniRedisConfig config = MiniRedisConfig.getInstance();
+        MaxmemoryPolicy policy = config.getMaxmemoryPolicy();
+        if (policy == MaxmemoryPolicy.NOEVICTION) return false;
+
+        List<String> evicted = new ArrayList<>();
+        while (usedMemory.get() > limit) {
+            String key = selectVictim(policy, config.getMaxmemorySamples(), config.getLfuDecayTime());
+            if (key == null) break;
+            if (evictKey(key)) evicted.add(key);
+        }
+        propagateDeletes(evicted);
+        return usedMemory.get() <= limit;
+    }
+
+    private String selectVictim(MaxmemoryPolicy policy, int samples, int decayTime) {
+        boolean volatileOnly = policy.isVolatile();
+        if (policy == MaxmemoryPolicy.ALLKEYS_RANDOM || policy == MaxmemoryPolicy.VOLATILE_RANDOM) {
+            String[] picked = new String[1];
+            for (int attempt = 0; attempt < EVICTION_MAX_ATTEMPTS; attempt++) {
+                int sampled = volatileOnly
+                        ? expires.sample(1, key -> picked[0] = key)
+                        : memoryDb.sample(1, (key, data) -> picked[0] = key);
+                if (sampled == 0) return null;
+                if (memoryDb.get(picked[0]) != null) return picked[0];
             }
-            loop++;
+            return null;
         }
 
-        if (expiredCount > 5) {
-            // 如果过期比例高，可以尝试立即再跑一次 (简化逻辑暂不实现)
+        long now = ServerClock.now();
+        for (int attempt = 0; attempt < EVICTION_MAX_ATTEMPTS; attempt++) {
+            int sampled;
+            if (volatileOnly) {
+                sampled = expires.sample(samples, key -> {
+                    RedisData<?> data = memoryDb.get(key);
+                    if (data != null) evictionPool.offer(key, evictionScore(policy, data, now, decayTime));
+                });
+            } else {
+                sampled = memoryDb.sample(samples,
+                        (key, data) -> evictionPool.offer(key, evictionScore(policy, data, now, decayTime)));
+            }
+            // 池中的候选可能已经被删除或去掉了 TTL，跳过
+            String key;
+            while ((key = evictionPool.pollBest()) != null) {
+                RedisData<?> data = memoryDb.get(key);
+                if (data != null && (!volatileOnly || data.getExpireAt() != -1)) return key;
+            }
+            if (sampled == 0) return null;
         }
+        return null;
+    }
+
+    // 分数越高越先淘汰
+    private static long evictionScore(MaxmemoryPolicy policy, RedisData<?> data, long now, int decayTime) {
+        return switch (policy) {
+            case ALLKEYS_LFU, VOLATILE_LFU -> 255 - AccessClock.lfuCounter(data.getLru(), now, decayTime);
+            case VOLATILE_TTL -> Long.MAX_VALUE - data.getExpireAt();
+            default -> AccessClock.idleMillis(data.getLru(), now);
+        };
+    }
+
+    private boolean evictKey(String key) {
+        lockForWrite(key);
+        expires.remove(key);
+        RedisData<?> data = memoryDb.remove(key);
+        if (data == null) return false;
+        addUsedMemory(-data.getMemory());
+        data.releaseValue();
+        dirty.incrementAndGet();
+        evictedKeys.incrementAndGet();
+        signalModifiedKey(key);
+        return true;
     }
 }
@@ -0,0 +1,145 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * IO 线程执行只读命令时使用的存储视图 (每个 IO 线程一个，不跨线程共享)
+ * <p>
+ * get 时先记下 key 所在分段的乐观 stamp 再读取 (不做惰性删除)，命令执行完后由调用方 {@link #validate()}。
+ * 读到的 key 同样更新 LRU/LFU 访问时钟，只被读取的热 key 不会被 maxmemory 当成冷数据淘汰。
+ * 任何写操作、全量遍历都会抛出 {@link Fallback}，让命令回落到核心线程执行。
+ */
+public final class OptimisticReadView implements StorageEngine {
+
+    /**
+     * 需要回落到核心线程 (预分配、不收集栈，抛出成本很低)
+     */
+    public static final class Fallback extends RuntimeException {
+        private Fallback() {
+            super("optimistic read fallback", null, false, false);
+        }
+    }
+
+    private static final Fallback FALLBACK = new Fallback();
+
+    // 命令开始前绑定到连接所选的数据库 (SELECT / SWAPDB 后会变)
+    private StorageEngine delegate;
+
+    private String[] keys = new String[4];
+    private long[] stamps = new long[4];
+    private int size;
+
+    public OptimisticReadView(StorageEngine delegate) {
+        this.delegate = delegate;
+    }
+
+    public void bind(StorageEngine delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 本次读取期间访问过的分段都没有被写过
+     */
+    public boolean validate() {
+        for (int i = 0; i < size; i++) {
+            if (!delegate.validateRead(keys[i], stamps[i])) return false;
+        }
+        return true;
+    }
+
+    public void reset() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public RedisData<?> get(String key) {
+        long stamp = delegate.tryOptimisticRead(key);
+        if (stamp == 0) throw FALLBACK; // 分段正在被写
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            stamps = Arrays.copyOf(stamps, size * 2);
+        }
+        keys[size] = key;
+        stamps[size++] = stamp;
+        RedisData<?> data = delegate.peek(key);
+        if (data != null) MemoryStorageEngine.touch(data);
+        return data;
+    }
+
+    @Override
+    public RedisData<?> peek(String key) {
+        return get(key);
+    }
+
+    @Override
+    public void put(String key, RedisData<?> data) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public boolean remove(String key) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public void flush() {
+        throw FALLBACK;
+    }
+
+    @Override
+    public void flushAsync() {
+        throw FALLBACK;
+    }
+
+    @Override
+    public Object getLock(String key) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public BlockingManager getBlockingManager() {
+        throw FALLBACK;
+    }
+
+    @Override
+    public void appendAof(RedisArray command) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public void executeOnOwner(String key, Runnable task) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        throw FALLBACK;
+    }
+
+    @Override
+    public long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        throw FALLBACK;
+    }
+
+    @Override
+    public long getDirty() {
+        return delegate.getDirty();
+    }
+
+    @Override
+    public long getLastSaveTime() {
+        return delegate.getLastSaveTime();
+    }
+
+    @Override
+    public void resetDirty() {
+        throw FALLBACK;
+    }
+}
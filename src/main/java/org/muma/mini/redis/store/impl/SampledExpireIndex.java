@@ -0,0 +1,92 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.store.structure.impl.dict.RedisDict;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 随机取样的过期索引 (对应 Redis activeExpireCycle 的慢速模式)
+ * <p>
+ * 【取样】每轮从随机的桶取一批 key，删除其中已过期的；
+ * 过期比例超过可接受值说明还有大量过期 key，继续下一轮，否则结束。
+ * 随机取样保证整张表都会被抽到，不会总是只检查同一段。
+ * <p>
+ * 【时间预算】每 16 轮检查一次耗时，超过截止时间就结束，
+ * 避免大批 key 同时过期时长时间占住执行线程。
+ */
+final class SampledExpireIndex implements ExpireIndex {
+
+    // 周期 (对应 Redis 默认 hz 10)
+    static final long PERIOD_MS = 100;
+    // 每轮取样的 key 数、可接受的过期比例 (%)，effort 每增加 1 相应调整
+    private static final int KEYS_PER_LOOP = 20;
+    private static final int ACCEPTABLE_STALE = 10;
+
+    private final RedisDict<String, Long> expires = new RedisDict<>();
+
+    @Override
+    public void put(String key, long expireAt) {
+        expires.put(key, expireAt);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (expires.size() > 0) expires.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return expires.size();
+    }
+
+    @Override
+    public void clear() {
+        expires.clear();
+    }
+
+    @Override
+    public long periodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void activeExpire(long now, int effort, long deadline, Predicate<String> expirer) {
+        if (expires.size() == 0) return;
+
+        int keysPerLoop = KEYS_PER_LOOP + KEYS_PER_LOOP / 4 * effort;
+        int acceptableStale = ACCEPTABLE_STALE - effort;
+        List<String> sampledKeys = new ArrayList<>(keysPerLoop);
+        List<Long> sampledTimes = new ArrayList<>(keysPerLoop);
+        int iteration = 0;
+        boolean repeat;
+        do {
+            sampledKeys.clear();
+            sampledTimes.clear();
+            int sampled = expires.sample(keysPerLoop, (key, expireAt) -> {
+                sampledKeys.add(key);
+                sampledTimes.add(expireAt);
+            });
+            if (sampled == 0) break;
+
+            int expired = 0;
+            for (int i = 0; i < sampled; i++) {
+                if (now <= sampledTimes.get(i)) continue;
+                String key = sampledKeys.get(i);
+                // 同一轮可能取到同一个 key 两次
+                if (expires.remove(key) != null && expirer.test(key)) {
+                    expired++;
+                }
+            }
+            if ((++iteration & 0xf) == 0 && System.nanoTime() > deadline) break;
+            repeat = expired * 100 > sampled * acceptableStale;
+        } while (repeat);
+    }
+
+    @Override
+    public int sample(int count, Consumer<String> visitor) {
+        return expires.sample(count, (key, value) -> visitor.accept(key));
+    }
+}
@@ -0,0 +1,455 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * 分片存储 (server.shards > 1 时启用)
+ * <p>
+ * 【结构】
+ * 键空间按 key 哈希拆成 N 个 {@link MemoryStorageEngine} 分区，分区 i 只由分片线程 i 读写。
+ * 命令拿到的仍是这一个组合视图，get/put/remove 按 key 路由到所属分区，命令实现无需感知分片。
+ * 跨分片的多 key 命令由 {@link org.muma.mini.redis.server.ShardRouter} 暂停全部分片后在协调线程上执行。
+ * <p>
+ * 【哈希标签】
+ * 与 Redis Cluster 一致：key 中含有非空的 {tag} 时只对 tag 计算哈希，
+ * 需要一起操作的 key 可以借此落在同一分片 (如 {user:1}:name 与 {user:1}:tags)，从而不走跨分片路径。
+ */
+public class ShardedStorageEngine implements StorageEngine {
+
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    // SCAN 游标：高 16 位为分区下标，低 48 位为分区内游标
+    private static final int SCAN_PARTITION_SHIFT = 48;
+    private static final long SCAN_CURSOR_MASK = (1L << SCAN_PARTITION_SHIFT) - 1;
+
+    private final MemoryStorageEngine[] partitions;
+    private final RedisCoreExecutor[] executors;
+
+    // 阻塞等待按 (数据库, key) 登记，与分片无关，所有分区 (以及所有数据库) 共享
+    private final BlockingManager blockingManager;
+
+    private AofManager aofManager;
+
+    private TrackingManager trackingManager;
+
+    private WatchManager watchManager;
+
+    private volatile int dbIndex;
+
+    private volatile long lastSaveTime = System.currentTimeMillis();
+
+    public ShardedStorageEngine(RedisCoreExecutor[] executors) {
+        this(executors, new BlockingManager());
+    }
+
+    /**
+     * @param executors       每个分片的执行线程，分片数即数组长度
+     * @param blockingManager 服务器共用的阻塞管理器
+     */
+    public ShardedStorageEngine(RedisCoreExecutor[] executors, BlockingManager blockingManager) {
+        this.executors = executors;
+        this.blockingManager = blockingManager;
+        this.partitions = new MemoryStorageEngine[executors.length];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new MemoryStorageEngine(blockingManager);
+            partitions[i].setOwner(executors[i]);
+        }
+    }
+
+    public int getShardCount() {
+        return partitions.length;
+    }
+
+    /**
+     * 各分区主动过期时自己写 AOF (批量 DEL)，也需要持有
+     */
+    public void setAofManager(AofManager aofManager) {
+        this.aofManager = aofManager;
+        for (MemoryStorageEngine partition : partitions) {
+            partition.setAofManager(aofManager);
+        }
+    }
+
+    public void setTrackingManager(TrackingManager trackingManager) {
+        this.trackingManager = trackingManager;
+        for (MemoryStorageEngine partition : partitions) {
+            partition.setTrackingManager(trackingManager);
+        }
+    }
+
+    public void setWatchManager(WatchManager watchManager) {
+        this.watchManager = watchManager;
+        for (MemoryStorageEngine partition : partitions) {
+            partition.setWatchManager(watchManager);
+        }
+    }
+
+    /**
+     * 开启 IO 线程乐观读 (每个分区各自一组分段锁，只被各自的分片线程写锁定)
+     */
+    public void enableOptimisticReads(int stripes) {
+        for (MemoryStorageEngine partition : partitions) {
+            partition.enableOptimisticReads(stripes);
+        }
+    }
+
+    // =========================================================
+    // 分片函数
+    // =========================================================
+
+    /**
+     * 计算 key 所属分片 (请求中的原始字节)
+     * 非 ASCII 的 key 先按 UTF-8 解码，保证与命令实现里 String 形式的 key 落在同一分片
+     */
+    public static int shardOf(byte[] key, int shards) {
+        if (shards == 1) return 0;
+        for (byte b : key) {
+            if (b < 0) {
+                return shardOf(new String(key, StandardCharsets.UTF_8), shards);
+            }
+        }
+        return shardOfUtf8(key, shards);
+    }
+
+    public static int shardOf(String key, int shards) {
+        if (shards == 1) return 0;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return shardOfUtf8(key.getBytes(StandardCharsets.UTF_8), shards);
+            }
+        }
+        int start = 0, end = key.length();
+        int open = key.indexOf('{');
+        if (open >= 0) {
+            int close = key.indexOf('}', open + 1);
+            if (close > open + 1) {
+                start = open + 1;
+                end = close;
+            }
+        }
+        int h = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            h = (h ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return (h & 0x7fffffff) % shards;
+    }
+
+    // '{' '}' 都是 ASCII，UTF-8 多字节序列中不会出现，所以按字节找标签与按字符找结果一致
+    private static int shardOfUtf8(byte[] key, int shards) {
+        int start = 0, end = key.length;
+        int open = indexOf(key, (byte) '{', 0);
+        if (open >= 0) {
+            int close = indexOf(key, (byte) '}', open + 1);
+            if (close > open + 1) {
+                start = open + 1;
+                end = close;
+            }
+        }
+        int h = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            h = (h ^ (key[i] & 0xff)) * FNV_PRIME;
+        }
+        return (h & 0x7fffffff) % shards;
+    }
+
+    private static int indexOf(byte[] bytes, byte target, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == target) return i;
+        }
+        return -1;
+    }
+
+    private MemoryStorageEngine partitionOf(String key) {
+        return partitions[shardOf(key, partitions.length)];
+    }
+
+    // =========================================================
+    // StorageEngine
+    // =========================================================
+
+    @Override
+    public RedisData<?> get(String key) {
+        return partitionOf(key).get(key);
+    }
+
+    @Override
+    public RedisData<?> get(byte[] key) {
+        return partitions[shardOf(key, partitions.length)].get(key);
+    }
+
+    @Override
+    public void put(String key, RedisData<?> data) {
+        partitionOf(key).put(key, data);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return partitionOf(key).remove(key);
+    }
+
+    @Override
+    public void flush() {
+        for (MemoryStorageEngine partition : partitions) {
+            partition.clear();
+        }
+        signalFlushed();
+    }
+
+    @Override
+    public void flushAsync() {
+        for (MemoryStorageEngine partition : partitions) {
+            partition.detach();
+        }
+        signalFlushed();
+    }
+
+    private void signalFlushed() {
+        if (trackingManager != null) {
+            trackingManager.invalidateAll();
+        }
+        if (watchManager != null) {
+            watchManager.touchDb(dbIndex);
+        }
+    }
+
+    @Override
+    public Object getLock(String key) {
+        return partitionOf(key).getLock(key);
+    }
+
+    @Override
+    public BlockingManager getBlockingManager() {
+        return blockingManager;
+    }
+
+    @Override
+    public void appendAof(RedisArray command) {
+        if (aofManager != null) {
+            aofManager.append(dbIndex, command);
+        }
+    }
+
+    @Override
+    public void executeOnOwner(String key, Runnable task) {
+        RedisCoreExecutor owner = executors[shardOf(key, partitions.length)];
+        if (owner.inEventLoop()) {
+            task.run();
+        } else {
+            owner.submit(task); // 普通任务在写作用域内执行，见 RedisCoreExecutor#runTask
+        }
+    }
+
+    @Override
+    public long tryOptimisticRead(String key) {
+        return partitionOf(key).tryOptimisticRead(key);
+    }
+
+    @Override
+    public boolean validateRead(String key, long stamp) {
+        return partitionOf(key).validateRead(key, stamp);
+    }
+
+    @Override
+    public RedisData<?> peek(String key) {
+        return partitionOf(key).peek(key);
+    }
+
+    @Override
+    public RedisData<?> peekFromBackground(String key) {
+        return partitionOf(key).peekFromBackground(key);
+    }
+
+    /**
+     * 依次遍历各分区 (每个分区都是弱一致性迭代器)
+     */
+    @Override
+    public void forEachEntry(BiConsumer<String, RedisData<?>> consumer) {
+        for (MemoryStorageEngine partition : partitions) {
+            partition.forEachEntry(consumer);
+        }
+    }
+
+    /**
+     * 按分区顺序遍历，一个分区遍历完后游标跳到下一个分区的起点
+     * (访问全部分区，SCAN 带 all_shards 标志，在协调线程上执行)
+     */
+    @Override
+    public long scan(long cursor, int count, BiConsumer<String, RedisData<?>> visitor) {
+        int index = (int) (cursor >>> SCAN_PARTITION_SHIFT);
+        if (index >= partitions.length) return 0;
+        long next = partitions[index].scan(cursor & SCAN_CURSOR_MASK, count, visitor);
+        if (next != 0) return ((long) index << SCAN_PARTITION_SHIFT) | next;
+        return index + 1 < partitions.length ? (long) (index + 1) << SCAN_PARTITION_SHIFT : 0;
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return () -> new Iterator<>() {
+            private int index = 0;
+            private Iterator<String> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && index < partitions.length) {
+                    current = partitions[index++].keys().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * 只有 executor 所属的分区会执行
+     */
+    @Override
+    public boolean activeExpireCycle(RedisCoreExecutor executor, long deadline) {
+        for (MemoryStorageEngine partition : partitions) {
+            if (partition.activeExpireCycle(executor, deadline)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int getDbIndex() {
+        return dbIndex;
+    }
+
+    /**
+     * 各分区自己写 AOF (过期、淘汰的批量 DEL)，编号一并下发
+     */
+    @Override
+    public void setDbIndex(int dbIndex) {
+        this.dbIndex = dbIndex;
+        for (MemoryStorageEngine partition : partitions) {
+            partition.setDbIndex(dbIndex);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long expiresSize() {
+        long size = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            size += partition.expiresSize();
+        }
+        return size;
+    }
+
+    @Override
+    public long getExpiredKeys() {
+        long expired = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            expired += partition.getExpiredKeys();
+        }
+        return expired;
+    }
+
+    // --- 内存上限 ---
+
+    @Override
+    public void refreshMemoryUsage(String key) {
+        partitionOf(key).refreshMemoryUsage(key);
+    }
+
+    /**
+     * 每个分区各占上限的 1/N，只淘汰自己的 key (key 按哈希均匀分布，各分区的份额大致够用)：
+     * 分片线程上只处理自己的分区；协调线程上 (全部分片已暂停) 依次处理所有分区
+     */
+    @Override
+    public boolean performEvictions(long limit) {
+        if (limit <= 0) return true;
+        long share = limit / partitions.length;
+        for (int i = 0; i < partitions.length; i++) {
+            if (executors[i].inEventLoop()) {
+                return partitions[i].evictUntil(share);
+            }
+        }
+        boolean ok = true;
+        for (MemoryStorageEngine partition : partitions) {
+            ok &= partition.evictUntil(share);
+        }
+        return ok;
+    }
+
+    @Override
+    public long getUsedMemory() {
+        long used = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            used += partition.getUsedMemory();
+        }
+        return used;
+    }
+
+    /**
+     * 各分区峰值之和 (各分区的峰值不一定出现在同一时刻，是实际峰值的上界)
+     */
+    @Override
+    public long getUsedMemoryPeak() {
+        long peak = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            peak += partition.getUsedMemoryPeak();
+        }
+        return peak;
+    }
+
+    @Override
+    public long getEvictedKeys() {
+        long evicted = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            evicted += partition.getEvictedKeys();
+        }
+        return evicted;
+    }
+
+    // --- RDB 支持 ---
+
+    @Override
+    public long getDirty() {
+        long dirty = 0;
+        for (MemoryStorageEngine partition : partitions) {
+            dirty += partition.getDirty();
+        }
+        return dirty;
+    }
+
+    @Override
+    public long getLastSaveTime() {
+        return lastSaveTime;
+    }
+
+    @Override
+    public void resetDirty() {
+        for (MemoryStorageEngine partition : partitions) {
+            partition.resetDirty();
+        }
+        lastSaveTime = System.currentTimeMillis();
+    }
+}
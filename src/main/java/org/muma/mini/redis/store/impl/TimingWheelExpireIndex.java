@@ -0,0 +1,208 @@
+package org.muma.mini.redis.store.impl;
+
+import org.muma.mini.redis.store.structure.impl.dict.RedisDict;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 分层时间轮过期索引 (backend.expire_index=TIMING_WHEEL)
+ * <p>
+ * 【结构】四层轮子：1ms × 1000 (1 秒)、1s × 60 (1 分钟)、1min × 60 (1 小时)、1h × 24 (1 天)。
+ * key 按剩余时间挂到能容纳它的最低一层，槽位由到期时刻决定；
+ * 高层的槽转到时把其中的 key 按剩余时间重新挂到低层 (级联)，最终在毫秒层到期时刻所在的槽被回收。
+ * 超过一天的 key 挂在小时层，槽转到时若还没到期就再挂一次。
+ * <p>
+ * 【复杂度】登记、取消、到期都是 O(1)：槽内是双向链表，key -> 节点的字典用于修改 TTL 或删除时摘除。
+ * 相比随机取样，大批 key 在很短的时间窗口内过期 (会话类负载) 时不会残留：
+ * 每个周期推进到当前时间，到期的 key 全部回收，回收延迟不超过一个周期。
+ * 代价是每个带 TTL 的 key 多一个链表节点。
+ * <p>
+ * 【时间预算】超过截止时间时停在当前槽，剩下的 key 留在槽里，下个周期从这里继续。
+ */
+final class TimingWheelExpireIndex implements ExpireIndex {
+
+    // 周期：比取样更频繁，回收延迟随之缩短
+    static final long PERIOD_MS = 10;
+
+    private static final long[] TICK_MS = {1, 1000, 60_000, 3_600_000};
+    private static final int[] SLOTS = {1000, 60, 60, 24};
+    private static final int LEVELS = TICK_MS.length;
+
+    // 每回收多少个 key 检查一次耗时
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    private static final class Node {
+        final String key;
+        long expireAt;
+        int level;
+        int slot;
+        Node prev;
+        Node next;
+
+        Node(String key, long expireAt) {
+            this.key = key;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private final RedisDict<String, Node> nodes = new RedisDict<>();
+    private final Node[][] wheels = new Node[LEVELS][];
+    // 每层挂着的 key 数 (低层为空时可以直接跳到高层的下一个槽)
+    private final int[] counts = new int[LEVELS];
+
+    // 已经处理完的时刻 (毫秒)
+    private long current;
+
+    TimingWheelExpireIndex(long now) {
+        for (int level = 0; level < LEVELS; level++) {
+            wheels[level] = new Node[SLOTS[level]];
+        }
+        this.current = now;
+    }
+
+    @Override
+    public void put(String key, long expireAt) {
+        Node node = nodes.get(key);
+        if (node != null) {
+            if (node.expireAt == expireAt) return;
+            unlink(node);
+            node.expireAt = expireAt;
+        } else {
+            node = new Node(key, expireAt);
+            nodes.put(key, node);
+        }
+        link(node);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (nodes.size() == 0) return;
+        Node node = nodes.remove(key);
+        if (node != null) unlink(node);
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        for (int level = 0; level < LEVELS; level++) {
+            wheels[level] = new Node[SLOTS[level]];
+            counts[level] = 0;
+        }
+    }
+
+    @Override
+    public long periodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void activeExpire(long now, int effort, long deadline, Predicate<String> expirer) {
+        // RedisData#isExpired 要求 now > expireAt，处理到 now - 1 为止
+        long limit = now - 1;
+        int processed = 0;
+        while (current < limit) {
+            long t = nextTick(limit);
+            // 先级联高层再处理毫秒层：从高层落下来、正好在 t 到期的 key 同一步回收
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if (t % TICK_MS[level] == 0) cascade(level, t);
+            }
+            int slot = (int) (t % SLOTS[0]);
+            Node node = wheels[0][slot];
+            while (node != null) {
+                Node next = node.next;
+                unlink(node);
+                nodes.remove(node.key);
+                expirer.test(node.key);
+                if (++processed % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    // 停在 t 之前，剩下的 key 还在槽里 (重新级联同一个槽不会改变结果)
+                    current = t - 1;
+                    return;
+                }
+                node = next;
+            }
+            current = t;
+        }
+    }
+
+    /**
+     * 下一个需要处理的时刻：毫秒层有 key 时逐毫秒前进，
+     * 否则直接跳到最低的非空层下一次转槽的时刻 (全部为空时直接到 limit)
+     */
+    private long nextTick(long limit) {
+        long t = current + 1;
+        if (counts[0] > 0) return t;
+        for (int level = 1; level < LEVELS; level++) {
+            if (counts[level] > 0) {
+                long boundary = (t + TICK_MS[level] - 1) / TICK_MS[level] * TICK_MS[level];
+                return Math.min(boundary, limit);
+            }
+        }
+        return limit;
+    }
+
+    // 把高层一个槽里的 key 按剩余时间重新挂到低层
+    private void cascade(int level, long t) {
+        int slot = (int) (t / TICK_MS[level] % SLOTS[level]);
+        Node node = wheels[level][slot];
+        if (node == null) return;
+        wheels[level][slot] = null;
+        long saved = current;
+        current = t - 1;
+        while (node != null) {
+            Node next = node.next;
+            counts[level]--;
+            link(node);
+            node = next;
+        }
+        current = saved;
+    }
+
+    private void link(Node node) {
+        long delta = node.expireAt - current;
+        int level;
+        long at;
+        if (delta <= 0) {
+            // 已经到期：挂到下一个要处理的毫秒槽
+            level = 0;
+            at = current + 1;
+        } else {
+            // 第 level 层能容纳剩余时间不超过 TICK * SLOTS 的 key (正好一圈时落在刚处理过的槽，转一圈后到期)
+            level = 0;
+            while (level < LEVELS - 1 && delta > TICK_MS[level] * SLOTS[level]) {
+                level++;
+            }
+            at = node.expireAt;
+        }
+        int slot = (int) (at / TICK_MS[level] % SLOTS[level]);
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = wheels[level][slot];
+        if (node.next != null) node.next.prev = node;
+        wheels[level][slot] = node;
+        counts[level]++;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            wheels[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        counts[node.level]--;
+    }
+
+    @Override
+    public int sample(int count, Consumer<String> visitor) {
+        return nodes.sample(count, (key, value) -> visitor.accept(key));
+    }
+}
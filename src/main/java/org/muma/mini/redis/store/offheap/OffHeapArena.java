@@ -0,0 +1,153 @@
+package org.muma.mini.redis.store.offheap;
+
+import org.muma.mini.redis.config.MiniRedisConfig;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 大字符串值的堆外 slab 分配器 (offheap-value-threshold)
+ * <p>
+ * 10KB ~ 1MB 的 JSON 之类的大值放在堆上会撑大老年代、拉长 GC 停顿；超过阈值的 STRING 值改为存放在直接内存中，
+ * 堆上只留一个很小的 {@link OffHeapValue} 句柄。
+ * <p>
+ * 【尺寸分级】1KB ~ 1MB，每个 2 的幂区间再分 4 级 (相邻两级相差不超过 25%，对应 jemalloc 的做法)。
+ * 每级按 4MB 一块 (slab) 向系统申请直接内存，切成等长的 chunk 挂在该级的空闲链表上；
+ * 值释放后 chunk 回到空闲链表复用，slab 本身不归还，堆外占用由峰值决定。
+ * 超过最大一级的值单独申请一块直接内存，不进入 slab。
+ * <p>
+ * 【线程】分配在执行写命令的线程上，释放可能发生在 IO 线程 (回包写出后) 或 Cleaner 线程，每级的空闲链表各自加锁。
+ * 直接内存受 -XX:MaxDirectMemorySize 限制 (默认等于最大堆)，需按数据量调大。
+ */
+public final class OffHeapArena {
+
+    static final int MIN_CHUNK = 1024;
+    static final int MAX_CHUNK = 1024 * 1024;
+    private static final int STEPS_PER_DOUBLING = 4;
+    private static final int SLAB_SIZE = 4 * 1024 * 1024;
+
+    private static final OffHeapArena INSTANCE = new OffHeapArena();
+
+    private final SizeClass[] classes;
+    // 已向系统申请的直接内存 (slab + 单独分配)
+    private final AtomicLong reservedBytes = new AtomicLong();
+    // 存活的值实际占用的 chunk 字节数
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong liveValues = new AtomicLong();
+
+    OffHeapArena() {
+        int count = 0;
+        for (int size = MIN_CHUNK; size <= MAX_CHUNK; size = nextSize(size)) count++;
+        classes = new SizeClass[count];
+        int i = 0;
+        for (int size = MIN_CHUNK; size <= MAX_CHUNK; size = nextSize(size)) {
+            classes[i++] = new SizeClass(size);
+        }
+    }
+
+    public static OffHeapArena getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 该值是否应该放在堆外 (阈值为 0 表示关闭)
+     */
+    public static boolean shouldStore(int length) {
+        long threshold = MiniRedisConfig.getInstance().getOffheapValueThreshold();
+        return threshold > 0 && length >= threshold;
+    }
+
+    /**
+     * 把值拷贝进一个空闲 chunk，返回的句柄引用数为 1 (由键空间持有)
+     */
+    public OffHeapValue allocate(byte[] value) {
+        SizeClass sizeClass = classFor(value.length);
+        ByteBuffer chunk;
+        if (sizeClass == null) {
+            chunk = ByteBuffer.allocateDirect(value.length);
+            reservedBytes.addAndGet(value.length);
+        } else {
+            chunk = sizeClass.take();
+        }
+        chunk.put(0, value);
+        usedBytes.addAndGet(chunk.capacity());
+        liveValues.incrementAndGet();
+        return new OffHeapValue(this, sizeClass, chunk, value.length);
+    }
+
+    void free(SizeClass sizeClass, ByteBuffer chunk) {
+        usedBytes.addAndGet(-chunk.capacity());
+        liveValues.decrementAndGet();
+        if (sizeClass != null) {
+            sizeClass.give(chunk);
+        } else {
+            // 单独分配的直接内存随 ByteBuffer 被 GC 回收
+            reservedBytes.addAndGet(-chunk.capacity());
+        }
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getLiveValues() {
+        return liveValues.get();
+    }
+
+    // 能容纳 length 的最小一级，超过最大一级返回 null
+    SizeClass classFor(int length) {
+        if (length > MAX_CHUNK) return null;
+        int lo = 0, hi = classes.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (classes[mid].chunkSize >= length) hi = mid;
+            else lo = mid + 1;
+        }
+        return classes[lo];
+    }
+
+    private static int nextSize(int size) {
+        int base = Integer.highestOneBit(size);
+        return size + base / STEPS_PER_DOUBLING;
+    }
+
+    /**
+     * 一个尺寸级别：等长 chunk 的空闲链表
+     */
+    final class SizeClass {
+
+        final int chunkSize;
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        synchronized ByteBuffer take() {
+            ByteBuffer chunk = free.pollLast();
+            if (chunk != null) return chunk;
+
+            // 空闲链表为空：申请一个新的 slab 切成 chunk
+            int chunks = Math.max(1, SLAB_SIZE / chunkSize);
+            ByteBuffer slab = ByteBuffer.allocateDirect(chunks * chunkSize);
+            reservedBytes.addAndGet(slab.capacity());
+            for (int i = 1; i < chunks; i++) {
+                free.addLast(slab.slice(i * chunkSize, chunkSize));
+            }
+            return slab.slice(0, chunkSize);
+        }
+
+        synchronized void give(ByteBuffer chunk) {
+            free.addLast(chunk);
+        }
+
+        synchronized int freeChunks() {
+            return free.size();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.muma.mini.redis.store.offheap;
+
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCounted;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 存放在 {@link OffHeapArena} 中的一个字符串值 (堆上只有这个句柄)
+ * <p>
+ * 【引用计数】与 Netty 的 ByteBuf 相同：键空间持有 1 个引用，值被覆盖 / 删除 / 过期 / 淘汰时释放；
+ * GET 回包在写出之前另外持有 1 个引用，计数归零时 chunk 才回到空闲链表，不会被写到一半的回包读到别的值。
+ * 后台线程 (BGSAVE、AOF 重写、IO 线程乐观读) 用 {@link #tryRetain()}：值已经被释放时返回 false，调用方按 key 不存在处理。
+ * <p>
+ * 【兜底】没有走到 release 的句柄 (如连接断开时未写出的回包) 被 GC 回收后由 Cleaner 归还 chunk。
+ * 只作为泄漏时的最后手段：键空间中的值 (包括异步 FLUSH 摘下的旧表) 都显式释放。
+ */
+public final class OffHeapValue implements ReferenceCounted {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final AtomicIntegerFieldUpdater<OffHeapValue> REF_CNT =
+            AtomicIntegerFieldUpdater.newUpdater(OffHeapValue.class, "refCnt");
+
+    private final ByteBuffer chunk;
+    private final int length;
+    private final Cleaner.Cleanable cleanable;
+    private volatile int refCnt = 1;
+
+    OffHeapValue(OffHeapArena arena, OffHeapArena.SizeClass sizeClass, ByteBuffer chunk, int length) {
+        this.chunk = chunk;
+        this.length = length;
+        // 释放动作不能引用 this，否则句柄永远不会变成不可达
+        this.cleanable = CLEANER.register(this, () -> arena.free(sizeClass, chunk));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * chunk 的实际大小 (计入 used_memory)
+     */
+    public int capacity() {
+        return chunk.capacity();
+    }
+
+    /**
+     * 只读视图 [0, length)，调用方需持有一个引用直到读完
+     */
+    public ByteBuffer content() {
+        return chunk.asReadOnlyBuffer().limit(length);
+    }
+
+    /**
+     * 拷贝到堆上 (APPEND、SETBIT、持久化等需要 byte[] 的场景)；值已被释放时返回 null
+     */
+    public byte[] copyToHeap() {
+        if (!tryRetain()) return null;
+        try {
+            byte[] bytes = new byte[length];
+            chunk.get(0, bytes);
+            return bytes;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 引用数不为 0 时加 1
+     */
+    public boolean tryRetain() {
+        for (; ; ) {
+            int count = refCnt;
+            if (count == 0) return false;
+            if (REF_CNT.compareAndSet(this, count, count + 1)) return true;
+        }
+    }
+
+    @Override
+    public int refCnt() {
+        return refCnt;
+    }
+
+    @Override
+    public OffHeapValue retain() {
+        return retain(1);
+    }
+
+    @Override
+    public OffHeapValue retain(int increment) {
+        for (; ; ) {
+            int count = refCnt;
+            if (count == 0) throw new IllegalReferenceCountException(0, increment);
+            if (REF_CNT.compareAndSet(this, count, count + increment)) return this;
+        }
+    }
+
+    @Override
+    public OffHeapValue touch() {
+        return this;
+    }
+
+    @Override
+    public OffHeapValue touch(Object hint) {
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return release(1);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        for (; ; ) {
+            int count = refCnt;
+            if (count < decrement) throw new IllegalReferenceCountException(count, -decrement);
+            if (REF_CNT.compareAndSet(this, count, count - decrement)) {
+                if (count == decrement) {
+                    // 至多执行一次，之后 Cleaner 不会再归还
+                    cleanable.clean();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -4,7 +4,10 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 
+import org.muma.mini.redis.store.KeyStripeLocks;
 import org.muma.mini.redis.util.MurmurHash3;
 
 /**
@@ -28,6 +31,12 @@ public class RedisDict<K, V> implements Dict<K, V> {
     // 负载因子 1.0 (Redis 倾向于更满一点再扩容，以节省内存)
     private static final float LOAD_FACTOR = 1.0f;
 
+    // 每步迁移最多跳过的空桶数 (对应 Redis dictRehash 的 empty_visits)，表很稀疏时单步耗时也有上限
+    private static final int EMPTY_VISITS = 10;
+
+    // 元素数不足桶数的 1/8 时缩容 (对应 Redis 的 HASHTABLE_MIN_FILL)，大量删除后释放桶数组
+    private static final int MIN_FILL = 8;
+
     // 两个哈希表，table[1] 仅在 rehash 时非空
     // 数组大小必须是 2 的幂次方
     @SuppressWarnings("unchecked")
@@ -61,7 +70,8 @@ public class RedisDict<K, V> implements Dict<K, V> {
 
     @Override
     public V get(K key) {
-        if (isRehashing()) rehashStep(); // 渐进式迁移一步
+        // 渐进式迁移一步 (IO 线程乐观读时只读不迁移)
+        if (isRehashing() && !KeyStripeLocks.isOptimisticRead()) rehashStep();
 
         // 1. 先查旧表
         V val = findInTable(ht0, key);
@@ -117,20 +127,16 @@ public class RedisDict<K, V> implements Dict<K, V> {
 
         // 1. 尝试从旧表删除
         V val = removeFromTable(ht0, key);
-        if (val != null) {
-            size--;
-            return val;
-        }
 
         // 2. 尝试从新表删除
-        if (isRehashing()) {
+        if (val == null && isRehashing()) {
             val = removeFromTable(ht1, key);
-            if (val != null) {
-                size--;
-                return val;
-            }
         }
-        return null;
+        if (val != null) {
+            size--;
+            checkShrink();
+        }
+        return val;
     }
 
     @Override
@@ -169,6 +175,104 @@ public class RedisDict<K, V> implements Dict<K, V> {
         return values;
     }
 
+    /**
+     * 清空 (直接换上初始大小的新表)
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        ht0 = new Node[INITIAL_CAPACITY];
+        ht1 = null;
+        rehashIdx = -1;
+        size = 0;
+    }
+
+    /**
+     * 游标遍历 (对应 Redis dictScan 的反向二进制游标)
+     * <p>
+     * 游标从高位开始递增，表扩容后，已访问过的桶在新表中展开出的桶都排在游标之前。
+     * 因此遍历开始前已存在、遍历期间没有被删除的元素至少返回一次 (可能重复)。
+     * rehash 期间先访问小表的桶，再访问大表中由它展开出的全部桶。
+     * 每次调用只访问一个 (或一组对应的) 桶，不推进 rehash；visitor 中不能修改字典。
+     *
+     * @param cursor 0 表示开始
+     * @return 下一个游标，0 表示遍历结束
+     */
+    public long scan(long cursor, BiConsumer<K, V> visitor) {
+        if (size == 0) return 0;
+        long v = cursor;
+
+        if (!isRehashing()) {
+            long m0 = ht0.length - 1;
+            visitBucket(ht0[(int) (v & m0)], visitor);
+            // 把未被掩码覆盖的高位置 1，反转后加 1 再反转：相当于从高位递增
+            v |= ~m0;
+            v = Long.reverse(Long.reverse(v) + 1);
+            return v;
+        }
+
+        Node<K, V>[] small = ht0;
+        Node<K, V>[] large = ht1;
+        if (small.length > large.length) {
+            small = ht1;
+            large = ht0;
+        }
+        long m0 = small.length - 1;
+        long m1 = large.length - 1;
+
+        visitBucket(small[(int) (v & m0)], visitor);
+        // 大表中所有低位与小表桶下标相同的桶
+        do {
+            visitBucket(large[(int) (v & m1)], visitor);
+            v |= ~m1;
+            v = Long.reverse(Long.reverse(v) + 1);
+        } while ((v & (m0 ^ m1)) != 0);
+        return v;
+    }
+
+    /**
+     * 随机取样 (对应 Redis dictGetRandomKey)：每次随机选一个桶，再在桶内随机选一个元素，最多取 count 个 (可能重复)
+     * <p>
+     * 不从随机起点连续取相邻的桶：调用方删掉取到的元素后，被清理过的区域会被反复抽中，
+     * 样本不能反映整张表的情况。
+     * 取样前先推进 count 步 rehash；rehash 期间把新表与旧表中尚未迁移的部分 [rehashIdx, len) 看作一张表。
+     * 最多探测 count * 10 个桶，稀疏表上返回的元素可能少于 count。visitor 中不能修改字典。
+     *
+     * @return 实际取到的元素个数
+     */
+    public int sample(int count, BiConsumer<K, V> visitor) {
+        if (size == 0 || count <= 0) return 0;
+        for (int i = 0; i < count && isRehashing(); i++) {
+            rehashStep();
+        }
+        int buckets = isRehashing() ? ht1.length + ht0.length - rehashIdx : ht0.length;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int visited = 0;
+        for (long probes = count * 10L; probes > 0 && visited < count; probes--) {
+            Node<K, V> node = bucketAt(random.nextInt(buckets));
+            if (node == null) continue;
+            int length = 0;
+            for (Node<K, V> n = node; n != null; n = n.next) length++;
+            for (int skip = random.nextInt(length); skip > 0; skip--) node = node.next;
+            visitor.accept(node.key, node.value);
+            visited++;
+        }
+        return visited;
+    }
+
+    // 取样用的桶编号：rehash 期间先是新表的全部桶，再接旧表中尚未迁移的桶
+    private Node<K, V> bucketAt(int pos) {
+        if (!isRehashing()) return ht0[pos];
+        return pos < ht1.length ? ht1[pos] : ht0[rehashIdx + pos - ht1.length];
+    }
+
+    private void visitBucket(Node<K, V> node, BiConsumer<K, V> visitor) {
+        while (node != null) {
+            visitor.accept(node.key, node.value);
+            node = node.next;
+        }
+    }
+
     public List<Map.Entry<K, V>> entries() {
         List<Map.Entry<K, V>> entries = new ArrayList<>(size);
         collectEntries(ht0, entries);
@@ -196,6 +300,16 @@ public class RedisDict<K, V> implements Dict<K, V> {
         }
     }
 
+    /**
+     * 检查是否需要缩容：缩到能装下全部元素的最小 2 的幂 (rehash 过程与扩容相同)
+     */
+    private void checkShrink() {
+        if (isRehashing() || ht0.length <= INITIAL_CAPACITY || (long) size * MIN_FILL >= ht0.length) return;
+        int newSize = INITIAL_CAPACITY;
+        while (newSize <= size) newSize <<= 1;
+        startRehash(newSize);
+    }
+
     @SuppressWarnings("unchecked")
     private void startRehash(int newSize) {
         // System.out.println("DEBUG: Start rehashing to size " + newSize);
@@ -216,13 +330,15 @@ public class RedisDict<K, V> implements Dict<K, V> {
         int steps = 1;
         while (steps-- > 0 && rehashIdx < ht0.length) {
 
-            // 跳过空桶
+            // 跳过空桶 (最多 EMPTY_VISITS 个，剩下的留给下一步)
+            int emptyVisits = EMPTY_VISITS;
             while (ht0[rehashIdx] == null) {
                 rehashIdx++;
                 if (rehashIdx >= ht0.length) {
                     finishRehash();
                     return;
                 }
+                if (--emptyVisits == 0) return;
             }
 
             // 迁移当前桶的所有节点
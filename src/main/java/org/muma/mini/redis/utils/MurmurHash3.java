@@ -5,6 +5,9 @@ import java.nio.charset.StandardCharsets;
 /**
  * MurmurHash3 x86 32-bit 实现
  * 适合 RedisDict 的 bucket 索引计算
+ * <p>
+ * - {@link #hash32}：与参考实现一致，RedisDict 与 {@link org.muma.mini.redis.common.RedisKey} 使用
+ * - {@link #hash32Legacy}：早期的 tail 处理，只保留给布隆过滤器 (位图已持久化)
  */
 public class MurmurHash3 {
 
@@ -14,9 +17,44 @@ public class MurmurHash3 {
 
     public static int hash32(byte[] data) {
         int length = data.length;
-        int h1 = SEED;
         int roundedEnd = (length & 0xfffffffc);  // round down to 4 byte block
 
+        // tail：剩下的 1-3 个字节同样按小端拼成一个 block
+        int k1 = 0;
+        switch (length & 0x03) {
+            case 3:
+                k1 = (data[roundedEnd + 2] & 0xff) << 16;
+            case 2:
+                k1 |= (data[roundedEnd + 1] & 0xff) << 8;
+            case 1:
+                k1 |= (data[roundedEnd] & 0xff);
+        }
+        return finish(body(data, roundedEnd), k1, length);
+    }
+
+    /**
+     * 早期版本的 tail 处理 (长度模 4 余 2、3 时取错字节，与参考实现不一致)
+     * <p>
+     * 只给布隆过滤器使用：位图随 RDB/AOF 持久化，换哈希会让已加入的元素查不到 (假阴性)。
+     */
+    public static int hash32Legacy(byte[] data) {
+        int length = data.length;
+        int roundedEnd = (length & 0xfffffffc);
+
+        int k1 = 0;
+        switch (length & 0x03) {
+            case 3:
+                k1 = (data[length - 1] & 0xff) << 16;
+            case 2:
+                k1 |= (data[length - 2] & 0xff) << 8;
+            case 1:
+                k1 |= (data[length - 1] & 0xff);
+        }
+        return finish(body(data, roundedEnd), k1, length);
+    }
+
+    private static int body(byte[] data, int roundedEnd) {
+        int h1 = SEED;
         for (int i = 0; i < roundedEnd; i += 4) {
             // little-endian load
             int k1 = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
@@ -28,20 +66,15 @@ public class MurmurHash3 {
             h1 = Integer.rotateLeft(h1, 13);
             h1 = h1 * 5 + 0xe6546b64;
         }
+        return h1;
+    }
 
-        // tail
-        int k1 = 0;
-        switch (length & 0x03) {
-            case 3:
-                k1 = (data[length - 1] & 0xff) << 16;
-            case 2:
-                k1 |= (data[length - 2] & 0xff) << 8;
-            case 1:
-                k1 |= (data[length - 1] & 0xff);
-                k1 *= C1;
-                k1 = Integer.rotateLeft(k1, 15);
-                k1 *= C2;
-                h1 ^= k1;
+    private static int finish(int h1, int k1, int length) {
+        if ((length & 0x03) != 0) {
+            k1 *= C1;
+            k1 = Integer.rotateLeft(k1, 15);
+            k1 *= C2;
+            h1 ^= k1;
         }
 
         // finalization
@@ -13,6 +13,7 @@ public class ScanUtil {
         public String matchPattern;
         public int count = 10; // Default
         public Pattern regex;  // Compiled regex (can be null)
+        public String type;    // SCAN ... TYPE type (小写，null 表示不过滤)
 
         public boolean match(byte[] item) {
             if (regex == null) return true;
@@ -34,6 +35,13 @@ public class ScanUtil {
      * @param startIndex 可选参数开始的索引 (SSCAN 是 3: key cursor ...)
      */
     public static ScanParams parse(RedisMessage[] elements, int startIndex) {
+        return parse(elements, startIndex, false);
+    }
+
+    /**
+     * @param allowType 是否接受 TYPE 选项 (只有 SCAN 支持)
+     */
+    public static ScanParams parse(RedisMessage[] elements, int startIndex, boolean allowType) {
         ScanParams params = new ScanParams();
 
         for (int i = startIndex; i < elements.length; i += 2) {
@@ -55,6 +63,8 @@ public class ScanUtil {
                 } catch (NumberFormatException e) {
                     throw new IllegalArgumentException("ERR value is not an integer or out of range");
                 }
+            } else if (allowType && "TYPE".equals(opt)) {
+                params.type = val.toLowerCase();
             } else {
                 throw new IllegalArgumentException("ERR syntax error");
             }
@@ -109,7 +109,7 @@ class HashIntegrationTest {
         hSet.execute(storage, args("HSET", "u1", "k1", "v1"), null);
         hSet.execute(storage, args("HSET", "u1", "k2", "v2"), null);
 
-        RedisArray result = (RedisArray) hGetAll.execute(storage, args("HGETALL", "u1"), null);
+        MapMessage result = (MapMessage) hGetAll.execute(storage, args("HGETALL", "u1"), null);
         RedisMessage[] elements = result.elements();
 
         assertEquals(4, elements.length);
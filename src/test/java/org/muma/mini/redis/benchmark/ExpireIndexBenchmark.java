@@ -0,0 +1,135 @@
+package org.muma.mini.redis.benchmark;
+
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.ExpireIndexBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.impl.ActiveExpireCron;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 过期索引对比：SAMPLING vs TIMING_WHEEL
+ * <p>
+ * 模拟会话类负载：N 个 key 的过期时间均匀落在几秒的窗口内 (回收速度在时间预算之内)，
+ * 统计 "已过期但还占着内存" 的 key 数峰值、最后一个 key 到期后多久全部回收，
+ * 以及过期索引每个 key 的内存开销。
+ */
+public class ExpireIndexBenchmark {
+
+    private static final int KEYS = 200_000;
+    private static final long WINDOW_START_MS = 2_000;
+    private static final long WINDOW_MS = 4_000;
+    private static final long POLL_MS = 5;
+
+    public static void main(String[] args) throws Exception {
+        for (ExpireIndexBackend backend : ExpireIndexBackend.values()) {
+            run(backend);
+        }
+        // 核心线程不是守护线程
+        System.exit(0);
+    }
+
+    private static void run(ExpireIndexBackend backend) throws Exception {
+        System.out.println("========== " + backend + " ==========");
+        long overhead = indexBytesPerKey(backend);
+        System.out.println("Expire index overhead: ~" + overhead + " bytes/key");
+
+        RedisCoreExecutor owner = new RedisCoreExecutor();
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT, backend);
+        long start = ServerClock.update();
+        long[] deadlines = fill(storage, start + WINDOW_START_MS, true);
+        Arrays.sort(deadlines);
+        long lastDeadline = deadlines[deadlines.length - 1];
+        storage.setOwner(owner);
+        MiniRedisConfig.getInstance().setExpireIndexBackend(backend);
+        ActiveExpireCron cron = new ActiveExpireCron(new Databases(storage), new RedisCoreExecutor[]{owner});
+        cron.start();
+
+        long maxStale = 0;
+        long staleSum = 0;
+        int samples = 0;
+        long reclaimedAt = -1;
+        while (reclaimedAt < 0) {
+            Thread.sleep(POLL_MS);
+            long now = System.currentTimeMillis();
+            long alive = deadlines.length - upperBound(deadlines, now - 1);
+            long stale = KEYS - storage.getExpiredKeys() - alive;
+            if (now >= deadlines[0]) {
+                maxStale = Math.max(maxStale, stale);
+                staleSum += stale;
+                samples++;
+            }
+            if (storage.getExpiredKeys() == KEYS) {
+                reclaimedAt = now;
+            } else if (now - lastDeadline > 60_000) {
+                System.out.println("Gave up waiting, still " + stale + " expired keys in memory");
+                break;
+            }
+        }
+        System.out.printf("Expired-but-resident keys: max %d, avg %.0f%n", maxStale,
+                samples == 0 ? 0.0 : (double) staleSum / samples);
+        if (reclaimedAt > 0) {
+            System.out.println("All keys reclaimed " + (reclaimedAt - lastDeadline) + " ms after the last deadline");
+        }
+        cron.shutdown();
+    }
+
+    private static long[] fill(MemoryStorageEngine storage, long windowStart, boolean withTtl) {
+        Random random = new Random(7);
+        long[] deadlines = new long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, new byte[0]);
+            deadlines[i] = windowStart + (long) (random.nextDouble() * WINDOW_MS);
+            if (withTtl) data.setExpireAt(deadlines[i]);
+            storage.put("session:" + i, data);
+        }
+        return deadlines;
+    }
+
+    // 同样的 key 带 TTL 与不带 TTL 的堆占用之差
+    private static long indexBytesPerKey(ExpireIndexBackend backend) {
+        long far = ServerClock.update() + 3_600_000;
+        MemoryStorageEngine plain = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT, backend);
+        long before = usedHeap();
+        fill(plain, far, false);
+        long withoutTtl = usedHeap() - before;
+        Reference.reachabilityFence(plain);
+        plain = null;
+
+        MemoryStorageEngine indexed = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT, backend);
+        before = usedHeap();
+        fill(indexed, far, true);
+        long withTtl = usedHeap() - before;
+        // 测量期间保持引擎可达，否则 JIT 可以提前回收它
+        Reference.reachabilityFence(indexed);
+        return (withTtl - withoutTtl) / KEYS;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // 第一个大于 value 的下标
+    private static int upperBound(long[] sorted, long value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
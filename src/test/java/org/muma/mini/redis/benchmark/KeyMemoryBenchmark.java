@@ -0,0 +1,50 @@
+package org.muma.mini.redis.benchmark;
+
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 每个 key 的堆内存开销
+ * <p>
+ * 写入 N 个小字符串 key (默认 1000 万，"key:{i}" -> 10 字节的值)，用前后的堆占用之差除以 N，
+ * 分别统计两种键空间实现，以及同样的 key 全部是整数计数器 (INT 编码) 时的开销。
+ * 需要足够的堆：1000 万个 key 建议 -Xmx4g 以上，参数可以指定 key 数。
+ */
+public class KeyMemoryBenchmark {
+
+    private static final byte[] VALUE = "value:0123".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.println("Keys: " + keys + ", value: " + VALUE.length + " bytes");
+        for (KeyspaceBackend backend : KeyspaceBackend.values()) {
+            System.out.printf("%-20s string  %6.1f bytes/key%n", backend, bytesPerKey(backend, keys, false));
+            System.out.printf("%-20s counter %6.1f bytes/key%n", backend, bytesPerKey(backend, keys, true));
+        }
+        // 存储引擎的后台线程不是守护线程
+        System.exit(0);
+    }
+
+    private static double bytesPerKey(KeyspaceBackend backend, int keys, boolean counters) {
+        long before = usedHeap();
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), backend);
+        for (int i = 0; i < keys; i++) {
+            storage.put("key:" + i, counters ? RedisData.ofLong(i % 100) : RedisData.ofString(VALUE.clone()));
+        }
+        long used = usedHeap() - before;
+        if (storage.size() != keys) throw new IllegalStateException("lost keys"); // 保持 storage 可达
+        return (double) used / keys;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -17,6 +17,9 @@ import java.util.concurrent.CountDownLatch;
 /**
  * Mini-Redis 终极基准测试工具
  * 特性：预热 + 多轮取平均 + 流水线压测
+ * <p>
+ * 用法：MiniRedisBenchmark [pipeline]
+ * pipeline = 每个连接同时在途的请求数，1 表示一问一答，默认 50 (流水线模式)
  */
 public class MiniRedisBenchmark {
 
@@ -31,6 +34,9 @@ public class MiniRedisBenchmark {
     private static final int WARMUP_ROUNDS = 3;
     private static final int MEASURE_ROUNDS = 5;
 
+    // 流水线深度 (每个连接最多在途请求数)
+    private static int pipeline = 50;
+
     // --- Commands Pre-allocation ---
     // 1. String
     private static final ByteBuf SET_CMD = buf("*3\r\n$3\r\nSET\r\n$3\r\nfoo\r\n$3\r\nbar\r\n");
@@ -57,8 +63,12 @@ public class MiniRedisBenchmark {
     }
 
     public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0) {
+            pipeline = Math.max(1, Integer.parseInt(args[0]));
+        }
+
         System.out.println("========== Mini-Redis Ultimate Benchmark ==========");
-        System.out.println("Config: " + CONCURRENCY + " clients, " + REQUESTS_PER_CLIENT + " reqs/client");
+        System.out.println("Config: " + CONCURRENCY + " clients, " + REQUESTS_PER_CLIENT + " reqs/client, pipeline " + pipeline);
         System.out.println("Strategy: " + WARMUP_ROUNDS + " Warmup + " + MEASURE_ROUNDS + " Measure Rounds (Avg without min/max)");
         System.out.println("---------------------------------------------------");
 
@@ -168,7 +178,8 @@ public class MiniRedisBenchmark {
         }
 
         private void flushBatch(ChannelHandlerContext ctx) {
-            int batch = Math.min(50, REQUESTS_PER_CLIENT - sent);
+            // 补齐到 pipeline 个在途请求
+            int batch = Math.min(pipeline - (sent - received), REQUESTS_PER_CLIENT - sent);
             if (batch <= 0) return;
 
             for (int i = 0; i < batch; i++) {
@@ -188,7 +199,8 @@ public class MiniRedisBenchmark {
                         latch.countDown();
                         return;
                     }
-                    if (received % 20 == 0 && sent < REQUESTS_PER_CLIENT) {
+                    // 在途请求降到一半以下时补发 (pipeline=1 时即一问一答)
+                    if ((sent - received) * 2 <= pipeline && sent < REQUESTS_PER_CLIENT) {
                         flushBatch(ctx);
                     }
                 }
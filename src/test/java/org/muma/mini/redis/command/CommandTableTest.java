@@ -0,0 +1,92 @@
+package org.muma.mini.redis.command;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.store.StorageEngine;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTableTest {
+
+    private static final RedisCommand NOOP = new RedisCommand() {
+        @Override
+        public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+            return null;
+        }
+    };
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static CommandTable tableOf(String... names) {
+        CommandTable table = new CommandTable();
+        for (String name : names) {
+            table.register(new CommandSpec(name, NOOP, -1, 0, 0, 0, 0));
+        }
+        table.build();
+        return table;
+    }
+
+    @Test
+    void testCaseInsensitiveLookup() {
+        CommandTable table = tableOf("GET", "SET", "BF.ADD", "ZREMRANGEBYSCORE");
+
+        assertEquals("GET", table.lookup(bytes("get")).name());
+        assertEquals("SET", table.lookup(bytes("sEt")).name());
+        assertEquals("BF.ADD", table.lookup(bytes("bf.add")).name());
+        assertEquals("ZREMRANGEBYSCORE", table.lookup(bytes("zremrangebyscore")).name());
+    }
+
+    @Test
+    void testUnknownCommands() {
+        CommandTable table = tableOf("GET", "SET");
+
+        assertNull(table.lookup(bytes("GETX")));
+        assertNull(table.lookup(bytes("GE")));
+        assertNull(table.lookup(bytes("")));
+        assertNull(table.lookup(bytes("A_VERY_LONG_UNKNOWN_COMMAND_NAME")));
+    }
+
+    @Test
+    void testFoldedHashCollisionStillCompared() {
+        CommandTable table = tableOf("X@Y");
+        // '@' 与 '`' 经过 & 0xDF 折叠后相同 (哈希落在同一槽)，但它们不是字母，比较时必须区分
+        assertNull(table.lookup(bytes("x`y")));
+        assertNotNull(table.lookup(bytes("x@y")));
+    }
+
+    /**
+     * 完美哈希：大量命令名也必须全部无冲突地命中
+     */
+    @Test
+    void testManyCommandsAllResolvable() {
+        String[] names = new String[200];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "CMD" + i;
+        }
+        CommandTable table = tableOf(names);
+        for (String name : names) {
+            assertEquals(name, table.lookup(bytes(name.toLowerCase())).name());
+        }
+    }
+
+    @Test
+    void testArityAndFlags() {
+        CommandSpec exact = new CommandSpec("GET", NOOP, 2, CommandSpec.parseFlags("readonly fast"), 1, 1, 1);
+        assertTrue(exact.checkArity(2));
+        assertFalse(exact.checkArity(3));
+        assertTrue(exact.hasFlag(CommandSpec.FLAG_READONLY));
+        assertFalse(exact.isWrite());
+
+        CommandSpec atLeast = new CommandSpec("SET", NOOP, -3, CommandSpec.parseFlags("write denyoom"), 1, 1, 1);
+        assertFalse(atLeast.checkArity(2));
+        assertTrue(atLeast.checkArity(5));
+        assertTrue(atLeast.isWrite());
+        assertEquals(java.util.List.of("write", "denyoom"), atLeast.flagNames());
+    }
+}
@@ -0,0 +1,44 @@
+package org.muma.mini.redis.command;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    /**
+     * 每个值都落在 highestValue 不小于它、且相对误差不超过 1/16 的桶中；桶下标单调不减
+     */
+    @Test
+    void testBucketBoundsAndPrecision() {
+        int lastIndex = 0;
+        for (long v = 0; v < 1_000_000; v += 1 + v / 100) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(index >= lastIndex, "index must not decrease at " + v);
+            long high = LatencyHistogram.highestValueOf(index);
+            assertTrue(high >= v, "bucket upper bound below value " + v);
+            assertTrue(high - v <= v / 16, "bucket too wide at " + v);
+            lastIndex = index;
+        }
+        // 超出范围的值计入最后一个桶
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertArrayEquals(new long[]{0, 0}, histogram.percentiles(50, 99));
+
+        // 1..1000 微秒各一次
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long[] p = histogram.percentiles(50, 99, 99.9);
+        assertEquals(500_000, p[0], 500_000 / 16.0);
+        assertEquals(990_000, p[1], 990_000 / 16.0);
+        assertEquals(999_000, p[2], 999_000 / 16.0);
+
+        histogram.reset();
+        assertArrayEquals(new long[]{0}, histogram.percentiles(50));
+    }
+}
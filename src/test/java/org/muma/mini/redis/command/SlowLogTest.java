@@ -0,0 +1,71 @@
+package org.muma.mini.redis.command;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowLogTest {
+
+    private static RedisArray args(String... args) {
+        RedisMessage[] msgs = new RedisMessage[args.length];
+        for (int i = 0; i < args.length; i++) {
+            msgs[i] = new BulkString(args[i]);
+        }
+        return new RedisArray(msgs);
+    }
+
+    @Test
+    void testThreshold() {
+        SlowLog slowLog = new SlowLog(100, 8);
+        assertFalse(slowLog.isSlow(99_999));
+        assertTrue(slowLog.isSlow(100_000));
+
+        assertTrue(new SlowLog(0, 8).isSlow(0));
+        assertFalse(new SlowLog(-1, 8).isSlow(Long.MAX_VALUE - 1));
+    }
+
+    /**
+     * 环形缓冲写满后覆盖最旧的记录；GET 按从新到旧返回
+     */
+    @Test
+    void testRingKeepsLatestEntries() {
+        SlowLog slowLog = new SlowLog(0, 3);
+        for (int i = 0; i < 5; i++) {
+            slowLog.record(args("GET", "k" + i), 2_000L * i, null);
+        }
+        assertEquals(3, slowLog.size());
+
+        List<SlowLog.Entry> entries = slowLog.latest(-1);
+        assertEquals(List.of(4L, 3L, 2L), entries.stream().map(SlowLog.Entry::id).toList());
+        assertEquals(8, entries.get(0).durationMicros());
+        assertEquals("k4", ((BulkString) entries.get(0).args()[1]).asString());
+        assertEquals(1, slowLog.latest(1).size());
+
+        slowLog.reset();
+        assertEquals(0, slowLog.size());
+        assertTrue(slowLog.latest(10).isEmpty());
+        // id 在 RESET 后继续递增
+        slowLog.record(args("PING"), 0, null);
+        assertEquals(5, slowLog.latest(1).get(0).id());
+    }
+
+    @Test
+    void testArgumentsTruncated() {
+        SlowLog slowLog = new SlowLog(0, 1);
+        String[] many = new String[40];
+        many[0] = "MSET";
+        for (int i = 1; i < many.length; i++) many[i] = "x".repeat(200);
+        slowLog.record(args(many), 0, null);
+
+        RedisMessage[] recorded = slowLog.latest(1).get(0).args();
+        assertEquals(SlowLog.MAX_ARGC, recorded.length);
+        assertEquals("MSET", ((BulkString) recorded[0]).asString());
+        assertEquals("x".repeat(SlowLog.MAX_STRING) + "... (72 more bytes)", ((BulkString) recorded[1]).asString());
+        assertEquals("... (9 more arguments)", ((BulkString) recorded[SlowLog.MAX_ARGC - 1]).asString());
+    }
+}
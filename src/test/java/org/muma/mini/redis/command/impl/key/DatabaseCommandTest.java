@@ -0,0 +1,164 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbLoader;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.rdb.RdbSaver;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DatabaseCommandTest {
+
+    private Databases databases;
+    private AofManager aofManager;
+    private CommandDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        WatchManager watchManager = new WatchManager();
+        MemoryStorageEngine[] engines = new MemoryStorageEngine[4];
+        for (int i = 0; i < engines.length; i++) {
+            engines[i] = new MemoryStorageEngine();
+            engines[i].setWatchManager(watchManager);
+        }
+        databases = new Databases(engines);
+        aofManager = mock(AofManager.class);
+        ClientRegistry registry = new ClientRegistry();
+        dispatcher = new CommandDispatcher(databases, aofManager, mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), watchManager);
+    }
+
+    private RedisMessage run(RedisContext context, String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), context);
+    }
+
+    private static String bulk(RedisMessage message) {
+        return ((BulkString) message).asString();
+    }
+
+    @Test
+    void testSelectIsPerConnection() {
+        RedisContext a = new RedisContext(null);
+        RedisContext b = new RedisContext(null);
+        run(a, "SET", "k", "db0");
+        assertSame(SimpleString.OK, run(b, "SELECT", "2"));
+        assertNull(bulk(run(b, "GET", "k")));
+        run(b, "SET", "k", "db2");
+
+        assertEquals("db0", bulk(run(a, "GET", "k")));
+        assertEquals("db2", bulk(run(b, "GET", "k")));
+        assertNotNull(databases.get(2).get("k"));
+
+        assertInstanceOf(ErrorMessage.class, run(b, "SELECT", "4"));
+        assertInstanceOf(ErrorMessage.class, run(b, "SELECT", "x"));
+        assertEquals(2, b.getDbIndex());
+
+        // 写命令连同数据库编号写入 AOF
+        verify(aofManager).append(eq(0), any());
+        verify(aofManager).append(eq(2), any());
+    }
+
+    @Test
+    void testMove() {
+        RedisContext client = new RedisContext(null);
+        run(client, "SET", "k", "v");
+        assertEquals(RedisInteger.of(1), run(client, "MOVE", "k", "1"));
+        assertNull(databases.get(0).get("k"));
+        assertEquals("v", new String(databases.get(1).get("k").getValue(byte[].class)));
+
+        // 不存在 / 目标库已有同名 key
+        assertEquals(RedisInteger.of(0), run(client, "MOVE", "k", "1"));
+        run(client, "SET", "k", "other");
+        assertEquals(RedisInteger.of(0), run(client, "MOVE", "k", "1"));
+        assertNotNull(databases.get(0).get("k"));
+
+        assertInstanceOf(ErrorMessage.class, run(client, "MOVE", "k", "0"));
+        assertInstanceOf(ErrorMessage.class, run(client, "MOVE", "k", "9"));
+    }
+
+    @Test
+    void testSwapDbExchangesKeyspacesAndDirtiesWatch() {
+        RedisContext a = new RedisContext(null);
+        RedisContext b = new RedisContext(null);
+        run(a, "SET", "k", "db0");
+        run(b, "SELECT", "1");
+        run(b, "SET", "k", "db1");
+        StorageEngine db0 = databases.get(0);
+
+        run(a, "WATCH", "k");
+        assertSame(SimpleString.OK, run(b, "SWAPDB", "0", "1"));
+        // 只交换引用
+        assertSame(db0, databases.get(1));
+        assertEquals(1, db0.getDbIndex());
+        assertEquals("db1", bulk(run(a, "GET", "k")));
+        assertEquals("db0", bulk(run(b, "GET", "k")));
+
+        run(a, "MULTI");
+        run(a, "SET", "k", "x");
+        assertNull(((RedisArray) run(a, "EXEC")).elements());
+
+        assertInstanceOf(ErrorMessage.class, run(a, "SWAPDB", "0", "4"));
+    }
+
+    @Test
+    void testFlushDbOnlyClearsSelectedDatabase() {
+        RedisContext client = new RedisContext(null);
+        run(client, "SET", "a", "1");
+        run(client, "SELECT", "3");
+        run(client, "SET", "b", "2");
+
+        run(client, "FLUSHDB");
+        assertEquals(0, databases.get(3).size());
+        assertEquals(1, databases.get(0).size());
+
+        run(client, "SET", "b", "2");
+        run(client, "FLUSHALL");
+        assertEquals(0, databases.get(0).size());
+        assertEquals(0, databases.get(3).size());
+    }
+
+    @Test
+    void testRdbKeepsDatabaseIds() throws IOException {
+        RedisContext client = new RedisContext(null);
+        run(client, "SET", "a", "1");
+        run(client, "SELECT", "2");
+        run(client, "SET", "b", "2");
+
+        File file = new File("target/database_command_test.rdb");
+        try {
+            new RdbSaver(databases).save(file);
+            Databases restored = new Databases(new MemoryStorageEngine(), new MemoryStorageEngine(),
+                    new MemoryStorageEngine(), new MemoryStorageEngine());
+            new RdbLoader(restored).load(file);
+
+            assertNotNull(restored.get(0).get("a"));
+            assertNull(restored.get(0).get("b"));
+            assertNotNull(restored.get(2).get("b"));
+
+            // 数据库数量变少时拒绝加载
+            assertThrows(IOException.class, () -> new RdbLoader(new Databases(new MemoryStorageEngine())).load(file));
+        } finally {
+            file.delete();
+        }
+    }
+}
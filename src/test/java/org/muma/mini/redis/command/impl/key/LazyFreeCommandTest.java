@@ -0,0 +1,131 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * FLUSHALL / FLUSHDB 的 ASYNC / SYNC 选项与 UNLINK
+ */
+class LazyFreeCommandTest {
+
+    private MemoryStorageEngine[] engines;
+    private Databases databases;
+    private CommandDispatcher dispatcher;
+    private final RedisContext client = new RedisContext(null);
+
+    @BeforeEach
+    void setUp() {
+        WatchManager watchManager = new WatchManager();
+        engines = new MemoryStorageEngine[3];
+        for (int i = 0; i < engines.length; i++) {
+            engines[i] = spy(new MemoryStorageEngine());
+        }
+        databases = new Databases(engines);
+        ClientRegistry registry = new ClientRegistry();
+        dispatcher = new CommandDispatcher(databases, mock(AofManager.class), mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), watchManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MiniRedisConfig.getInstance().setLazyfreeLazyUserFlush(false);
+    }
+
+    private RedisMessage run(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), client);
+    }
+
+    @Test
+    void testFlushAllAsyncAndSync() {
+        run("SET", "a", "1");
+        run("SELECT", "2");
+        run("SET", "b", "2");
+
+        assertSame(SimpleString.OK, run("FLUSHALL", "async"));
+        verify(engines[0]).flushAsync();
+        verify(engines[2]).flushAsync();
+        // 已经为空的数据库跳过
+        verify(engines[1], never()).flushAsync();
+        verify(engines[0], never()).flush();
+        assertEquals(0, databases.get(0).size());
+        assertEquals(0, databases.get(2).size());
+
+        run("SET", "b", "3");
+        assertSame(SimpleString.OK, run("FLUSHALL", "SYNC"));
+        verify(engines[2]).flush();
+        verify(engines[2]).flushAsync();
+        assertEquals(0, databases.get(2).size());
+    }
+
+    @Test
+    void testFlushDbOptions() {
+        run("SET", "a", "1");
+        assertSame(SimpleString.OK, run("FLUSHDB", "ASYNC"));
+        verify(engines[0]).flushAsync();
+        assertEquals(0, databases.get(0).size());
+
+        run("SET", "a", "1");
+        assertSame(SimpleString.OK, run("FLUSHDB", "sync"));
+        verify(engines[0]).flush();
+        assertEquals(0, databases.get(0).size());
+    }
+
+    @Test
+    void testInvalidFlushArguments() {
+        run("SET", "a", "1");
+        assertInstanceOf(ErrorMessage.class, run("FLUSHALL", "LATER"));
+        assertInstanceOf(ErrorMessage.class, run("FLUSHDB", "ASYNC", "SYNC"));
+        assertInstanceOf(ErrorMessage.class, run("FLUSHALL", "SYNC", "ASYNC"));
+        verify(engines[0], never()).flush();
+        verify(engines[0], never()).flushAsync();
+        assertEquals(1, databases.get(0).size());
+    }
+
+    /**
+     * 不带选项时由 lazyfree-lazy-user-flush 决定
+     */
+    @Test
+    void testDefaultModeFollowsLazyUserFlush() {
+        run("SET", "a", "1");
+        run("FLUSHALL");
+        verify(engines[0]).flush();
+        verify(engines[0], never()).flushAsync();
+
+        MiniRedisConfig.getInstance().setLazyfreeLazyUserFlush(true);
+        run("SET", "a", "1");
+        run("FLUSHDB");
+        verify(engines[0]).flushAsync();
+        verify(engines[0], times(1)).flush();
+        assertEquals(0, databases.get(0).size());
+    }
+
+    @Test
+    void testUnlinkDeletesAndCounts() {
+        run("SET", "a", "1");
+        run("SET", "b", "2");
+        run("RPUSH", "list", "x", "y");
+
+        assertEquals(RedisInteger.of(3), run("UNLINK", "a", "list", "missing", "b"));
+        assertEquals(0, databases.get(0).size());
+        assertEquals(RedisInteger.of(0), run("UNLINK", "a"));
+        assertInstanceOf(ErrorMessage.class, run("UNLINK"));
+    }
+}
@@ -0,0 +1,131 @@
+package org.muma.mini.redis.command.impl.key;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.common.RedisList;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+import org.muma.mini.redis.store.impl.ShardedStorageEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanCommandTest {
+
+    private final ScanCommand scan = new ScanCommand();
+
+    private static RedisArray args(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return new RedisArray(elements);
+    }
+
+    private static void fill(StorageEngine storage, int n) {
+        for (int i = 0; i < n; i++) {
+            storage.put("key:" + i, new RedisData<>(RedisDataType.STRING, ("v" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * 按游标走完一整轮，返回看到的全部 key (同时检查 COUNT 的上限)
+     */
+    private Set<String> scanAll(StorageEngine storage, String... options) {
+        Set<String> seen = new HashSet<>();
+        String cursor = "0";
+        int calls = 0;
+        do {
+            String[] parts = new String[2 + options.length];
+            parts[0] = "SCAN";
+            parts[1] = cursor;
+            System.arraycopy(options, 0, parts, 2, options.length);
+            RedisArray reply = (RedisArray) scan.execute(storage, args(parts), null);
+            cursor = ((BulkString) reply.elements()[0]).asString();
+            for (RedisMessage key : ((RedisArray) reply.elements()[1]).elements()) {
+                seen.add(((BulkString) key).asString());
+            }
+            assertTrue(++calls < 100_000, "scan did not terminate");
+        } while (!"0".equals(cursor));
+        return seen;
+    }
+
+    @Test
+    void testDictKeyspaceScanVisitsEveryKeyDuringRehash() {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT);
+        fill(storage, 1000);
+
+        // 遍历中途继续插入触发扩容，遍历开始前就存在的 key 一个都不能少
+        Set<String> seen = new HashSet<>();
+        String cursor = "0";
+        int extra = 1000;
+        do {
+            RedisArray reply = (RedisArray) scan.execute(storage, args("SCAN", cursor, "COUNT", "20"), null);
+            cursor = ((BulkString) reply.elements()[0]).asString();
+            RedisMessage[] keys = ((RedisArray) reply.elements()[1]).elements();
+            // 一次调用只访问约 COUNT 个 key (一个桶内的 key 一起返回)
+            assertTrue(keys.length < 60);
+            for (RedisMessage key : keys) seen.add(((BulkString) key).asString());
+            for (int i = 0; i < 50; i++, extra++) {
+                storage.put("key:" + extra, new RedisData<>(RedisDataType.STRING, new byte[0]));
+            }
+        } while (!"0".equals(cursor));
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.contains("key:" + i), "missing key:" + i);
+        }
+    }
+
+    @Test
+    void testConcurrentKeyspaceScan() {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.CONCURRENT_HASHMAP);
+        fill(storage, 500);
+        assertEquals(500, scanAll(storage, "COUNT", "7").size());
+
+        // 每一步只返回约 COUNT 个 key，删除的 key 不再出现
+        RedisArray reply = (RedisArray) scan.execute(storage, args("SCAN", "0", "COUNT", "7"), null);
+        assertNotEquals("0", ((BulkString) reply.elements()[0]).asString());
+        assertTrue(((RedisArray) reply.elements()[1]).elements().length < 30);
+        for (int i = 0; i < 250; i++) storage.remove("key:" + i);
+        Set<String> seen = scanAll(storage, "COUNT", "7");
+        assertEquals(250, seen.size());
+        assertFalse(seen.contains("key:0"));
+        storage.flush();
+        assertEquals(Set.of(), scanAll(storage));
+    }
+
+    @Test
+    void testMatchAndType() {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT);
+        fill(storage, 100);
+        storage.put("list:1", new RedisData<>(RedisDataType.LIST, new RedisList()));
+
+        assertEquals(Set.of("key:7", "key:70", "key:71", "key:72", "key:73", "key:74", "key:75", "key:76",
+                "key:77", "key:78", "key:79"), scanAll(storage, "MATCH", "key:7*"));
+        assertEquals(Set.of("list:1"), scanAll(storage, "TYPE", "list"));
+        assertEquals(100, scanAll(storage, "TYPE", "STRING").size());
+
+        assertInstanceOf(ErrorMessage.class, scan.execute(storage, args("SCAN", "x"), null));
+        assertInstanceOf(ErrorMessage.class, scan.execute(storage, args("SCAN", "0", "TYPE", "nope"), null));
+        assertInstanceOf(ErrorMessage.class, scan.execute(storage, args("SCAN", "0", "COUNT"), null));
+    }
+
+    @Test
+    void testShardedScanWalksAllPartitions() {
+        RedisCoreExecutor[] executors = new RedisCoreExecutor[3];
+        for (int i = 0; i < executors.length; i++) executors[i] = new RedisCoreExecutor();
+        ShardedStorageEngine storage = new ShardedStorageEngine(executors);
+        fill(storage, 300);
+
+        assertEquals(300, scanAll(storage, "COUNT", "10").size());
+    }
+}
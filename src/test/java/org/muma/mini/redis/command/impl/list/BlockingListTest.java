@@ -9,6 +9,7 @@ import org.muma.mini.redis.common.RedisData;
 import org.muma.mini.redis.protocol.BulkString;
 import org.muma.mini.redis.protocol.RedisArray;
 import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.BlockingManager;
 import org.muma.mini.redis.server.RedisContext;
 import org.muma.mini.redis.store.StorageEngine;
 import org.muma.mini.redis.store.impl.MemoryStorageEngine;
@@ -118,4 +119,29 @@ class BlockingListTest {
         // 验证没有注册阻塞
         verify(ctx, never()).writeAndFlush(any()); // 只有阻塞回调才会调这个，直接返回则由 Handler 处理
     }
+
+    /**
+     * 所有数据库共用一个 BlockingManager：其他数据库里同名 key 的 Push 不会唤醒客户端
+     */
+    @Test
+    void testSameKeyInOtherDbDoesNotWake() {
+        BlockingManager blockingManager = new BlockingManager();
+        MemoryStorageEngine db0 = new MemoryStorageEngine(blockingManager);
+        MemoryStorageEngine db1 = new MemoryStorageEngine(blockingManager);
+        db1.setDbIndex(1);
+
+        ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+        Channel channel = mock(Channel.class);
+        when(ctx.channel()).thenReturn(channel);
+        when(channel.isActive()).thenReturn(true);
+        assertNull(brPop.execute(db1, args("BRPOP", "list1", "5"), new RedisContext(ctx)));
+
+        lPush.execute(db0, args("LPUSH", "list1", "other"), new RedisContext(null));
+        verify(ctx, never()).writeAndFlush(any());
+        assertNotNull(db0.get("list1"));
+
+        lPush.execute(db1, args("LPUSH", "list1", "hello"), new RedisContext(null));
+        verify(ctx, timeout(1000).times(1)).writeAndFlush(any());
+        assertNull(db1.get("list1"));
+    }
 }
@@ -0,0 +1,110 @@
+package org.muma.mini.redis.command.impl.string;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.SharedIntegers;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CounterCommandTest {
+
+    private MemoryStorageEngine storage;
+    private CommandDispatcher dispatcher;
+    private final RedisContext client = new RedisContext(null);
+
+    @BeforeEach
+    void setUp() {
+        storage = new MemoryStorageEngine();
+        ClientRegistry registry = new ClientRegistry();
+        dispatcher = new CommandDispatcher(storage, mock(AofManager.class), mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), new WatchManager());
+    }
+
+    private RedisMessage run(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), client);
+    }
+
+    @Test
+    void testCountersAreIntEncodedAndUpdatedInPlace() {
+        assertEquals(RedisInteger.of(1), run("INCR", "a"));
+        RedisData<?> a = storage.get("a");
+        assertTrue(a.isIntEncoded());
+
+        run("EXPIRE", "a", "100");
+        long expireAt = a.getExpireAt();
+        assertEquals(RedisInteger.of(11), run("INCRBY", "a", "10"));
+        assertEquals(RedisInteger.of(8), run("DECRBY", "a", "3"));
+        assertEquals(RedisInteger.of(7), run("DECR", "a"));
+        // 同一个对象原地更新，TTL 不变
+        assertSame(a, storage.get("a"));
+        assertEquals(expireAt, a.getExpireAt());
+        assertEquals("7", ((BulkString) run("GET", "a")).asString());
+
+        // 相同的小整数共享同一个 Long
+        run("SET", "b", "7");
+        assertSame(a.getData(), storage.get("b").getData());
+        run("INCRBY", "b", "100000");
+        assertFalse(SharedIntegers.isShared((Long) storage.get("b").getData()));
+    }
+
+    @Test
+    void testRawStringsStillWork() {
+        // 非规范形式保留原始字节
+        run("SET", "k", "007");
+        assertFalse(storage.get("k").isIntEncoded());
+        assertEquals("007", ((BulkString) run("GET", "k")).asString());
+        assertEquals(RedisInteger.of(8), run("INCR", "k"));
+        assertTrue(storage.get("k").isIntEncoded());
+
+        run("SET", "n", "42");
+        assertEquals(RedisInteger.of(3), run("APPEND", "n", "x"));
+        assertEquals("42x", ((BulkString) run("GET", "n")).asString());
+        assertInstanceOf(ErrorMessage.class, run("INCR", "n"));
+        assertEquals(RedisInteger.of(3), run("STRLEN", "n"));
+    }
+
+    @Test
+    void testOverflow() {
+        run("SET", "max", String.valueOf(Long.MAX_VALUE));
+        assertInstanceOf(ErrorMessage.class, run("INCR", "max"));
+        assertInstanceOf(ErrorMessage.class, run("DECRBY", "max", String.valueOf(Long.MIN_VALUE)));
+        assertEquals(String.valueOf(Long.MAX_VALUE), ((BulkString) run("GET", "max")).asString());
+    }
+
+    @Test
+    void testTryEncodeOnlyAcceptsCanonicalForm() {
+        assertEquals(0L, encode("0"));
+        assertEquals(-12L, encode("-12"));
+        assertEquals(Long.MAX_VALUE, encode("9223372036854775807"));
+        assertEquals(Long.MIN_VALUE, encode("-9223372036854775808"));
+        assertNull(encode("9223372036854775808"));
+        assertNull(encode("-9223372036854775809"));
+        assertNull(encode("-0"));
+        assertNull(encode("+1"));
+        assertNull(encode("01"));
+        assertNull(encode("1 "));
+        assertNull(encode("-"));
+        assertNull(encode(""));
+        assertSame(SharedIntegers.valueOf(9999), encode("9999"));
+    }
+
+    private static Long encode(String s) {
+        return SharedIntegers.tryEncode(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
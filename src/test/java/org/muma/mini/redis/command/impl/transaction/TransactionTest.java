@@ -0,0 +1,153 @@
+package org.muma.mini.redis.command.impl.transaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionTest {
+
+    private MemoryStorageEngine storage;
+    private AofManager aofManager;
+    private WatchManager watchManager;
+    private CommandDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        storage = new MemoryStorageEngine();
+        aofManager = mock(AofManager.class);
+        watchManager = new WatchManager();
+        storage.setWatchManager(watchManager);
+        ClientRegistry registry = new ClientRegistry();
+        dispatcher = new CommandDispatcher(storage, aofManager, mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), watchManager);
+    }
+
+    private RedisMessage run(RedisContext context, String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), context);
+    }
+
+    private static String bulk(RedisMessage message) {
+        return ((BulkString) message).asString();
+    }
+
+    @Test
+    void testQueuedCommandsRunOnExec() {
+        RedisContext client = new RedisContext(null);
+        assertSame(SimpleString.OK, run(client, "MULTI"));
+        assertSame(SimpleString.QUEUED, run(client, "SET", "k", "1"));
+        assertSame(SimpleString.QUEUED, run(client, "INCR", "k"));
+        assertSame(SimpleString.QUEUED, run(client, "GET", "k"));
+        // 入队期间不执行
+        assertNull(storage.get("k"));
+
+        RedisArray replies = (RedisArray) run(client, "EXEC");
+        assertEquals(3, replies.elements().length);
+        assertSame(SimpleString.OK, replies.elements()[0]);
+        assertEquals(RedisInteger.of(2), replies.elements()[1]);
+        assertEquals("2", bulk(replies.elements()[2]));
+        assertFalse(client.isInMulti());
+
+        // 写命令作为一个 MULTI ... EXEC 块写入 AOF
+        InOrder aof = inOrder(aofManager);
+        aof.verify(aofManager).beginTransaction();
+        aof.verify(aofManager, times(2)).append(eq(0), any());
+        aof.verify(aofManager).endTransaction();
+    }
+
+    @Test
+    void testQueueErrorAbortsTransaction() {
+        RedisContext client = new RedisContext(null);
+        run(client, "MULTI");
+        run(client, "SET", "k", "1");
+        assertInstanceOf(ErrorMessage.class, run(client, "NOSUCHCOMMAND"));
+        assertInstanceOf(ErrorMessage.class, run(client, "GET"));
+
+        RedisMessage reply = run(client, "EXEC");
+        assertTrue(((ErrorMessage) reply).content().startsWith("EXECABORT"));
+        assertNull(storage.get("k"));
+    }
+
+    @Test
+    void testWatchedKeyModifiedByOtherClientAbortsExec() {
+        RedisContext client = new RedisContext(null);
+        RedisContext other = new RedisContext(null);
+        run(client, "SET", "balance", "10");
+
+        run(client, "WATCH", "balance");
+        run(other, "SET", "balance", "20");
+        run(client, "MULTI");
+        run(client, "SET", "balance", "11");
+
+        RedisArray reply = (RedisArray) run(client, "EXEC");
+        assertNull(reply.elements());
+        assertEquals("20", bulk(run(client, "GET", "balance")));
+        // EXEC 之后 WATCH 全部释放
+        assertEquals(0, watchManager.getWatchedKeys());
+    }
+
+    @Test
+    void testUnmodifiedWatchedKeyExecutes() {
+        RedisContext client = new RedisContext(null);
+        run(client, "WATCH", "a", "b");
+        run(client, "SET", "other", "x"); // 修改未被 WATCH 的 key 不影响
+        run(client, "MULTI");
+        run(client, "SET", "a", "1");
+
+        RedisArray reply = (RedisArray) run(client, "EXEC");
+        assertEquals(1, reply.elements().length);
+        assertEquals("1", bulk(run(client, "GET", "a")));
+    }
+
+    @Test
+    void testDiscardAndUnwatch() {
+        RedisContext client = new RedisContext(null);
+        run(client, "WATCH", "k");
+        assertEquals(1, watchManager.getWatchedKeys());
+        run(client, "MULTI");
+        assertInstanceOf(ErrorMessage.class, run(client, "WATCH", "k2"));
+        assertInstanceOf(ErrorMessage.class, run(client, "MULTI"));
+        run(client, "SET", "k", "v");
+        assertSame(SimpleString.OK, run(client, "DISCARD"));
+
+        assertNull(storage.get("k"));
+        assertEquals(0, watchManager.getWatchedKeys());
+        assertInstanceOf(ErrorMessage.class, run(client, "EXEC"));
+        assertInstanceOf(ErrorMessage.class, run(client, "DISCARD"));
+    }
+
+    @Test
+    void testFlushTouchesAllWatchedKeys() {
+        RedisContext client = new RedisContext(null);
+        run(client, "WATCH", "missing");
+        storage.flush();
+        run(client, "MULTI");
+        run(client, "SET", "missing", "v");
+        assertNull(((RedisArray) run(client, "EXEC")).elements());
+    }
+
+    @Test
+    void testBlockingCommandDoesNotBlockInsideExec() {
+        RedisContext client = new RedisContext(null);
+        run(client, "MULTI");
+        run(client, "BLPOP", "empty", "0");
+        RedisArray reply = (RedisArray) run(client, "EXEC");
+        assertNull(((RedisArray) reply.elements()[0]).elements());
+    }
+}
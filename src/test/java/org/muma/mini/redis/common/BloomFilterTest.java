@@ -0,0 +1,25 @@
+package org.muma.mini.redis.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 位图会被持久化：位置必须与之前的版本完全一致，否则旧 RDB 中的元素会被判为不存在
+     */
+    @Test
+    void testHashPositionsMatchPersistedFilters() {
+        assertArrayEquals(new int[]{2482, 2579, 2676, 2773, 2870}, BloomFilter.getHashPositions(bytes("a"), 8192, 5));
+        assertArrayEquals(new int[]{6410, 3305, 200, 5287, 2182}, BloomFilter.getHashPositions(bytes("ab"), 8192, 5));
+        assertArrayEquals(new int[]{7880, 5930, 3980, 2030, 80}, BloomFilter.getHashPositions(bytes("abc"), 8192, 5));
+        assertArrayEquals(new int[]{479, 2596, 4713, 6830, 755}, BloomFilter.getHashPositions(bytes("item:42"), 8192, 5));
+    }
+}
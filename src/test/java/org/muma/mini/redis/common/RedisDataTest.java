@@ -0,0 +1,48 @@
+package org.muma.mini.redis.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisDataTest {
+
+    @Test
+    void testTypeAndLruShareOneField() {
+        for (RedisDataType type : RedisDataType.values()) {
+            RedisData<byte[]> data = new RedisData<>(type, new byte[0]);
+            assertEquals(type, data.getType());
+            assertEquals(0, data.getLru());
+
+            // LFU：16 位分钟数 + 8 位计数器占满低 24 位
+            data.setLru(0xFFFF << 8 | 255);
+            assertEquals(type, data.getType());
+            assertEquals(0xFFFFFF, data.getLru());
+
+            // 超出 24 位的部分不会写坏类型
+            data.setLru(-1);
+            assertEquals(type, data.getType());
+            assertEquals(0xFFFFFF, data.getLru());
+        }
+
+        RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, new byte[0]);
+        data.setLru(12345);
+        data.setType(RedisDataType.BITMAP);
+        assertEquals(RedisDataType.BITMAP, data.getType());
+        assertEquals(12345, data.getLru());
+    }
+
+    @Test
+    void testEqualityIgnoresAccessInfo() {
+        byte[] value = {1, 2, 3};
+        RedisData<byte[]> a = new RedisData<>(RedisDataType.STRING, value);
+        RedisData<byte[]> b = new RedisData<>(RedisDataType.STRING, value);
+        a.setLru(100);
+        a.setMemory(64);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        b.setExpireAt(1000);
+        assertNotEquals(a, b);
+        assertNotEquals(a, new RedisData<>(RedisDataType.BITMAP, value));
+    }
+}
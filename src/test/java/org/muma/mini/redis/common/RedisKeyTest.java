@@ -0,0 +1,38 @@
+package org.muma.mini.redis.common;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.util.MurmurHash3;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeyTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 长度模 4 余 3 的 key 每个 tail 字节都参与哈希：早期实现只看两个 tail 字节，
+     * "key:1xx" 与 "key:2xx" 这类 key 总是落在同一个桶
+     */
+    @Test
+    void testHashUsesEveryTailByte() {
+        assertNotEquals(new RedisKey(bytes("key:1xx")).hashCode(), new RedisKey(bytes("key:2xx")).hashCode());
+        assertEquals(MurmurHash3.hash32Legacy(bytes("key:1xx")), MurmurHash3.hash32Legacy(bytes("key:2xx")));
+        // 长度为 4 的倍数或模 4 余 1 时两者一致
+        assertEquals(MurmurHash3.hash32Legacy(bytes("abcd")), MurmurHash3.hash32(bytes("abcd")));
+        assertEquals(MurmurHash3.hash32Legacy(bytes("a")), MurmurHash3.hash32(bytes("a")));
+    }
+
+    /**
+     * 原始字节与 String 形式得到同一个 key (非 ASCII 按 UTF-8 规范化)
+     */
+    @Test
+    void testOfBytesMatchesOfString() {
+        assertEquals(RedisKey.of("k"), RedisKey.of(bytes("k")));
+        assertEquals(RedisKey.of("键"), RedisKey.of(bytes("键")));
+        assertEquals(RedisKey.of("键").hashCode(), RedisKey.of(bytes("键")).hashCode());
+    }
+}
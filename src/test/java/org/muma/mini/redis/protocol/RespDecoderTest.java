@@ -0,0 +1,113 @@
+package org.muma.mini.redis.protocol;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespDecoderTest {
+
+    private static void writeInbound(EmbeddedChannel channel, String data) {
+        channel.writeInbound(Unpooled.copiedBuffer(data, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDecodeSimpleCommand() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        writeInbound(channel, "*3\r\n$3\r\nSET\r\n$3\r\nfoo\r\n$3\r\nbar\r\n");
+
+        RedisArray array = channel.readInbound();
+        assertEquals(3, array.elements().length);
+        assertEquals("SET", ((BulkString) array.elements()[0]).asString());
+        assertEquals("foo", ((BulkString) array.elements()[1]).asString());
+        assertEquals("bar", ((BulkString) array.elements()[2]).asString());
+        assertNull(channel.readInbound());
+    }
+
+    /**
+     * 核心测试：命令被拆成逐字节到达，解码器必须从断点继续
+     */
+    @Test
+    void testResumeAcrossFragments() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        String cmd = "*5\r\n$4\r\nMSET\r\n$2\r\nk1\r\n$10\r\n0123456789\r\n$2\r\nk2\r\n$0\r\n\r\n";
+
+        for (int i = 0; i < cmd.length(); i++) {
+            writeInbound(channel, cmd.substring(i, i + 1));
+            if (i < cmd.length() - 1) {
+                assertNull(channel.readInbound(), "Should not emit before the array is complete");
+            }
+        }
+
+        RedisArray array = channel.readInbound();
+        assertEquals(5, array.elements().length);
+        assertEquals("0123456789", ((BulkString) array.elements()[2]).asString());
+        assertArrayEquals(new byte[0], ((BulkString) array.elements()[4]).content());
+    }
+
+    @Test
+    void testPipelinedCommandsInOneBuffer() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        writeInbound(channel, "*1\r\n$4\r\nPING\r\n*2\r\n$3\r\nGET\r\n$1\r\na\r\n*1\r\n$4\r\nPI");
+
+        assertEquals("PING", ((BulkString) ((RedisArray) channel.readInbound()).elements()[0]).asString());
+        assertEquals("GET", ((BulkString) ((RedisArray) channel.readInbound()).elements()[0]).asString());
+        assertNull(channel.readInbound());
+
+        writeInbound(channel, "NG\r\n");
+        assertEquals("PING", ((BulkString) ((RedisArray) channel.readInbound()).elements()[0]).asString());
+    }
+
+    @Test
+    void testScalarAndNestedReplies() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        writeInbound(channel, "+OK\r\n-ERR bad\r\n:-42\r\n$-1\r\n*-1\r\n*2\r\n*1\r\n:1\r\n$1\r\nx\r\n");
+
+        assertEquals("OK", ((SimpleString) channel.readInbound()).content());
+        assertEquals("ERR bad", ((ErrorMessage) channel.readInbound()).content());
+        assertEquals(-42, ((RedisInteger) channel.readInbound()).value());
+        assertNull(((BulkString) channel.readInbound()).content());
+        assertNull(((RedisArray) channel.readInbound()).elements());
+
+        RedisArray outer = channel.readInbound();
+        RedisArray inner = (RedisArray) outer.elements()[0];
+        assertEquals(1, ((RedisInteger) inner.elements()[0]).value());
+        assertEquals("x", ((BulkString) outer.elements()[1]).asString());
+    }
+
+    @Test
+    void testInvalidLengthRejected() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        assertThrows(Exception.class, () -> writeInbound(channel, "*1\r\n$abc\r\n"));
+    }
+
+    @Test
+    void testHugeMultibulkLengthRejected() {
+        // 只有 15 字节的长度头，不能触发按声明长度的大数组分配
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        assertThrows(Exception.class, () -> writeInbound(channel, "*1000000000\r\n"));
+        assertThrows(Exception.class,
+                () -> writeInbound(new EmbeddedChannel(new RespDecoder()), "*1048577\r\n"));
+    }
+
+    @Test
+    void testLargeArrayGrowsAsElementsArrive() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder());
+        int count = 5000;
+        StringBuilder cmd = new StringBuilder("*").append(count).append("\r\n");
+        for (int i = 0; i < count; i++) {
+            String element = String.valueOf(i);
+            cmd.append('$').append(element.length()).append("\r\n").append(element).append("\r\n");
+        }
+        writeInbound(channel, cmd.toString());
+
+        RedisArray array = channel.readInbound();
+        assertEquals(count, array.elements().length);
+        for (int i = 0; i < count; i++) {
+            assertEquals(String.valueOf(i), ((BulkString) array.elements()[i]).asString());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.muma.mini.redis.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.server.RedisContext;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespEncoderTest {
+
+    private static String encode(RedisMessage msg) {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespEncoder());
+        channel.writeOutbound(msg);
+        ByteBuf buf = channel.readOutbound();
+        try {
+            // 预估大小必须与实际写入一致
+            assertEquals(RespEncoder.sizeOf(msg), buf.readableBytes());
+            return buf.toString(StandardCharsets.UTF_8);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    void testSharedReplies() {
+        assertEquals("+OK\r\n", encode(SimpleString.OK));
+        assertEquals("+PONG\r\n", encode(SimpleString.PONG));
+        assertEquals("$-1\r\n", encode(BulkString.NULL));
+        assertEquals(":0\r\n", encode(RedisInteger.ZERO));
+        assertEquals(":1\r\n", encode(RedisInteger.ONE));
+        assertSame(RedisInteger.of(-1), RedisInteger.of(-1));
+    }
+
+    @Test
+    void testIntegers() {
+        assertEquals(":9999\r\n", encode(RedisInteger.of(9999)));
+        assertEquals(":10000\r\n", encode(RedisInteger.of(10000)));
+        assertEquals(":-2\r\n", encode(RedisInteger.of(-2)));
+        assertEquals(":" + Long.MAX_VALUE + "\r\n", encode(RedisInteger.of(Long.MAX_VALUE)));
+        assertEquals(":" + Long.MIN_VALUE + "\r\n", encode(RedisInteger.of(Long.MIN_VALUE)));
+    }
+
+    /**
+     * 核心测试：数组中的嵌套数组、整数、错误都必须被编码 (旧实现只处理 BulkString)
+     */
+    @Test
+    void testNestedArray() {
+        RedisArray msg = new RedisArray(new RedisMessage[]{
+                new BulkString("0"),
+                new RedisArray(new RedisMessage[]{new BulkString("k1"), RedisInteger.of(42)}),
+                new ErrorMessage("ERR x"),
+                BulkString.NULL,
+                new RedisArray(null)
+        });
+        assertEquals("*5\r\n$1\r\n0\r\n*2\r\n$2\r\nk1\r\n:42\r\n-ERR x\r\n$-1\r\n*-1\r\n", encode(msg));
+    }
+
+    /**
+     * RESP3 连接：Map/Set/Double/Null/Boolean 使用各自的类型前缀
+     */
+    @Test
+    void testResp3Types() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespEncoder());
+        RedisContext context = new RedisContext(null);
+        context.setEncodingProtocolVersion(3);
+        channel.attr(RedisContext.ATTR_KEY).set(context);
+
+        RedisMessage map = new MapMessage(new RedisMessage[]{new BulkString("f"), new DoubleMessage(1.5)});
+        channel.writeOutbound(map, new SetMessage(new RedisMessage[]{new BulkString("a")}),
+                NullMessage.INSTANCE, BooleanMessage.TRUE, new DoubleMessage(Double.NEGATIVE_INFINITY));
+
+        StringBuilder sb = new StringBuilder();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            sb.append(buf.toString(StandardCharsets.UTF_8));
+            buf.release();
+        }
+        assertEquals("%1\r\n$1\r\nf\r\n,1.5\r\n~1\r\n$1\r\na\r\n_\r\n#t\r\n,-inf\r\n", sb.toString());
+        assertEquals(RespEncoder.sizeOf(map, true), "%1\r\n$1\r\nf\r\n,1.5\r\n".length());
+    }
+
+    /**
+     * RESP2 连接：新类型全部降级为 RESP2 可识别的形式
+     */
+    @Test
+    void testResp2Downgrade() {
+        assertEquals("*2\r\n$1\r\nf\r\n$1\r\n3\r\n",
+                encode(new MapMessage(new RedisMessage[]{new BulkString("f"), new DoubleMessage(3.0)})));
+        assertEquals("*0\r\n", encode(new SetMessage(new RedisMessage[0])));
+        assertEquals("$-1\r\n", encode(NullMessage.INSTANCE));
+        assertEquals(":0\r\n", encode(BooleanMessage.FALSE));
+        assertEquals("$3\r\ninf\r\n", encode(new DoubleMessage(Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void testUtf8Content() {
+        assertEquals("+中文\r\n", encode(new SimpleString("中文")));
+        assertEquals("$6\r\n中文\r\n", encode(new BulkString("中文")));
+    }
+}
@@ -0,0 +1,97 @@
+package org.muma.mini.redis.server;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.ClientType;
+import org.muma.mini.redis.config.MiniRedisConfig.OutputBufferLimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputBufferLimiterTest {
+
+    private final MiniRedisConfig config = MiniRedisConfig.getInstance();
+    private final OutputBufferLimit originalNormal = config.getNormalOutputBufferLimit();
+    private final OutputBufferLimit originalReplica = config.getReplicaOutputBufferLimit();
+
+    @AfterEach
+    void restore() {
+        config.setNormalOutputBufferLimit(originalNormal);
+        config.setReplicaOutputBufferLimit(originalReplica);
+    }
+
+    private static EmbeddedChannel channelWithContext(ClientType type) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RedisContext context = new RedisContext(null);
+        context.setClientType(type);
+        channel.attr(RedisContext.ATTR_KEY).set(context);
+        return channel;
+    }
+
+    @Test
+    void testHardLimit() {
+        config.setNormalOutputBufferLimit(new OutputBufferLimit(1000, 0, 0));
+        EmbeddedChannel channel = channelWithContext(ClientType.NORMAL);
+
+        // write 不 flush：数据停留在 ChannelOutboundBuffer 中，即 omem (含 Netty 的每条目开销)
+        channel.write(Unpooled.wrappedBuffer(new byte[512]));
+        assertTrue(OutputBufferLimiter.outputMemory(channel) >= 512);
+        assertFalse(OutputBufferLimiter.isLimitReached(channel));
+
+        channel.write(Unpooled.wrappedBuffer(new byte[512]));
+        assertTrue(OutputBufferLimiter.isLimitReached(channel));
+
+        // 写出后缓冲清空
+        channel.flush();
+        assertEquals(0, OutputBufferLimiter.outputMemory(channel));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testSoftLimitNeedsDuration() {
+        config.setReplicaOutputBufferLimit(new OutputBufferLimit(0, 10, 0));
+        EmbeddedChannel channel = channelWithContext(ClientType.REPLICA);
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+
+        // 第一次超过软限制只开始计时
+        assertFalse(OutputBufferLimiter.isLimitReached(channel));
+        // softSeconds = 0，再次检查即判定超限
+        assertTrue(OutputBufferLimiter.isLimitReached(channel));
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * 没有新回包时 flush 路径不再检查，由 clientsCron 让软限制计时到期
+     */
+    @Test
+    void testClientsCronEnforcesSoftLimit() {
+        config.setNormalOutputBufferLimit(new OutputBufferLimit(0, 10, 0));
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        RedisContext context = new RedisContext(channel.pipeline().firstContext());
+        channel.attr(RedisContext.ATTR_KEY).set(context);
+        ClientRegistry registry = new ClientRegistry();
+        registry.register(context);
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+
+        registry.checkOutputBufferLimits();
+        channel.runPendingTasks();
+        assertTrue(channel.isOpen());
+
+        registry.checkOutputBufferLimits();
+        channel.runPendingTasks();
+        assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testUnlimitedClass() {
+        config.setNormalOutputBufferLimit(new OutputBufferLimit(0, 0, 0));
+        EmbeddedChannel channel = channelWithContext(ClientType.NORMAL);
+        channel.write(Unpooled.wrappedBuffer(new byte[1024]));
+        assertFalse(OutputBufferLimiter.isLimitReached(channel));
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,222 @@
+package org.muma.mini.redis.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+import org.muma.mini.redis.store.impl.ShardedStorageEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Pipeline 批处理：同一次 read 解码出的命令整批提交、按序回包、每批只 flush 一次
+ */
+class RedisCommandHandlerTest {
+
+    private static final int SHARDS = 4;
+
+    private RedisCoreExecutor[] executors;
+    private EmbeddedChannel channel;
+    private final ReplyRecorder recorder = new ReplyRecorder();
+
+    /**
+     * 按写入顺序记录回包并统计 flush 次数 (位于 RedisCommandHandler 之前，回包经过它写向 head)
+     * <p>
+     * 回包不再往下传：EmbeddedChannel 的每次 unsafe 写操作都会顺带 runPendingTasks，
+     * 会在一个批次写到一半时插入执行后面批次的写出任务，打乱 outbound 队列的顺序。
+     */
+    private static final class ReplyRecorder extends ChannelOutboundHandlerAdapter {
+        final List<RedisMessage> replies = new ArrayList<>();
+        // 经过 RespEncoder 编码后的回包
+        final List<String> encoded = new ArrayList<>();
+        int flushes;
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof RedisMessage reply) {
+                replies.add(reply);
+                promise.trySuccess();
+            } else if (msg instanceof ByteBuf buf && buf.isReadable()) {
+                encoded.add(buf.toString(StandardCharsets.UTF_8));
+                buf.release();
+                promise.trySuccess();
+            } else {
+                ctx.write(msg, promise);
+            }
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            flushes++;
+            ctx.flush();
+        }
+    }
+
+    private void start(int shards) {
+        start(shards, false);
+    }
+
+    private void start(int shards, boolean encode) {
+        executors = new RedisCoreExecutor[shards];
+        for (int i = 0; i < shards; i++) {
+            executors[i] = new RedisCoreExecutor();
+        }
+        StorageEngine engine;
+        if (shards > 1) {
+            engine = new ShardedStorageEngine(executors);
+        } else {
+            MemoryStorageEngine memStorage = new MemoryStorageEngine();
+            memStorage.setOwner(executors[0]);
+            engine = memStorage;
+        }
+        ClientRegistry registry = new ClientRegistry();
+        CommandDispatcher dispatcher = new CommandDispatcher(new Databases(engine), mock(AofManager.class),
+                mock(ReplicationManager.class), mock(RdbManager.class), registry, new TrackingManager(registry),
+                new WatchManager());
+        ShardRouter router = new ShardRouter(executors, dispatcher.getCommandTable());
+        RedisCommandHandler handler = new RedisCommandHandler(dispatcher, router, registry);
+        channel = encode ? new EmbeddedChannel(recorder, new RespEncoder(), handler)
+                : new EmbeddedChannel(recorder, handler);
+    }
+
+    private static RedisArray cmd(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return new RedisArray(elements);
+    }
+
+    /**
+     * 等到指定分片上已投递的任务都执行完，再在测试线程上运行回包的 EventLoop 任务
+     * <p>
+     * 按批次实际经过的分片顺序依次等待：前一段执行时转交的下一段一定排在后一个屏障之前。
+     */
+    private void await(int... shards) throws InterruptedException {
+        for (int shard : shards) {
+            CountDownLatch latch = new CountDownLatch(1);
+            executors[shard].submit(latch::countDown);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+        channel.runPendingTasks();
+    }
+
+    private List<RedisMessage> replies() {
+        return recorder.replies;
+    }
+
+    private static String bulk(RedisMessage message) {
+        return ((BulkString) message).asString();
+    }
+
+    @Test
+    void testPipelineRepliesInOrderWithOneFlush() throws InterruptedException {
+        start(1);
+        channel.writeInbound(cmd("SET", "a", "1"), cmd("INCR", "a"), cmd("GET", "a"), cmd("NOSUCH"));
+        await(0);
+
+        List<RedisMessage> replies = replies();
+        assertEquals(4, replies.size());
+        assertEquals(SimpleString.OK, replies.get(0));
+        assertEquals(RedisInteger.of(2), replies.get(1));
+        assertEquals("2", bulk(replies.get(2)));
+        assertInstanceOf(ErrorMessage.class, replies.get(3));
+        assertEquals(1, recorder.flushes);
+    }
+
+    @Test
+    void testLongPipelineIsSplitIntoBatches() throws InterruptedException {
+        start(1);
+        int count = 2500;
+        RedisArray[] commands = new RedisArray[count];
+        for (int i = 0; i < count; i++) commands[i] = cmd("INCR", "counter");
+        channel.writeInbound((Object[]) commands);
+        await(0);
+
+        List<RedisMessage> replies = replies();
+        assertEquals(count, replies.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(RedisInteger.of(i + 1), replies.get(i));
+        }
+        // 每 1024 条 (MAX_BATCH_SIZE) 一批，每批一次 flush
+        assertEquals(3, recorder.flushes);
+    }
+
+    @Test
+    void testQuitDropsLaterCommandsAndCloses() throws InterruptedException {
+        start(1);
+        channel.writeInbound(cmd("SET", "k", "1"), cmd("QUIT"), cmd("SET", "k", "2"));
+        await(0);
+
+        List<RedisMessage> replies = replies();
+        assertEquals(List.of(SimpleString.OK, SimpleString.OK), replies);
+        assertFalse(channel.isOpen());
+    }
+
+    /**
+     * HELLO 在批次中途切换协议：它之前的回包按旧协议编码，它自身及之后的按新协议编码
+     */
+    @Test
+    void testHelloSwitchesProtocolMidPipeline() throws InterruptedException {
+        start(1, true);
+        channel.writeInbound(cmd("HSET", "h", "f", "v"));
+        await(0);
+        channel.writeInbound(cmd("HGETALL", "h"), cmd("HELLO", "3"), cmd("HGETALL", "h"),
+                cmd("HELLO", "2"), cmd("HGETALL", "h"));
+        await(0);
+
+        List<String> encoded = recorder.encoded;
+        assertEquals(6, encoded.size());
+        assertEquals(":1\r\n", encoded.get(0));
+        assertEquals("*2\r\n$1\r\nf\r\n$1\r\nv\r\n", encoded.get(1));
+        assertTrue(encoded.get(2).startsWith("%"), encoded.get(2));
+        assertEquals("%1\r\n$1\r\nf\r\n$1\r\nv\r\n", encoded.get(3));
+        assertTrue(encoded.get(4).startsWith("*"), encoded.get(4));
+        assertEquals("*2\r\n$1\r\nf\r\n$1\r\nv\r\n", encoded.get(5));
+    }
+
+    @Test
+    void testShardHandOffKeepsReplyOrder() throws InterruptedException {
+        start(SHARDS);
+        String a = "key:0";
+        String b = a;
+        for (int i = 1; ShardedStorageEngine.shardOf(b, SHARDS) == ShardedStorageEngine.shardOf(a, SHARDS); i++) {
+            b = "key:" + i;
+        }
+        int shardA = ShardedStorageEngine.shardOf(a, SHARDS);
+        int shardB = ShardedStorageEngine.shardOf(b, SHARDS);
+
+        // 一批命令依次在 A、B、A 三段上执行
+        channel.writeInbound(cmd("SET", a, "1"), cmd("SET", b, "2"), cmd("INCR", b), cmd("GET", a));
+        // 上一批还没回包时到达的命令先攒着，等回包交还 IO 线程后才提交
+        channel.writeInbound(cmd("GET", b), cmd("INCR", a));
+        await(shardA, shardB, shardA);
+        assertEquals(1, recorder.flushes);
+        await(shardB, shardA);
+
+        List<RedisMessage> replies = replies();
+        assertEquals(6, replies.size());
+        assertEquals(SimpleString.OK, replies.get(0));
+        assertEquals(SimpleString.OK, replies.get(1));
+        assertEquals(RedisInteger.of(3), replies.get(2));
+        assertEquals("1", bulk(replies.get(3)));
+        assertEquals("3", bulk(replies.get(4)));
+        assertEquals(RedisInteger.of(2), replies.get(5));
+        assertEquals(2, recorder.flushes);
+    }
+}
@@ -0,0 +1,96 @@
+package org.muma.mini.redis.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.muma.mini.redis.config.MiniRedisConfig.CoreWaitStrategy;
+import org.muma.mini.redis.protocol.RedisMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCoreExecutorTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int TASKS_PER_PRODUCER = 20_000;
+
+    /**
+     * 多个生产者并发投递：任务全部执行、都在核心线程上执行、且同一生产者内保持 FIFO
+     * (队列故意设得很小，覆盖生产者等待槽位的路径)
+     */
+    @ParameterizedTest
+    @EnumSource(CoreWaitStrategy.class)
+    void testMultiProducerFifo(CoreWaitStrategy strategy) throws Exception {
+        RedisCoreExecutor executor = new RedisCoreExecutor(64, strategy);
+        int[] lastSeen = new int[PRODUCERS];
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger wrongThread = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(PRODUCERS * TASKS_PER_PRODUCER);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            lastSeen[p] = -1;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < TASKS_PER_PRODUCER; i++) {
+                    int seq = i;
+                    executor.submit(() -> {
+                        // 只有核心线程访问 lastSeen
+                        if (!executor.inEventLoop()) wrongThread.incrementAndGet();
+                        if (lastSeen[producer] != seq - 1) outOfOrder.incrementAndGet();
+                        lastSeen[producer] = seq;
+                        done.countDown();
+                    });
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+        assertEquals(0, wrongThread.get());
+    }
+
+    /**
+     * 批次投递复用预分配槽位；核心线程向自己投递时队列满也不能卡死 (走溢出队列)，且保持顺序
+     */
+    @Test
+    void testBatchSubmitAndSelfSubmitOverflow() throws Exception {
+        RedisCoreExecutor executor = new RedisCoreExecutor(4, CoreWaitStrategy.PARK);
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        int total = 100;
+
+        List<RedisMessage> batch = new ArrayList<>();
+        CommandRingBuffer.BatchTask task = (b, start, responses, shard) -> {
+            assertSame(batch, b);
+            assertEquals(3, shard);
+            // 在核心线程上一次性投递远超容量的任务
+            for (int i = 0; i < total; i++) {
+                int seq = i;
+                executor.submit(() -> {
+                    order.add(seq);
+                    if (seq == total - 1) done.countDown();
+                });
+            }
+        };
+        executor.submitBatch(task, batch, 0, new BatchReplies(0), 3);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(2, new CommandRingBuffer(1).capacity());
+        assertEquals(64, new CommandRingBuffer(33).capacity());
+        assertEquals(65536, new CommandRingBuffer(65536).capacity());
+    }
+}
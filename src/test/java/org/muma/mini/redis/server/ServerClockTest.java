@@ -0,0 +1,48 @@
+package org.muma.mini.redis.server;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerClockTest {
+
+    /**
+     * 命令执行期间时间冻结，嵌套 (EXEC) 时沿用最外层的时间
+     */
+    @Test
+    void testTimeFrozenDuringCommand() throws InterruptedException {
+        long start = ServerClock.update();
+        ServerClock.beginCommand();
+        try {
+            Thread.sleep(5);
+            ServerClock.update();
+            assertEquals(start, ServerClock.now());
+
+            ServerClock.beginCommand();
+            ServerClock.endCommand();
+            assertEquals(start, ServerClock.now());
+        } finally {
+            ServerClock.endCommand();
+        }
+        assertTrue(ServerClock.now() > start);
+    }
+
+    @Test
+    void testExpiryUsesServerClock() throws InterruptedException {
+        RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, new byte[0]);
+        data.setExpireAt(ServerClock.update() + 2);
+
+        ServerClock.beginCommand();
+        try {
+            Thread.sleep(5);
+            ServerClock.update();
+            // 同一条命令内先判断为未过期，之后也不会变成已过期
+            assertFalse(data.isExpired());
+        } finally {
+            ServerClock.endCommand();
+        }
+        assertTrue(data.isExpired());
+    }
+}
@@ -0,0 +1,210 @@
+package org.muma.mini.redis.server;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.CommandTable;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.command.impl.transaction.ExecCommand;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.store.StorageEngine;
+import org.muma.mini.redis.store.impl.ShardedStorageEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private static final int SHARDS = 4;
+
+    private static final RedisCommand NOOP = new RedisCommand() {
+        @Override
+        public RedisMessage execute(StorageEngine storage, RedisArray args, RedisContext context) {
+            return null;
+        }
+    };
+
+    private static RedisArray args(String... args) {
+        RedisMessage[] msgs = new RedisMessage[args.length];
+        for (int i = 0; i < args.length; i++) {
+            msgs[i] = new BulkString(args[i]);
+        }
+        return new RedisArray(msgs);
+    }
+
+    private static ShardRouter newRouter(RedisCoreExecutor[] executors) {
+        CommandTable table = new CommandTable();
+        table.register(new CommandSpec("GET", NOOP, 2, 0, 1, 1, 1));
+        table.register(new CommandSpec("MGET", NOOP, -2, 0, 1, -1, 1));
+        table.register(new CommandSpec("MSET", NOOP, -3, 0, 1, -1, 2));
+        table.register(new CommandSpec("PING", NOOP, -1, 0, 0, 0, 0));
+        table.register(new CommandSpec("FLUSHALL", NOOP, -1, CommandSpec.FLAG_WRITE, 0, 0, 0));
+        table.register(new CommandSpec("ZUNIONSTORE", NOOP, -4, CommandSpec.FLAG_MOVABLEKEYS, 1, 1, 1));
+        table.register(new CommandSpec("EXEC", new ExecCommand(null, null, null), 1, CommandSpec.FLAG_NO_MULTI, 0, 0, 0));
+        table.build();
+        return new ShardRouter(executors, table);
+    }
+
+    private static RedisCoreExecutor[] executors(int n) {
+        RedisCoreExecutor[] executors = new RedisCoreExecutor[n];
+        for (int i = 0; i < n; i++) {
+            executors[i] = new RedisCoreExecutor();
+        }
+        return executors;
+    }
+
+    // 找两个落在不同分片的 key
+    private static String[] keysOnDifferentShards() {
+        String first = "key:0";
+        for (int i = 1; ; i++) {
+            String other = "key:" + i;
+            if (ShardedStorageEngine.shardOf(other, SHARDS) != ShardedStorageEngine.shardOf(first, SHARDS)) {
+                return new String[]{first, other};
+            }
+        }
+    }
+
+    @Test
+    void testRouting() {
+        ShardRouter router = newRouter(executors(SHARDS));
+        String[] keys = keysOnDifferentShards();
+        int shard = ShardedStorageEngine.shardOf(keys[0], SHARDS);
+
+        assertEquals(shard, router.route(args("GET", keys[0]), 3));
+        assertEquals(shard, router.route(args("MGET", keys[0], keys[0]), 3));
+        // 无 key 命令 / 参数错误留在当前分片
+        assertEquals(2, router.route(args("PING"), 2));
+        assertEquals(2, router.route(args("GET"), 2));
+        // 跨分片与 movablekeys 交给协调线程
+        assertEquals(ShardRouter.COORDINATOR, router.route(args("MGET", keys[0], keys[1]), 0));
+        assertEquals(ShardRouter.COORDINATOR, router.route(args("ZUNIONSTORE", keys[0], "1", keys[0]), 0));
+        // 无 key 的写命令作用于所有分片
+        assertEquals(ShardRouter.COORDINATOR, router.route(args("FLUSHALL", "ASYNC"), 2));
+        // MSET 只看 key，不看 value
+        assertEquals(shard, router.route(args("MSET", keys[0], keys[1]), 0));
+    }
+
+    /**
+     * EXEC 按入队命令的 key 路由：同一分片留在该分片，跨分片交给协调线程
+     */
+    @Test
+    void testExecRoutesByQueuedCommands() {
+        ShardRouter router = newRouter(executors(SHARDS));
+        String[] keys = keysOnDifferentShards();
+        int shard = ShardedStorageEngine.shardOf(keys[0], SHARDS);
+        RedisContext client = new RedisContext(null);
+
+        // 不在事务中的 EXEC 是无 key 命令
+        assertEquals(1, router.route(args("EXEC"), 1, client));
+
+        client.beginMulti();
+        client.queueCommand(args("PING"));
+        assertEquals(1, router.route(args("EXEC"), 1, client));
+        client.queueCommand(args("GET", keys[0]));
+        client.queueCommand(args("MGET", keys[0], keys[0]));
+        assertEquals(shard, router.route(args("EXEC"), 1, client));
+        client.queueCommand(args("GET", keys[1]));
+        assertEquals(ShardRouter.COORDINATOR, router.route(args("EXEC"), 1, client));
+    }
+
+    @Test
+    void testSingleShardNeverRoutes() {
+        ShardRouter router = newRouter(executors(1));
+        assertFalse(router.isSharded());
+        assertEquals(0, router.route(args("MGET", "a", "b", "c"), 0));
+    }
+
+    /**
+     * 哈希标签：{} 内相同的 key 必定落在同一分片；原始字节与 String 形式的 key 结果一致
+     */
+    @Test
+    void testHashTagAndEncodingConsistency() {
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            shards.add(ShardedStorageEngine.shardOf("{user:1}:" + i, SHARDS));
+        }
+        assertEquals(1, shards.size());
+        assertEquals(ShardedStorageEngine.shardOf("user:1", SHARDS), ShardedStorageEngine.shardOf("{user:1}", SHARDS));
+        // 空标签不生效
+        assertEquals(ShardedStorageEngine.shardOf("{}a", SHARDS),
+                ShardedStorageEngine.shardOf("{}a".getBytes(StandardCharsets.UTF_8), SHARDS));
+
+        for (String key : new String[]{"plain", "中文:{标签}", "x{y}z"}) {
+            assertEquals(ShardedStorageEngine.shardOf(key, SHARDS),
+                    ShardedStorageEngine.shardOf(key.getBytes(StandardCharsets.UTF_8), SHARDS), key);
+        }
+        // 非法 UTF-8 与命令实现一样先解码成 String
+        byte[] invalid = {(byte) 0xff, 'a'};
+        assertEquals(ShardedStorageEngine.shardOf(new String(invalid, StandardCharsets.UTF_8), SHARDS),
+                ShardedStorageEngine.shardOf(invalid, SHARDS));
+    }
+
+    /**
+     * 协调线程上的任务执行期间，任何分片线程都不能在运行
+     */
+    @Test
+    void testCoordinatorRunsWhileAllShardsParked() throws Exception {
+        ShardRouter router = newRouter(executors(SHARDS));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger violations = new AtomicInteger();
+        int rounds = 200;
+        CountDownLatch done = new CountDownLatch(rounds * (SHARDS + 1));
+
+        for (int r = 0; r < rounds; r++) {
+            for (int s = 0; s < SHARDS; s++) {
+                router.submit(s, () -> {
+                    running.incrementAndGet();
+                    Thread.onSpinWait();
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            router.submit(ShardRouter.COORDINATOR, () -> {
+                if (running.get() != 0) violations.incrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, violations.get());
+    }
+
+    @Test
+    void testShardedStorageRoutesByKey() {
+        ShardedStorageEngine storage = new ShardedStorageEngine(executors(SHARDS));
+        String[] keys = keysOnDifferentShards();
+        storage.put(keys[0], new RedisData<>(RedisDataType.STRING, "v0".getBytes()));
+        storage.put(keys[1], new RedisData<>(RedisDataType.STRING, "v1".getBytes()));
+
+        assertNotNull(storage.get(keys[0]));
+        assertNotNull(storage.get(keys[1]));
+        Set<String> all = new HashSet<>();
+        storage.keys().forEach(all::add);
+        assertEquals(Set.of(keys[0], keys[1]), all);
+        assertEquals(2, storage.getDirty());
+
+        assertTrue(storage.remove(keys[0]));
+        assertNull(storage.get(keys[0]));
+        storage.flush();
+        assertFalse(storage.keys().iterator().hasNext());
+
+        // ASYNC 换上新表：之前拿到的旧表视图不受影响
+        storage.put(keys[1], new RedisData<>(RedisDataType.STRING, "v1".getBytes()));
+        Iterator<String> before = storage.keys().iterator();
+        assertTrue(before.hasNext());
+        storage.flushAsync();
+        assertNull(storage.get(keys[1]));
+        assertFalse(storage.keys().iterator().hasNext());
+        assertEquals(keys[1], before.next());
+    }
+}
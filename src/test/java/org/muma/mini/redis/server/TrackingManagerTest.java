@@ -0,0 +1,110 @@
+package org.muma.mini.redis.server;
+
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.command.CommandSpec;
+import org.muma.mini.redis.command.RedisCommand;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingManagerTest {
+
+    private static final RedisCommand NOOP = (storage, args, context) -> null;
+    private static final CommandSpec GET = new CommandSpec("GET", NOOP, 2, CommandSpec.FLAG_READONLY, 1, 1, 1);
+    private static final CommandSpec MGET = new CommandSpec("MGET", NOOP, -2, CommandSpec.FLAG_READONLY, 1, -1, 1);
+
+    private final ClientRegistry registry = new ClientRegistry();
+    private final TrackingManager tracking = new TrackingManager(registry);
+    private final MemoryStorageEngine storage = new MemoryStorageEngine();
+
+    {
+        storage.setTrackingManager(tracking);
+    }
+
+    private RedisContext connect(EmbeddedChannel channel) {
+        RedisContext context = new RedisContext(channel.pipeline().firstContext());
+        context.setProtocolVersion(3);
+        registry.register(context);
+        return context;
+    }
+
+    private static RedisArray args(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return new RedisArray(elements);
+    }
+
+    private static String invalidatedKey(EmbeddedChannel channel) {
+        channel.runPendingTasks();
+        PushMessage push = channel.readOutbound();
+        assertNotNull(push, "Expected an invalidation push");
+        assertEquals("invalidate", ((BulkString) push.elements()[0]).asString());
+        RedisArray keys = (RedisArray) push.elements()[1];
+        return keys.elements() == null ? null : ((BulkString) keys.elements()[0]).asString();
+    }
+
+    @Test
+    void testDefaultModeInvalidatesReadKeysOnce() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        RedisContext client = connect(channel);
+        tracking.enableTracking(client, 0, false, false, List.of());
+
+        tracking.rememberKeys(client, MGET, args("MGET", "a", "b"));
+        storage.put("a", new RedisData<>(RedisDataType.STRING, "1".getBytes()));
+        assertEquals("a", invalidatedKey(channel));
+
+        // 失效后不再跟踪，直到再次读取
+        storage.put("a", new RedisData<>(RedisDataType.STRING, "2".getBytes()));
+        storage.put("c", new RedisData<>(RedisDataType.STRING, "3".getBytes()));
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+
+        storage.remove("a"); // 不存在的 key 不产生修改
+        storage.put("b", new RedisData<>(RedisDataType.STRING, "4".getBytes()));
+        assertEquals("b", invalidatedKey(channel));
+    }
+
+    @Test
+    void testBcastPrefix() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        RedisContext client = connect(channel);
+        tracking.enableTracking(client, 0, true, false, List.of("user:"));
+
+        storage.put("order:1", new RedisData<>(RedisDataType.STRING, "x".getBytes()));
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+
+        storage.put("user:1", new RedisData<>(RedisDataType.STRING, "x".getBytes()));
+        assertEquals("user:1", invalidatedKey(channel));
+
+        // 关闭后不再收到通知
+        tracking.disableTracking(client);
+        storage.put("user:2", new RedisData<>(RedisDataType.STRING, "x".getBytes()));
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+    }
+
+    @Test
+    void testNoLoopAndFlush() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        RedisContext client = connect(channel);
+        tracking.enableTracking(client, 0, false, true, List.of());
+
+        tracking.rememberKeys(client, GET, args("GET", "k"));
+        tracking.setCurrentClient(client);
+        storage.put("k", new RedisData<>(RedisDataType.STRING, "v".getBytes()));
+        tracking.setCurrentClient(null);
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound(), "NOLOOP: own writes must not be notified");
+
+        storage.flush();
+        assertNull(invalidatedKey(channel), "FLUSH sends a null key list");
+    }
+}
@@ -0,0 +1,85 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.StorageEngine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ActiveExpireCronTest {
+
+    private static RedisData<byte[]> expiringAt(long expireAt) {
+        RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, new byte[0]);
+        data.setExpireAt(expireAt);
+        return data;
+    }
+
+    /**
+     * 所有数据库共用一个执行线程、一个节拍：各库的过期 key 都被回收，属于其他执行线程的分区不碰
+     */
+    @Test
+    void testOneCronWalksAllDatabases() {
+        RedisCoreExecutor owner = mock(RedisCoreExecutor.class);
+        RedisCoreExecutor other = mock(RedisCoreExecutor.class);
+        BlockingManager blockingManager = new BlockingManager();
+        MemoryStorageEngine[] engines = new MemoryStorageEngine[4];
+        long now = ServerClock.update();
+        for (int db = 0; db < engines.length; db++) {
+            engines[db] = new MemoryStorageEngine(blockingManager);
+            engines[db].setOwner(db == 3 ? other : owner);
+            for (int i = 0; i < 100; i++) engines[db].put("dead:" + i, expiringAt(now - 1));
+        }
+        Databases databases = new Databases(engines);
+        assertEquals(400, databases.expiresSize());
+
+        ActiveExpireCron cron = new ActiveExpireCron(databases, new RedisCoreExecutor[]{owner, other});
+        for (int cycle = 0; cycle < 10; cycle++) cron.run(0);
+
+        for (int db = 0; db < 3; db++) {
+            assertEquals(0, engines[db].expiresSize(), "db" + db);
+        }
+        assertEquals(100, engines[3].expiresSize());
+
+        cron.run(1);
+        assertEquals(0, databases.expiresSize());
+    }
+
+    /**
+     * 一次最多 16 个数据库；时间预算用完就停下，下个周期从下一个数据库继续
+     */
+    @Test
+    void testRotationResumesWhereBudgetRanOut() {
+        StorageEngine[] engines = new StorageEngine[20];
+        for (int db = 0; db < engines.length; db++) engines[db] = mock(StorageEngine.class);
+        RedisCoreExecutor executor = mock(RedisCoreExecutor.class);
+        when(engines[0].activeExpireCycle(eq(executor), anyLong())).thenReturn(true);
+        ActiveExpireCron cron = new ActiveExpireCron(new Databases(engines), new RedisCoreExecutor[]{executor});
+
+        cron.run(0);
+        verify(engines[0]).activeExpireCycle(eq(executor), anyLong());
+        verify(engines[1], never()).activeExpireCycle(any(), anyLong());
+
+        cron.run(0);
+        for (int db = 1; db <= 16; db++) verify(engines[db]).activeExpireCycle(eq(executor), anyLong());
+        verify(engines[17], never()).activeExpireCycle(any(), anyLong());
+
+        cron.run(0);
+        for (int db = 17; db < 20; db++) verify(engines[db]).activeExpireCycle(eq(executor), anyLong());
+        verify(engines[0], times(2)).activeExpireCycle(eq(executor), anyLong());
+        verify(engines[1]).activeExpireCycle(any(), anyLong());
+    }
+
+    @Test
+    void testCycleReportsExhaustedBudget() {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager());
+        storage.put("dead", expiringAt(ServerClock.update() - 1));
+        assertTrue(storage.activeExpireCycle(System.nanoTime() - 1));
+        assertFalse(storage.activeExpireCycle(System.nanoTime() + 1_000_000_000L));
+    }
+}
@@ -0,0 +1,109 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.mockito.ArgumentCaptor;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.config.MiniRedisConfig.ExpireIndexBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.ServerClock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ActiveExpireTest {
+
+    private static RedisData<byte[]> expiringAt(long expireAt) {
+        RedisData<byte[]> data = new RedisData<>(RedisDataType.STRING, new byte[0]);
+        data.setExpireAt(expireAt);
+        return data;
+    }
+
+    /**
+     * 过期 key 分布在整张表上：随机取样会一直回收到过期比例降到可接受值以下
+     * (剩下的少量过期 key 留给惰性删除与之后的周期)，未过期的不受影响
+     */
+    @Test
+    void testCycleReclaimsExpiredKeysAcrossTheTable() {
+        for (KeyspaceBackend backend : KeyspaceBackend.values()) {
+            MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), backend, ExpireIndexBackend.SAMPLING);
+            long now = ServerClock.update();
+            for (int i = 0; i < 20_000; i++) {
+                storage.put("dead:" + i, expiringAt(now - 1));
+                if (i % 10 == 0) storage.put("live:" + i, expiringAt(now + 3_600_000));
+            }
+            storage.put("persistent", new RedisData<>(RedisDataType.STRING, new byte[0]));
+            assertEquals(22_000, storage.expiresSize());
+
+            for (int cycle = 0; cycle < 100; cycle++) {
+                storage.activeExpireCycle();
+            }
+
+            long stale = storage.expiresSize() - 2_000;
+            assertTrue(stale < 400, backend + " stale=" + stale);
+            assertEquals(20_000 - stale, storage.getExpiredKeys());
+            assertNotNull(storage.get("live:0"));
+            assertNotNull(storage.get("persistent"));
+        }
+    }
+
+    /**
+     * 时间轮：到期的 key 全部回收 (单个周期超出时间预算时分几个周期)，并以批量 DEL 写入 AOF
+     */
+    @Test
+    void testTimingWheelReclaimsAllAndPropagatesDelBatches() throws InterruptedException {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT,
+                ExpireIndexBackend.TIMING_WHEEL);
+        AofManager aofManager = mock(AofManager.class);
+        storage.setAofManager(aofManager);
+        long now = ServerClock.update();
+        for (int i = 0; i < 1000; i++) {
+            storage.put("dead:" + i, expiringAt(now + 1));
+        }
+        storage.put("live", expiringAt(now + 3_600_000));
+
+        Thread.sleep(5);
+        for (int cycle = 0; cycle < 100 && storage.expiresSize() > 1; cycle++) {
+            storage.activeExpireCycle();
+        }
+
+        assertEquals(1, storage.expiresSize());
+        assertEquals(1000, storage.getExpiredKeys());
+        ArgumentCaptor<RedisArray> captor = ArgumentCaptor.forClass(RedisArray.class);
+        verify(aofManager, atLeast(8)).append(eq(0), captor.capture()); // 1000 个 key，每条 DEL 最多 128 个
+        int propagated = 0;
+        for (RedisArray del : captor.getAllValues()) {
+            assertEquals("DEL", ((BulkString) del.elements()[0]).asString());
+            assertTrue(del.elements().length <= 129);
+            propagated += del.elements().length - 1;
+        }
+        assertEquals(1000, propagated);
+    }
+
+    @Test
+    void testRemoveAndPersistDropExpiresEntry() {
+        for (ExpireIndexBackend expireIndex : ExpireIndexBackend.values()) {
+            removeAndPersistDropExpiresEntry(expireIndex);
+        }
+    }
+
+    private void removeAndPersistDropExpiresEntry(ExpireIndexBackend expireIndex) {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT, expireIndex);
+        long later = ServerClock.update() + 60_000;
+        storage.put("a", expiringAt(later));
+        storage.put("b", expiringAt(later));
+        assertEquals(2, storage.expiresSize());
+
+        storage.remove("a");
+        storage.put("b", new RedisData<>(RedisDataType.STRING, new byte[0])); // 覆盖为不带 TTL 的值
+        assertEquals(0, storage.expiresSize());
+
+        storage.put("c", expiringAt(later));
+        storage.flush();
+        assertEquals(0, storage.expiresSize());
+    }
+}
@@ -0,0 +1,91 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.ServerClock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictKeyspaceTest {
+
+    private MemoryStorageEngine storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT);
+    }
+
+    private static RedisData<byte[]> string(String value) {
+        return new RedisData<>(RedisDataType.STRING, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCrudAndLazyExpire() {
+        storage.put("k", string("v"));
+        assertEquals("v", new String((byte[]) storage.get("k").getData(), StandardCharsets.UTF_8));
+        assertTrue(storage.remove("k"));
+        assertFalse(storage.remove("k"));
+
+        RedisData<byte[]> expired = string("v");
+        expired.setExpireAt(ServerClock.update() - 1);
+        storage.put("e", expired);
+        assertNull(storage.get("e"));
+    }
+
+    /**
+     * 按原始字节查找：与 String 形式的 key 命中同一条目，过期的 key 同样惰性删除
+     */
+    @Test
+    void testGetByRawBytes() {
+        storage.put("k", string("v"));
+        storage.put("键", string("utf8"));
+        assertSame(storage.get("k"), storage.get("k".getBytes(StandardCharsets.UTF_8)));
+        assertSame(storage.get("键"), storage.get("键".getBytes(StandardCharsets.UTF_8)));
+        assertNull(storage.get("missing".getBytes(StandardCharsets.UTF_8)));
+
+        RedisData<byte[]> expired = string("v");
+        expired.setExpireAt(ServerClock.update() - 1);
+        storage.put("e", expired);
+        assertNull(storage.get("e".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, storage.getExpiredKeys());
+        assertFalse(storage.remove("e"));
+    }
+
+    /**
+     * 后台线程遍历：每一批都回到所属线程上执行
+     */
+    @Test
+    void testForEachEntryRunsOnOwner() throws Exception {
+        RedisCoreExecutor owner = new RedisCoreExecutor();
+        storage.setOwner(owner);
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        owner.submit(() -> {
+            for (int i = 0; i < 5000; i++) storage.put("key:" + i, string("v"));
+            loaded.complete(null);
+        });
+        loaded.get();
+
+        Set<String> keys = new HashSet<>();
+        CompletableFuture.runAsync(() -> storage.forEachEntry((key, data) -> keys.add(key))).get();
+        assertEquals(5000, keys.size());
+        assertTrue(keys.contains("key:4999"));
+    }
+
+    @Test
+    void testFlushAsyncSwapsKeyspace() {
+        storage.put("k", string("v"));
+        storage.flushAsync();
+        assertNull(storage.get("k"));
+        assertFalse(storage.keys().iterator().hasNext());
+    }
+}
@@ -0,0 +1,235 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.common.RedisHash;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.config.MiniRedisConfig.ExpireIndexBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.KeyspaceBackend;
+import org.muma.mini.redis.config.MiniRedisConfig.MaxmemoryPolicy;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.ErrorMessage;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.protocol.SimpleString;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.BlockingManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.RedisCoreExecutor;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EvictionTest {
+
+    private final MiniRedisConfig config = MiniRedisConfig.getInstance();
+
+    @AfterEach
+    void restoreConfig() {
+        config.setMaxmemory(0);
+        config.setMaxmemoryPolicy(MaxmemoryPolicy.NOEVICTION);
+    }
+
+    private static RedisData<byte[]> string(int size) {
+        return new RedisData<>(RedisDataType.STRING, new byte[size]);
+    }
+
+    @Test
+    void testUsedMemoryFollowsEveryMutation() {
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT);
+        storage.put("s", string(1000));
+        long afterString = storage.getUsedMemory();
+        assertTrue(afterString > 1000);
+
+        // 覆盖写：按新值重新计入
+        storage.put("s", string(10));
+        assertEquals(afterString - 990, storage.getUsedMemory());
+
+        // 集合原地修改后由 refreshMemoryUsage 补上差额
+        RedisHash hash = new RedisHash();
+        storage.put("h", new RedisData<>(RedisDataType.HASH, hash));
+        long beforeFields = storage.getUsedMemory();
+        for (int i = 0; i < 1000; i++) hash.put("field:" + i, new byte[100]);
+        storage.refreshMemoryUsage("h");
+        long withFields = storage.getUsedMemory();
+        assertTrue(withFields - beforeFields > 1000 * 110);
+
+        for (int i = 0; i < 1000; i++) hash.remove("field:" + i);
+        storage.refreshMemoryUsage("h");
+        assertEquals(beforeFields, storage.getUsedMemory());
+
+        storage.remove("s");
+        storage.remove("h");
+        assertEquals(0, storage.getUsedMemory());
+        assertEquals(withFields, storage.getUsedMemoryPeak());
+    }
+
+    /**
+     * allkeys-lru：长时间没有访问的 key 先被淘汰
+     */
+    @Test
+    void testAllKeysLruEvictsIdleKeysFirst() {
+        config.setMaxmemoryPolicy(MaxmemoryPolicy.ALLKEYS_LRU);
+        for (KeyspaceBackend backend : KeyspaceBackend.values()) {
+            MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), backend);
+            long now = ServerClock.update();
+            for (int i = 0; i < 2000; i++) {
+                storage.put("key:" + i, string(100));
+            }
+            // 前一半一小时没有访问
+            for (int i = 0; i < 1000; i++) {
+                storage.peek("key:" + i).setLru(AccessClock.lruClock(now - 3_600_000));
+            }
+            long limit = storage.getUsedMemory() * 3 / 4;
+            config.setMaxmemory(limit);
+
+            assertTrue(storage.performEvictions());
+            assertTrue(storage.getUsedMemory() <= limit);
+            assertTrue(storage.getEvictedKeys() >= 450);
+            int hotEvicted = 0;
+            for (int i = 1000; i < 2000; i++) {
+                if (storage.peek("key:" + i) == null) hotEvicted++;
+            }
+            // 近似 LRU：取样 + 候选池，最近访问过的 key 基本不受影响
+            assertTrue(hotEvicted < 50, backend + " hotEvicted=" + hotEvicted);
+            config.setMaxmemory(0);
+        }
+    }
+
+    @Test
+    void testAllKeysLfuKeepsFrequentlyUsedKeys() {
+        config.setMaxmemoryPolicy(MaxmemoryPolicy.ALLKEYS_LFU);
+        MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT);
+        for (int i = 0; i < 2000; i++) {
+            storage.put("key:" + i, string(100));
+        }
+        for (int round = 0; round < 50; round++) {
+            for (int i = 1000; i < 2000; i++) storage.get("key:" + i);
+        }
+        config.setMaxmemory(storage.getUsedMemory() / 2);
+
+        assertTrue(storage.performEvictions());
+        int frequentEvicted = 0;
+        for (int i = 1000; i < 2000; i++) {
+            if (storage.peek("key:" + i) == null) frequentEvicted++;
+        }
+        // 随机淘汰约 500 个；对数计数器下 50 次访问只到 7 左右，取样比较仍能明显区分
+        assertTrue(frequentEvicted < 200, "frequentEvicted=" + frequentEvicted);
+    }
+
+    @Test
+    void testVolatilePoliciesOnlyTouchKeysWithTtl() {
+        config.setMaxmemoryPolicy(MaxmemoryPolicy.VOLATILE_TTL);
+        for (ExpireIndexBackend index : ExpireIndexBackend.values()) {
+            MemoryStorageEngine storage = new MemoryStorageEngine(new BlockingManager(), KeyspaceBackend.REDIS_DICT, index);
+            long now = ServerClock.update();
+            for (int i = 0; i < 500; i++) {
+                storage.put("persistent:" + i, string(100));
+                RedisData<byte[]> data = string(100);
+                data.setExpireAt(now + 60_000 + i * 1000L);
+                storage.put("volatile:" + i, data);
+            }
+            long perKey = storage.getUsedMemory() / 1000;
+            config.setMaxmemory(storage.getUsedMemory() - 100 * perKey);
+
+            assertTrue(storage.performEvictions());
+            for (int i = 0; i < 500; i++) {
+                assertNotNull(storage.peek("persistent:" + i));
+            }
+            // 近似 volatile-ttl：被淘汰的基本都是较早过期的一半
+            int lateEvicted = 0;
+            for (int i = 250; i < 500; i++) {
+                if (storage.peek("volatile:" + i) == null) lateEvicted++;
+            }
+            assertTrue(lateEvicted < 20, index + " lateEvicted=" + lateEvicted);
+
+            // 没有可淘汰的 key 时仍然超出
+            config.setMaxmemory(perKey);
+            assertFalse(storage.performEvictions());
+            assertEquals(0, storage.expiresSize());
+            for (int i = 0; i < 500; i++) {
+                assertNotNull(storage.peek("persistent:" + i));
+            }
+            config.setMaxmemory(0);
+        }
+    }
+
+    @Test
+    void testShardedStorageEvictsEachPartitionToItsShare() {
+        config.setMaxmemoryPolicy(MaxmemoryPolicy.ALLKEYS_RANDOM);
+        ShardedStorageEngine storage = new ShardedStorageEngine(
+                new RedisCoreExecutor[]{new RedisCoreExecutor(), new RedisCoreExecutor()});
+        for (int i = 0; i < 1000; i++) {
+            storage.put("key:" + i, string(100));
+        }
+        long limit = storage.getUsedMemory() / 2;
+        config.setMaxmemory(limit);
+        // 测试线程不是任何分片的线程，视为协调线程
+        assertTrue(storage.performEvictions());
+        assertTrue(storage.getUsedMemory() <= limit);
+        assertEquals(storage.getEvictedKeys(), 1000 - countKeys(storage));
+    }
+
+    private static int countKeys(ShardedStorageEngine storage) {
+        int n = 0;
+        for (String ignored : storage.keys()) n++;
+        return n;
+    }
+
+    /**
+     * noeviction：超出后拒绝 denyoom 命令，读命令与删除照常执行；AOF 重放不受限制
+     */
+    @Test
+    void testNoEvictionRejectsDenyOomCommands() {
+        MemoryStorageEngine storage = new MemoryStorageEngine();
+        ClientRegistry registry = new ClientRegistry();
+        CommandDispatcher dispatcher = new CommandDispatcher(storage, mock(AofManager.class), mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), new WatchManager());
+        RedisContext client = new RedisContext(null);
+
+        assertSame(SimpleString.OK, run(dispatcher, client, "SET", "a", "1"));
+        config.setMaxmemory(1);
+
+        RedisMessage reply = run(dispatcher, client, "SET", "b", "2");
+        assertInstanceOf(ErrorMessage.class, reply);
+        assertTrue(((ErrorMessage) reply).content().startsWith("OOM"));
+        assertEquals("1", ((BulkString) run(dispatcher, client, "GET", "a")).asString());
+        assertNotNull(run(dispatcher, client, "DEL", "a"));
+        assertNull(storage.get("a"));
+
+        RedisContext replay = new RedisContext(null);
+        replay.setLoading(true);
+        assertSame(SimpleString.OK, run(dispatcher, replay, "SET", "b", "2"));
+    }
+
+    private static RedisMessage run(CommandDispatcher dispatcher, RedisContext context, String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), context);
+    }
+
+    @Test
+    void testLfuCounterGrowsLogarithmicallyAndDecays() {
+        long now = ServerClock.update();
+        int lru = AccessClock.lfuInit(now);
+        assertEquals(5, AccessClock.lfuCounter(lru, now, 1));
+        for (int i = 0; i < 100_000; i++) {
+            lru = AccessClock.lfuTouch(lru, now, 10, 1);
+        }
+        int counter = AccessClock.lfuCounter(lru, now, 1);
+        // lfu-log-factor 10：十万次访问约到 100 多，远未饱和
+        assertTrue(counter > 50 && counter < 255, "counter=" + counter);
+        // 每空闲一分钟减 1
+        assertEquals(counter - 30, AccessClock.lfuCounter(lru, now + 30 * 60_000, 1));
+        assertEquals(counter, AccessClock.lfuCounter(lru, now + 30 * 60_000, 0));
+    }
+}
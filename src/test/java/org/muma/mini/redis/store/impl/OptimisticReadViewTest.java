@@ -0,0 +1,118 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.command.impl.string.GetCommand;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.protocol.BulkString;
+import org.muma.mini.redis.protocol.RedisArray;
+import org.muma.mini.redis.protocol.RedisMessage;
+import org.muma.mini.redis.server.ServerClock;
+import org.muma.mini.redis.store.KeyStripeLocks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticReadViewTest {
+
+    private MemoryStorageEngine storage;
+    private OptimisticReadView view;
+
+    @BeforeEach
+    void setUp() {
+        storage = new MemoryStorageEngine();
+        storage.enableOptimisticReads(16);
+        view = new OptimisticReadView(storage);
+    }
+
+    private static RedisArray args(String... args) {
+        RedisMessage[] msgs = new RedisMessage[args.length];
+        for (int i = 0; i < args.length; i++) {
+            msgs[i] = new BulkString(args[i]);
+        }
+        return new RedisArray(msgs);
+    }
+
+    private static RedisData<byte[]> string(String value) {
+        return new RedisData<>(RedisDataType.STRING, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testReadValidatesWithoutConcurrentWrite() {
+        storage.put("k", string("v"));
+
+        RedisMessage response = new GetCommand().execute(view, args("GET", "k"), null);
+        assertEquals("v", ((BulkString) response).asString());
+        assertTrue(view.validate());
+    }
+
+    /**
+     * IO 线程上的读取同样刷新访问时钟，只读的热 key 不会按插入时间被 LRU 淘汰
+     */
+    @Test
+    void testReadUpdatesAccessClock() {
+        storage.put("k", string("v"));
+        RedisData<?> data = storage.peek("k");
+        data.setLru(0);
+
+        new GetCommand().execute(view, args("GET", "k"), null);
+        assertTrue(view.validate());
+        assertEquals(AccessClock.lruClock(ServerClock.now()), data.getLru());
+    }
+
+    /**
+     * 写作用域内访问过的分段在命令结束前一直被锁住：此时读直接回落；
+     * 作用域结束后，之前拿到的 stamp 校验失败
+     */
+    @Test
+    void testWriteScopeInvalidatesRead() throws Exception {
+        storage.put("k", string("v1"));
+        new GetCommand().execute(view, args("GET", "k"), null);
+
+        KeyStripeLocks.beginWrite();
+        try {
+            storage.put("k", string("v2"));
+            // 写锁被当前线程持有，换一个线程模拟 IO 线程
+            CompletableFuture<Boolean> fallback = CompletableFuture.supplyAsync(() -> {
+                OptimisticReadView ioView = new OptimisticReadView(storage);
+                try {
+                    ioView.get("k");
+                    return false;
+                } catch (OptimisticReadView.Fallback e) {
+                    return true;
+                }
+            });
+            assertTrue(fallback.get());
+        } finally {
+            KeyStripeLocks.endWrite();
+        }
+
+        assertFalse(view.validate());
+        view.reset();
+        assertTrue(view.validate());
+    }
+
+    @Test
+    void testWritesFallBack() {
+        assertThrows(OptimisticReadView.Fallback.class, () -> view.put("k", string("v")));
+        assertThrows(OptimisticReadView.Fallback.class, () -> view.remove("k"));
+        assertThrows(OptimisticReadView.Fallback.class, () -> view.keys());
+    }
+
+    /**
+     * 乐观读不做惰性删除：过期 key 读到 null，但仍留给核心线程清理
+     */
+    @Test
+    void testExpiredKeyNotRemovedByRead() {
+        RedisData<byte[]> data = string("v");
+        data.setExpireAt(ServerClock.update() - 1);
+        storage.put("k", data);
+
+        assertNull(view.get("k"));
+        assertTrue(view.validate());
+        assertTrue(storage.keys().iterator().hasNext());
+    }
+}
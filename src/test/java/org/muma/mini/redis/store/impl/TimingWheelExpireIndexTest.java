@@ -0,0 +1,96 @@
+package org.muma.mini.redis.store.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelExpireIndexTest {
+
+    private static final long START = 1_700_000_000_123L;
+
+    /**
+     * 推进到 now，记录每个 key 被回收时的时刻
+     */
+    private static void advance(TimingWheelExpireIndex index, long now, Map<String, Long> reclaimedAt) {
+        index.activeExpire(now, 0, Long.MAX_VALUE, key -> {
+            assertNull(reclaimedAt.put(key, now), "reclaimed twice: " + key);
+            return true;
+        });
+    }
+
+    @Test
+    void testKeysAreReclaimedRightAfterTheirDeadlineOnEveryLevel() {
+        TimingWheelExpireIndex index = new TimingWheelExpireIndex(START);
+        // 毫秒层、秒层、分钟层、小时层，以及超过一天的 key
+        long[] ttls = {5, 999, 1000, 1001, 59_999, 60_000, 61_500, 3_599_999, 3_600_001, 86_399_999, 90_000_000,
+                200_000_000};
+        Map<String, Long> deadlines = new HashMap<>();
+        for (long ttl : ttls) {
+            deadlines.put("k" + ttl, START + ttl);
+            index.put("k" + ttl, START + ttl);
+        }
+        assertEquals(ttls.length, index.size());
+
+        // 以 10ms 为周期推进 (跨越一天以上时跳跃式推进)
+        Map<String, Long> reclaimedAt = new HashMap<>();
+        for (long now = START; now <= START + 200_002_000; now += now - START < 4_000_000 ? 10 : 997) {
+            advance(index, now, reclaimedAt);
+        }
+
+        assertEquals(0, index.size());
+        for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+            long lag = reclaimedAt.get(entry.getKey()) - entry.getValue();
+            assertTrue(lag > 0, entry.getKey() + " reclaimed early");
+            long step = entry.getValue() - START < 4_000_000 ? 10 : 997;
+            assertTrue(lag <= step + 1, entry.getKey() + " lag=" + lag);
+        }
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        TimingWheelExpireIndex index = new TimingWheelExpireIndex(START);
+        index.put("a", START + 100);
+        index.put("b", START + 100);
+        index.put("c", START + 100);
+        index.put("a", START + 5_000); // 延长 TTL
+        index.remove("b");
+
+        Map<String, Long> reclaimedAt = new HashMap<>();
+        advance(index, START + 200, reclaimedAt);
+        assertEquals(Map.of("c", START + 200), reclaimedAt);
+        assertEquals(1, index.size());
+
+        advance(index, START + 5_001, reclaimedAt);
+        assertEquals(START + 5_001, reclaimedAt.get("a"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testManyKeysInATightWindowAndTimeBudget() {
+        TimingWheelExpireIndex index = new TimingWheelExpireIndex(START);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            index.put("s" + i, START + 30_000 + random.nextInt(1000));
+        }
+        // 截止时间已过：每次只处理一小批，剩下的留在槽里
+        List<String> first = new ArrayList<>();
+        index.activeExpire(START + 40_000, 0, 0, first::add);
+        assertTrue(first.size() < 100_000);
+        assertEquals(100_000 - first.size(), index.size());
+
+        Map<String, Long> reclaimedAt = new HashMap<>();
+        advance(index, START + 40_000, reclaimedAt);
+        assertEquals(100_000, first.size() + reclaimedAt.size());
+        assertEquals(0, index.size());
+
+        index.put("late", START + 39_000); // 已经过期的 key 下一步就回收
+        advance(index, START + 40_002, reclaimedAt);
+        assertTrue(reclaimedAt.containsKey("late"));
+    }
+}
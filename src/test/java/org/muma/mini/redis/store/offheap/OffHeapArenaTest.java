@@ -0,0 +1,235 @@
+package org.muma.mini.redis.store.offheap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.muma.mini.redis.aof.AofManager;
+import org.muma.mini.redis.aof.AofRewriter;
+import org.muma.mini.redis.command.CommandDispatcher;
+import org.muma.mini.redis.common.RedisData;
+import org.muma.mini.redis.common.RedisDataType;
+import org.muma.mini.redis.config.MiniRedisConfig;
+import org.muma.mini.redis.protocol.*;
+import org.muma.mini.redis.rdb.RdbLoader;
+import org.muma.mini.redis.rdb.RdbManager;
+import org.muma.mini.redis.rdb.RdbSaver;
+import org.muma.mini.redis.replication.ReplicationManager;
+import org.muma.mini.redis.server.ClientRegistry;
+import org.muma.mini.redis.server.RedisContext;
+import org.muma.mini.redis.server.TrackingManager;
+import org.muma.mini.redis.server.WatchManager;
+import org.muma.mini.redis.store.Databases;
+import org.muma.mini.redis.store.impl.MemoryStorageEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OffHeapArenaTest {
+
+    private Databases databases;
+    private CommandDispatcher dispatcher;
+    private final RedisContext client = new RedisContext(null);
+
+    @BeforeEach
+    void setUp() {
+        MiniRedisConfig.getInstance().setOffheapValueThreshold(1024);
+        WatchManager watchManager = new WatchManager();
+        databases = new Databases(new MemoryStorageEngine[]{new MemoryStorageEngine(), new MemoryStorageEngine()});
+        ClientRegistry registry = new ClientRegistry();
+        dispatcher = new CommandDispatcher(databases, mock(AofManager.class), mock(ReplicationManager.class),
+                mock(RdbManager.class), registry, new TrackingManager(registry), watchManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MiniRedisConfig.getInstance().setOffheapValueThreshold(0);
+    }
+
+    private RedisMessage run(String... parts) {
+        RedisMessage[] elements = new RedisMessage[parts.length];
+        for (int i = 0; i < parts.length; i++) elements[i] = new BulkString(parts[i]);
+        return dispatcher.dispatch(new RedisArray(elements), client);
+    }
+
+    private static String encode(RedisMessage message) {
+        ByteBuf out = Unpooled.buffer();
+        RespEncoder.write(out, message);
+        assertEquals(RespEncoder.sizeOf(message), out.readableBytes());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSizeClasses() {
+        OffHeapArena arena = new OffHeapArena();
+        assertEquals(1024, arena.classFor(1).chunkSize);
+        assertEquals(1024, arena.classFor(1024).chunkSize);
+        assertEquals(1280, arena.classFor(1025).chunkSize);
+        assertEquals(2048, arena.classFor(1800).chunkSize);
+        assertEquals(OffHeapArena.MAX_CHUNK, arena.classFor(OffHeapArena.MAX_CHUNK).chunkSize);
+        assertNull(arena.classFor(OffHeapArena.MAX_CHUNK + 1));
+
+        // 相邻两级的浪费不超过 25%
+        for (int size = OffHeapArena.MIN_CHUNK; size < OffHeapArena.MAX_CHUNK; size++) {
+            int chunk = arena.classFor(size).chunkSize;
+            assertTrue(chunk < size * 1.25 + OffHeapArena.MIN_CHUNK, "size " + size);
+        }
+    }
+
+    @Test
+    void testFreedChunksAreReused() {
+        OffHeapArena arena = new OffHeapArena();
+        byte[] value = new byte[3000];
+        Arrays.fill(value, (byte) 'x');
+
+        OffHeapValue first = arena.allocate(value);
+        OffHeapArena.SizeClass sizeClass = arena.classFor(value.length);
+        long reserved = arena.getReservedBytes();
+        int free = sizeClass.freeChunks();
+        assertEquals(sizeClass.chunkSize, arena.getUsedBytes());
+        assertEquals(1, arena.getLiveValues());
+
+        assertTrue(first.release());
+        assertEquals(free + 1, sizeClass.freeChunks());
+        assertEquals(0, arena.getUsedBytes());
+        assertEquals(0, arena.getLiveValues());
+
+        OffHeapValue second = arena.allocate(value);
+        assertEquals(free, sizeClass.freeChunks());
+        assertEquals(reserved, arena.getReservedBytes());
+        assertArrayEquals(value, second.copyToHeap());
+
+        // 超过最大一级的值单独分配，释放后不进入空闲链表
+        OffHeapValue huge = arena.allocate(new byte[OffHeapArena.MAX_CHUNK + 1]);
+        assertEquals(reserved + OffHeapArena.MAX_CHUNK + 1, arena.getReservedBytes());
+        huge.release();
+        assertEquals(reserved, arena.getReservedBytes());
+    }
+
+    @Test
+    void testReleasedValueCannotBeRetained() {
+        OffHeapValue value = new OffHeapArena().allocate(new byte[2000]);
+        assertTrue(value.tryRetain());
+        assertFalse(value.release());
+        assertNotNull(value.copyToHeap());
+
+        assertTrue(value.release());
+        assertFalse(value.tryRetain());
+        assertNull(value.copyToHeap());
+        assertThrows(RuntimeException.class, value::retain);
+    }
+
+    @Test
+    void testGetEncodesStraightFromOffHeap() {
+        String big = "v".repeat(2000);
+        assertEquals(SimpleString.OK, run("SET", "big", big));
+        run("SET", "small", "hello");
+        assertInstanceOf(OffHeapValue.class, databases.get(0).get("big").getData());
+        assertInstanceOf(byte[].class, databases.get(0).get("small").getData());
+
+        OffHeapValue value = (OffHeapValue) databases.get(0).get("big").getData();
+        RedisMessage reply = run("GET", "big");
+        assertInstanceOf(DirectBulkString.class, reply);
+        assertEquals(2, value.refCnt());
+        assertEquals("$2000\r\n" + big + "\r\n", encode(reply));
+        // 写出后回包的引用已释放
+        assertEquals(1, value.refCnt());
+
+        assertEquals(RedisInteger.of(2000), run("STRLEN", "big"));
+        // APPEND 这类原地修改的路径结果留在堆上，旧的 chunk 归还
+        assertEquals(RedisInteger.of(2001), run("APPEND", "big", "!"));
+        assertEquals(0, value.refCnt());
+        assertEquals(big + "!", ((BulkString) run("GET", "big")).asString());
+
+        run("SET", "big", big);
+        OffHeapValue replaced = (OffHeapValue) databases.get(0).get("big").getData();
+        run("DEL", "big");
+        assertEquals(0, replaced.refCnt());
+    }
+
+    @Test
+    void testMoveKeepsValueAlive() {
+        run("SET", "big", "m".repeat(5000));
+        OffHeapValue value = (OffHeapValue) databases.get(0).get("big").getData();
+
+        assertEquals(RedisInteger.of(1), run("MOVE", "big", "1"));
+        assertEquals(1, value.refCnt());
+        assertSame(value, databases.get(1).get("big").getData());
+
+        databases.get(1).put("big", databases.get(1).get("big"));
+        assertEquals(1, value.refCnt());
+        run("FLUSHALL", "SYNC");
+        assertEquals(0, value.refCnt());
+    }
+
+    /**
+     * FLUSHALL ASYNC 摘下的旧表由后台线程显式释放堆外值，不等 GC；释放完之前仍计入 used_memory
+     */
+    @Test
+    void testFlushAllAsyncReleasesOffHeapValues() throws InterruptedException {
+        OffHeapArena arena = OffHeapArena.getInstance();
+        long usedBefore = arena.getUsedBytes();
+        run("SET", "a", "a".repeat(3000));
+        run("SELECT", "1");
+        run("SET", "b", "b".repeat(5000));
+        OffHeapValue a = (OffHeapValue) databases.get(0).get("a").getData();
+        OffHeapValue b = (OffHeapValue) databases.get(1).get("b").getData();
+        assertTrue(arena.getUsedBytes() > usedBefore);
+
+        assertEquals(SimpleString.OK, run("FLUSHALL", "ASYNC"));
+        assertEquals(0, databases.get(0).size());
+        for (int i = 0; i < 500 && (b.refCnt() > 0 || databases.get(1).getUsedMemory() > 0); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, a.refCnt());
+        assertEquals(0, b.refCnt());
+        // 其他测试泄漏的句柄可能同时被 Cleaner 归还
+        assertTrue(arena.getUsedBytes() <= usedBefore);
+        assertEquals(0, databases.get(0).getUsedMemory());
+        assertEquals(0, databases.get(1).getUsedMemory());
+    }
+
+    /**
+     * 快照遍历拿到条目后值被覆盖 (旧 chunk 已归还)：BGSAVE / AOF 重写改为写入 key 的当前值，不丢 key
+     */
+    @Test
+    void testSnapshotRereadsOverwrittenValue() throws IOException {
+        String replacement = "n".repeat(3000);
+        MemoryStorageEngine storage = new MemoryStorageEngine() {
+            @Override
+            public void forEachEntry(BiConsumer<String, RedisData<?>> consumer) {
+                super.forEachEntry((key, data) -> {
+                    put(key, new RedisData<>(RedisDataType.STRING, OffHeapArena.getInstance()
+                            .allocate(replacement.getBytes(StandardCharsets.UTF_8))));
+                    consumer.accept(key, data);
+                });
+            }
+        };
+        storage.put("big", new RedisData<>(RedisDataType.STRING,
+                OffHeapArena.getInstance().allocate(new byte[2000])));
+        Databases source = new Databases(storage);
+
+        File rdb = new File("target/offheap_snapshot_test.rdb");
+        File aof = new File("target/offheap_snapshot_test.aof");
+        try {
+            new RdbSaver(source).save(rdb);
+            Databases restored = new Databases(new MemoryStorageEngine());
+            new RdbLoader(restored).load(rdb);
+            assertArrayEquals(replacement.getBytes(StandardCharsets.UTF_8), restored.get(0).get("big").tryGetBytes());
+
+            new AofRewriter(source).rewrite(aof);
+            assertTrue(Files.readString(aof.toPath()).contains(replacement));
+        } finally {
+            rdb.delete();
+            aof.delete();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -104,6 +106,28 @@ class RedisDictTest {
         // 风险在于：如果正在搬运同一个 bucket... 但我们的 rehashStep 是原子性的单线程操作，所以没问题。
     }
 
+    /**
+     * 游标遍历：遍历过程中发生扩容，开始前已存在的元素仍然全部返回，且不会无限循环
+     */
+    @Test
+    void testScanCoversAllKeysAcrossRehash() {
+        for (int i = 0; i < 100; i++) dict.put("k" + i, "v");
+
+        Set<String> seen = new HashSet<>();
+        long cursor = 0;
+        int calls = 0;
+        do {
+            cursor = dict.scan(cursor, (k, v) -> seen.add(k));
+            // 遍历中途继续写入，触发扩容和渐进式迁移
+            if (calls++ < 200) dict.put("new" + calls, "v");
+        } while (cursor != 0);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(seen.contains("k" + i), "missing k" + i);
+        }
+        assertEquals(0, new RedisDict<String, String>().scan(0, (k, v) -> fail()));
+    }
+
     // --- 反射辅助方法 ---
 
     private boolean isRehashing(RedisDict<?, ?> dict) throws Exception {
@@ -118,4 +142,33 @@ class RedisDictTest {
         field.setAccessible(true);
         return (Object[]) field.get(dict);
     }
+
+    @Test
+    public void testSampleAndShrink() {
+        RedisDict<String, Integer> dict = new RedisDict<>();
+        for (int i = 0; i < 10000; i++) {
+            dict.put("key:" + i, i);
+        }
+        Set<String> sampled = new HashSet<>();
+        int visited = dict.sample(20, (key, value) -> {
+            assertEquals("key:" + value, key);
+            sampled.add(key);
+        });
+        assertEquals(20, visited);
+        assertTrue(sampled.size() > 10); // 随机取样可能重复
+
+        // 删到只剩很少的元素后缩容，取样与查找仍然正确
+        for (int i = 0; i < 9990; i++) {
+            dict.remove("key:" + i);
+        }
+        for (int i = 0; i < 100; i++) dict.get("key:9999"); // 推进缩容的 rehash
+        Set<String> rest = new HashSet<>();
+        dict.sample(100, (key, value) -> rest.add(key));
+        assertFalse(rest.isEmpty());
+        assertTrue(rest.size() <= 10);
+        for (int i = 9990; i < 10000; i++) {
+            assertEquals(i, dict.get("key:" + i));
+        }
+        assertEquals(10, dict.size());
+    }
 }